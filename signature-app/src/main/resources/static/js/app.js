@@ -138,39 +138,15 @@ sendBtn.addEventListener('click', async () => {
     return;
   }
 
-  const metadata = sign.getStrokeData();
-  const canvas = document.getElementById('canvas');
-  const bgCanvas = document.getElementById('canvasBg');
-
-  // 合成用の一時キャンバスを作成
-  const tempCanvas = document.createElement('canvas');
-  tempCanvas.width = canvas.width;
-  tempCanvas.height = canvas.height;
-  const tempCtx = tempCanvas.getContext('2d');
-
-  if (!tempCtx) {
-    statusEl.textContent = 'エラー: Canvasコンテキストの取得に失敗しました';
-    statusEl.style.color = '#ef4444';
-    return;
-  }
-
-  // 背景を描画
-  tempCtx.drawImage(bgCanvas, 0, 0);
-  // 署名を描画
-  tempCtx.drawImage(canvas, 0, 0);
-
-  const dataUrl = tempCanvas.toDataURL('image/png');
-
-  const body = {
-    mime: 'image/png',
-    data: dataUrl,
-    metadata,
+  // 画像ではなくストローク座標を送信し、サーバー側で出力サイズに直接描画する
+  const body = JSON.stringify({
+    strokeData: sign.toStrokePayload(),
     options: {
       outputFormat: 'png',
       backgroundColor: '#FFFFFF',
       trimTransparent: true
     }
-  };
+  });
 
   const maxRetries = 3;
   let attempt = 0;
@@ -187,7 +163,7 @@ sendBtn.addEventListener('click', async () => {
       const response = await fetch('/api/signatures', {
         method: 'POST',
         headers: { 'Content-Type': 'application/json' },
-        body: JSON.stringify(body),
+        body,
         signal: controller.signal
       });
 
@@ -113,6 +113,24 @@ class Signature {
     };
   }
 
+  // Public API: Get strokes in the compact form accepted by the API's strokeData field
+  toStrokePayload() {
+    const round = (value) => Math.round(value * 100) / 100;
+    const first = this._strokes.find((stroke) => stroke.points.length);
+    const start = first ? first.points[0].time : 0;
+    return {
+      width: this._canvas.width,
+      height: this._canvas.height,
+      strokes: this._strokes.map((stroke) => {
+        const points = [];
+        for (const pt of stroke.points) {
+          points.push(round(pt.x), round(pt.y), round(pt.pressure || 0), pt.time - start);
+        }
+        return { color: stroke.color, thickness: stroke.thickness, points };
+      })
+    };
+  }
+
   // Public API: Clear the canvas
   clearCanvas(reason = 'user') {
     this._ctx.clearRect(0, 0, this._canvas.width, this._canvas.height);
@@ -202,6 +220,7 @@ class Signature {
       points: stroke.points.map((pt) => ({
         x: pt.x * scaleX,
         y: pt.y * scaleY,
+        pressure: pt.pressure,
         time: pt.time
       }))
     }));
@@ -266,7 +285,8 @@ class Signature {
     const rect = this._canvas.getBoundingClientRect();
     const x = event.clientX - rect.left;
     const y = event.clientY - rect.top;
-    const point = { x, y, time: Date.now() };
+    const pressure = typeof event.pressure === 'number' ? event.pressure : 0;
+    const point = { x, y, pressure, time: Date.now() };
     this._activeStroke.points.push(point);
     const points = this._activeStroke.points;
     this._ctx.strokeStyle = this._activeStroke.color;
@@ -0,0 +1,23 @@
+package com.example.signature.core.service;
+
+public enum CanvasSize {
+    SMALL(600, 300),
+    MEDIUM(1200, 600),
+    LARGE(2000, 800);
+
+    private final int width;
+    private final int height;
+
+    CanvasSize(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    int width() {
+        return width;
+    }
+
+    int height() {
+        return height;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.signature.core.service;
+
+import com.example.signature.core.config.SignatureConfig;
+import com.example.signature.core.model.ConversionResult;
+import com.example.signature.core.model.SignatureOptions;
+import com.example.signature.core.model.SignatureRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ConversionBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private CanvasSize canvas;
+
+    @Param({"SPARSE", "DENSE"})
+    private StrokeDensity density;
+
+    @Param({"png", "jpeg", "webp", "svg"})
+    private String outputFormat;
+
+    @Param({"0", "300"})
+    private int targetWidth;
+
+    private SignatureConversionService service;
+    private SignatureRequest request;
+    private SignatureRequest strokeRequest;
+
+    @Setup
+    public void setup() {
+        service = new SignatureConversionService(new SignatureConfig(16_000_000));
+        String dataUrl = SignatureFixtures.dataUrl(SignatureFixtures.png(SignatureFixtures.canvasCapture(canvas, density)));
+        SignatureOptions options = new SignatureOptions(outputFormat, "#FFFFFF", true,
+                targetWidth > 0 ? targetWidth : null, null);
+        request = new SignatureRequest("image/png", dataUrl, null, options);
+        strokeRequest = SignatureRequest.ofStrokes(SignatureFixtures.strokeCapture(canvas, density), null, options);
+    }
+
+    @Benchmark
+    public ConversionResult convert() {
+        return service.convert(request);
+    }
+
+    /** The same signature sent as strokes instead of a canvas PNG. */
+    @Benchmark
+    public ConversionResult convertStrokes() {
+        return service.convert(strokeRequest);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.signature.core.service;
+
+import com.example.signature.core.model.Stroke;
+import com.example.signature.core.model.StrokeData;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+final class SignatureFixtures {
+    private static final long SEED = 20251207L;
+
+    private SignatureFixtures() {
+    }
+
+    /** The random-walk signature used by every benchmark, as the client captured it. */
+    static StrokeData strokeCapture(CanvasSize size, StrokeDensity density) {
+        Random random = new Random(SEED);
+        // Signatures rarely touch the canvas edges; leave a margin so trimming has work to do.
+        double marginX = size.width() * 0.12;
+        double marginY = size.height() * 0.2;
+        double spanX = size.width() - 2 * marginX;
+        double spanY = size.height() - 2 * marginY;
+        List<Stroke> strokes = new ArrayList<Stroke>(density.strokes());
+        for (int s = 0; s < density.strokes(); s++) {
+            float[] points = new float[(density.pointsPerStroke() + 1) * Stroke.STRIDE];
+            double x = marginX + random.nextDouble() * spanX * 0.3 + spanX * 0.7 * s / density.strokes();
+            double y = marginY + random.nextDouble() * spanY;
+            double heading = random.nextDouble() * Math.PI * 2;
+            double step = Math.max(2.0, spanX / (density.pointsPerStroke() * 1.5));
+            setPoint(points, 0, x, y, s * 400);
+            for (int p = 1; p <= density.pointsPerStroke(); p++) {
+                heading += (random.nextDouble() - 0.5) * 0.9;
+                x = clamp(x + Math.cos(heading) * step, marginX, marginX + spanX);
+                y = clamp(y + Math.sin(heading) * step, marginY, marginY + spanY);
+                setPoint(points, p, x, y, s * 400 + p * 8);
+            }
+            strokes.add(new Stroke("#000000", 2.5f, points));
+        }
+        return new StrokeData(size.width(), size.height(), strokes);
+    }
+
+    /** The same signature rendered the way a browser canvas would export it. */
+    static BufferedImage canvasCapture(CanvasSize size, StrokeDensity density) {
+        BufferedImage canvas = new BufferedImage(size.width(), size.height(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = canvas.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            g2d.setColor(Color.BLACK);
+            g2d.setStroke(new BasicStroke(2.5f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            for (Stroke stroke : strokeCapture(size, density).getStrokes()) {
+                float[] points = stroke.getPoints();
+                Path2D.Double path = new Path2D.Double();
+                path.moveTo(points[0], points[1]);
+                for (int i = Stroke.STRIDE; i < points.length; i += Stroke.STRIDE) {
+                    path.lineTo(points[i], points[i + 1]);
+                }
+                g2d.draw(path);
+            }
+        } finally {
+            g2d.dispose();
+        }
+        return canvas;
+    }
+
+    static byte[] png(BufferedImage image) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", baos);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return baos.toByteArray();
+    }
+
+    static String dataUrl(byte[] png) {
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(png);
+    }
+
+    private static void setPoint(float[] points, int index, double x, double y, int millis) {
+        int offset = index * Stroke.STRIDE;
+        points[offset] = (float) x;
+        points[offset + 1] = (float) y;
+        points[offset + 3] = millis;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
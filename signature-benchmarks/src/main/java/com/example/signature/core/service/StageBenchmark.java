@@ -0,0 +1,136 @@
+package com.example.signature.core.service;
+
+import com.example.signature.core.config.SignatureConfig;
+import com.example.signature.core.io.EncodedImageOutputStream;
+import com.example.signature.core.model.StrokeData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class StageBenchmark {
+    private static final int THUMBNAIL_WIDTH = 300;
+    // Small enough that every canvas but SMALL is decoded subsampled.
+    private static final int ICON_WIDTH = 100;
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private CanvasSize canvas;
+
+    @Param({"SPARSE", "DENSE"})
+    private StrokeDensity density;
+
+    private SignatureConversionService service;
+    private String dataUrl;
+    private byte[] png;
+    private BufferedImage decoded;
+    private Rectangle bounds;
+    private BufferedImage trimmed;
+    private BufferedImage opaque;
+    private StrokeData strokes;
+    private Dimension iconSize;
+
+    @Setup
+    public void setup() {
+        service = new SignatureConversionService(new SignatureConfig(16_000_000));
+        png = SignatureFixtures.png(SignatureFixtures.canvasCapture(canvas, density));
+        dataUrl = SignatureFixtures.dataUrl(png);
+        // Stage inputs are produced by the real preceding stages so image types match production.
+        decoded = service.readImage(png);
+        bounds = service.findContentBounds(decoded);
+        trimmed = service.trimTransparentPixels(decoded);
+        opaque = service.applyBackground(trimmed, "#FFFFFF", "jpeg");
+        strokes = SignatureFixtures.strokeCapture(canvas, density);
+        iconSize = new Dimension(ICON_WIDTH, (int) Math.round((double) ICON_WIDTH * decoded.getHeight() / decoded.getWidth()));
+    }
+
+    @Benchmark
+    public byte[] decodePayload() {
+        return service.decodePayload(dataUrl);
+    }
+
+    // Images leased from the pool go back once consumed, as convert() does, so each iteration
+    // measures the pooled path rather than a fresh allocation.
+    @Benchmark
+    public void readImage(Blackhole blackhole) {
+        consume(blackhole, service.readImage(png), null);
+    }
+
+    @Benchmark
+    public void readImageForIcon(Blackhole blackhole) {
+        consume(blackhole, service.readImage(png, iconSize), null);
+    }
+
+    @Benchmark
+    public BufferedImage trimTransparentPixels() {
+        return service.trimTransparentPixels(decoded);
+    }
+
+    @Benchmark
+    public void resizeImage(Blackhole blackhole) {
+        consume(blackhole, service.resizeImage(trimmed, THUMBNAIL_WIDTH, null), trimmed);
+    }
+
+    @Benchmark
+    public void applyBackgroundPng(Blackhole blackhole) {
+        consume(blackhole, service.applyBackground(trimmed, "#FFFFFF", "png"), trimmed);
+    }
+
+    @Benchmark
+    public void applyBackgroundJpeg(Blackhole blackhole) {
+        consume(blackhole, service.applyBackground(trimmed, "#FFFFFF", "jpeg"), trimmed);
+    }
+
+    /** Trim, resize and background of a JPEG thumbnail fused into one pass, as {@code convert()} runs them. */
+    @Benchmark
+    public void renderJpeg(Blackhole blackhole) {
+        consume(blackhole, service.render(decoded, bounds, THUMBNAIL_WIDTH, null, "#FFFFFF", "jpeg"), decoded);
+    }
+
+    /** The same thumbnail rasterized from strokes; compare with {@code readImage} + {@code renderJpeg}. */
+    @Benchmark
+    public void renderStrokes(Blackhole blackhole) {
+        consume(blackhole, service.renderStrokes(strokes, null, THUMBNAIL_WIDTH, null, "#FFFFFF"), null);
+    }
+
+    @Benchmark
+    public EncodedImageOutputStream writeImagePng() {
+        return service.writeImage(trimmed, "png");
+    }
+
+    @Benchmark
+    public EncodedImageOutputStream writeImageJpeg() {
+        return service.writeImage(opaque, "jpeg");
+    }
+
+    @Benchmark
+    public EncodedImageOutputStream writeImageWebp() {
+        return service.writeImage(trimmed, "webp");
+    }
+
+    // A stage may hand back its input unchanged; that image belongs to the benchmark state.
+    private void consume(Blackhole blackhole, BufferedImage image, BufferedImage input) {
+        blackhole.consume(image);
+        if (image != input) {
+            service.getBufferPool().release(image);
+        }
+    }
+}
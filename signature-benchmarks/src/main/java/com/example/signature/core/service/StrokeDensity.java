@@ -0,0 +1,22 @@
+package com.example.signature.core.service;
+
+public enum StrokeDensity {
+    SPARSE(3, 40),
+    DENSE(24, 120);
+
+    private final int strokes;
+    private final int pointsPerStroke;
+
+    StrokeDensity(int strokes, int pointsPerStroke) {
+        this.strokes = strokes;
+        this.pointsPerStroke = pointsPerStroke;
+    }
+
+    int strokes() {
+        return strokes;
+    }
+
+    int pointsPerStroke() {
+        return pointsPerStroke;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.signature.core.cache;
+
+import com.example.signature.core.model.ConversionResult;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of conversion results keyed by the SHA-256 of the decoded input bytes and the
+ * normalized options. Eviction is least-recently-used, weighted by encoded image size, so the
+ * cache never holds more than {@code maxBytes} of image data.
+ */
+public final class ConversionCache {
+    // Rough per-entry cost of the key, the map node and the result object.
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<Key, ConversionResult> entries = new LinkedHashMap<Key, ConversionResult>(64, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long currentBytes;
+
+    public ConversionCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache budget must be positive");
+        }
+        this.maxBytes = maxBytes;
+        // One oversized result should not be able to flush everything else.
+        this.maxEntryBytes = Math.max(maxBytes / 8, 1);
+    }
+
+    /**
+     * Builds the lookup key for {@code payload} converted with the given normalized options.
+     *
+     * @param encoderSettings the settings of the target format's encoder that change its output,
+     *                        in a canonical form
+     */
+    public static Key key(byte[] payload, String format, String backgroundColor, boolean trim,
+                          Integer width, Integer height, String encoderSettings) {
+        MessageDigest digest = sha256();
+        digest.update(payload);
+        String options = format + '|' + backgroundColor + '|' + trim + '|' + width + '|' + height + '|' + encoderSettings;
+        digest.update(options.getBytes(StandardCharsets.UTF_8));
+        return new Key(digest.digest());
+    }
+
+    public ConversionResult get(Key key) {
+        ConversionResult result;
+        synchronized (this) {
+            result = entries.get(key);
+        }
+        (result != null ? hits : misses).incrementAndGet();
+        return result;
+    }
+
+    public void put(Key key, ConversionResult result) {
+        long weight = weigh(result);
+        if (weight > maxEntryBytes) {
+            return;
+        }
+        synchronized (this) {
+            ConversionResult previous = entries.put(key, result);
+            currentBytes += weight;
+            if (previous != null) {
+                currentBytes -= weigh(previous);
+            }
+            Iterator<Map.Entry<Key, ConversionResult>> eldest = entries.entrySet().iterator();
+            while (currentBytes > maxBytes && eldest.hasNext()) {
+                currentBytes -= weigh(eldest.next().getValue());
+                eldest.remove();
+            }
+        }
+    }
+
+    public synchronized void invalidate(Key key) {
+        ConversionResult removed = entries.remove(key);
+        if (removed != null) {
+            currentBytes -= weigh(removed);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weightedSize() {
+        return currentBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+
+    public long missCount() {
+        return misses.get();
+    }
+
+    private static long weigh(ConversionResult result) {
+        return result.sizeBytes() + ENTRY_OVERHEAD;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    public static final class Key {
+        private final byte[] digest;
+        private final int hash;
+
+        private Key(byte[] digest) {
+            this.digest = digest;
+            this.hash = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            return Arrays.equals(digest, ((Key) o).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.signature.core.codec;
+
+import com.example.signature.core.pool.BufferPool;
+import com.example.signature.core.pool.ImageIoPool;
+
+/**
+ * Shared resources of the conversion service that encoders may borrow from.
+ */
+public final class EncoderContext {
+    private final BufferPool bufferPool;
+    private final ImageIoPool codecPool;
+
+    public EncoderContext(BufferPool bufferPool, ImageIoPool codecPool) {
+        this.bufferPool = bufferPool;
+        this.codecPool = codecPool;
+    }
+
+    /** Pool for scratch pixel and byte arrays; leased arrays must be released before returning. */
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /** Pool of ImageIO readers and writers. */
+    public ImageIoPool getCodecPool() {
+        return codecPool;
+    }
+}
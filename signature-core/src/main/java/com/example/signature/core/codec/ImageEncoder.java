@@ -0,0 +1,47 @@
+package com.example.signature.core.codec;
+
+import com.example.signature.core.io.EncodedImageOutputStream;
+import com.example.signature.core.model.SignatureOptions;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * A raster output format. Implementations are found with {@link java.util.ServiceLoader}: list
+ * the class in {@code META-INF/services/com.example.signature.core.codec.ImageEncoder} of any jar
+ * on the class path and its format becomes a valid {@code outputFormat}, without changes to the
+ * conversion service.
+ * <p>
+ * Implementations need a public no-argument constructor and must be thread-safe; one instance
+ * serves all conversions. Per-request resources come from the {@link EncoderContext}.
+ */
+public interface ImageEncoder {
+
+    /** Lower-case name the format is requested and reported by, for example {@code "png"}. */
+    String getFormat();
+
+    /** Further lower-case names that select this encoder, for example {@code "jpg"}. */
+    List<String> getAliases();
+
+    /** Media type of the encoded output. */
+    String getContentType();
+
+    /**
+     * Whether the format can store transparency. Images are flattened onto the background colour
+     * before being handed to an encoder that cannot.
+     */
+    boolean supportsTransparency();
+
+    /**
+     * The options this encoder reads, in a canonical form, so that requests which differ only in
+     * settings of another format share a cache entry.
+     */
+    String settingsKey(SignatureOptions options);
+
+    /**
+     * Encodes {@code image}.
+     *
+     * @throws IllegalArgumentException when an option is out of range for this format
+     */
+    EncodedImageOutputStream encode(BufferedImage image, SignatureOptions options, EncoderContext context);
+}
@@ -0,0 +1,54 @@
+package com.example.signature.core.codec;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * The {@link ImageEncoder}s available for output, by format name and alias. When two encoders
+ * claim the same name the first one found keeps it, so the built-in encoders cannot be
+ * replaced by accident through the class path.
+ */
+public final class ImageEncoders {
+    private final Map<String, ImageEncoder> byName;
+    private final Set<String> formats;
+
+    public ImageEncoders(Iterable<? extends ImageEncoder> encoders) {
+        Map<String, ImageEncoder> names = new LinkedHashMap<String, ImageEncoder>();
+        Map<String, ImageEncoder> canonical = new LinkedHashMap<String, ImageEncoder>();
+        for (ImageEncoder encoder : encoders) {
+            String format = encoder.getFormat().toLowerCase(Locale.US);
+            if (names.containsKey(format)) {
+                continue;
+            }
+            names.put(format, encoder);
+            canonical.put(format, encoder);
+            for (String alias : encoder.getAliases()) {
+                String name = alias.toLowerCase(Locale.US);
+                if (!names.containsKey(name)) {
+                    names.put(name, encoder);
+                }
+            }
+        }
+        this.byName = names;
+        this.formats = Collections.unmodifiableSet(canonical.keySet());
+    }
+
+    /** Every encoder registered through {@link ServiceLoader} that {@code classLoader} can see. */
+    public static ImageEncoders load(ClassLoader classLoader) {
+        return new ImageEncoders(ServiceLoader.load(ImageEncoder.class, classLoader));
+    }
+
+    /** The encoder for a format name or alias, ignoring case; {@code null} when there is none. */
+    public ImageEncoder find(String name) {
+        return name != null ? byName.get(name.toLowerCase(Locale.US)) : null;
+    }
+
+    /** Canonical names of all available formats, in discovery order. */
+    public Set<String> getFormats() {
+        return formats;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.signature.core.codec;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+/** Row access as straight ARGB, directly from the array for the images the service produces. */
+abstract class Rows {
+    abstract void read(int y, int[] argb);
+
+    static Rows of(final BufferedImage image) {
+        final int width = image.getWidth();
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        if (buffer instanceof DataBufferInt && buffer.getNumBanks() == 1
+                && image.getRaster().getSampleModel() instanceof SinglePixelPackedSampleModel
+                && image.getColorModel() instanceof DirectColorModel
+                && !image.getColorModel().isAlphaPremultiplied()
+                && image.getRaster().getParent() == null) {
+            DirectColorModel model = (DirectColorModel) image.getColorModel();
+            SinglePixelPackedSampleModel sampleModel = (SinglePixelPackedSampleModel) image.getRaster().getSampleModel();
+            boolean argbMasks = model.getRedMask() == 0x00ff0000 && model.getGreenMask() == 0x0000ff00
+                    && model.getBlueMask() == 0x000000ff;
+            if (argbMasks && (!model.hasAlpha() || model.getAlphaMask() == 0xff000000)) {
+                final int[] data = ((DataBufferInt) buffer).getData();
+                final int offset = buffer.getOffset();
+                final int stride = sampleModel.getScanlineStride();
+                final int opaque = model.hasAlpha() ? 0 : 0xff000000;
+                return new Rows() {
+                    @Override
+                    void read(int y, int[] argb) {
+                        int start = offset + y * stride;
+                        for (int x = 0; x < width; x++) {
+                            argb[x] = data[start + x] | opaque;
+                        }
+                    }
+                };
+            }
+        }
+        return new Rows() {
+            @Override
+            void read(int y, int[] argb) {
+                image.getRGB(0, y, width, 1, argb, 0, width);
+            }
+        };
+    }
+}
@@ -0,0 +1,1026 @@
+package com.example.signature.core.codec;
+
+import com.example.signature.core.io.EncodedImageOutputStream;
+import com.example.signature.core.model.SignatureOptions;
+import com.example.signature.core.pool.BufferPool;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lossless WebP (VP8L) writer in plain Java.
+ * <p>
+ * Images with at most 256 colours, which covers anti-aliased ink of a single colour on a plain
+ * background, are written through the colour-indexing transform, with up to eight pixels packed
+ * into one when the palette is small. Other images have green subtracted from red and blue and go
+ * through the predictor transform, with the predictor chosen per 16x16 block by the size of the
+ * residuals. The result is coded with LZ77 backward references to the pixel to the left or the
+ * one above, a colour cache whose size is picked by estimated output size, and one set of Huffman
+ * codes for the whole image.
+ * <p>
+ * The output is lossless at every compression level (0-9). Level 0 uses neither the colour cache
+ * nor lazy matching; from level 4 on matches are deferred when a longer one follows, and more
+ * predictors are tried at 4 and again at 7. Fully transparent pixels are all written as
+ * transparent black, as their colour cannot be seen. Instances are stateless and can be shared
+ * by all conversion threads.
+ */
+public final class WebpEncoder implements ImageEncoder {
+    /** Largest width or height VP8L can describe. */
+    public static final int MAX_DIMENSION = 16384;
+
+    private static final int MAX_PALETTE = 256;
+    private static final int NUM_LENGTH_CODES = 24;
+    private static final int NUM_DISTANCE_CODES = 40;
+    private static final int MAX_COLOR_CACHE_BITS = 10;
+    private static final int MAX_CODE_LENGTH = 15;
+    private static final int MAX_LENGTH_CODE_LENGTH = 7;
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_MATCH = 4096;
+    private static final int PREDICTOR_BITS = 4;
+
+    private static final int PREDICTOR_TRANSFORM = 0;
+    private static final int SUBTRACT_GREEN = 2;
+    private static final int COLOR_INDEXING = 3;
+
+    private static final int[] CODE_LENGTH_ORDER = {17, 18, 0, 1, 2, 3, 4, 5, 16, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15};
+    // Rough cost of a residual byte, by its magnitude as a signed value.
+    private static final int[] RESIDUAL_COST = residualCosts();
+
+    @Override
+    public String getFormat() {
+        return "webp";
+    }
+
+    @Override
+    public List<String> getAliases() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String getContentType() {
+        return "image/webp";
+    }
+
+    @Override
+    public boolean supportsTransparency() {
+        return true;
+    }
+
+    @Override
+    public String settingsKey(SignatureOptions options) {
+        return "level=" + options.resolvedCompressionLevel();
+    }
+
+    @Override
+    public EncodedImageOutputStream encode(BufferedImage image, SignatureOptions options, EncoderContext context) {
+        return encode(image, options.resolvedCompressionLevel(), context.getBufferPool());
+    }
+
+    /**
+     * Encodes {@code image} at {@code compressionLevel} (0-9), with scratch arrays leased from
+     * {@code pool}.
+     *
+     * @throws IllegalArgumentException when the level is out of range or the image is larger
+     *                                  than {@link #MAX_DIMENSION} either way
+     */
+    public EncodedImageOutputStream encode(BufferedImage image, int compressionLevel, BufferPool pool) {
+        if (compressionLevel < 0 || compressionLevel > 9) {
+            throw new IllegalArgumentException("Compression level must be between 0 and 9");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width > MAX_DIMENSION || height > MAX_DIMENSION) {
+            throw new IllegalArgumentException("WebP images are limited to " + MAX_DIMENSION + "x" + MAX_DIMENSION + " pixels");
+        }
+        int count = width * height;
+        int[] argb = pool.leaseInts(count);
+        int[] transformed = null;
+        try {
+            boolean opaque = read(image, argb, width, height);
+            int[] palette = palette(argb, count);
+
+            // Mostly-empty signature canvases compress to a small fraction of one byte per pixel.
+            int initialCapacity = (int) Math.min(Math.max((long) count / 32, 8192), 1 << 20);
+            EncodedImageOutputStream out = new EncodedImageOutputStream(initialCapacity);
+            // RIFF and chunk headers, with sizes patched in at the end.
+            out.write(new byte[20], 0, 20);
+            BitWriter bits = new BitWriter(out);
+            bits.write(0x2f, 8);
+            bits.write(width - 1, 14);
+            bits.write(height - 1, 14);
+            bits.write(opaque ? 0 : 1, 1);
+            bits.write(0, 3);
+
+            int[] pixels;
+            int codedWidth;
+            if (palette != null) {
+                int widthBits = palette.length <= 2 ? 3 : palette.length <= 4 ? 2 : palette.length <= 16 ? 1 : 0;
+                codedWidth = (width + (1 << widthBits) - 1) >> widthBits;
+                bits.write(1, 1);
+                bits.write(COLOR_INDEXING, 2);
+                bits.write(palette.length - 1, 8);
+                writeImage(bits, deltaCoded(palette), palette.length, 1, false, compressionLevel, pool);
+                transformed = pool.leaseInts(codedWidth * height);
+                bundle(argb, width, height, palette, widthBits, transformed, codedWidth);
+                pixels = transformed;
+            } else {
+                codedWidth = width;
+                subtractGreen(argb, count);
+                bits.write(1, 1);
+                bits.write(SUBTRACT_GREEN, 2);
+                transformed = pool.leaseInts(count);
+                int blocksWide = (width + (1 << PREDICTOR_BITS) - 1) >> PREDICTOR_BITS;
+                int blocksHigh = (height + (1 << PREDICTOR_BITS) - 1) >> PREDICTOR_BITS;
+                int[] modes = new int[blocksWide * blocksHigh];
+                predict(argb, width, height, compressionLevel, modes, blocksWide, transformed);
+                bits.write(1, 1);
+                bits.write(PREDICTOR_TRANSFORM, 2);
+                bits.write(PREDICTOR_BITS - 2, 3);
+                writeImage(bits, modes, blocksWide, blocksHigh, false, compressionLevel, pool);
+                pixels = transformed;
+            }
+            bits.write(0, 1);
+            writeImage(bits, pixels, codedWidth, height, true, compressionLevel, pool);
+            bits.flush();
+
+            int chunkSize = out.size() - 20;
+            if ((chunkSize & 1) != 0) {
+                out.write(0);
+            }
+            byte[] header = out.buffer();
+            putAscii(header, 0, "RIFF");
+            putIntLe(header, 4, out.size() - 8);
+            putAscii(header, 8, "WEBP");
+            putAscii(header, 12, "VP8L");
+            putIntLe(header, 16, chunkSize);
+            return out;
+        } finally {
+            pool.release(argb);
+            if (transformed != null) {
+                pool.release(transformed);
+            }
+        }
+    }
+
+    // Reads all pixels and returns whether the image is opaque.
+    private static boolean read(BufferedImage image, int[] argb, int width, int height) {
+        Rows rows = Rows.of(image);
+        int[] row = new int[width];
+        int alpha = 0xff;
+        for (int y = 0; y < height; y++) {
+            rows.read(y, row);
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                int pixel = row[x];
+                int a = pixel >>> 24;
+                argb[offset + x] = a == 0 ? 0 : pixel;
+                alpha &= a;
+            }
+        }
+        return alpha == 0xff;
+    }
+
+    // The distinct colours in ascending order, or null when there are more than 256.
+    private static int[] palette(int[] argb, int count) {
+        int[] keys = new int[4 * MAX_PALETTE];
+        boolean[] used = new boolean[keys.length];
+        int size = 0;
+        int last = 0;
+        boolean haveLast = false;
+        for (int i = 0; i < count; i++) {
+            int color = argb[i];
+            if (haveLast && color == last) {
+                continue;
+            }
+            int slot = (color * 0x9E3779B9) >>> 22;
+            while (used[slot] && keys[slot] != color) {
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            if (!used[slot]) {
+                if (size == MAX_PALETTE) {
+                    return null;
+                }
+                used[slot] = true;
+                keys[slot] = color;
+                size++;
+            }
+            last = color;
+            haveLast = true;
+        }
+        long[] sorted = new long[size];
+        int n = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                sorted[n++] = keys[slot] & 0xffffffffL;
+            }
+        }
+        // Ascending order keeps the deltas between neighbouring entries small and alike.
+        Arrays.sort(sorted);
+        int[] palette = new int[size];
+        for (int i = 0; i < size; i++) {
+            palette[i] = (int) sorted[i];
+        }
+        return palette;
+    }
+
+    // The colour table is stored as differences to the previous entry.
+    private static int[] deltaCoded(int[] palette) {
+        int[] deltas = new int[palette.length];
+        int previous = 0;
+        for (int i = 0; i < palette.length; i++) {
+            deltas[i] = subtractPixels(palette[i], previous);
+            previous = palette[i];
+        }
+        return deltas;
+    }
+
+    // Replaces colours by palette indexes in green, packing 2^widthBits of them per pixel.
+    private static void bundle(int[] argb, int width, int height, int[] palette, int widthBits,
+                               int[] out, int codedWidth) {
+        int bitsPerIndex = 8 >> widthBits;
+        int mask = (1 << widthBits) - 1;
+        int lastColor = palette[0];
+        int lastIndex = 0;
+        for (int y = 0; y < height; y++) {
+            int source = y * width;
+            int target = y * codedWidth;
+            int packed = 0;
+            for (int x = 0; x < width; x++) {
+                int color = argb[source + x];
+                if (color != lastColor) {
+                    lastIndex = indexOf(palette, color);
+                    lastColor = color;
+                }
+                packed |= lastIndex << ((x & mask) * bitsPerIndex);
+                if ((x & mask) == mask || x == width - 1) {
+                    out[target + (x >> widthBits)] = 0xff000000 | packed << 8;
+                    packed = 0;
+                }
+            }
+        }
+    }
+
+    private static int indexOf(int[] palette, int color) {
+        long key = color & 0xffffffffL;
+        int low = 0;
+        int high = palette.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long value = palette[middle] & 0xffffffffL;
+            if (value < key) {
+                low = middle + 1;
+            } else if (value > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        throw new IllegalStateException("Colour missing from palette");
+    }
+
+    private static void subtractGreen(int[] argb, int count) {
+        for (int i = 0; i < count; i++) {
+            int pixel = argb[i];
+            int green = (pixel >> 8) & 0xff;
+            int redBlue = ((pixel & 0x00ff00ff) + 0x01000100 - (green << 16 | green)) & 0x00ff00ff;
+            argb[i] = (pixel & 0xff00ff00) | redBlue;
+        }
+    }
+
+    /**
+     * Picks a predictor for every block by the estimated cost of its residuals and writes the
+     * residuals of the whole image to {@code residuals}.
+     */
+    private static void predict(int[] argb, int width, int height, int level, int[] modes, int blocksWide,
+                                int[] residuals) {
+        int[] candidates = level >= 7 ? new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13}
+                : level >= 4 ? new int[]{1, 2, 4, 7, 11, 12, 13}
+                : new int[]{1, 2, 11};
+        int size = 1 << PREDICTOR_BITS;
+        for (int blockY = 0; blockY * size < height; blockY++) {
+            for (int blockX = 0; blockX < blocksWide; blockX++) {
+                int x0 = blockX * size;
+                int y0 = blockY * size;
+                int x1 = Math.min(width, x0 + size);
+                int y1 = Math.min(height, y0 + size);
+                int bestMode = candidates[0];
+                long bestCost = Long.MAX_VALUE;
+                for (int mode : candidates) {
+                    long cost = 0;
+                    for (int y = Math.max(1, y0); y < y1 && cost < bestCost; y++) {
+                        for (int x = Math.max(1, x0); x < x1; x++) {
+                            int residual = subtractPixels(argb[y * width + x], predictor(mode, argb, width, x, y));
+                            cost += RESIDUAL_COST[residual >>> 24] + RESIDUAL_COST[(residual >> 16) & 0xff]
+                                    + RESIDUAL_COST[(residual >> 8) & 0xff] + RESIDUAL_COST[residual & 0xff];
+                        }
+                    }
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestMode = mode;
+                    }
+                }
+                modes[blockY * blocksWide + blockX] = 0xff000000 | bestMode << 8;
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int index = y * width + x;
+                int prediction;
+                if (y == 0) {
+                    prediction = x == 0 ? 0xff000000 : argb[index - 1];
+                } else if (x == 0) {
+                    prediction = argb[index - width];
+                } else {
+                    int mode = (modes[(y >> PREDICTOR_BITS) * blocksWide + (x >> PREDICTOR_BITS)] >> 8) & 0xff;
+                    prediction = predictor(mode, argb, width, x, y);
+                }
+                residuals[index] = subtractPixels(argb[index], prediction);
+            }
+        }
+    }
+
+    // Prediction for a pixel that is neither in the top row nor in the left column.
+    private static int predictor(int mode, int[] argb, int width, int x, int y) {
+        int index = y * width + x;
+        int left = argb[index - 1];
+        int top = argb[index - width];
+        int topLeft = argb[index - width - 1];
+        // The rightmost column uses the leftmost pixel of its own row as top-right.
+        int topRight = argb[index - width + 1];
+        switch (mode) {
+            case 0:
+                return 0xff000000;
+            case 1:
+                return left;
+            case 2:
+                return top;
+            case 3:
+                return topRight;
+            case 4:
+                return topLeft;
+            case 5:
+                return average(average(left, topRight), top);
+            case 6:
+                return average(left, topLeft);
+            case 7:
+                return average(left, top);
+            case 8:
+                return average(topLeft, top);
+            case 9:
+                return average(top, topRight);
+            case 10:
+                return average(average(left, topLeft), average(top, topRight));
+            case 11:
+                return select(left, top, topLeft);
+            case 12:
+                return clampAddSubtractFull(left, top, topLeft);
+            default:
+                return clampAddSubtractHalf(average(left, top), topLeft);
+        }
+    }
+
+    private static int average(int a, int b) {
+        return (((a ^ b) & 0xfefefefe) >>> 1) + (a & b);
+    }
+
+    private static int select(int left, int top, int topLeft) {
+        // Distances of left and top to the gradient estimate left + top - topLeft.
+        int toLeft = 0;
+        int toTop = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int l = (left >>> shift) & 0xff;
+            int t = (top >>> shift) & 0xff;
+            int tl = (topLeft >>> shift) & 0xff;
+            toLeft += Math.abs(t - tl);
+            toTop += Math.abs(l - tl);
+        }
+        return toLeft < toTop ? left : top;
+    }
+
+    private static int clampAddSubtractFull(int a, int b, int c) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int value = ((a >>> shift) & 0xff) + ((b >>> shift) & 0xff) - ((c >>> shift) & 0xff);
+            result |= clamp(value) << shift;
+        }
+        return result;
+    }
+
+    private static int clampAddSubtractHalf(int a, int b) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int ca = (a >>> shift) & 0xff;
+            int value = ca + (ca - ((b >>> shift) & 0xff)) / 2;
+            result |= clamp(value) << shift;
+        }
+        return result;
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : value > 255 ? 255 : value;
+    }
+
+    // Per-channel a - b modulo 256.
+    private static int subtractPixels(int a, int b) {
+        int alphaGreen = 0x00ff00ff + (a & 0xff00ff00) - (b & 0xff00ff00);
+        int redBlue = 0xff00ff00 + (a & 0x00ff00ff) - (b & 0x00ff00ff);
+        return (alphaGreen & 0xff00ff00) | (redBlue & 0x00ff00ff);
+    }
+
+    /**
+     * Writes an entropy-coded image: LZ77 tokens over one set of five Huffman codes, optionally
+     * with a colour cache. The main image additionally says it has no meta prefix codes.
+     */
+    private static void writeImage(BitWriter bits, int[] pixels, int width, int height, boolean main, int level,
+                                   BufferPool pool) {
+        int count = width * height;
+        int[] values = pool.leaseInts(count);
+        int[] distances = pool.leaseInts(count);
+        try {
+            int tokens = findMatches(pixels, count, width, level, values, distances);
+            int cacheBits = level > 0 ? chooseCacheBits(values, distances, tokens, pixels) : 0;
+            if (cacheBits > 0) {
+                bits.write(1, 1);
+                bits.write(cacheBits, 4);
+            } else {
+                bits.write(0, 1);
+            }
+            if (main) {
+                bits.write(0, 1);
+            }
+            Histograms histograms = new Histograms(cacheBits);
+            histograms.collect(values, distances, tokens, pixels);
+            PrefixCode green = writeCode(bits, histograms.green);
+            PrefixCode red = writeCode(bits, histograms.red);
+            PrefixCode blue = writeCode(bits, histograms.blue);
+            PrefixCode alpha = writeCode(bits, histograms.alpha);
+            PrefixCode distance = writeCode(bits, histograms.distance);
+
+            int[] cache = cacheBits > 0 ? new int[1 << cacheBits] : null;
+            int position = 0;
+            for (int i = 0; i < tokens; i++) {
+                if (distances[i] == 0) {
+                    int color = values[i];
+                    if (cache != null) {
+                        int key = cacheKey(color, cacheBits);
+                        if (cache[key] == color) {
+                            green.write(bits, 256 + NUM_LENGTH_CODES + key);
+                            position++;
+                            continue;
+                        }
+                        cache[key] = color;
+                    }
+                    green.write(bits, (color >> 8) & 0xff);
+                    red.write(bits, (color >> 16) & 0xff);
+                    blue.write(bits, color & 0xff);
+                    alpha.write(bits, color >>> 24);
+                    position++;
+                } else {
+                    int length = values[i];
+                    int lengthPrefix = prefix(length);
+                    green.write(bits, 256 + lengthPrefix);
+                    bits.write(extraValue(length, lengthPrefix), extraBits(lengthPrefix));
+                    int distancePrefix = prefix(distances[i]);
+                    distance.write(bits, distancePrefix);
+                    bits.write(extraValue(distances[i], distancePrefix), extraBits(distancePrefix));
+                    if (cache != null) {
+                        cacheCopy(cache, cacheBits, pixels, position, position + length);
+                    }
+                    position += length;
+                }
+            }
+        } finally {
+            pool.release(values);
+            pool.release(distances);
+        }
+    }
+
+    /**
+     * Greedy LZ77 over whole pixels. A token is a literal colour (distance 0) or a length with a
+     * distance code; returns the number of tokens.
+     * <p>
+     * Only the pixel to the left and the one above are tried. Runs and repeated rows are what line
+     * art consists of, and both have one-symbol distance codes. Measured on signatures, searching
+     * hash chains or the other short distance codes for longer matches made the output larger:
+     * the greedy parse takes any longer match, and the extra distance codes and their extra bits
+     * cost more than the few pixels they save. From level 4 on a match is put off by one pixel
+     * when a clearly longer one starts there.
+     */
+    private static int findMatches(int[] pixels, int count, int width, int level, int[] values, int[] distances) {
+        boolean lazy = level >= 4;
+        // Distance codes 1 and 2 stand for the pixel above and the one to the left.
+        int leftCode = width == 1 ? 1 : 2;
+        int aboveCode = 1;
+        int tokens = 0;
+        int i = 0;
+        long match = longestMatch(pixels, count, width, 0);
+        while (i < count) {
+            int length = (int) match;
+            if (length > 0 && lazy && i + 1 < count) {
+                long next = longestMatch(pixels, count, width, i + 1);
+                if ((int) next > length + 1) {
+                    // A literal now buys a clearly longer match at the next pixel.
+                    values[tokens] = pixels[i];
+                    distances[tokens++] = 0;
+                    i++;
+                    match = next;
+                    continue;
+                }
+            }
+            if (length > 0) {
+                values[tokens] = length;
+                distances[tokens++] = (match >>> 32) == 1 ? leftCode : aboveCode;
+                i += length;
+            } else {
+                values[tokens] = pixels[i];
+                distances[tokens++] = 0;
+                i++;
+            }
+            match = i < count ? longestMatch(pixels, count, width, i) : 0;
+        }
+        return tokens;
+    }
+
+    /**
+     * The longer match at {@code i} with the pixel to the left or the one above, as
+     * distance << 32 | length; the length is 0 when neither reaches the minimum.
+     */
+    private static long longestMatch(int[] pixels, int count, int width, int i) {
+        int limit = Math.min(MAX_MATCH, count - i);
+        if (limit < MIN_MATCH) {
+            return 0;
+        }
+        int bestLength = i >= 1 ? matchLength(pixels, i - 1, i, limit) : 0;
+        long best = 1L << 32 | bestLength;
+        if (i >= width && bestLength < limit && pixels[i - width + bestLength] == pixels[i + bestLength]) {
+            int length = matchLength(pixels, i - width, i, limit);
+            if (length > bestLength) {
+                bestLength = length;
+                best = (long) width << 32 | length;
+            }
+        }
+        return bestLength >= MIN_MATCH ? best : 0;
+    }
+
+    private static int matchLength(int[] pixels, int from, int at, int limit) {
+        int length = 0;
+        while (length < limit && pixels[from + length] == pixels[at + length]) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Estimates the coded size of the tokens for every colour cache size in one pass and returns
+     * the number of cache bits, 0 for none, with the smallest estimate.
+     */
+    private static int chooseCacheBits(int[] values, int[] distances, int tokens, int[] pixels) {
+        Histograms[] candidates = new Histograms[MAX_COLOR_CACHE_BITS + 1];
+        int[][] caches = new int[MAX_COLOR_CACHE_BITS + 1][];
+        for (int bits = 0; bits <= MAX_COLOR_CACHE_BITS; bits++) {
+            candidates[bits] = new Histograms(bits);
+            caches[bits] = new int[1 << bits];
+        }
+        int position = 0;
+        for (int i = 0; i < tokens; i++) {
+            if (distances[i] == 0) {
+                int color = values[i];
+                int key = cacheKey(color, MAX_COLOR_CACHE_BITS);
+                candidates[0].literal(color);
+                for (int bits = 1; bits <= MAX_COLOR_CACHE_BITS; bits++) {
+                    int slot = key >>> (MAX_COLOR_CACHE_BITS - bits);
+                    if (caches[bits][slot] == color) {
+                        candidates[bits].green[256 + NUM_LENGTH_CODES + slot]++;
+                    } else {
+                        caches[bits][slot] = color;
+                        candidates[bits].literal(color);
+                    }
+                }
+                position++;
+            } else {
+                int length = values[i];
+                int lengthSymbol = 256 + prefix(length);
+                for (int bits = 0; bits <= MAX_COLOR_CACHE_BITS; bits++) {
+                    candidates[bits].green[lengthSymbol]++;
+                }
+                for (int k = position; k < position + length; k++) {
+                    if (pixels[k] == pixels[k - 1]) {
+                        continue;
+                    }
+                    int key = cacheKey(pixels[k], MAX_COLOR_CACHE_BITS);
+                    for (int bits = 1; bits <= MAX_COLOR_CACHE_BITS; bits++) {
+                        caches[bits][key >>> (MAX_COLOR_CACHE_BITS - bits)] = pixels[k];
+                    }
+                }
+                position += length;
+            }
+        }
+        int best = 0;
+        double bestCost = Double.MAX_VALUE;
+        for (int bits = 0; bits <= MAX_COLOR_CACHE_BITS; bits++) {
+            Histograms histograms = candidates[bits];
+            double cost = cost(histograms.green) + cost(histograms.red) + cost(histograms.blue)
+                    + cost(histograms.alpha);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = bits;
+            }
+        }
+        return best;
+    }
+
+    // Entropy of the symbols plus a rough allowance for describing the code itself.
+    private static double cost(int[] histogram) {
+        long total = 0;
+        int used = 0;
+        for (int count : histogram) {
+            total += count;
+            if (count > 0) {
+                used++;
+            }
+        }
+        if (used <= 1) {
+            return used * 8;
+        }
+        double bits = 0;
+        for (int count : histogram) {
+            if (count > 0) {
+                bits += count * Math.log((double) total / count);
+            }
+        }
+        return bits / Math.log(2) + used * 4;
+    }
+
+    /**
+     * Adds the pixels a backward reference copied to the colour cache, as the decoder does. The
+     * previous pixel is always the last one added, so its repeats can be skipped.
+     */
+    private static void cacheCopy(int[] cache, int cacheBits, int[] pixels, int from, int to) {
+        for (int k = from; k < to; k++) {
+            if (pixels[k] != pixels[k - 1]) {
+                cache[cacheKey(pixels[k], cacheBits)] = pixels[k];
+            }
+        }
+    }
+
+    private static int cacheKey(int color, int bits) {
+        return (0x1e35a7bd * color) >>> (32 - bits);
+    }
+
+    // Prefix symbol of an LZ77 length or distance code (1-based), as in the VP8L specification.
+    static int prefix(int value) {
+        int v = value - 1;
+        if (v < 4) {
+            return v;
+        }
+        int highest = 31 - Integer.numberOfLeadingZeros(v);
+        return 2 * highest + ((v >>> (highest - 1)) & 1);
+    }
+
+    private static int extraBits(int prefix) {
+        return prefix < 4 ? 0 : (prefix - 2) >> 1;
+    }
+
+    private static int extraValue(int value, int prefix) {
+        return prefix < 4 ? 0 : (value - 1) & ((1 << extraBits(prefix)) - 1);
+    }
+
+    /**
+     * Writes a prefix code for {@code histogram} and returns it. Up to two symbols below 256 use
+     * the short form; anything else is written as run-length coded code lengths.
+     */
+    private static PrefixCode writeCode(BitWriter bits, int[] histogram) {
+        int size = histogram.length;
+        int[] lengths = new int[size];
+        codeLengths(histogram, size, MAX_CODE_LENGTH, lengths);
+        int used = 0;
+        int first = -1;
+        int second = -1;
+        for (int symbol = 0; symbol < size; symbol++) {
+            if (lengths[symbol] > 0) {
+                used++;
+                if (first < 0) {
+                    first = symbol;
+                } else if (second < 0) {
+                    second = symbol;
+                }
+            }
+        }
+        if (used == 0 || (used <= 2 && first < 256 && (second < 0 || second < 256))) {
+            int symbol = Math.max(first, 0);
+            bits.write(1, 1);
+            bits.write(used == 2 ? 1 : 0, 1);
+            if (symbol <= 1) {
+                bits.write(0, 1);
+                bits.write(symbol, 1);
+            } else {
+                bits.write(1, 1);
+                bits.write(symbol, 8);
+            }
+            if (used == 2) {
+                bits.write(second, 8);
+            }
+            return new PrefixCode(lengths);
+        }
+        bits.write(0, 1);
+        int[] tokens = new int[size];
+        int[] extras = new int[size];
+        int tokenCount = runLengths(lengths, size, tokens, extras);
+        int[] tokenHistogram = new int[CODE_LENGTH_ORDER.length];
+        for (int i = 0; i < tokenCount; i++) {
+            tokenHistogram[tokens[i]]++;
+        }
+        int[] tokenLengths = new int[CODE_LENGTH_ORDER.length];
+        codeLengths(tokenHistogram, tokenHistogram.length, MAX_LENGTH_CODE_LENGTH, tokenLengths);
+        int written = CODE_LENGTH_ORDER.length;
+        while (written > 4 && tokenLengths[CODE_LENGTH_ORDER[written - 1]] == 0) {
+            written--;
+        }
+        bits.write(written - 4, 4);
+        for (int i = 0; i < written; i++) {
+            bits.write(tokenLengths[CODE_LENGTH_ORDER[i]], 3);
+        }
+        // Lengths are given for the whole alphabet.
+        bits.write(0, 1);
+        PrefixCode lengthCode = new PrefixCode(tokenLengths);
+        for (int i = 0; i < tokenCount; i++) {
+            int token = tokens[i];
+            lengthCode.write(bits, token);
+            if (token == 16) {
+                bits.write(extras[i], 2);
+            } else if (token == 17) {
+                bits.write(extras[i], 3);
+            } else if (token == 18) {
+                bits.write(extras[i], 7);
+            }
+        }
+        return new PrefixCode(lengths);
+    }
+
+    /**
+     * Run-length codes the code lengths: 16 repeats the last non-zero length 3-6 times, 17 and 18
+     * stand for 3-10 and 11-138 zeros. Returns the number of tokens.
+     */
+    private static int runLengths(int[] lengths, int size, int[] tokens, int[] extras) {
+        int count = 0;
+        int previous = 8;
+        int i = 0;
+        while (i < size) {
+            int length = lengths[i];
+            int run = 1;
+            while (i + run < size && lengths[i + run] == length) {
+                run++;
+            }
+            i += run;
+            if (length == 0) {
+                while (run >= 11) {
+                    int repeat = Math.min(run, 138);
+                    tokens[count] = 18;
+                    extras[count++] = repeat - 11;
+                    run -= repeat;
+                }
+                if (run >= 3) {
+                    tokens[count] = 17;
+                    extras[count++] = run - 3;
+                    run = 0;
+                }
+            } else {
+                if (length != previous) {
+                    tokens[count++] = length;
+                    previous = length;
+                    run--;
+                }
+                while (run >= 3) {
+                    int repeat = Math.min(run, 6);
+                    tokens[count] = 16;
+                    extras[count++] = repeat - 3;
+                    run -= repeat;
+                }
+            }
+            while (run-- > 0) {
+                tokens[count++] = length;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Huffman code lengths of at most {@code limit} bits. When the optimal tree is too deep, small
+     * counts are raised and the tree is rebuilt until it fits, which keeps the code complete.
+     */
+    static void codeLengths(int[] counts, int size, int limit, int[] lengths) {
+        Arrays.fill(lengths, 0, size, 0);
+        int used = 0;
+        int only = 0;
+        for (int symbol = 0; symbol < size; symbol++) {
+            if (counts[symbol] > 0) {
+                used++;
+                only = symbol;
+            }
+        }
+        if (used == 0) {
+            return;
+        }
+        if (used == 1) {
+            lengths[only] = 1;
+            return;
+        }
+        long[] leaves = new long[used];
+        long[] weights = new long[2 * used - 1];
+        int[] parents = new int[2 * used - 1];
+        int[] depths = new int[2 * used - 1];
+        for (int floor = 1; ; floor *= 2) {
+            int n = 0;
+            for (int symbol = 0; symbol < size; symbol++) {
+                if (counts[symbol] > 0) {
+                    leaves[n++] = (long) Math.max(counts[symbol], floor) << 32 | symbol;
+                }
+            }
+            Arrays.sort(leaves);
+            for (int k = 0; k < used; k++) {
+                weights[k] = leaves[k] >>> 32;
+            }
+            // Two queues: sorted leaves and internal nodes, which are created in ascending weight.
+            int leaf = 0;
+            int node = used;
+            int next = used;
+            while (next < 2 * used - 1) {
+                int first = leaf < used && (node >= next || weights[leaf] <= weights[node]) ? leaf++ : node++;
+                int second = leaf < used && (node >= next || weights[leaf] <= weights[node]) ? leaf++ : node++;
+                weights[next] = weights[first] + weights[second];
+                parents[first] = next;
+                parents[second] = next;
+                next++;
+            }
+            int root = 2 * used - 2;
+            depths[root] = 0;
+            int deepest = 0;
+            for (int k = root - 1; k >= 0; k--) {
+                depths[k] = depths[parents[k]] + 1;
+                if (k < used) {
+                    deepest = Math.max(deepest, depths[k]);
+                }
+            }
+            if (deepest <= limit) {
+                for (int k = 0; k < used; k++) {
+                    lengths[(int) leaves[k]] = depths[k];
+                }
+                return;
+            }
+        }
+    }
+
+    private static int[] residualCosts() {
+        int[] costs = new int[256];
+        for (int value = 0; value < 256; value++) {
+            int magnitude = Math.min(value, 256 - value);
+            costs[value] = (int) Math.round(8 * Math.log(1 + magnitude) / Math.log(2));
+        }
+        return costs;
+    }
+
+    private static void putAscii(byte[] bytes, int offset, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            bytes[offset + i] = (byte) text.charAt(i);
+        }
+    }
+
+    private static void putIntLe(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+        bytes[offset + 2] = (byte) (value >>> 16);
+        bytes[offset + 3] = (byte) (value >>> 24);
+    }
+
+    /** Symbol counts for the five codes of one image. */
+    private static final class Histograms {
+        final int[] green;
+        final int[] red = new int[256];
+        final int[] blue = new int[256];
+        final int[] alpha = new int[256];
+        final int[] distance = new int[NUM_DISTANCE_CODES];
+        final int cacheBits;
+
+        Histograms(int cacheBits) {
+            this.cacheBits = cacheBits;
+            this.green = new int[256 + NUM_LENGTH_CODES + (cacheBits > 0 ? 1 << cacheBits : 0)];
+        }
+
+        void literal(int color) {
+            green[(color >> 8) & 0xff]++;
+            red[(color >> 16) & 0xff]++;
+            blue[color & 0xff]++;
+            alpha[color >>> 24]++;
+        }
+
+        // Counts the tokens as they will be written, replaying the colour cache.
+        void collect(int[] values, int[] distances, int tokens, int[] pixels) {
+            int[] cache = cacheBits > 0 ? new int[1 << cacheBits] : null;
+            int position = 0;
+            for (int i = 0; i < tokens; i++) {
+                if (distances[i] == 0) {
+                    int color = values[i];
+                    position++;
+                    if (cache != null) {
+                        int key = cacheKey(color, cacheBits);
+                        if (cache[key] == color) {
+                            green[256 + NUM_LENGTH_CODES + key]++;
+                            continue;
+                        }
+                        cache[key] = color;
+                    }
+                    literal(color);
+                } else {
+                    int length = values[i];
+                    green[256 + prefix(length)]++;
+                    distance[prefix(distances[i])]++;
+                    if (cache != null) {
+                        cacheCopy(cache, cacheBits, pixels, position, position + length);
+                    }
+                    position += length;
+                }
+            }
+        }
+    }
+
+    /** Canonical Huffman code, with codes stored bit-reversed for the LSB-first bit order. */
+    private static final class PrefixCode {
+        private final int[] codes;
+        private final int[] lengths;
+
+        PrefixCode(int[] lengths) {
+            int size = lengths.length;
+            int used = 0;
+            int[] lengthCounts = new int[MAX_CODE_LENGTH + 1];
+            for (int length : lengths) {
+                if (length > 0) {
+                    lengthCounts[length]++;
+                    used++;
+                }
+            }
+            this.codes = new int[size];
+            // A code with a single symbol takes no bits at all.
+            this.lengths = used > 1 ? lengths : new int[size];
+            int[] nextCode = new int[MAX_CODE_LENGTH + 2];
+            int code = 0;
+            for (int length = 1; length <= MAX_CODE_LENGTH; length++) {
+                code = (code + lengthCounts[length - 1]) << 1;
+                nextCode[length] = code;
+            }
+            for (int symbol = 0; symbol < size; symbol++) {
+                int length = lengths[symbol];
+                if (length > 0) {
+                    codes[symbol] = Integer.reverse(nextCode[length]++) >>> (32 - length);
+                }
+            }
+        }
+
+        void write(BitWriter bits, int symbol) {
+            bits.write(codes[symbol], lengths[symbol]);
+        }
+    }
+
+    /** Least-significant-bit-first writer, as VP8L reads its bitstream. */
+    private static final class BitWriter {
+        private final EncodedImageOutputStream out;
+        private final byte[] buffer = new byte[4096];
+        private int used;
+        private long bits;
+        private int count;
+
+        BitWriter(EncodedImageOutputStream out) {
+            this.out = out;
+        }
+
+        void write(int value, int length) {
+            bits |= (long) value << count;
+            count += length;
+            if (count >= 32) {
+                if (used + 4 > buffer.length) {
+                    out.write(buffer, 0, used);
+                    used = 0;
+                }
+                buffer[used++] = (byte) bits;
+                buffer[used++] = (byte) (bits >>> 8);
+                buffer[used++] = (byte) (bits >>> 16);
+                buffer[used++] = (byte) (bits >>> 24);
+                bits >>>= 32;
+                count -= 32;
+            }
+        }
+
+        void flush() {
+            out.write(buffer, 0, used);
+            used = 0;
+            while (count > 0) {
+                out.write((int) bits & 0xff);
+                bits >>>= 8;
+                count -= 8;
+            }
+            count = 0;
+            bits = 0;
+        }
+    }
+}
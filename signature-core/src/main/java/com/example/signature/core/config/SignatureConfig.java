@@ -1,7 +1,21 @@
 package com.example.signature.core.config;
 
+import com.example.signature.core.image.ResampleFilter;
+
 public class SignatureConfig {
     private long maxPayloadBytes = 2_000_000;
+    private int trimAlphaThreshold = 0;
+    private long cacheMaxBytes = 0;
+    private ResampleFilter resampleFilter = ResampleFilter.BILINEAR;
+    private int maxStrokePoints = 100_000;
+    private long maxStrokeRenderPixels = 100_000_000;
+    private int maxImageWidth = 16384;
+    private int maxImageHeight = 16384;
+    private long maxImagePixels = 25_000_000;
+    private boolean decodeSubsampling = true;
+    private long poolMaxBytes = 64L * 1024 * 1024;
+    private int poolMaxIdleCodecs = Runtime.getRuntime().availableProcessors();
+    private int nodeId = 0;
 
     public SignatureConfig() {
     }
@@ -17,4 +31,140 @@ public class SignatureConfig {
     public void setMaxPayloadBytes(long maxPayloadBytes) {
         this.maxPayloadBytes = maxPayloadBytes;
     }
+
+    public int getTrimAlphaThreshold() {
+        return trimAlphaThreshold;
+    }
+
+    public void setTrimAlphaThreshold(int trimAlphaThreshold) {
+        this.trimAlphaThreshold = trimAlphaThreshold;
+    }
+
+    /**
+     * Memory budget of the conversion result cache in bytes; 0 disables caching.
+     */
+    public long getCacheMaxBytes() {
+        return cacheMaxBytes;
+    }
+
+    public void setCacheMaxBytes(long cacheMaxBytes) {
+        this.cacheMaxBytes = cacheMaxBytes;
+    }
+
+    /**
+     * Kernel used when resizing to the requested width/height. {@code LANCZOS3} is sharper but
+     * costs roughly three times as many taps per output pixel.
+     */
+    public ResampleFilter getResampleFilter() {
+        return resampleFilter;
+    }
+
+    public void setResampleFilter(ResampleFilter resampleFilter) {
+        this.resampleFilter = resampleFilter;
+    }
+
+    /**
+     * Largest number of samples accepted across all strokes of a vector request.
+     */
+    public int getMaxStrokePoints() {
+        return maxStrokePoints;
+    }
+
+    public void setMaxStrokePoints(int maxStrokePoints) {
+        this.maxStrokePoints = maxStrokePoints;
+    }
+
+    /**
+     * Most pixels the rasterizer may visit for one stroke request, counting every stroke's
+     * bounding box and the area swept by every segment at the output size.
+     */
+    public long getMaxStrokeRenderPixels() {
+        return maxStrokeRenderPixels;
+    }
+
+    public void setMaxStrokeRenderPixels(long maxStrokeRenderPixels) {
+        this.maxStrokeRenderPixels = maxStrokeRenderPixels;
+    }
+
+    /**
+     * Widest image accepted as input, stroke canvas or output.
+     */
+    public int getMaxImageWidth() {
+        return maxImageWidth;
+    }
+
+    public void setMaxImageWidth(int maxImageWidth) {
+        this.maxImageWidth = maxImageWidth;
+    }
+
+    /**
+     * Tallest image accepted as input, stroke canvas or output.
+     */
+    public int getMaxImageHeight() {
+        return maxImageHeight;
+    }
+
+    public void setMaxImageHeight(int maxImageHeight) {
+        this.maxImageHeight = maxImageHeight;
+    }
+
+    /**
+     * Largest raster, in pixels, that is decoded or rendered. Checked against the image header
+     * before any pixels are allocated; at four bytes per pixel the default bounds one image at
+     * about 100 MB.
+     */
+    public long getMaxImagePixels() {
+        return maxImagePixels;
+    }
+
+    public void setMaxImagePixels(long maxImagePixels) {
+        this.maxImagePixels = maxImagePixels;
+    }
+
+    /**
+     * Whether images that are resized to a fraction of their size skip pixels while decoding.
+     * Faster and lighter, but strokes much thinner than the subsampling step can come out
+     * fainter than with a full decode.
+     */
+    public boolean isDecodeSubsampling() {
+        return decodeSubsampling;
+    }
+
+    public void setDecodeSubsampling(boolean decodeSubsampling) {
+        this.decodeSubsampling = decodeSubsampling;
+    }
+
+    /**
+     * Upper bound on memory held by idle pixel buffers between conversions; 0 disables pooling.
+     */
+    public long getPoolMaxBytes() {
+        return poolMaxBytes;
+    }
+
+    public void setPoolMaxBytes(long poolMaxBytes) {
+        this.poolMaxBytes = poolMaxBytes;
+    }
+
+    /**
+     * Idle ImageIO readers and writers kept per image format.
+     */
+    public int getPoolMaxIdleCodecs() {
+        return poolMaxIdleCodecs;
+    }
+
+    public void setPoolMaxIdleCodecs(int poolMaxIdleCodecs) {
+        this.poolMaxIdleCodecs = poolMaxIdleCodecs;
+    }
+
+    /**
+     * Id of this instance, from 0 to 1023, embedded in every fileId it generates. Instances that
+     * share a deployment need distinct ids for their fileIds to stay unique.
+     */
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(int nodeId) {
+        this.nodeId = nodeId;
+    }
 }
@@ -0,0 +1,10 @@
+package com.example.signature.core.id;
+
+/**
+ * Source of the fileIds converted signatures are stored and served under. Implementations must
+ * be thread-safe and never return the same id twice within a deployment.
+ */
+public interface FileIdGenerator {
+
+    String nextId();
+}
@@ -0,0 +1,145 @@
+package com.example.signature.core.id;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered fileIds in the style of ULID and Snowflake: {@code sig_} followed by 32
+ * Crockford base32 digits of a 160-bit value made of
+ * <pre>
+ * 48 bits  milliseconds since the epoch
+ * 10 bits  node id
+ * 22 bits  sequence within the millisecond, starting at a random offset below 2^21
+ * 80 bits  random, from a cryptographically strong generator
+ * </pre>
+ * Ids of one node sort in generation order, as strings and as numbers, and ids of different
+ * nodes never collide. Nothing blocks: the timestamp and sequence advance together through a
+ * single compare-and-set, and an exhausted sequence borrows the next millisecond rather than
+ * waiting for it. When the clock steps back, ids keep counting from the last one issued.
+ *
+ * <p>A fileId is all a client needs to fetch a stored signature, so the low 80 bits are its
+ * secret: knowing one id leaves 2^80 candidates for the next, more than the 2^64 an attacker
+ * could plausibly try. They come from a {@code SHA1PRNG} instance per thread, seeded once from
+ * the platform's non-blocking source, so generation takes no lock shared between threads.
+ * The sequence start only spreads ids over the millisecond and is not part of the secret.
+ */
+public final class MonotonicFileIdGenerator implements FileIdGenerator {
+    public static final int MAX_NODE_ID = (1 << 10) - 1;
+
+    private static final String PREFIX = "sig_";
+    private static final int SEQUENCE_BITS = 22;
+    // Written as two halves of 8 digits each.
+    private static final int RANDOM_HALF_BITS = 40;
+    // 16 digits for the 80 ordered bits, 16 for the random ones.
+    private static final int DIGITS = 32;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    // Seeds the per-thread generators; on Linux the default reads /dev/urandom and never blocks.
+    private static final SecureRandom SEEDS = new SecureRandom();
+    private static final ThreadLocal<SecureRandom> SECRETS =
+            ThreadLocal.withInitial(MonotonicFileIdGenerator::newSecretSource);
+
+    private final int nodeId;
+    private final LongSupplier clock;
+    // Timestamp in the high bits, sequence in the low SEQUENCE_BITS.
+    private final AtomicLong last = new AtomicLong();
+
+    public MonotonicFileIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    MonotonicFileIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public String nextId() {
+        long now = clock.getAsLong() << SEQUENCE_BITS;
+        // A new millisecond starts its sequence at a random point; half the range stays free
+        // so a busy millisecond still rarely borrows the next one.
+        long start = now | ThreadLocalRandom.current().nextInt(1 << (SEQUENCE_BITS - 1));
+        long previous;
+        long next;
+        do {
+            previous = last.get();
+            next = now > previous ? start : previous + 1;
+        } while (!last.compareAndSet(previous, next));
+        SecureRandom secret = SECRETS.get();
+        return encode(next >>> SEQUENCE_BITS, nodeId, (int) (next & ((1 << SEQUENCE_BITS) - 1)),
+                secret.nextLong() >>> (64 - RANDOM_HALF_BITS), secret.nextLong() >>> (64 - RANDOM_HALF_BITS));
+    }
+
+    // Seeding before the first nextBytes keeps SHA1PRNG from seeding itself, which may block.
+    private static SecureRandom newSecretSource() {
+        try {
+            byte[] seed = new byte[32];
+            SEEDS.nextBytes(seed);
+            SecureRandom random = SecureRandom.getInstance("SHA1PRNG");
+            random.setSeed(seed);
+            return random;
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA1PRNG not available", ex);
+        }
+    }
+
+    /**
+     * The node id embedded in a fileId of this generator, or -1 when {@code fileId} does not
+     * have its format.
+     */
+    public static int nodeIdOf(String fileId) {
+        if (fileId == null || fileId.length() != PREFIX.length() + DIGITS || !fileId.startsWith(PREFIX)) {
+            return -1;
+        }
+        // The node id is bits 22..31 of the ordered part, spread over digits 9 to 11 between the low
+        // bits of the timestamp and the high bits of the sequence.
+        long bits = 0;
+        for (int i = 0; i < DIGITS; i++) {
+            int digit = digitValue(fileId.charAt(PREFIX.length() + i));
+            if (digit < 0) {
+                return -1;
+            }
+            if (i >= 9 && i <= 11) {
+                bits = bits << 5 | digit;
+            }
+        }
+        return (int) (bits >>> 2) & MAX_NODE_ID;
+    }
+
+    private static int digitValue(char c) {
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static String encode(long timestamp, int nodeId, int sequence, long randomHigh, long randomLow) {
+        // The ordered 80 bits as 32 high and 48 low bits, followed by the two random halves.
+        long high = timestamp >>> 16;
+        long low = (timestamp & 0xFFFFL) << 32 | (long) nodeId << SEQUENCE_BITS | sequence;
+        char[] id = new char[PREFIX.length() + DIGITS];
+        PREFIX.getChars(0, PREFIX.length(), id, 0);
+        for (int i = 0; i < 16; i++) {
+            int shift = 75 - 5 * i;
+            long digit = shift >= 48 ? high >>> (shift - 48) : high << (48 - shift) | low >>> shift;
+            id[PREFIX.length() + i] = ALPHABET[(int) (digit & 31)];
+        }
+        for (int i = 0; i < 8; i++) {
+            int shift = 5 * (7 - i);
+            id[PREFIX.length() + 16 + i] = ALPHABET[(int) (randomHigh >>> shift) & 31];
+            id[PREFIX.length() + 24 + i] = ALPHABET[(int) (randomLow >>> shift) & 31];
+        }
+        return new String(id);
+    }
+}
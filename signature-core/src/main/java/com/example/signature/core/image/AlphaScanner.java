@@ -0,0 +1,340 @@
+package com.example.signature.core.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * Row-oriented alpha access straight from the backing {@link DataBuffer}.
+ * A pixel counts as opaque when its 8-bit alpha is strictly greater than the threshold.
+ */
+abstract class AlphaScanner {
+
+    /** Returns the first opaque x in {@code [from, to)} on row {@code y}, or -1. */
+    abstract int firstOpaque(int y, int from, int to);
+
+    /** Returns the last opaque x in {@code [from, to)} on row {@code y}, or -1. */
+    abstract int lastOpaque(int y, int from, int to);
+
+    /**
+     * Picks the fastest scanner for the image layout, or returns {@code null} when the
+     * image carries no alpha information and therefore has nothing to trim.
+     */
+    static AlphaScanner forImage(BufferedImage image, int threshold) {
+        ColorModel colorModel = image.getColorModel();
+        WritableRaster raster = image.getRaster();
+        SampleModel sampleModel = raster.getSampleModel();
+        DataBuffer buffer = raster.getDataBuffer();
+
+        if (colorModel instanceof IndexColorModel) {
+            IndexColorModel palette = (IndexColorModel) colorModel;
+            if (palette.getTransparency() == ColorModel.OPAQUE) {
+                return null;
+            }
+            boolean[] opaque = new boolean[palette.getMapSize()];
+            for (int i = 0; i < opaque.length; i++) {
+                opaque[i] = palette.getAlpha(i) > threshold;
+            }
+            if (buffer instanceof DataBufferByte && buffer.getNumBanks() == 1) {
+                if (sampleModel instanceof MultiPixelPackedSampleModel) {
+                    return new PackedIndexScanner(raster, (MultiPixelPackedSampleModel) sampleModel, opaque);
+                }
+                if (sampleModel instanceof ComponentSampleModel && sampleModel.getNumBands() == 1
+                        && sampleModel.getSampleSize(0) == 8) {
+                    return new ByteIndexScanner(raster, (ComponentSampleModel) sampleModel, opaque);
+                }
+            }
+            return new GenericIndexScanner(raster, opaque);
+        }
+
+        if (!colorModel.hasAlpha()) {
+            return null;
+        }
+        int alphaBand = colorModel.getNumComponents() - 1;
+
+        if (buffer instanceof DataBufferInt && buffer.getNumBanks() == 1
+                && sampleModel instanceof SinglePixelPackedSampleModel) {
+            SinglePixelPackedSampleModel packed = (SinglePixelPackedSampleModel) sampleModel;
+            if (packed.getBitMasks()[alphaBand] == 0xff000000) {
+                return new IntArgbScanner(raster, packed, threshold);
+            }
+        }
+        if (buffer instanceof DataBufferByte && buffer.getNumBanks() == 1
+                && sampleModel instanceof ComponentSampleModel
+                && sampleModel.getSampleSize(alphaBand) == 8) {
+            return new ByteInterleavedScanner(raster, (ComponentSampleModel) sampleModel, alphaBand, threshold);
+        }
+        return new GenericScanner(raster, alphaBand, colorModel.getComponentSize(alphaBand), threshold);
+    }
+
+    // TYPE_INT_ARGB / TYPE_INT_ARGB_PRE: alpha is the top byte of every int.
+    private static final class IntArgbScanner extends AlphaScanner {
+        private final int[] data;
+        private final int base;
+        private final int stride;
+        private final int threshold;
+
+        IntArgbScanner(WritableRaster raster, SinglePixelPackedSampleModel sampleModel, int threshold) {
+            DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+            this.data = buffer.getData();
+            this.stride = sampleModel.getScanlineStride();
+            this.base = buffer.getOffset()
+                    + sampleModel.getOffset(-raster.getSampleModelTranslateX(), -raster.getSampleModelTranslateY());
+            this.threshold = threshold;
+        }
+
+        @Override
+        int firstOpaque(int y, int from, int to) {
+            int row = base + y * stride;
+            for (int x = from; x < to; x++) {
+                if ((data[row + x] >>> 24) > threshold) {
+                    return x;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        int lastOpaque(int y, int from, int to) {
+            int row = base + y * stride;
+            for (int x = to - 1; x >= from; x--) {
+                if ((data[row + x] >>> 24) > threshold) {
+                    return x;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // TYPE_4BYTE_ABGR and the interleaved RGBA / gray+alpha rasters ImageIO produces for PNG.
+    private static final class ByteInterleavedScanner extends AlphaScanner {
+        private final byte[] data;
+        private final int base;
+        private final int stride;
+        private final int pixelStride;
+        private final int threshold;
+
+        ByteInterleavedScanner(WritableRaster raster, ComponentSampleModel sampleModel, int alphaBand, int threshold) {
+            DataBufferByte buffer = (DataBufferByte) raster.getDataBuffer();
+            this.data = buffer.getData();
+            this.stride = sampleModel.getScanlineStride();
+            this.pixelStride = sampleModel.getPixelStride();
+            this.base = buffer.getOffset() + sampleModel.getOffset(
+                    -raster.getSampleModelTranslateX(), -raster.getSampleModelTranslateY(), alphaBand);
+            this.threshold = threshold;
+        }
+
+        @Override
+        int firstOpaque(int y, int from, int to) {
+            int row = base + y * stride;
+            for (int x = from, i = row + from * pixelStride; x < to; x++, i += pixelStride) {
+                if ((data[i] & 0xff) > threshold) {
+                    return x;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        int lastOpaque(int y, int from, int to) {
+            int row = base + y * stride;
+            for (int x = to - 1, i = row + x * pixelStride; x >= from; x--, i -= pixelStride) {
+                if ((data[i] & 0xff) > threshold) {
+                    return x;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // 8-bit palette PNGs (TYPE_BYTE_INDEXED): one byte per pixel, alpha looked up per index.
+    private static final class ByteIndexScanner extends AlphaScanner {
+        private final byte[] data;
+        private final int base;
+        private final int stride;
+        private final int pixelStride;
+        private final boolean[] opaque;
+
+        ByteIndexScanner(WritableRaster raster, ComponentSampleModel sampleModel, boolean[] opaque) {
+            DataBufferByte buffer = (DataBufferByte) raster.getDataBuffer();
+            this.data = buffer.getData();
+            this.stride = sampleModel.getScanlineStride();
+            this.pixelStride = sampleModel.getPixelStride();
+            this.base = buffer.getOffset() + sampleModel.getOffset(
+                    -raster.getSampleModelTranslateX(), -raster.getSampleModelTranslateY(), 0);
+            this.opaque = opaque;
+        }
+
+        @Override
+        int firstOpaque(int y, int from, int to) {
+            int row = base + y * stride;
+            for (int x = from, i = row + from * pixelStride; x < to; x++, i += pixelStride) {
+                int index = data[i] & 0xff;
+                if (index < opaque.length && opaque[index]) {
+                    return x;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        int lastOpaque(int y, int from, int to) {
+            int row = base + y * stride;
+            for (int x = to - 1, i = row + x * pixelStride; x >= from; x--, i -= pixelStride) {
+                int index = data[i] & 0xff;
+                if (index < opaque.length && opaque[index]) {
+                    return x;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // 1/2/4-bit palette PNGs (TYPE_BYTE_BINARY): several indices packed into each byte.
+    private static final class PackedIndexScanner extends AlphaScanner {
+        private final byte[] data;
+        private final int base;
+        private final int stride;
+        private final int bitOffset;
+        private final int bits;
+        private final int mask;
+        private final boolean[] opaque;
+
+        PackedIndexScanner(WritableRaster raster, MultiPixelPackedSampleModel sampleModel, boolean[] opaque) {
+            DataBufferByte buffer = (DataBufferByte) raster.getDataBuffer();
+            int tx = -raster.getSampleModelTranslateX();
+            int ty = -raster.getSampleModelTranslateY();
+            this.data = buffer.getData();
+            this.stride = sampleModel.getScanlineStride();
+            this.bits = sampleModel.getPixelBitStride();
+            this.mask = (1 << bits) - 1;
+            this.base = buffer.getOffset() + ty * stride;
+            this.bitOffset = sampleModel.getDataBitOffset() + tx * bits;
+            this.opaque = opaque;
+        }
+
+        private boolean isOpaque(int row, int x) {
+            int bit = bitOffset + x * bits;
+            int shift = 8 - bits - (bit & 7);
+            int index = (data[row + (bit >> 3)] >> shift) & mask;
+            return index < opaque.length && opaque[index];
+        }
+
+        @Override
+        int firstOpaque(int y, int from, int to) {
+            int row = base + y * stride;
+            for (int x = from; x < to; x++) {
+                if (isOpaque(row, x)) {
+                    return x;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        int lastOpaque(int y, int from, int to) {
+            int row = base + y * stride;
+            for (int x = to - 1; x >= from; x--) {
+                if (isOpaque(row, x)) {
+                    return x;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static final class GenericIndexScanner extends AlphaScanner {
+        private final WritableRaster raster;
+        private final boolean[] opaque;
+        private int[] row = new int[0];
+
+        GenericIndexScanner(WritableRaster raster, boolean[] opaque) {
+            this.raster = raster;
+            this.opaque = opaque;
+        }
+
+        private int[] read(int y, int from, int to) {
+            if (row.length < to - from) {
+                row = new int[to - from];
+            }
+            return raster.getSamples(from, y, to - from, 1, 0, row);
+        }
+
+        @Override
+        int firstOpaque(int y, int from, int to) {
+            int[] samples = read(y, from, to);
+            for (int i = 0; i < to - from; i++) {
+                int index = samples[i];
+                if (index < opaque.length && opaque[index]) {
+                    return from + i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        int lastOpaque(int y, int from, int to) {
+            int[] samples = read(y, from, to);
+            for (int i = to - from - 1; i >= 0; i--) {
+                int index = samples[i];
+                if (index < opaque.length && opaque[index]) {
+                    return from + i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // Anything else (16-bit PNGs, banded rasters): read the alpha band one row at a time.
+    private static final class GenericScanner extends AlphaScanner {
+        private final WritableRaster raster;
+        private final int alphaBand;
+        private final int threshold;
+        private int[] row = new int[0];
+
+        GenericScanner(WritableRaster raster, int alphaBand, int alphaBits, int threshold) {
+            this.raster = raster;
+            this.alphaBand = alphaBand;
+            // Scale the 8-bit threshold into the sample range so 16-bit alpha behaves the same.
+            int maxSample = (1 << alphaBits) - 1;
+            this.threshold = (int) ((long) threshold * maxSample / 255);
+        }
+
+        private int[] read(int y, int from, int to) {
+            if (row.length < to - from) {
+                row = new int[to - from];
+            }
+            return raster.getSamples(from, y, to - from, 1, alphaBand, row);
+        }
+
+        @Override
+        int firstOpaque(int y, int from, int to) {
+            int[] samples = read(y, from, to);
+            for (int i = 0; i < to - from; i++) {
+                if (samples[i] > threshold) {
+                    return from + i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        int lastOpaque(int y, int from, int to) {
+            int[] samples = read(y, from, to);
+            for (int i = to - from - 1; i >= 0; i--) {
+                if (samples[i] > threshold) {
+                    return from + i;
+                }
+            }
+            return -1;
+        }
+    }
+}
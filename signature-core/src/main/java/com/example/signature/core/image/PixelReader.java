@@ -0,0 +1,278 @@
+package com.example.signature.core.image;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+/**
+ * Row-oriented access to an image as premultiplied ARGB, read straight from the backing
+ * {@link DataBuffer} for the layouts the service actually sees. A reader remembers whether every
+ * pixel it returned was fully opaque, so it must not be shared between resampling calls.
+ */
+abstract class PixelReader {
+    private static final int[] ARGB_MASKS = {0x00ff0000, 0x0000ff00, 0x000000ff, 0xff000000};
+    private static final int[] RGB_MASKS = {0x00ff0000, 0x0000ff00, 0x000000ff};
+
+    // AND of every alpha value read so far; stays 0xff only while everything was opaque.
+    private int alphaAnd = 0xff;
+
+    /** Writes the {@code width} pixels of row {@code y} to {@code dst} starting at {@code offset}. */
+    abstract void readRow(int y, int[] dst, int offset);
+
+    /**
+     * Writes the 2x2 box average of rows {@code 2y} and {@code 2y + 1} directly, without first
+     * unpacking them. Returns {@code false} when the layout has no fused path and the caller
+     * should read both rows and halve them itself.
+     */
+    boolean readHalvedRow(int y, int[] dst, int offset, int dstWidth) {
+        return false;
+    }
+
+    boolean isOpaque() {
+        return alphaAnd == 0xff;
+    }
+
+    // Readers accumulate alpha in a local per row and report it once, keeping the pixel loops free of field writes.
+    final void track(int rowAlphaAnd) {
+        alphaAnd &= rowAlphaAnd;
+    }
+
+    static int premultiply(int a, int r, int g, int b) {
+        if (a == 0xff) {
+            return 0xff000000 | (r << 16) | (g << 8) | b;
+        }
+        if (a == 0) {
+            return 0;
+        }
+        return (a << 24) | ((r * a + 127) / 255) << 16 | ((g * a + 127) / 255) << 8 | ((b * a + 127) / 255);
+    }
+
+    static int premultiply(int argb) {
+        return premultiply(argb >>> 24, (argb >> 16) & 0xff, (argb >> 8) & 0xff, argb & 0xff);
+    }
+
+    static PixelReader forArray(int[] argb, int width) {
+        return new ArrayReader(argb, width);
+    }
+
+    static PixelReader forImage(BufferedImage image) {
+        return forImage(image, new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+    }
+
+    /** Reads only {@code region}; row 0 of the reader is {@code region.y} in the image. */
+    static PixelReader forImage(BufferedImage image, Rectangle region) {
+        WritableRaster raster = image.getRaster();
+        SampleModel sampleModel = raster.getSampleModel();
+        DataBuffer buffer = raster.getDataBuffer();
+        ColorModel colorModel = image.getColorModel();
+        if (colorModel.isAlphaPremultiplied() || buffer.getNumBanks() != 1) {
+            return new GenericReader(image, region);
+        }
+
+        if (buffer instanceof DataBufferInt && sampleModel instanceof SinglePixelPackedSampleModel
+                && colorModel instanceof DirectColorModel) {
+            int[] masks = ((SinglePixelPackedSampleModel) sampleModel).getBitMasks();
+            if (Arrays.equals(masks, ARGB_MASKS) || Arrays.equals(masks, RGB_MASKS)) {
+                return new IntPackedReader(raster, (SinglePixelPackedSampleModel) sampleModel, region, masks.length == 4);
+            }
+        }
+        if (buffer instanceof DataBufferByte && sampleModel instanceof ComponentSampleModel
+                && colorModel instanceof ComponentColorModel && colorModel.getColorSpace().isCS_sRGB()
+                && (sampleModel.getNumBands() == 3 || sampleModel.getNumBands() == 4)
+                && is8Bit(sampleModel)) {
+            return new ByteInterleavedReader(raster, (ComponentSampleModel) sampleModel, region);
+        }
+        return new GenericReader(image, region);
+    }
+
+    private static boolean is8Bit(SampleModel sampleModel) {
+        for (int size : sampleModel.getSampleSize()) {
+            if (size != 8) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class ArrayReader extends PixelReader {
+        private final int[] data;
+        private final int width;
+
+        ArrayReader(int[] data, int width) {
+            this.data = data;
+            this.width = width;
+        }
+
+        @Override
+        void readRow(int y, int[] dst, int offset) {
+            int row = y * width;
+            int rowAlpha = 0xff;
+            for (int x = 0; x < width; x++) {
+                int p = data[row + x];
+                rowAlpha &= p >>> 24;
+                dst[offset + x] = premultiply(p);
+            }
+            track(rowAlpha);
+        }
+    }
+
+    // TYPE_INT_ARGB / TYPE_INT_RGB, including sub-images produced by trimming.
+    private static final class IntPackedReader extends PixelReader {
+        private final int[] data;
+        private final int base;
+        private final int stride;
+        private final int width;
+        private final boolean hasAlpha;
+
+        IntPackedReader(WritableRaster raster, SinglePixelPackedSampleModel sampleModel, Rectangle region,
+                        boolean hasAlpha) {
+            DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+            this.data = buffer.getData();
+            this.stride = sampleModel.getScanlineStride();
+            this.base = buffer.getOffset() + sampleModel.getOffset(
+                    region.x - raster.getSampleModelTranslateX(), region.y - raster.getSampleModelTranslateY());
+            this.width = region.width;
+            this.hasAlpha = hasAlpha;
+        }
+
+        @Override
+        void readRow(int y, int[] dst, int offset) {
+            int row = base + y * stride;
+            if (!hasAlpha) {
+                for (int x = 0; x < width; x++) {
+                    dst[offset + x] = data[row + x] | 0xff000000;
+                }
+                return;
+            }
+            int rowAlpha = 0xff;
+            for (int x = 0; x < width; x++) {
+                int p = data[row + x];
+                int a = p >>> 24;
+                rowAlpha &= a;
+                dst[offset + x] = a == 0xff ? p : (a == 0 ? 0 : premultiply(p));
+            }
+            track(rowAlpha);
+        }
+    }
+
+    // TYPE_3BYTE_BGR / TYPE_4BYTE_ABGR and the RGB(A) rasters ImageIO decodes PNGs into.
+    private static final class ByteInterleavedReader extends PixelReader {
+        private final byte[] data;
+        private final int base;
+        private final int stride;
+        private final int pixelStride;
+        private final int width;
+        private final int red;
+        private final int green;
+        private final int blue;
+        private final int alpha;
+
+        ByteInterleavedReader(WritableRaster raster, ComponentSampleModel sampleModel, Rectangle region) {
+            DataBufferByte buffer = (DataBufferByte) raster.getDataBuffer();
+            int[] bandOffsets = sampleModel.getBandOffsets();
+            this.data = buffer.getData();
+            this.stride = sampleModel.getScanlineStride();
+            this.pixelStride = sampleModel.getPixelStride();
+            this.base = buffer.getOffset() + sampleModel.getOffset(region.x - raster.getSampleModelTranslateX(),
+                    region.y - raster.getSampleModelTranslateY(), 0) - bandOffsets[0];
+            this.width = region.width;
+            this.red = bandOffsets[0];
+            this.green = bandOffsets[1];
+            this.blue = bandOffsets[2];
+            this.alpha = bandOffsets.length == 4 ? bandOffsets[3] : -1;
+        }
+
+        @Override
+        void readRow(int y, int[] dst, int offset) {
+            int i = base + y * stride;
+            if (alpha < 0) {
+                for (int x = 0; x < width; x++, i += pixelStride) {
+                    dst[offset + x] = 0xff000000 | (data[i + red] & 0xff) << 16
+                            | (data[i + green] & 0xff) << 8 | (data[i + blue] & 0xff);
+                }
+                return;
+            }
+            int rowAlpha = 0xff;
+            for (int x = 0; x < width; x++, i += pixelStride) {
+                int a = data[i + alpha] & 0xff;
+                rowAlpha &= a;
+                dst[offset + x] = a == 0 ? 0
+                        : premultiply(a, data[i + red] & 0xff, data[i + green] & 0xff, data[i + blue] & 0xff);
+            }
+            track(rowAlpha);
+        }
+
+        @Override
+        boolean readHalvedRow(int y, int[] dst, int offset, int dstWidth) {
+            if (alpha < 0) {
+                return false;
+            }
+            int top = base + 2 * y * stride;
+            int bottom = top + stride;
+            int rowAlpha = 0xff;
+            for (int x = 0; x < dstWidth; x++) {
+                int i = top + 2 * x * pixelStride;
+                int j = bottom + 2 * x * pixelStride;
+                int a0 = data[i + alpha] & 0xff;
+                int a1 = data[i + pixelStride + alpha] & 0xff;
+                int a2 = data[j + alpha] & 0xff;
+                int a3 = data[j + pixelStride + alpha] & 0xff;
+                rowAlpha &= a0 & a1 & a2 & a3;
+                // Blank canvas: four alpha reads and no colour unpacking.
+                if ((a0 | a1 | a2 | a3) == 0) {
+                    dst[offset + x] = 0;
+                    continue;
+                }
+                int p0 = premultiply(a0, data[i + red] & 0xff, data[i + green] & 0xff, data[i + blue] & 0xff);
+                i += pixelStride;
+                int p1 = premultiply(a1, data[i + red] & 0xff, data[i + green] & 0xff, data[i + blue] & 0xff);
+                int p2 = premultiply(a2, data[j + red] & 0xff, data[j + green] & 0xff, data[j + blue] & 0xff);
+                j += pixelStride;
+                int p3 = premultiply(a3, data[j + red] & 0xff, data[j + green] & 0xff, data[j + blue] & 0xff);
+                int rb = (p0 & 0x00ff00ff) + (p1 & 0x00ff00ff) + (p2 & 0x00ff00ff) + (p3 & 0x00ff00ff);
+                int ag = ((p0 >>> 8) & 0x00ff00ff) + ((p1 >>> 8) & 0x00ff00ff)
+                        + ((p2 >>> 8) & 0x00ff00ff) + ((p3 >>> 8) & 0x00ff00ff);
+                dst[offset + x] = (((ag + 0x00020002) >>> 2) & 0x00ff00ff) << 8 | (((rb + 0x00020002) >>> 2) & 0x00ff00ff);
+            }
+            track(rowAlpha);
+            return true;
+        }
+    }
+
+    // Indexed, gray, 16-bit and premultiplied images: let the colour model do the conversion.
+    private static final class GenericReader extends PixelReader {
+        private final BufferedImage image;
+        private final int x0;
+        private final int y0;
+        private final int width;
+
+        GenericReader(BufferedImage image, Rectangle region) {
+            this.image = image;
+            this.x0 = region.x;
+            this.y0 = region.y;
+            this.width = region.width;
+        }
+
+        @Override
+        void readRow(int y, int[] dst, int offset) {
+            image.getRGB(x0, y0 + y, width, 1, dst, offset, width);
+            int rowAlpha = 0xff;
+            for (int x = 0; x < width; x++) {
+                int p = dst[offset + x];
+                rowAlpha &= p >>> 24;
+                dst[offset + x] = premultiply(p);
+            }
+            track(rowAlpha);
+        }
+    }
+}
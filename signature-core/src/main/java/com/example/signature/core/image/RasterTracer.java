@@ -0,0 +1,308 @@
+package com.example.signature.core.image;
+
+import com.example.signature.core.pool.BufferPool;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Turns the ink of a raster signature into closed outlines that can be filled as a vector path.
+ * <p>
+ * A pixel is ink when, composited over white, it is darker than mid-grey. The boundary between
+ * ink and background is followed along pixel edges with the ink always on the right, so outer
+ * contours run clockwise and holes counter-clockwise; diagonal neighbours are joined, which keeps
+ * thin slanted strokes in one piece. Each contour passes through the midpoints of its edges,
+ * which turns pixel staircases into straight diagonals, and is then simplified to within half a
+ * pixel. Specks smaller than a couple of pixels are dropped as scan or compression noise.
+ * <p>
+ * Outlines are single-coloured: the fill is the average colour of all ink pixels. Instances are
+ * immutable and can be shared by all conversion threads.
+ */
+public final class RasterTracer {
+    // Coordinates are kept doubled so edge midpoints stay integral. Just under half a pixel: a
+    // square corner sits exactly half a pixel off the chord and survives, pixel staircases do not.
+    private static final double SIMPLIFY_TOLERANCE = 0.9;
+    private static final int MIN_AREA = 3;
+    private static final int INK_LUMA = 128;
+
+    private static final int RIGHT = 0;
+    private static final int DOWN = 1;
+    private static final int LEFT = 2;
+    private static final int UP = 3;
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DY = {0, 1, 0, -1};
+
+    private final BufferPool pool;
+
+    public RasterTracer(BufferPool pool) {
+        this.pool = pool;
+    }
+
+    /** Traces {@code region} of {@code image} (all of it when {@code null}). */
+    public Outline trace(BufferedImage image, Rectangle region) {
+        Rectangle area = region != null ? region : new Rectangle(0, 0, image.getWidth(), image.getHeight());
+        int width = area.width;
+        int height = area.height;
+        byte[] mask = pool.leaseBytes(width * height);
+        byte[] visited = pool.leaseBytes(width * (height + 1));
+        int[] row = pool.leaseInts(width);
+        try {
+            int color = readMask(PixelReader.forImage(image, area), mask, row, width, height);
+            Arrays.fill(visited, 0, width * (height + 1), (byte) 0);
+            List<int[]> contours = new ArrayList<int[]>();
+            Mask ink = new Mask(mask, width, height);
+            // Every contour, outer or hole, has at least one left-to-right edge.
+            for (int y = 0; y <= height; y++) {
+                for (int x = 0; x < width; x++) {
+                    if (visited[y * width + x] == 0 && ink.edge(x, y, RIGHT)) {
+                        int[] contour = follow(ink, visited, x, y);
+                        if (contour != null) {
+                            contours.add(contour);
+                        }
+                    }
+                }
+            }
+            return new Outline(width, height, color, contours);
+        } finally {
+            pool.release(mask);
+            pool.release(visited);
+            pool.release(row);
+        }
+    }
+
+    // Fills the mask and returns the average unpremultiplied colour of the ink.
+    private static int readMask(PixelReader reader, byte[] mask, int[] row, int width, int height) {
+        long red = 0;
+        long green = 0;
+        long blue = 0;
+        long alpha = 0;
+        for (int y = 0; y < height; y++) {
+            reader.readRow(y, row, 0);
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                int argb = row[x];
+                int a = argb >>> 24;
+                int r = (argb >> 16) & 0xff;
+                int g = (argb >> 8) & 0xff;
+                int b = argb & 0xff;
+                int paper = 255 - a;
+                int luma = ((r + paper) * 77 + (g + paper) * 150 + (b + paper) * 29) >> 8;
+                if (luma < INK_LUMA) {
+                    mask[offset + x] = 1;
+                    red += r;
+                    green += g;
+                    blue += b;
+                    alpha += a;
+                } else {
+                    mask[offset + x] = 0;
+                }
+            }
+        }
+        if (alpha == 0) {
+            return 0x000000;
+        }
+        return (int) Math.min(255, red * 255 / alpha) << 16
+                | (int) Math.min(255, green * 255 / alpha) << 8
+                | (int) Math.min(255, blue * 255 / alpha);
+    }
+
+    // Walks one contour from the rightward edge leaving vertex (x, y); null when it is a speck.
+    private static int[] follow(Mask ink, byte[] visited, int startX, int startY) {
+        IntList points = new IntList();
+        int x = startX;
+        int y = startY;
+        int direction = RIGHT;
+        long area = 0;
+        while (true) {
+            if (direction == RIGHT) {
+                visited[y * ink.width + x] = 1;
+            } else if (direction == LEFT) {
+                visited[y * ink.width + x - 1] = 1;
+            }
+            points.add(2 * x + DX[direction], 2 * y + DY[direction]);
+            // Shoelace sum over the pixel-corner polygon, for the speck filter.
+            area += (long) x * (y + DY[direction]) - (long) (x + DX[direction]) * y;
+            x += DX[direction];
+            y += DY[direction];
+            // Turning left first at a saddle joins diagonal neighbours into one contour.
+            int next = -1;
+            for (int turn = 3; turn <= 5; turn++) {
+                int candidate = (direction + turn) & 3;
+                if (ink.edge(x, y, candidate)) {
+                    next = candidate;
+                    break;
+                }
+            }
+            if (x == startX && y == startY && next == RIGHT) {
+                break;
+            }
+            direction = next;
+        }
+        if (Math.abs(area) < 2 * MIN_AREA) {
+            return null;
+        }
+        return simplify(points.toArray());
+    }
+
+    /**
+     * Douglas-Peucker on a closed polygon of interleaved x, y values: the loop is split at the
+     * vertex farthest from the first one and each half is reduced to the points that deviate more
+     * than the tolerance from the chord.
+     */
+    static int[] simplify(int[] polygon) {
+        int count = polygon.length / 2;
+        if (count <= 4) {
+            return polygon;
+        }
+        int far = 0;
+        long farthest = -1;
+        for (int i = 1; i < count; i++) {
+            long dx = polygon[2 * i] - polygon[0];
+            long dy = polygon[2 * i + 1] - polygon[1];
+            if (dx * dx + dy * dy > farthest) {
+                farthest = dx * dx + dy * dy;
+                far = i;
+            }
+        }
+        boolean[] keep = new boolean[count + 1];
+        keep[0] = true;
+        keep[far] = true;
+        keep[count] = true;
+        IntList spans = new IntList();
+        spans.add(0, far);
+        spans.add(far, count);
+        while (spans.size() > 0) {
+            int to = spans.pop();
+            int from = spans.pop();
+            int ax = polygon[2 * (from % count)];
+            int ay = polygon[2 * (from % count) + 1];
+            int bx = polygon[2 * (to % count)];
+            int by = polygon[2 * (to % count) + 1];
+            double length = Math.hypot(bx - ax, by - ay);
+            int split = -1;
+            double worst = SIMPLIFY_TOLERANCE;
+            for (int i = from + 1; i < to; i++) {
+                int px = polygon[2 * i];
+                int py = polygon[2 * i + 1];
+                double distance = length == 0
+                        ? Math.hypot(px - ax, py - ay)
+                        : Math.abs((double) (bx - ax) * (ay - py) - (double) (ax - px) * (by - ay)) / length;
+                if (distance > worst) {
+                    worst = distance;
+                    split = i;
+                }
+            }
+            if (split >= 0) {
+                keep[split] = true;
+                spans.add(from, split);
+                spans.add(split, to);
+            }
+        }
+        IntList kept = new IntList();
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                kept.add(polygon[2 * i], polygon[2 * i + 1]);
+            }
+        }
+        return kept.toArray();
+    }
+
+    private static final class Mask {
+        final byte[] bits;
+        final int width;
+        final int height;
+
+        Mask(byte[] bits, int width, int height) {
+            this.bits = bits;
+            this.width = width;
+            this.height = height;
+        }
+
+        boolean ink(int x, int y) {
+            return x >= 0 && y >= 0 && x < width && y < height && bits[y * width + x] != 0;
+        }
+
+        // Whether a boundary edge with ink on its right leaves vertex (x, y) in this direction.
+        boolean edge(int x, int y, int direction) {
+            switch (direction) {
+                case RIGHT:
+                    return ink(x, y) && !ink(x, y - 1);
+                case DOWN:
+                    return ink(x - 1, y) && !ink(x, y);
+                case LEFT:
+                    return ink(x - 1, y - 1) && !ink(x - 1, y);
+                case UP:
+                    return ink(x, y - 1) && !ink(x - 1, y - 1);
+                default:
+                    throw new IllegalArgumentException("Unknown direction " + direction);
+            }
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[64];
+        private int size;
+
+        void add(int first, int second) {
+            if (size + 2 > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = first;
+            values[size++] = second;
+        }
+
+        int pop() {
+            return values[--size];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Traced contours of one image. Each contour is a closed polygon of interleaved x, y values in
+     * half pixels relative to the traced region, clockwise around ink and counter-clockwise around
+     * holes.
+     */
+    public static final class Outline {
+        private final int width;
+        private final int height;
+        private final int color;
+        private final List<int[]> contours;
+
+        Outline(int width, int height, int color, List<int[]> contours) {
+            this.width = width;
+            this.height = height;
+            this.color = color;
+            this.contours = Collections.unmodifiableList(contours);
+        }
+
+        /** Width of the traced region in pixels. */
+        public int getWidth() {
+            return width;
+        }
+
+        /** Height of the traced region in pixels. */
+        public int getHeight() {
+            return height;
+        }
+
+        /** Average ink colour as 0xRRGGBB. */
+        public int getColor() {
+            return color;
+        }
+
+        public List<int[]> getContours() {
+            return contours;
+        }
+    }
+}
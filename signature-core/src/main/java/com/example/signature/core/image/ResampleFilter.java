@@ -0,0 +1,54 @@
+package com.example.signature.core.image;
+
+/**
+ * Reconstruction kernels for {@link Resampler}. {@link #support()} is the kernel radius in
+ * source pixels at a scale of 1; when downscaling it is stretched by the reduction factor.
+ */
+public enum ResampleFilter {
+    /** Area average; the cheapest filter and exact for integer reductions. */
+    BOX(0.5) {
+        @Override
+        double weight(double x) {
+            return x >= -0.5 && x < 0.5 ? 1.0 : 0.0;
+        }
+    },
+    /** Tent filter; linear interpolation when upscaling. */
+    BILINEAR(1.0) {
+        @Override
+        double weight(double x) {
+            x = Math.abs(x);
+            return x < 1.0 ? 1.0 - x : 0.0;
+        }
+    },
+    /** Windowed sinc with three lobes; sharpest result, slightly more ringing near strokes. */
+    LANCZOS3(3.0) {
+        @Override
+        double weight(double x) {
+            x = Math.abs(x);
+            if (x >= 3.0) {
+                return 0.0;
+            }
+            return sinc(x) * sinc(x / 3.0);
+        }
+    };
+
+    private final double support;
+
+    ResampleFilter(double support) {
+        this.support = support;
+    }
+
+    public double support() {
+        return support;
+    }
+
+    abstract double weight(double x);
+
+    private static double sinc(double x) {
+        if (x < 1e-8) {
+            return 1.0;
+        }
+        double px = Math.PI * x;
+        return Math.sin(px) / px;
+    }
+}
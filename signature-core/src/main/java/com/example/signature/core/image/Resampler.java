@@ -0,0 +1,450 @@
+package com.example.signature.core.image;
+
+import com.example.signature.core.pool.BufferPool;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DirectColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+/**
+ * Separable image resampler working directly on packed ARGB {@code int[]} pixels.
+ * <p>
+ * Pixels are premultiplied while they are read so transparent areas of a signature do not
+ * bleed dark fringes into the strokes. Large reductions are first halved with a 2x2 box
+ * average, leaving between 2x and 4x for the filter itself, which then runs once horizontally
+ * and once vertically using fixed-point weight tables computed up front for each axis. The
+ * first halving happens while the source is being read, so a full-size copy of a large canvas
+ * is never made. Fully transparent pixels are skipped in the filter passes, which is most of a
+ * signature capture.
+ * <p>
+ * Every working array is leased from a {@link BufferPool} and handed back as soon as the next
+ * pass has consumed it. Instances are otherwise immutable and hold no scratch state, so one
+ * resampler can be shared by all conversion threads.
+ */
+public final class Resampler {
+    private static final int WEIGHT_BITS = 14;
+    private static final int WEIGHT_ONE = 1 << WEIGHT_BITS;
+    private static final int WEIGHT_HALF = 1 << (WEIGHT_BITS - 1);
+    private static final int[] ARGB_MASKS = {0x00ff0000, 0x0000ff00, 0x000000ff, 0xff000000};
+    private static final int[] RGB_MASKS = {0x00ff0000, 0x0000ff00, 0x000000ff};
+    private static final DirectColorModel RGB_MODEL = new DirectColorModel(24, RGB_MASKS[0], RGB_MASKS[1], RGB_MASKS[2]);
+
+    /**
+     * Halving stops once less than this much reduction would be left for the filter pass, so the
+     * final filter still sees enough source pixels per output pixel to anti-alias properly.
+     */
+    static final int MIN_FINAL_REDUCTION = 2;
+
+    private final ResampleFilter filter;
+    private final BufferPool pool;
+
+    public Resampler(ResampleFilter filter) {
+        this(filter, new BufferPool(0));
+    }
+
+    public Resampler(ResampleFilter filter, BufferPool pool) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Resample filter must not be null");
+        }
+        this.filter = filter;
+        this.pool = pool;
+    }
+
+    public ResampleFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Returns {@code source} scaled to exactly {@code width} x {@code height}. The result is
+     * {@code TYPE_INT_ARGB} when the source has an alpha channel and {@code TYPE_INT_RGB} otherwise.
+     */
+    public BufferedImage resize(BufferedImage source, int width, int height) {
+        return render(source, null, width, height, null);
+    }
+
+    /**
+     * Crops, scales and flattens in one go: {@code region} of {@code source} (the whole image when
+     * {@code null}) is read straight from the source raster, resampled to {@code width} x
+     * {@code height} and, when {@code background} is given, composited onto it while the
+     * premultiplied result is finalised. The returned image wraps the last pass's buffer, so it is
+     * the only image allocated; it is {@code TYPE_INT_RGB} when flattened. That buffer is leased
+     * from the pool, and the caller may return it with {@link BufferPool#release(BufferedImage)}
+     * once the image is no longer used.
+     */
+    public BufferedImage render(BufferedImage source, Rectangle region, int width, int height, Color background) {
+        Rectangle area = region != null ? region : new Rectangle(0, 0, source.getWidth(), source.getHeight());
+        PixelReader reader = PixelReader.forImage(source, area);
+        int[] pixels = resample(reader, area.width, area.height, width, height);
+        if (background != null) {
+            if (!reader.isOpaque()) {
+                flatten(pixels, width * height, background.getRGB());
+            }
+            return toImage(pixels, width, height, false);
+        }
+        if (!reader.isOpaque()) {
+            unpremultiply(pixels, width * height);
+        }
+        return toImage(pixels, width, height, source.getColorModel().hasAlpha());
+    }
+
+    /**
+     * Resamples non-premultiplied ARGB pixels stored row by row. {@code argb} is left untouched.
+     */
+    public int[] resample(int[] argb, int srcWidth, int srcHeight, int dstWidth, int dstHeight) {
+        if (argb.length < srcWidth * srcHeight) {
+            throw new IllegalArgumentException("Pixel array is smaller than " + srcWidth + "x" + srcHeight);
+        }
+        PixelReader reader = PixelReader.forArray(argb, srcWidth);
+        int[] pixels = resample(reader, srcWidth, srcHeight, dstWidth, dstHeight);
+        if (!reader.isOpaque()) {
+            unpremultiply(pixels, dstWidth * dstHeight);
+        }
+        if (pixels.length == dstWidth * dstHeight) {
+            return pixels;
+        }
+        int[] exact = Arrays.copyOf(pixels, dstWidth * dstHeight);
+        pool.release(pixels);
+        return exact;
+    }
+
+    // Returns premultiplied pixels; the caller decides how to finish them.
+    private int[] resample(PixelReader reader, int srcWidth, int srcHeight, int dstWidth, int dstHeight) {
+        if (srcWidth <= 0 || srcHeight <= 0 || dstWidth <= 0 || dstHeight <= 0) {
+            throw new IllegalArgumentException("Image dimensions must be positive");
+        }
+        int width = srcWidth;
+        int height = srcHeight;
+        boolean halveX = width >= dstWidth * 2 * MIN_FINAL_REDUCTION;
+        boolean halveY = height >= dstHeight * 2 * MIN_FINAL_REDUCTION;
+        int[] pixels = halveX || halveY
+                ? readHalved(reader, width, height, halveX, halveY)
+                : readAll(reader, width, height);
+        if (halveX) {
+            width /= 2;
+        }
+        if (halveY) {
+            height /= 2;
+        }
+
+        halveX = width >= dstWidth * 2 * MIN_FINAL_REDUCTION;
+        halveY = height >= dstHeight * 2 * MIN_FINAL_REDUCTION;
+        while (halveX || halveY) {
+            int[] halved = halve(pixels, width, height, halveX, halveY);
+            pool.release(pixels);
+            pixels = halved;
+            width = halveX ? width / 2 : width;
+            height = halveY ? height / 2 : height;
+            halveX = width >= dstWidth * 2 * MIN_FINAL_REDUCTION;
+            halveY = height >= dstHeight * 2 * MIN_FINAL_REDUCTION;
+        }
+
+        if (width != dstWidth) {
+            int[] filtered = horizontal(pixels, width, height, WeightTable.of(filter, width, dstWidth));
+            pool.release(pixels);
+            pixels = filtered;
+            width = dstWidth;
+        }
+        if (height != dstHeight) {
+            int[] filtered = vertical(pixels, width, height, WeightTable.of(filter, height, dstHeight));
+            pool.release(pixels);
+            pixels = filtered;
+        }
+        return pixels;
+    }
+
+    private int[] readAll(PixelReader reader, int width, int height) {
+        int[] pixels = pool.leaseInts(width * height);
+        for (int y = 0; y < height; y++) {
+            reader.readRow(y, pixels, y * width);
+        }
+        return pixels;
+    }
+
+    // Reads at most two source rows at a time and emits one halved row from them.
+    private int[] readHalved(PixelReader reader, int width, int height, boolean halveX, boolean halveY) {
+        int dstWidth = halveX ? width / 2 : width;
+        int dstHeight = halveY ? height / 2 : height;
+        int[] rows = pool.leaseInts(halveY ? width * 2 : width);
+        int[] dst = pool.leaseInts(dstWidth * dstHeight);
+        for (int y = 0; y < dstHeight; y++) {
+            if (halveX && halveY && reader.readHalvedRow(y, dst, y * dstWidth, dstWidth)) {
+                continue;
+            }
+            if (halveY) {
+                reader.readRow(2 * y, rows, 0);
+                reader.readRow(2 * y + 1, rows, width);
+            } else {
+                reader.readRow(y, rows, 0);
+            }
+            halveRow(rows, 0, halveY ? width : -1, dstWidth, halveX, dst, y * dstWidth);
+        }
+        pool.release(rows);
+        return dst;
+    }
+
+    private int[] halve(int[] src, int width, int height, boolean halveX, boolean halveY) {
+        int dstWidth = halveX ? width / 2 : width;
+        int dstHeight = halveY ? height / 2 : height;
+        int[] dst = pool.leaseInts(dstWidth * dstHeight);
+        for (int y = 0; y < dstHeight; y++) {
+            int row = (halveY ? 2 * y : y) * width;
+            halveRow(src, row, halveY ? row + width : -1, dstWidth, halveX, dst, y * dstWidth);
+        }
+        return dst;
+    }
+
+    /**
+     * Box-averages one output row from the row at {@code first} and, unless {@code second} is
+     * negative, the row below it. Red/blue and alpha/green are summed as two 16-bit lanes per int,
+     * which cannot overflow for up to four 8-bit samples.
+     */
+    private static void halveRow(int[] src, int first, int second, int dstWidth, boolean halveX, int[] dst, int offset) {
+        if (halveX && second >= 0) {
+            for (int x = 0, i = 0; x < dstWidth; x++, i += 2) {
+                int p0 = src[first + i];
+                int p1 = src[first + i + 1];
+                int p2 = src[second + i];
+                int p3 = src[second + i + 1];
+                if ((p0 | p1 | p2 | p3) == 0) {
+                    dst[offset + x] = 0;
+                    continue;
+                }
+                int rb = (p0 & 0x00ff00ff) + (p1 & 0x00ff00ff) + (p2 & 0x00ff00ff) + (p3 & 0x00ff00ff);
+                int ag = ((p0 >>> 8) & 0x00ff00ff) + ((p1 >>> 8) & 0x00ff00ff)
+                        + ((p2 >>> 8) & 0x00ff00ff) + ((p3 >>> 8) & 0x00ff00ff);
+                dst[offset + x] = (((ag + 0x00020002) >>> 2) & 0x00ff00ff) << 8 | (((rb + 0x00020002) >>> 2) & 0x00ff00ff);
+            }
+        } else {
+            int step = halveX ? 2 : 1;
+            int other = halveX ? first + 1 : second;
+            for (int x = 0, i = 0; x < dstWidth; x++, i += step) {
+                int p0 = src[first + i];
+                int p1 = src[other + i];
+                int rb = (p0 & 0x00ff00ff) + (p1 & 0x00ff00ff);
+                int ag = ((p0 >>> 8) & 0x00ff00ff) + ((p1 >>> 8) & 0x00ff00ff);
+                dst[offset + x] = (((ag + 0x00010001) >>> 1) & 0x00ff00ff) << 8 | (((rb + 0x00010001) >>> 1) & 0x00ff00ff);
+            }
+        }
+    }
+
+    /**
+     * Fixed-point filter weights for one axis: output pixel {@code i} is the weighted sum of
+     * {@code count[i]} source pixels starting at {@code start[i]}, with weights at
+     * {@code weights[i * taps]} summing to {@code 1 << WEIGHT_BITS}.
+     */
+    static final class WeightTable {
+        final int taps;
+        final int[] start;
+        final int[] count;
+        final int[] weights;
+
+        private WeightTable(int dstSize, int taps) {
+            this.taps = taps;
+            this.start = new int[dstSize];
+            this.count = new int[dstSize];
+            this.weights = new int[dstSize * taps];
+        }
+
+        static WeightTable of(ResampleFilter filter, int srcSize, int dstSize) {
+            double scale = (double) dstSize / srcSize;
+            // When reducing, the kernel is widened so every source pixel contributes.
+            double stretch = scale < 1.0 ? 1.0 / scale : 1.0;
+            double radius = filter.support() * stretch;
+            int taps = (int) Math.ceil(radius * 2) + 3;
+            WeightTable table = new WeightTable(dstSize, taps);
+            double[] raw = new double[taps];
+
+            for (int i = 0; i < dstSize; i++) {
+                double center = (i + 0.5) / scale;
+                int lo = Math.max(0, (int) Math.floor(center - radius));
+                int hi = Math.min(srcSize - 1, (int) Math.ceil(center + radius));
+                double sum = 0;
+                for (int j = lo; j <= hi; j++) {
+                    double w = filter.weight((j + 0.5 - center) / stretch);
+                    raw[j - lo] = w;
+                    sum += w;
+                }
+                // Drop zero-weight taps at both ends; the box kernel produces them at every edge.
+                int first = 0;
+                int last = hi - lo;
+                while (first < last && raw[first] == 0.0) {
+                    first++;
+                }
+                while (last > first && raw[last] == 0.0) {
+                    last--;
+                }
+                int offset = i * taps;
+                if (sum == 0.0) {
+                    table.start[i] = Math.min(srcSize - 1, Math.max(0, (int) center));
+                    table.count[i] = 1;
+                    table.weights[offset] = WEIGHT_ONE;
+                    continue;
+                }
+                table.start[i] = lo + first;
+                table.count[i] = last - first + 1;
+                // Round each weight, then hand the rounding residue to the largest one so a flat
+                // input stays exactly flat.
+                int total = 0;
+                int largest = 0;
+                for (int k = first; k <= last; k++) {
+                    int w = (int) Math.round(raw[k] / sum * WEIGHT_ONE);
+                    table.weights[offset + k - first] = w;
+                    total += w;
+                    if (Math.abs(w) > Math.abs(table.weights[offset + largest])) {
+                        largest = k - first;
+                    }
+                }
+                table.weights[offset + largest] += WEIGHT_ONE - total;
+            }
+            return table;
+        }
+    }
+
+    /*
+     * Both passes multiply two channels at once: alpha over green and red over blue, each pair
+     * packed into the high and low 32-bit halves of a long. Each lane's sum stays well inside 31 bits, and negative Lanczos
+     * weights only borrow across the lane boundary, which packLanes undoes.
+     */
+    private int[] horizontal(int[] src, int srcWidth, int height, WeightTable table) {
+        int dstWidth = table.start.length;
+        int[] dst = pool.leaseInts(dstWidth * height);
+        int[] weights = table.weights;
+        for (int y = 0; y < height; y++) {
+            int row = y * srcWidth;
+            int out = y * dstWidth;
+            for (int x = 0; x < dstWidth; x++) {
+                int s = row + table.start[x];
+                int n = table.count[x];
+                int w0 = x * table.taps;
+                // A transparent run costs one OR per tap instead of the multiplies.
+                int any = 0;
+                for (int k = 0; k < n; k++) {
+                    any |= src[s + k];
+                }
+                if (any == 0) {
+                    dst[out + x] = 0;
+                    continue;
+                }
+                long ag = 0;
+                long rb = 0;
+                for (int k = 0; k < n; k++) {
+                    int p = src[s + k];
+                    long w = weights[w0 + k];
+                    ag += ((p & 0xff000000L) << 8 | ((p >>> 8) & 0xff)) * w;
+                    rb += ((p & 0x00ff0000L) << 16 | (p & 0xff)) * w;
+                }
+                dst[out + x] = packLanes(ag, rb);
+            }
+        }
+        return dst;
+    }
+
+    // The low lane is read back as a signed int; whatever it borrowed from the high lane for a
+    // negative total is added back before the high lane is shifted down.
+    private static int packLanes(long ag, long rb) {
+        int g = (int) ag;
+        int a = (int) ((ag - g) >> 32);
+        int b = (int) rb;
+        int r = (int) ((rb - b) >> 32);
+        return pack(a, r, g, b);
+    }
+
+    // Row-major accumulation keeps every inner loop walking memory sequentially.
+    private int[] vertical(int[] src, int width, int srcHeight, WeightTable table) {
+        int dstHeight = table.start.length;
+        int[] dst = pool.leaseInts(width * dstHeight);
+        long[] accAg = new long[width];
+        long[] accRb = new long[width];
+        int[] weights = table.weights;
+        for (int y = 0; y < dstHeight; y++) {
+            Arrays.fill(accAg, 0);
+            Arrays.fill(accRb, 0);
+            int n = table.count[y];
+            int w0 = y * table.taps;
+            for (int k = 0; k < n; k++) {
+                long w = weights[w0 + k];
+                int row = (table.start[y] + k) * width;
+                for (int x = 0; x < width; x++) {
+                    int p = src[row + x];
+                    if (p == 0) {
+                        continue;
+                    }
+                    accAg[x] += ((p & 0xff000000L) << 8 | ((p >>> 8) & 0xff)) * w;
+                    accRb[x] += ((p & 0x00ff0000L) << 16 | (p & 0xff)) * w;
+                }
+            }
+            int out = y * width;
+            for (int x = 0; x < width; x++) {
+                dst[out + x] = packLanes(accAg[x], accRb[x]);
+            }
+        }
+        return dst;
+    }
+
+    // Colour channels are clamped to alpha as well, since Lanczos lobes can overshoot it.
+    private static int pack(int a, int r, int g, int b) {
+        int alpha = clamp((a + WEIGHT_HALF) >> WEIGHT_BITS, 255);
+        int red = clamp((r + WEIGHT_HALF) >> WEIGHT_BITS, alpha);
+        int green = clamp((g + WEIGHT_HALF) >> WEIGHT_BITS, alpha);
+        int blue = clamp((b + WEIGHT_HALF) >> WEIGHT_BITS, alpha);
+        return (alpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+
+    private static int clamp(int value, int max) {
+        return value < 0 ? 0 : (value > max ? max : value);
+    }
+
+    // Premultiplied "over": the background shows through by (255 - alpha).
+    static void flatten(int[] pixels, int length, int background) {
+        int bgRed = (background >> 16) & 0xff;
+        int bgGreen = (background >> 8) & 0xff;
+        int bgBlue = background & 0xff;
+        int opaqueBackground = 0xff000000 | background;
+        for (int i = 0; i < length; i++) {
+            int p = pixels[i];
+            int a = p >>> 24;
+            if (a == 255) {
+                continue;
+            }
+            if (a == 0) {
+                pixels[i] = opaqueBackground;
+                continue;
+            }
+            int inverse = 255 - a;
+            int r = ((p >> 16) & 0xff) + (bgRed * inverse + 127) / 255;
+            int g = ((p >> 8) & 0xff) + (bgGreen * inverse + 127) / 255;
+            int b = (p & 0xff) + (bgBlue * inverse + 127) / 255;
+            pixels[i] = 0xff000000 | Math.min(255, r) << 16 | Math.min(255, g) << 8 | Math.min(255, b);
+        }
+    }
+
+    static void unpremultiply(int[] pixels, int length) {
+        for (int i = 0; i < length; i++) {
+            int p = pixels[i];
+            int a = p >>> 24;
+            if (a == 255 || a == 0) {
+                continue;
+            }
+            int half = a >> 1;
+            int r = Math.min(255, (((p >> 16) & 0xff) * 255 + half) / a);
+            int g = Math.min(255, (((p >> 8) & 0xff) * 255 + half) / a);
+            int b = Math.min(255, ((p & 0xff) * 255 + half) / a);
+            pixels[i] = (a << 24) | (r << 16) | (g << 8) | b;
+        }
+    }
+
+    // Wraps the array without copying; BufferedImage recognises the layout as INT_ARGB / INT_RGB.
+    static BufferedImage toImage(int[] pixels, int width, int height, boolean hasAlpha) {
+        DataBufferInt buffer = new DataBufferInt(pixels, width * height);
+        WritableRaster raster = Raster.createPackedRaster(buffer, width, height, width,
+                hasAlpha ? ARGB_MASKS : RGB_MASKS, null);
+        ColorModel colorModel = hasAlpha ? ColorModel.getRGBdefault() : RGB_MODEL;
+        return new BufferedImage(colorModel, raster, false, null);
+    }
+}
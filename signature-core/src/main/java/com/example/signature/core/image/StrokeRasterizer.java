@@ -0,0 +1,297 @@
+package com.example.signature.core.image;
+
+import com.example.signature.core.model.Stroke;
+import com.example.signature.core.model.StrokeData;
+import com.example.signature.core.pool.BufferPool;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Anti-aliased rasterizer for captured strokes, drawing straight into an output of the final
+ * size so vector requests never go through decode or resize.
+ * <p>
+ * Every segment between two samples is drawn as a capsule whose radius follows the pen pressure
+ * at both ends; a pixel's coverage is how far its centre lies inside that capsule, clamped to one
+ * pixel of falloff. Within a stroke coverage is combined with {@code max}, so joints where
+ * segments overlap are not drawn twice, and strokes are then composited over each other in
+ * drawing order. Strokes thinner than a pixel are drawn one pixel wide at reduced opacity.
+ * <p>
+ * Instances are immutable and can be shared by all conversion threads.
+ */
+public final class StrokeRasterizer {
+    private final BufferPool pool;
+
+    public StrokeRasterizer(BufferPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the canvas pixels touched by any stroke, including its width, or {@code null}
+     * when there is nothing to draw.
+     */
+    public Rectangle contentBounds(StrokeData data) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (Stroke stroke : data.getStrokes()) {
+            float[] points = stroke.getPoints();
+            double halfWidth = stroke.resolvedThickness() / 2.0;
+            for (int i = 0, n = stroke.pointCount() * Stroke.STRIDE; i < n; i += Stroke.STRIDE) {
+                double radius = Math.max(halfWidth * pressureFactor(points[i + 2]), 0.5);
+                minX = Math.min(minX, points[i] - radius);
+                minY = Math.min(minY, points[i + 1] - radius);
+                maxX = Math.max(maxX, points[i] + radius);
+                maxY = Math.max(maxY, points[i + 1] + radius);
+            }
+        }
+        if (minX > maxX) {
+            return null;
+        }
+        int left = Math.max(0, (int) Math.floor(minX));
+        int top = Math.max(0, (int) Math.floor(minY));
+        int right = Math.min(data.getWidth(), (int) Math.ceil(maxX));
+        int bottom = Math.min(data.getHeight(), (int) Math.ceil(maxY));
+        if (left >= right || top >= bottom) {
+            return null;
+        }
+        return new Rectangle(left, top, right - left, bottom - top);
+    }
+
+    /**
+     * Draws the part of the canvas inside {@code region} (the whole canvas when {@code null}) into
+     * a {@code width} x {@code height} image, flattened onto {@code background} when one is given
+     * and transparent otherwise. Like {@link Resampler#render}, the pixel array is leased from the
+     * pool and may be released there once the image is no longer used.
+     */
+    public BufferedImage render(StrokeData data, Rectangle region, int width, int height, Color background) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Image dimensions must be positive");
+        }
+        Rectangle area = region != null ? region : new Rectangle(0, 0, data.getWidth(), data.getHeight());
+        int[] pixels = pool.leaseInts(width * height);
+        Arrays.fill(pixels, 0, width * height, 0);
+        for (Stroke stroke : data.getStrokes()) {
+            Samples samples = Samples.of(stroke, area, width, height);
+            if (samples != null) {
+                drawStroke(pixels, width, height, samples.xs, samples.ys, samples.radii,
+                        Color.decode(stroke.resolvedColor()).getRGB());
+            }
+        }
+
+        if (background != null) {
+            Resampler.flatten(pixels, width * height, background.getRGB());
+            return Resampler.toImage(pixels, width, height, false);
+        }
+        Resampler.unpremultiply(pixels, width * height);
+        return Resampler.toImage(pixels, width, height, true);
+    }
+
+    /**
+     * Upper bound on the pixels {@link #render} visits for the same arguments: every stroke's
+     * coverage box plus the rows of every capsule. The point count alone says little about the
+     * cost, since a single segment can cross the whole output, so callers check this before
+     * rendering untrusted strokes.
+     */
+    public long renderCost(StrokeData data, Rectangle region, int width, int height) {
+        Rectangle area = region != null ? region : new Rectangle(0, 0, data.getWidth(), data.getHeight());
+        long cost = 0;
+        for (Stroke stroke : data.getStrokes()) {
+            Samples samples = Samples.of(stroke, area, width, height);
+            if (samples == null) {
+                continue;
+            }
+            double[] xs = samples.xs;
+            double[] ys = samples.ys;
+            double[] radii = samples.radii;
+            double reach = strokeReach(radii);
+            long boxWidth = clampIndex((int) Math.ceil(max(xs) + reach), width)
+                    - clampIndex((int) Math.floor(min(xs) - reach), width) + 1;
+            long boxHeight = clampIndex((int) Math.ceil(max(ys) + reach), height)
+                    - clampIndex((int) Math.floor(min(ys) - reach), height) + 1;
+            long box = boxWidth * boxHeight;
+            cost += box;
+            for (int i = Math.min(1, xs.length - 1); i < xs.length; i++) {
+                int from = Math.max(0, i - 1);
+                double segmentReach = Math.max(Math.max(radii[from], radii[i]), 0.5) + 1.0;
+                double length = Math.hypot(xs[i] - xs[from], ys[i] - ys[from]);
+                // drawSegment visits at most this many pixels, and never more than the stroke's box.
+                double visited = (length + 2 * segmentReach + 2) * (2 * segmentReach + 2);
+                cost += (long) Math.min(visited, box);
+            }
+        }
+        return cost;
+    }
+
+    private void drawStroke(int[] pixels, int width, int height, double[] xs, double[] ys, double[] radii, int color) {
+        double reach = strokeReach(radii);
+        int left = clampIndex((int) Math.floor(min(xs) - reach), width);
+        int top = clampIndex((int) Math.floor(min(ys) - reach), height);
+        int right = clampIndex((int) Math.ceil(max(xs) + reach), width);
+        int bottom = clampIndex((int) Math.ceil(max(ys) + reach), height);
+        int boxWidth = right - left + 1;
+        int boxHeight = bottom - top + 1;
+
+        int[] coverage = pool.leaseInts(boxWidth * boxHeight);
+        Arrays.fill(coverage, 0, boxWidth * boxHeight, 0);
+        if (xs.length == 1) {
+            drawSegment(coverage, left, top, boxWidth, boxHeight, xs[0], ys[0], radii[0], xs[0], ys[0], radii[0]);
+        }
+        for (int i = 1; i < xs.length; i++) {
+            drawSegment(coverage, left, top, boxWidth, boxHeight,
+                    xs[i - 1], ys[i - 1], radii[i - 1], xs[i], ys[i], radii[i]);
+        }
+
+        int red = (color >> 16) & 0xff;
+        int green = (color >> 8) & 0xff;
+        int blue = color & 0xff;
+        for (int y = 0; y < boxHeight; y++) {
+            int row = (top + y) * width + left;
+            for (int x = 0; x < boxWidth; x++) {
+                int a = coverage[y * boxWidth + x];
+                if (a == 0) {
+                    continue;
+                }
+                pixels[row + x] = over(PixelReader.premultiply(a, red, green, blue), pixels[row + x]);
+            }
+        }
+        pool.release(coverage);
+    }
+
+    // Coverage (0-255) of one capsule, merged into the stroke's coverage box with max. Each row is
+    // only walked across the band within reach of the segment's line, so a long diagonal costs
+    // its length times its width rather than the area of its bounding box.
+    private static void drawSegment(int[] coverage, int left, int top, int boxWidth, int boxHeight,
+                                    double x0, double y0, double r0, double x1, double y1, double r1) {
+        double gain = 1.0;
+        double widest = Math.max(r0, r1);
+        if (widest < 0.5) {
+            gain = widest * 2.0;
+            r0 = 0.5;
+            r1 = 0.5;
+        }
+        double reach = Math.max(r0, r1) + 1.0;
+        int fromX = Math.max(0, (int) Math.floor(Math.min(x0, x1) - reach) - left);
+        int fromY = Math.max(0, (int) Math.floor(Math.min(y0, y1) - reach) - top);
+        int toX = Math.min(boxWidth - 1, (int) Math.ceil(Math.max(x0, x1) + reach) - left);
+        int toY = Math.min(boxHeight - 1, (int) Math.ceil(Math.max(y0, y1) + reach) - top);
+
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double lengthSquared = dx * dx + dy * dy;
+        // Half the width of the band, measured along a row; rows of a flat segment use the box.
+        double bandHalfWidth = Math.abs(dy) > 1e-6 ? reach * Math.sqrt(lengthSquared) / Math.abs(dy) : -1;
+        for (int y = fromY; y <= toY; y++) {
+            double py = top + y + 0.5 - y0;
+            int row = y * boxWidth;
+            int spanFrom = fromX;
+            int spanTo = toX;
+            if (bandHalfWidth >= 0) {
+                double crossing = x0 + dx * py / dy - left - 0.5;
+                spanFrom = Math.max(fromX, (int) Math.floor(crossing - bandHalfWidth));
+                spanTo = Math.min(toX, (int) Math.ceil(crossing + bandHalfWidth));
+            }
+            for (int x = spanFrom; x <= spanTo; x++) {
+                double px = left + x + 0.5 - x0;
+                double t = lengthSquared > 0 ? (px * dx + py * dy) / lengthSquared : 0.0;
+                t = t < 0 ? 0 : (t > 1 ? 1 : t);
+                double ex = px - t * dx;
+                double ey = py - t * dy;
+                double inside = r0 + t * (r1 - r0) + 0.5 - Math.sqrt(ex * ex + ey * ey);
+                if (inside <= 0) {
+                    continue;
+                }
+                int value = (int) (Math.min(inside, 1.0) * gain * 255 + 0.5);
+                if (value > coverage[row + x]) {
+                    coverage[row + x] = value;
+                }
+            }
+        }
+    }
+
+    // How far any capsule of the stroke reaches from its centre line, coverage falloff included.
+    private static double strokeReach(double[] radii) {
+        double reach = 1.5;
+        for (double radius : radii) {
+            reach = Math.max(reach, radius + 1.0);
+        }
+        return reach;
+    }
+
+    // Premultiplied source over premultiplied destination.
+    private static int over(int src, int dst) {
+        int inverse = 255 - (src >>> 24);
+        if (inverse == 0 || dst == 0) {
+            return src;
+        }
+        int a = (src >>> 24) + ((dst >>> 24) * inverse + 127) / 255;
+        int r = ((src >> 16) & 0xff) + (((dst >> 16) & 0xff) * inverse + 127) / 255;
+        int g = ((src >> 8) & 0xff) + (((dst >> 8) & 0xff) * inverse + 127) / 255;
+        int b = (src & 0xff) + ((dst & 0xff) * inverse + 127) / 255;
+        return Math.min(255, a) << 24 | Math.min(255, r) << 16 | Math.min(255, g) << 8 | Math.min(255, b);
+    }
+
+    // PointerEvent reports 0.5 for devices without pressure while a button is held, and 0 when
+    // nothing is known; both draw at the nominal thickness.
+    static double pressureFactor(float pressure) {
+        if (!(pressure > 0)) {
+            return 1.0;
+        }
+        return Math.max(0.25, Math.min(2.0, pressure * 2.0));
+    }
+
+    private static int clampIndex(int value, int size) {
+        return value < 0 ? 0 : (value >= size ? size - 1 : value);
+    }
+
+    private static double min(double[] values) {
+        double min = Double.POSITIVE_INFINITY;
+        for (double value : values) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    private static double max(double[] values) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    // Sample positions and radii of one stroke in output pixels.
+    private static final class Samples {
+        final double[] xs;
+        final double[] ys;
+        final double[] radii;
+
+        private Samples(int count) {
+            this.xs = new double[count];
+            this.ys = new double[count];
+            this.radii = new double[count];
+        }
+
+        static Samples of(Stroke stroke, Rectangle area, int width, int height) {
+            int count = stroke.pointCount();
+            if (count == 0) {
+                return null;
+            }
+            double scaleX = (double) width / area.width;
+            double scaleY = (double) height / area.height;
+            double halfWidth = stroke.resolvedThickness() * Math.sqrt(scaleX * scaleY) / 2.0;
+            Samples samples = new Samples(count);
+            float[] points = stroke.getPoints();
+            for (int i = 0; i < count; i++) {
+                int p = i * Stroke.STRIDE;
+                samples.xs[i] = (points[p] - area.x) * scaleX;
+                samples.ys[i] = (points[p + 1] - area.y) * scaleY;
+                samples.radii[i] = halfWidth * pressureFactor(points[p + 2]);
+            }
+            return samples;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.signature.core.image;
+
+import com.example.signature.core.io.EncodedImageOutputStream;
+import com.example.signature.core.model.Stroke;
+import com.example.signature.core.model.StrokeData;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes signatures as compact SVG: one path per run of identical paint, absolute moves followed
+ * by relative line segments, coordinates rounded to a tenth of a source pixel and no separators
+ * that the path grammar does not need. The {@code viewBox} is the source region, so the output
+ * scales to any size or print resolution without being rasterized again; {@code width} and
+ * {@code height} only set the default display size.
+ * <p>
+ * The background is left transparent so the signature can be placed over a document.
+ */
+public final class SvgEncoder {
+    // A run of samples keeps one stroke-width while the pressure stays within this fraction of it.
+    private static final double WIDTH_TOLERANCE = 0.15;
+
+    private SvgEncoder() {
+    }
+
+    /**
+     * Draws the strokes inside {@code region} of the canvas (all of it when {@code null}) with
+     * round caps and joins. SVG stroke widths are constant along a path, so a stroke whose
+     * pressure changes is split into runs that each use their own width.
+     */
+    public static EncodedImageOutputStream encode(StrokeData data, Rectangle region, int width, int height) {
+        Rectangle area = region != null ? region : new Rectangle(0, 0, data.getWidth(), data.getHeight());
+        StringBuilder svg = header(area.width, area.height, width, height, 64 + data.pointCount() * 12);
+        svg.append("<g fill=\"none\" stroke-linecap=\"round\" stroke-linejoin=\"round\">");
+        String paint = null;
+        for (Stroke stroke : data.getStrokes()) {
+            int count = stroke.pointCount();
+            if (count == 0) {
+                continue;
+            }
+            float[] points = stroke.getPoints();
+            String color = hex(Color.decode(stroke.resolvedColor()).getRGB());
+            int start = 0;
+            while (start < count) {
+                double runWidth = stroke.resolvedThickness() * StrokeRasterizer.pressureFactor(points[start * Stroke.STRIDE + 2]);
+                int end = start + 1;
+                while (end < count) {
+                    double sampleWidth = stroke.resolvedThickness() * StrokeRasterizer.pressureFactor(points[end * Stroke.STRIDE + 2]);
+                    if (Math.abs(sampleWidth - runWidth) > runWidth * WIDTH_TOLERANCE) {
+                        break;
+                    }
+                    end++;
+                }
+                // Runs share their boundary sample so the round caps join them seamlessly.
+                int last = Math.min(end, count - 1);
+                String runPaint = "<path stroke=\"" + color + "\" stroke-width=\"" + number(tenths(runWidth)) + "\" d=\"";
+                if (!runPaint.equals(paint)) {
+                    if (paint != null) {
+                        svg.append("\"/>");
+                    }
+                    svg.append(runPaint);
+                    paint = runPaint;
+                }
+                appendRun(svg, points, start, last, area);
+                start = end < count ? end : count;
+            }
+        }
+        if (paint != null) {
+            svg.append("\"/>");
+        }
+        svg.append("</g></svg>");
+        return toStream(svg);
+    }
+
+    /** Fills traced contours with the even-odd rule, so holes stay open. */
+    public static EncodedImageOutputStream encode(RasterTracer.Outline outline, int width, int height) {
+        int points = 0;
+        for (int[] contour : outline.getContours()) {
+            points += contour.length / 2;
+        }
+        StringBuilder svg = header(outline.getWidth(), outline.getHeight(), width, height, 64 + points * 8);
+        if (!outline.getContours().isEmpty()) {
+            svg.append("<path fill=\"").append(hex(outline.getColor())).append("\" fill-rule=\"evenodd\" d=\"");
+            for (int[] contour : outline.getContours()) {
+                // Contours are in half pixels.
+                int x = contour[0] * 5;
+                int y = contour[1] * 5;
+                svg.append('M');
+                appendPair(svg, x, y);
+                svg.append('l');
+                for (int i = 2; i < contour.length; i += 2) {
+                    int nextX = contour[i] * 5;
+                    int nextY = contour[i + 1] * 5;
+                    appendPair(svg, nextX - x, nextY - y);
+                    x = nextX;
+                    y = nextY;
+                }
+                svg.append('z');
+            }
+            svg.append("\"/>");
+        }
+        svg.append("</svg>");
+        return toStream(svg);
+    }
+
+    private static StringBuilder header(int viewWidth, int viewHeight, int width, int height, int capacity) {
+        StringBuilder svg = new StringBuilder(capacity);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(width)
+                .append("\" height=\"").append(height)
+                .append("\" viewBox=\"0 0 ").append(viewWidth).append(' ').append(viewHeight).append("\">");
+        return svg;
+    }
+
+    private static void appendRun(StringBuilder svg, float[] points, int from, int to, Rectangle area) {
+        int x = tenths(points[from * Stroke.STRIDE] - area.x);
+        int y = tenths(points[from * Stroke.STRIDE + 1] - area.y);
+        svg.append('M');
+        appendPair(svg, x, y);
+        svg.append('l');
+        boolean moved = false;
+        for (int i = from + 1; i <= to; i++) {
+            int nextX = tenths(points[i * Stroke.STRIDE] - area.x);
+            int nextY = tenths(points[i * Stroke.STRIDE + 1] - area.y);
+            if (nextX == x && nextY == y) {
+                continue;
+            }
+            appendPair(svg, nextX - x, nextY - y);
+            x = nextX;
+            y = nextY;
+            moved = true;
+        }
+        if (!moved) {
+            // A zero-length segment, which round caps draw as a dot.
+            svg.append("0 0");
+        }
+    }
+
+    // Appends "x y", relying on a minus sign to separate it from whatever came before.
+    private static void appendPair(StringBuilder svg, int x, int y) {
+        char previous = svg.charAt(svg.length() - 1);
+        if (x >= 0 && previous != 'M' && previous != 'l') {
+            svg.append(' ');
+        }
+        svg.append(number(x));
+        if (y >= 0) {
+            svg.append(' ');
+        }
+        svg.append(number(y));
+    }
+
+    private static int tenths(double value) {
+        return (int) Math.round(value * 10);
+    }
+
+    private static String number(int tenths) {
+        int magnitude = Math.abs(tenths);
+        String whole = (tenths < 0 ? "-" : "") + magnitude / 10;
+        return magnitude % 10 == 0 ? whole : whole + "." + magnitude % 10;
+    }
+
+    private static String hex(int rgb) {
+        String digits = Integer.toHexString(rgb & 0xffffff);
+        return "#000000".substring(0, 7 - digits.length()) + digits;
+    }
+
+    private static EncodedImageOutputStream toStream(StringBuilder svg) {
+        byte[] bytes = svg.toString().getBytes(StandardCharsets.US_ASCII);
+        EncodedImageOutputStream out = new EncodedImageOutputStream(bytes.length);
+        out.write(bytes, 0, bytes.length);
+        return out;
+    }
+}
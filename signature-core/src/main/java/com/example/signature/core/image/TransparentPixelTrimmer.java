@@ -0,0 +1,86 @@
+package com.example.signature.core.image;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+public final class TransparentPixelTrimmer {
+    private final int alphaThreshold;
+
+    public TransparentPixelTrimmer(int alphaThreshold) {
+        if (alphaThreshold < 0 || alphaThreshold > 254) {
+            throw new IllegalArgumentException("Alpha threshold must be between 0 and 254");
+        }
+        this.alphaThreshold = alphaThreshold;
+    }
+
+    public int getAlphaThreshold() {
+        return alphaThreshold;
+    }
+
+    public BufferedImage trim(BufferedImage source) {
+        Rectangle bounds = findContentBounds(source);
+        if (bounds == null || (bounds.width == source.getWidth() && bounds.height == source.getHeight())) {
+            return source;
+        }
+        return source.getSubimage(bounds.x, bounds.y, bounds.width, bounds.height);
+    }
+
+    /**
+     * Returns the smallest rectangle containing every pixel whose alpha exceeds the threshold,
+     * or {@code null} when the image is entirely transparent.
+     */
+    public Rectangle findContentBounds(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        AlphaScanner scanner = AlphaScanner.forImage(image, alphaThreshold);
+        if (scanner == null) {
+            return new Rectangle(0, 0, width, height);
+        }
+
+        int top = -1;
+        int left = width;
+        int right = -1;
+        for (int y = 0; y < height; y++) {
+            int first = scanner.firstOpaque(y, 0, width);
+            if (first >= 0) {
+                top = y;
+                left = first;
+                right = scanner.lastOpaque(y, first, width);
+                break;
+            }
+        }
+        if (top < 0) {
+            return null;
+        }
+
+        int bottom = top;
+        for (int y = height - 1; y > top; y--) {
+            int first = scanner.firstOpaque(y, 0, width);
+            if (first >= 0) {
+                bottom = y;
+                left = Math.min(left, first);
+                right = Math.max(right, scanner.lastOpaque(y, first, width));
+                break;
+            }
+        }
+
+        // Rows between top and bottom only need their margins checked: anything inside
+        // [left, right] cannot widen the bounds any further.
+        for (int y = top + 1; y < bottom && (left > 0 || right < width - 1); y++) {
+            if (left > 0) {
+                int first = scanner.firstOpaque(y, 0, left);
+                if (first >= 0) {
+                    left = first;
+                }
+            }
+            if (right < width - 1) {
+                int last = scanner.lastOpaque(y, right + 1, width);
+                if (last >= 0) {
+                    right = last;
+                }
+            }
+        }
+
+        return new Rectangle(left, top, right - left + 1, bottom - top + 1);
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.signature.core.io;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Incremental Base64 decoder for signature payloads. Characters can be pushed in arbitrary
+ * chunks (for example straight out of a JSON parser's text buffer), an optional
+ * {@code data:<mime>;base64,} prefix is skipped, and the size limit is enforced while
+ * decoding instead of after the whole payload has been materialized.
+ */
+public final class Base64PayloadDecoder extends Writer {
+    private static final String DATA_SCHEME = "data:";
+    private static final String BASE64_MARKER = ";base64";
+    private static final int MAX_HEADER_LENGTH = 256;
+    private static final int WHITESPACE = -2;
+    private static final int PADDING = -3;
+    private static final int[] ALPHABET = new int[128];
+
+    static {
+        Arrays.fill(ALPHABET, -1);
+        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < chars.length(); i++) {
+            ALPHABET[chars.charAt(i)] = i;
+        }
+        ALPHABET[' '] = WHITESPACE;
+        ALPHABET['\t'] = WHITESPACE;
+        ALPHABET['\r'] = WHITESPACE;
+        ALPHABET['\n'] = WHITESPACE;
+        ALPHABET['='] = PADDING;
+    }
+
+    private final long maxBytes;
+    private byte[] buffer;
+    private int count;
+    private int quantum;
+    private int sextets;
+    private int padding;
+    private StringBuilder header = new StringBuilder(32);
+    private char[] scratch;
+
+    public Base64PayloadDecoder(long expectedChars, long maxBytes) {
+        long estimated = Math.max(0, expectedChars) / 4 * 3;
+        if (estimated - MAX_HEADER_LENGTH > maxBytes) {
+            throw tooLarge(maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.buffer = new byte[(int) Math.min(Math.max(estimated, 16), maxBytes + 3)];
+    }
+
+    public static byte[] decode(CharSequence payload, long maxBytes) {
+        Base64PayloadDecoder decoder = new Base64PayloadDecoder(payload.length(), maxBytes);
+        decoder.append(payload);
+        return decoder.toByteArray();
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        int end = off + len;
+        int i = off;
+        if (header != null) {
+            i = consumeHeader(cbuf, i, end);
+        }
+        for (; i < end; i++) {
+            decode(cbuf[i]);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        // Writer's default copies anything over 1 KB into a fresh array; feed fixed chunks instead.
+        if (scratch == null) {
+            scratch = new char[1024];
+        }
+        int end = off + len;
+        while (off < end) {
+            int n = Math.min(scratch.length, end - off);
+            str.getChars(off, off + n, scratch, 0);
+            write(scratch, 0, n);
+            off += n;
+        }
+    }
+
+    @Override
+    public Writer append(CharSequence csq) {
+        if (csq instanceof String) {
+            write((String) csq, 0, csq.length());
+        } else {
+            for (int i = 0; i < csq.length(); i++) {
+                write(csq.charAt(i));
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public void write(int c) {
+        if (header != null) {
+            write(new char[]{(char) c}, 0, 1);
+        } else {
+            decode((char) c);
+        }
+    }
+
+    public byte[] toByteArray() {
+        finish();
+        return count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private int consumeHeader(char[] cbuf, int i, int end) {
+        while (i < end) {
+            char c = cbuf[i++];
+            int length = header.length();
+            if (length < DATA_SCHEME.length()) {
+                header.append(c);
+                if (c != DATA_SCHEME.charAt(length)) {
+                    replayHeader();
+                    return i;
+                }
+            } else if (c == ',') {
+                if (header.length() < BASE64_MARKER.length()
+                        || !header.substring(header.length() - BASE64_MARKER.length()).equalsIgnoreCase(BASE64_MARKER)) {
+                    throw decodeFailed();
+                }
+                header = null;
+                return i;
+            } else {
+                if (length >= MAX_HEADER_LENGTH) {
+                    throw decodeFailed();
+                }
+                header.append(c);
+            }
+        }
+        return i;
+    }
+
+    // Not a data URL after all: the buffered characters are part of the Base64 body.
+    private void replayHeader() {
+        CharSequence pending = header;
+        header = null;
+        for (int j = 0; j < pending.length(); j++) {
+            decode(pending.charAt(j));
+        }
+    }
+
+    private void decode(char c) {
+        int value = c < ALPHABET.length ? ALPHABET[c] : -1;
+        if (value >= 0) {
+            if (padding > 0) {
+                throw decodeFailed();
+            }
+            quantum = (quantum << 6) | value;
+            if (++sextets == 4) {
+                emit(quantum >> 16);
+                emit(quantum >> 8);
+                emit(quantum);
+                quantum = 0;
+                sextets = 0;
+            }
+        } else if (value == PADDING) {
+            if (sextets < 2 || ++padding > 4 - sextets) {
+                throw decodeFailed();
+            }
+        } else if (value != WHITESPACE) {
+            throw decodeFailed();
+        }
+    }
+
+    private void emit(int value) {
+        if (count >= maxBytes) {
+            throw tooLarge(maxBytes);
+        }
+        if (count == buffer.length) {
+            buffer = Arrays.copyOf(buffer, (int) Math.min(Math.min((long) buffer.length * 2, maxBytes), Integer.MAX_VALUE - 8));
+        }
+        buffer[count++] = (byte) value;
+    }
+
+    private void finish() {
+        if (header != null) {
+            if (header.length() >= DATA_SCHEME.length()) {
+                throw decodeFailed();
+            }
+            replayHeader();
+        }
+        if (sextets == 1 || (padding > 0 && padding != 4 - sextets)) {
+            throw decodeFailed();
+        }
+        if (sextets == 2) {
+            emit(quantum >> 4);
+        } else if (sextets == 3) {
+            emit(quantum >> 10);
+            emit(quantum >> 2);
+        }
+        sextets = 0;
+        quantum = 0;
+        padding = 0;
+        if (count == 0) {
+            throw new SignatureProcessingException("INVALID_PAYLOAD", "Payload is empty");
+        }
+    }
+
+    private static SignatureProcessingException decodeFailed() {
+        return new SignatureProcessingException("INVALID_PAYLOAD", "Base64 decode failed");
+    }
+
+    private static SignatureProcessingException tooLarge(long maxBytes) {
+        return new SignatureProcessingException("INVALID_PAYLOAD", "Payload exceeds max size of " + maxBytes);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.signature.core.io;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Encoder target whose backing array can be handed over as-is, avoiding the copy
+ * {@link ByteArrayOutputStream#toByteArray()} would make.
+ */
+public class EncodedImageOutputStream extends ByteArrayOutputStream {
+
+    public EncodedImageOutputStream(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    /** The backing array; only the first {@link #size()} bytes are valid. */
+    public byte[] buffer() {
+        return buf;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.signature.core.io;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+
+import java.util.Objects;
+
+/**
+ * Format and dimensions of an encoded PNG or JPEG, read from the first bytes of the file without
+ * decoding any pixels. Lets the caller reject oversized images before a raster is allocated and
+ * pick the reader for the format directly.
+ */
+public final class ImageHeader {
+    private static final int PNG_HEADER_LENGTH = 8 + 8 + 8;
+
+    private final String format;
+    private final int width;
+    private final int height;
+
+    public ImageHeader(String format, int width, int height) {
+        this.format = format;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Reads the header of {@code bytes}.
+     *
+     * @return the header, or {@code null} when the data is neither PNG nor JPEG
+     * @throws SignatureProcessingException when the data starts like a PNG or JPEG but its
+     *                                      header is truncated or malformed
+     */
+    public static ImageHeader read(byte[] bytes) {
+        if (bytes.length >= 4 && (bytes[0] & 0xff) == 0x89 && bytes[1] == 'P' && bytes[2] == 'N' && bytes[3] == 'G') {
+            return readPng(bytes);
+        }
+        if (bytes.length >= 3 && (bytes[0] & 0xff) == 0xff && (bytes[1] & 0xff) == 0xd8 && (bytes[2] & 0xff) == 0xff) {
+            return readJpeg(bytes);
+        }
+        return null;
+    }
+
+    // IHDR must be the first chunk, right after the 8-byte signature.
+    private static ImageHeader readPng(byte[] bytes) {
+        if (bytes.length < PNG_HEADER_LENGTH || bytes[12] != 'I' || bytes[13] != 'H' || bytes[14] != 'D' || bytes[15] != 'R') {
+            throw invalid("PNG");
+        }
+        int width = int32(bytes, 16);
+        int height = int32(bytes, 20);
+        if (width <= 0 || height <= 0) {
+            throw invalid("PNG");
+        }
+        return new ImageHeader("png", width, height);
+    }
+
+    // Walks the marker segments up to the first start-of-frame, which holds the dimensions.
+    private static ImageHeader readJpeg(byte[] bytes) {
+        int offset = 2;
+        while (offset + 4 <= bytes.length) {
+            if ((bytes[offset] & 0xff) != 0xff) {
+                throw invalid("JPEG");
+            }
+            int marker = bytes[offset + 1] & 0xff;
+            if (marker == 0xff) {
+                // Fill byte before a marker.
+                offset++;
+                continue;
+            }
+            if (marker == 0x01 || marker >= 0xd0 && marker <= 0xd7) {
+                // Markers without a segment.
+                offset += 2;
+                continue;
+            }
+            if (marker == 0xd9 || marker == 0xda) {
+                // End of image or start of scan before any frame header.
+                throw invalid("JPEG");
+            }
+            int length = uint16(bytes, offset + 2);
+            if (isStartOfFrame(marker)) {
+                if (length < 8 || offset + 9 > bytes.length) {
+                    throw invalid("JPEG");
+                }
+                int height = uint16(bytes, offset + 5);
+                int width = uint16(bytes, offset + 7);
+                if (width == 0 || height == 0) {
+                    // A zero height is deferred to a DNL marker after the first scan; not supported.
+                    throw invalid("JPEG");
+                }
+                return new ImageHeader("jpeg", width, height);
+            }
+            if (length < 2) {
+                throw invalid("JPEG");
+            }
+            offset += 2 + length;
+        }
+        throw invalid("JPEG");
+    }
+
+    // SOF0-SOF15, except DHT (C4), JPG (C8) and DAC (CC), which share the range.
+    private static boolean isStartOfFrame(int marker) {
+        return marker >= 0xc0 && marker <= 0xcf && marker != 0xc4 && marker != 0xc8 && marker != 0xcc;
+    }
+
+    private static int int32(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) << 24 | (bytes[offset + 1] & 0xff) << 16
+                | (bytes[offset + 2] & 0xff) << 8 | bytes[offset + 3] & 0xff;
+    }
+
+    private static int uint16(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) << 8 | bytes[offset + 1] & 0xff;
+    }
+
+    private static SignatureProcessingException invalid(String format) {
+        return new SignatureProcessingException("INVALID_PAYLOAD", "Malformed " + format + " header");
+    }
+
+    /** ImageIO format name, {@code "png"} or {@code "jpeg"}. */
+    public String getFormat() {
+        return format;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public long pixelCount() {
+        return (long) width * height;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ImageHeader that = (ImageHeader) o;
+        return width == that.width &&
+               height == that.height &&
+               Objects.equals(format, that.format);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(format, width, height);
+    }
+
+    @Override
+    public String toString() {
+        return "ImageHeader{" +
+               "format='" + format + '\'' +
+               ", width=" + width +
+               ", height=" + height +
+               '}';
+    }
+}
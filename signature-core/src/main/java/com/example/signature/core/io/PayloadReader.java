@@ -0,0 +1,59 @@
+package com.example.signature.core.io;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+public final class PayloadReader {
+    private static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private PayloadReader() {
+    }
+
+    /**
+     * Reads a raw image upload, failing as soon as more than {@code maxBytes} have arrived.
+     * A non-negative {@code sizeHint} (typically the Content-Length) sizes the buffer up front.
+     */
+    public static byte[] read(InputStream in, long sizeHint, long maxBytes) {
+        if (sizeHint > maxBytes) {
+            throw tooLarge(maxBytes);
+        }
+        int capacity = (int) (sizeHint >= 0 ? sizeHint : Math.min(DEFAULT_CAPACITY, maxBytes));
+        byte[] buffer = new byte[Math.max(capacity, 1)];
+        int count = 0;
+        try {
+            while (true) {
+                if (count == buffer.length) {
+                    // Probe before growing so an exactly-sized buffer is returned without a copy.
+                    int next = in.read();
+                    if (next < 0) {
+                        break;
+                    }
+                    if (count >= maxBytes) {
+                        throw tooLarge(maxBytes);
+                    }
+                    buffer = Arrays.copyOf(buffer, (int) Math.min(Math.min((long) count * 2, maxBytes), Integer.MAX_VALUE - 8));
+                    buffer[count++] = (byte) next;
+                    continue;
+                }
+                int n = in.read(buffer, count, buffer.length - count);
+                if (n < 0) {
+                    break;
+                }
+                count += n;
+            }
+        } catch (IOException ex) {
+            throw new SignatureProcessingException("INVALID_PAYLOAD", "Unable to read upload", ex);
+        }
+        if (count == 0) {
+            throw new SignatureProcessingException("INVALID_PAYLOAD", "Payload is empty");
+        }
+        return count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+    }
+
+    private static SignatureProcessingException tooLarge(long maxBytes) {
+        return new SignatureProcessingException("INVALID_PAYLOAD", "Payload exceeds max size of " + maxBytes);
+    }
+}
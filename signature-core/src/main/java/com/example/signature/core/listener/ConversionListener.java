@@ -0,0 +1,37 @@
+package com.example.signature.core.listener;
+
+/**
+ * Callback for observing conversions without tying the core to a metrics library. Methods are
+ * invoked on the converting thread and must be cheap and thread-safe; every method defaults to
+ * a no-op so implementations only override what they record.
+ */
+public interface ConversionListener {
+
+    ConversionListener NONE = new ConversionListener() {
+    };
+
+    /**
+     * A pipeline stage finished. Stages that a request does not use (for example
+     * {@link ConversionStage#TRIM} when trimming is off) are not reported.
+     */
+    default void onStage(ConversionStage stage, long nanos) {
+    }
+
+    /**
+     * The decoded input image is {@code bytes} long.
+     */
+    default void onInput(long bytes) {
+    }
+
+    /**
+     * A conversion to {@code format} completed with {@code bytes} of encoded output.
+     */
+    default void onOutput(String format, long bytes) {
+    }
+
+    /**
+     * A conversion failed with the given {@code SignatureProcessingException} code.
+     */
+    default void onError(String code) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.signature.core.listener;
+
+/**
+ * Steps of the conversion pipeline, in execution order.
+ */
+public enum ConversionStage {
+    DECODE,
+    READ,
+    TRIM,
+    /** Crop to the trimmed bounds, resize and flatten onto the background, fused into one pass. */
+    RENDER,
+    ENCODE
+}
@@ -0,0 +1,60 @@
+package com.example.signature.core.model;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+
+import java.util.Objects;
+
+/**
+ * Result of one item of a batch conversion: either a {@link ConversionResult} or the error
+ * that item failed with.
+ */
+public class ConversionOutcome {
+    private final ConversionResult result;
+    private final SignatureProcessingException error;
+
+    private ConversionOutcome(ConversionResult result, SignatureProcessingException error) {
+        this.result = result;
+        this.error = error;
+    }
+
+    public static ConversionOutcome success(ConversionResult result) {
+        return new ConversionOutcome(Objects.requireNonNull(result, "result"), null);
+    }
+
+    public static ConversionOutcome failure(SignatureProcessingException error) {
+        return new ConversionOutcome(null, Objects.requireNonNull(error, "error"));
+    }
+
+    public boolean isSuccess() {
+        return result != null;
+    }
+
+    public ConversionResult getResult() {
+        return result;
+    }
+
+    public SignatureProcessingException getError() {
+        return error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ConversionOutcome that = (ConversionOutcome) o;
+        return Objects.equals(result, that.result) &&
+               Objects.equals(error, that.error);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(result, error);
+    }
+
+    @Override
+    public String toString() {
+        return "ConversionOutcome{" +
+               (isSuccess() ? "result=" + result : "error=" + error.getCode() + ": " + error.getMessage()) +
+               '}';
+    }
+}
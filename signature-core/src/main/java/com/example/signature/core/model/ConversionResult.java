@@ -1,5 +1,8 @@
 package com.example.signature.core.model;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -7,13 +10,23 @@ public class ConversionResult {
     private final String fileId;
     private final String contentType;
     private final byte[] data;
+    private final int length;
     private final int width;
     private final int height;
 
     public ConversionResult(String fileId, String contentType, byte[] data, int width, int height) {
+        this(fileId, contentType, data, data == null ? 0 : data.length, width, height);
+    }
+
+    /**
+     * Wraps the first {@code length} bytes of {@code data} without copying, so an encoder's
+     * working buffer can be handed over directly.
+     */
+    public ConversionResult(String fileId, String contentType, byte[] data, int length, int width, int height) {
         this.fileId = fileId;
         this.contentType = contentType;
         this.data = data;
+        this.length = length;
         this.width = width;
         this.height = height;
     }
@@ -27,7 +40,20 @@ public class ConversionResult {
     }
 
     public byte[] getData() {
-        return data;
+        if (data == null || length == data.length) {
+            return data;
+        }
+        return Arrays.copyOf(data, length);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        if (data != null) {
+            out.write(data, 0, length);
+        }
+    }
+
+    public ByteBuffer asReadOnlyBuffer() {
+        return data == null ? ByteBuffer.allocate(0) : ByteBuffer.wrap(data, 0, length).asReadOnlyBuffer();
     }
 
     public int getWidth() {
@@ -39,7 +65,7 @@ public class ConversionResult {
     }
 
     public long sizeBytes() {
-        return data == null ? 0 : data.length;
+        return length;
     }
 
     @Override
@@ -51,13 +77,13 @@ public class ConversionResult {
                height == that.height &&
                Objects.equals(fileId, that.fileId) &&
                Objects.equals(contentType, that.contentType) &&
-               Arrays.equals(data, that.data);
+               Arrays.equals(getData(), that.getData());
     }
 
     @Override
     public int hashCode() {
         int result = Objects.hash(fileId, contentType, width, height);
-        result = 31 * result + Arrays.hashCode(data);
+        result = 31 * result + Arrays.hashCode(getData());
         return result;
     }
 
@@ -66,7 +92,7 @@ public class ConversionResult {
         return "ConversionResult{" +
                "fileId='" + fileId + '\'' +
                ", contentType='" + contentType + '\'' +
-               ", dataLength=" + (data != null ? data.length : 0) +
+               ", dataLength=" + length +
                ", width=" + width +
                ", height=" + height +
                '}';
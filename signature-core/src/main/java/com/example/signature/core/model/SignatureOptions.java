@@ -1,21 +1,55 @@
 package com.example.signature.core.model;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 public class SignatureOptions {
+    private static final List<String> CHROMA_SUBSAMPLINGS = Arrays.asList("4:4:4", "4:2:2", "4:2:0");
+
+    /** Options of a request that sets none; shared so such requests map to one conversion plan. */
+    public static final SignatureOptions DEFAULTS = new SignatureOptions(null, null, null, null, null);
+
     private final String outputFormat;
     private final String backgroundColor;
     private final Boolean trimTransparent;
     private final Integer width;
     private final Integer height;
+    private final Integer compressionLevel;
+    private final Integer quality;
+    private final Boolean progressive;
+    private final String chromaSubsampling;
 
     public SignatureOptions(String outputFormat, String backgroundColor, Boolean trimTransparent,
                            Integer width, Integer height) {
+        this(outputFormat, backgroundColor, trimTransparent, width, height, null);
+    }
+
+    public SignatureOptions(String outputFormat, String backgroundColor, Boolean trimTransparent,
+                           Integer width, Integer height, Integer compressionLevel) {
+        this(outputFormat, backgroundColor, trimTransparent, width, height, compressionLevel, null, null, null);
+    }
+
+    /**
+     * @param compressionLevel  PNG and WebP effort from 0 (fastest, largest) to 9 (slowest,
+     *                          smallest); {@code null} for the default of 6
+     * @param quality           JPEG quality from 1 to 100; {@code null} for the default of 75
+     * @param progressive       whether JPEGs are written progressive; {@code null} for baseline
+     * @param chromaSubsampling JPEG chroma subsampling, {@code "4:4:4"}, {@code "4:2:2"} or
+     *                          {@code "4:2:0"}; {@code null} for the default of 4:2:0
+     */
+    public SignatureOptions(String outputFormat, String backgroundColor, Boolean trimTransparent,
+                           Integer width, Integer height, Integer compressionLevel,
+                           Integer quality, Boolean progressive, String chromaSubsampling) {
         this.outputFormat = outputFormat;
         this.backgroundColor = backgroundColor;
         this.trimTransparent = trimTransparent;
         this.width = width;
         this.height = height;
+        this.compressionLevel = compressionLevel;
+        this.quality = quality;
+        this.progressive = progressive;
+        this.chromaSubsampling = chromaSubsampling;
     }
 
     public String getOutputFormat() {
@@ -38,6 +72,22 @@ public class SignatureOptions {
         return height;
     }
 
+    public Integer getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public Integer getQuality() {
+        return quality;
+    }
+
+    public Boolean getProgressive() {
+        return progressive;
+    }
+
+    public String getChromaSubsampling() {
+        return chromaSubsampling;
+    }
+
     public String resolvedOutputFormat() {
         return (outputFormat == null || outputFormat.trim().isEmpty()) ? "png" : outputFormat.toLowerCase();
     }
@@ -46,6 +96,22 @@ public class SignatureOptions {
         return (backgroundColor == null || backgroundColor.trim().isEmpty()) ? "#FFFFFF" : backgroundColor;
     }
 
+    public int resolvedCompressionLevel() {
+        return compressionLevel == null ? 6 : compressionLevel;
+    }
+
+    public int resolvedQuality() {
+        return quality == null ? 75 : quality;
+    }
+
+    public String resolvedChromaSubsampling() {
+        return chromaSubsampling == null ? "4:2:0" : chromaSubsampling;
+    }
+
+    public boolean shouldEncodeProgressive() {
+        return Boolean.TRUE.equals(progressive);
+    }
+
     public boolean shouldTrimTransparent() {
         return Boolean.TRUE.equals(trimTransparent);
     }
@@ -57,6 +123,15 @@ public class SignatureOptions {
         if (height != null && height <= 0) {
             throw new IllegalArgumentException("Height must be positive");
         }
+        if (compressionLevel != null && (compressionLevel < 0 || compressionLevel > 9)) {
+            throw new IllegalArgumentException("Compression level must be between 0 and 9");
+        }
+        if (quality != null && (quality < 1 || quality > 100)) {
+            throw new IllegalArgumentException("Quality must be between 1 and 100");
+        }
+        if (chromaSubsampling != null && !CHROMA_SUBSAMPLINGS.contains(chromaSubsampling)) {
+            throw new IllegalArgumentException("Chroma subsampling must be 4:4:4, 4:2:2 or 4:2:0");
+        }
     }
 
     @Override
@@ -68,12 +143,17 @@ public class SignatureOptions {
                Objects.equals(backgroundColor, that.backgroundColor) &&
                Objects.equals(trimTransparent, that.trimTransparent) &&
                Objects.equals(width, that.width) &&
-               Objects.equals(height, that.height);
+               Objects.equals(height, that.height) &&
+               Objects.equals(compressionLevel, that.compressionLevel) &&
+               Objects.equals(quality, that.quality) &&
+               Objects.equals(progressive, that.progressive) &&
+               Objects.equals(chromaSubsampling, that.chromaSubsampling);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(outputFormat, backgroundColor, trimTransparent, width, height);
+        return Objects.hash(outputFormat, backgroundColor, trimTransparent, width, height, compressionLevel,
+                quality, progressive, chromaSubsampling);
     }
 
     @Override
@@ -84,6 +164,10 @@ public class SignatureOptions {
                ", trimTransparent=" + trimTransparent +
                ", width=" + width +
                ", height=" + height +
+               ", compressionLevel=" + compressionLevel +
+               ", quality=" + quality +
+               ", progressive=" + progressive +
+               ", chromaSubsampling='" + chromaSubsampling + '\'' +
                '}';
     }
 }
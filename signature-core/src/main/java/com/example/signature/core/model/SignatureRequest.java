@@ -1,20 +1,42 @@
 package com.example.signature.core.model;
 
+import java.util.Arrays;
 import java.util.Objects;
 
 public class SignatureRequest {
     private final String mime;
     private final String data;
+    private final byte[] payload;
+    private final StrokeData strokeData;
     private final SignatureMetadata metadata;
     private final SignatureOptions options;
 
     public SignatureRequest(String mime, String data, SignatureMetadata metadata, SignatureOptions options) {
+        this(mime, data, null, null, metadata, options);
+    }
+
+    private SignatureRequest(String mime, String data, byte[] payload, StrokeData strokeData,
+                             SignatureMetadata metadata, SignatureOptions options) {
         this.mime = mime;
         this.data = data;
+        this.payload = payload;
+        this.strokeData = strokeData;
         this.metadata = metadata;
         this.options = options;
     }
 
+    public static SignatureRequest ofPayload(String mime, byte[] payload, SignatureMetadata metadata, SignatureOptions options) {
+        return new SignatureRequest(mime, null, payload, null, metadata, options);
+    }
+
+    /**
+     * A request carrying the captured strokes instead of an image; they are rasterized directly at
+     * the requested output size.
+     */
+    public static SignatureRequest ofStrokes(StrokeData strokeData, SignatureMetadata metadata, SignatureOptions options) {
+        return new SignatureRequest(null, null, null, strokeData, metadata, options);
+    }
+
     public String getMime() {
         return mime;
     }
@@ -23,6 +45,14 @@ public class SignatureRequest {
         return data;
     }
 
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public StrokeData getStrokeData() {
+        return strokeData;
+    }
+
     public SignatureMetadata getMetadata() {
         return metadata;
     }
@@ -32,7 +62,7 @@ public class SignatureRequest {
     }
 
     public SignatureOptions resolvedOptions() {
-        return options == null ? new SignatureOptions(null, null, null, null, null) : options;
+        return options == null ? SignatureOptions.DEFAULTS : options;
     }
 
     @Override
@@ -42,13 +72,17 @@ public class SignatureRequest {
         SignatureRequest that = (SignatureRequest) o;
         return Objects.equals(mime, that.mime) &&
                Objects.equals(data, that.data) &&
+               Arrays.equals(payload, that.payload) &&
+               Objects.equals(strokeData, that.strokeData) &&
                Objects.equals(metadata, that.metadata) &&
                Objects.equals(options, that.options);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(mime, data, metadata, options);
+        int result = Objects.hash(mime, data, strokeData, metadata, options);
+        result = 31 * result + Arrays.hashCode(payload);
+        return result;
     }
 
     @Override
@@ -56,6 +90,8 @@ public class SignatureRequest {
         return "SignatureRequest{" +
                "mime='" + mime + '\'' +
                ", data='" + (data != null ? data.substring(0, Math.min(50, data.length())) + "..." : "null") + '\'' +
+               ", payloadLength=" + (payload != null ? payload.length : 0) +
+               ", strokeData=" + strokeData +
                ", metadata=" + metadata +
                ", options=" + options +
                '}';
@@ -0,0 +1,81 @@
+package com.example.signature.core.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * One pen-down to pen-up stroke. {@code points} is flat, four values per sample:
+ * {@code x, y, pressure, t}. Coordinates are canvas pixels, pressure is the PointerEvent value
+ * in [0, 1] (0 when the device does not report it) and {@code t} is milliseconds since the first
+ * sample of the signature.
+ */
+public class Stroke {
+    public static final int STRIDE = 4;
+
+    private final String color;
+    private final Float thickness;
+    private final float[] points;
+
+    @JsonCreator
+    public Stroke(
+            @JsonProperty("color") String color,
+            @JsonProperty("thickness") Float thickness,
+            @JsonProperty("points") float[] points) {
+        this.color = color;
+        this.thickness = thickness;
+        this.points = points;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public Float getThickness() {
+        return thickness;
+    }
+
+    public float[] getPoints() {
+        return points;
+    }
+
+    public String resolvedColor() {
+        return color != null ? color : "#000000";
+    }
+
+    public float resolvedThickness() {
+        return thickness != null ? thickness : 2f;
+    }
+
+    public int pointCount() {
+        return points != null ? points.length / STRIDE : 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Stroke that = (Stroke) o;
+        return Objects.equals(color, that.color) &&
+               Objects.equals(thickness, that.thickness) &&
+               Arrays.equals(points, that.points);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(color, thickness);
+        result = 31 * result + Arrays.hashCode(points);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Stroke{" +
+               "color='" + color + '\'' +
+               ", thickness=" + thickness +
+               ", pointCount=" + pointCount() +
+               '}';
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.signature.core.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Vector capture of a signature: the strokes as drawn and the size of the canvas their
+ * coordinates refer to.
+ */
+public class StrokeData {
+    private final Integer width;
+    private final Integer height;
+    private final List<Stroke> strokes;
+
+    @JsonCreator
+    public StrokeData(
+            @JsonProperty("width") Integer width,
+            @JsonProperty("height") Integer height,
+            @JsonProperty("strokes") List<Stroke> strokes) {
+        this.width = width;
+        this.height = height;
+        this.strokes = strokes != null ? Collections.unmodifiableList(strokes) : Collections.<Stroke>emptyList();
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public List<Stroke> getStrokes() {
+        return strokes;
+    }
+
+    public int pointCount() {
+        int count = 0;
+        for (Stroke stroke : strokes) {
+            count += stroke.pointCount();
+        }
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StrokeData that = (StrokeData) o;
+        return Objects.equals(width, that.width) &&
+               Objects.equals(height, that.height) &&
+               Objects.equals(strokes, that.strokes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(width, height, strokes);
+    }
+
+    @Override
+    public String toString() {
+        return "StrokeData{" +
+               "width=" + width +
+               ", height=" + height +
+               ", strokeCount=" + strokes.size() +
+               ", pointCount=" + pointCount() +
+               '}';
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.signature.core.plan;
+
+import com.example.signature.core.codec.ImageEncoder;
+import com.example.signature.core.model.SignatureOptions;
+
+import java.awt.*;
+
+/**
+ * {@link SignatureOptions} resolved once into what a conversion actually needs: the canonical
+ * format and its encoder, the parsed background colour, the resize mode and the cache key parts.
+ * Plans are immutable and shared by every request with equal options; see {@link ConversionPlans}.
+ */
+public final class ConversionPlan {
+
+    /** How the output size follows from the size of the content. */
+    public enum ResizeMode {
+        /** Keep the content size. */
+        NONE {
+            @Override
+            Dimension apply(int width, int height, int targetWidth, int targetHeight) {
+                return new Dimension(width, height);
+            }
+        },
+        /** Scale to the target width, keeping the aspect ratio. */
+        WIDTH {
+            @Override
+            Dimension apply(int width, int height, int targetWidth, int targetHeight) {
+                return new Dimension(targetWidth, (int) Math.round(targetWidth / ((double) width / height)));
+            }
+        },
+        /** Scale to the target height, keeping the aspect ratio. */
+        HEIGHT {
+            @Override
+            Dimension apply(int width, int height, int targetWidth, int targetHeight) {
+                return new Dimension((int) Math.round(targetHeight * ((double) width / height)), targetHeight);
+            }
+        },
+        /** Scale to the largest size that fits in the target box, keeping the aspect ratio. */
+        FIT {
+            @Override
+            Dimension apply(int width, int height, int targetWidth, int targetHeight) {
+                double ratio = Math.min((double) targetWidth / width, (double) targetHeight / height);
+                return new Dimension((int) Math.round(width * ratio), (int) Math.round(height * ratio));
+            }
+        };
+
+        abstract Dimension apply(int width, int height, int targetWidth, int targetHeight);
+
+        public static ResizeMode of(Integer targetWidth, Integer targetHeight) {
+            if (targetWidth != null && targetHeight != null) {
+                return FIT;
+            } else if (targetWidth != null) {
+                return WIDTH;
+            } else if (targetHeight != null) {
+                return HEIGHT;
+            }
+            return NONE;
+        }
+
+        /** Output size for content of {@code width}x{@code height}; absent targets are ignored. */
+        public Dimension scale(int width, int height, Integer targetWidth, Integer targetHeight) {
+            return apply(width, height, targetWidth != null ? targetWidth : 0, targetHeight != null ? targetHeight : 0);
+        }
+    }
+
+    private final SignatureOptions options;
+    private final String format;
+    private final ImageEncoder encoder;
+    private final String contentType;
+    private final Color background;
+    private final String backgroundKey;
+    private final boolean trim;
+    private final ResizeMode resizeMode;
+    private final String encoderSettings;
+
+    ConversionPlan(SignatureOptions options, String format, ImageEncoder encoder, String contentType,
+                   Color background, String backgroundKey) {
+        this.options = options;
+        this.format = format;
+        this.encoder = encoder;
+        this.contentType = contentType;
+        this.background = background;
+        this.backgroundKey = backgroundKey;
+        this.trim = options.shouldTrimTransparent();
+        this.resizeMode = ResizeMode.of(options.getWidth(), options.getHeight());
+        this.encoderSettings = encoder != null ? encoder.settingsKey(options) : "";
+    }
+
+    /** The options the plan was compiled from; encoders read their settings from these. */
+    public SignatureOptions getOptions() {
+        return options;
+    }
+
+    /** Canonical lower-case format name, for example {@code "jpeg"} for {@code "JPG"}. */
+    public String getFormat() {
+        return format;
+    }
+
+    public boolean isVector() {
+        return encoder == null;
+    }
+
+    /** {@code null} for SVG, which is written from strokes or traced outlines. */
+    public ImageEncoder getEncoder() {
+        return encoder;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /** Whether transparent pixels are flattened before encoding, whatever the source. */
+    public boolean requiresOpaque() {
+        return encoder != null && !encoder.supportsTransparency();
+    }
+
+    public Color getBackground() {
+        return background;
+    }
+
+    /** Background colour in the normalized form used in cache keys. */
+    public String getBackgroundKey() {
+        return backgroundKey;
+    }
+
+    public boolean isTrim() {
+        return trim;
+    }
+
+    public ResizeMode getResizeMode() {
+        return resizeMode;
+    }
+
+    public boolean isResized() {
+        return resizeMode != ResizeMode.NONE;
+    }
+
+    /** Output size for content of {@code width}x{@code height}, before any size limit is applied. */
+    public Dimension scale(int width, int height) {
+        return resizeMode.scale(width, height, options.getWidth(), options.getHeight());
+    }
+
+    /** {@link ImageEncoder#settingsKey} of the encoder; empty for SVG. */
+    public String getEncoderSettings() {
+        return encoderSettings;
+    }
+
+    @Override
+    public String toString() {
+        return "ConversionPlan{" +
+               "format='" + format + '\'' +
+               ", background='" + backgroundKey + '\'' +
+               ", trim=" + trim +
+               ", resizeMode=" + resizeMode +
+               ", encoderSettings='" + encoderSettings + '\'' +
+               '}';
+    }
+}
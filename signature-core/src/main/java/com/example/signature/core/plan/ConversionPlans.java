@@ -0,0 +1,95 @@
+package com.example.signature.core.plan;
+
+import com.example.signature.core.codec.ImageEncoder;
+import com.example.signature.core.codec.ImageEncoders;
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.core.model.SignatureOptions;
+
+import java.awt.*;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles {@link SignatureOptions} into {@link ConversionPlan}s and interns them, so the format
+ * lookup and colour parsing run once per distinct option set instead of once per request.
+ *
+ * <p>Real traffic uses a handful of option sets. The table stops growing at {@code maxPlans}
+ * entries; options beyond that are compiled on every call rather than evicting anything.
+ * Options that fail to compile are never cached.
+ */
+public final class ConversionPlans {
+    private static final String SVG = "svg";
+    private static final String SVG_CONTENT_TYPE = "image/svg+xml";
+
+    private final ImageEncoders encoders;
+    private final Set<String> contentTypes;
+    private final int maxPlans;
+    private final ConcurrentHashMap<SignatureOptions, ConversionPlan> plans =
+            new ConcurrentHashMap<SignatureOptions, ConversionPlan>();
+
+    public ConversionPlans(ImageEncoders encoders, int maxPlans) {
+        this.encoders = encoders;
+        Set<String> types = new HashSet<String>();
+        types.add(SVG_CONTENT_TYPE);
+        for (String format : encoders.getFormats()) {
+            types.add(encoders.find(format).getContentType().toLowerCase(Locale.US));
+        }
+        this.contentTypes = types;
+        this.maxPlans = maxPlans;
+    }
+
+    /**
+     * The plan for {@code options}; the same instance for equal options while it is cached.
+     *
+     * @throws SignatureProcessingException with {@code UNSUPPORTED_FORMAT} for an unknown output
+     *                                      format, or {@code INVALID_OPTIONS} for an invalid colour
+     */
+    public ConversionPlan get(SignatureOptions options) {
+        ConversionPlan plan = plans.get(options);
+        if (plan != null) {
+            return plan;
+        }
+        plan = compile(options);
+        if (plans.size() >= maxPlans) {
+            return plan;
+        }
+        ConversionPlan existing = plans.putIfAbsent(options, plan);
+        return existing != null ? existing : plan;
+    }
+
+    /** Whether some plan writes images of {@code contentType}, given without parameters. */
+    public boolean isOutputContentType(String contentType) {
+        return contentType != null && contentTypes.contains(contentType.toLowerCase(Locale.US));
+    }
+
+    /** Number of interned plans. */
+    public int size() {
+        return plans.size();
+    }
+
+    private ConversionPlan compile(SignatureOptions options) {
+        String requested = options.resolvedOutputFormat();
+        String hexColor = options.resolvedBackgroundColor();
+        Color background = parseColor(hexColor);
+        String backgroundKey = hexColor.toUpperCase(Locale.US);
+        if (SVG.equals(requested.toLowerCase(Locale.US))) {
+            return new ConversionPlan(options, SVG, null, SVG_CONTENT_TYPE, background, backgroundKey);
+        }
+        ImageEncoder encoder = encoders.find(requested);
+        if (encoder == null) {
+            throw new SignatureProcessingException("UNSUPPORTED_FORMAT", "Format " + requested + " is not supported");
+        }
+        return new ConversionPlan(options, encoder.getFormat(), encoder, encoder.getContentType(),
+                background, backgroundKey);
+    }
+
+    private static Color parseColor(String hexColor) {
+        try {
+            return Color.decode(hexColor);
+        } catch (NumberFormatException ex) {
+            throw new SignatureProcessingException("INVALID_OPTIONS", "Invalid color value: " + hexColor, ex);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.signature.core.pool;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reusable {@code int[]} and {@code byte[]} pixel buffers, so a conversion does not hand the
+ * garbage collector several multi-megabyte arrays per request.
+ * <p>
+ * Requests are rounded up to a size class (classes grow by a quarter, so at most 25% of a leased
+ * array goes unused) and leased arrays may therefore be longer than asked for and hold data from a
+ * previous lease. Idle arrays are kept in stripes selected by the calling thread, which keeps
+ * lease and release uncontended when each conversion runs on one thread; a lease only looks at
+ * the other stripes when its own has nothing of the right size. The total size of idle
+ * arrays never exceeds {@code maxBytes}; arrays released beyond that are left to the collector,
+ * as is any single array larger than an eighth of the budget.
+ * <p>
+ * Lease and release are explicit: an array must not be used after it is released, and must only
+ * be released once.
+ */
+public final class BufferPool {
+    private static final int MIN_CLASS_SIZE = 1024;
+    private static final int[] CLASS_SIZES = classSizes();
+
+    private final long maxBytes;
+    private final long maxBufferBytes;
+    private final Stripe[] stripes;
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param maxBytes upper bound on the memory held by idle buffers; 0 pools nothing and every
+     *                 lease allocates
+     */
+    public BufferPool(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Pool budget must not be negative");
+        }
+        this.maxBytes = maxBytes;
+        this.maxBufferBytes = maxBytes / 8;
+        int stripeCount = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /** Returns an array of at least {@code minLength} elements with unspecified contents. */
+    public int[] leaseInts(int minLength) {
+        int sizeClass = sizeClassOf(minLength);
+        if (sizeClass < 0) {
+            return new int[minLength];
+        }
+        int[] array = null;
+        for (int i = 0, home = home(); array == null && i < stripes.length; i++) {
+            Stripe stripe = stripes[(home + i) & (stripes.length - 1)];
+            synchronized (stripe) {
+                array = stripe.ints[sizeClass] != null ? stripe.ints[sizeClass].pollFirst() : null;
+            }
+        }
+        if (array == null) {
+            misses.incrementAndGet();
+            return new int[CLASS_SIZES[sizeClass]];
+        }
+        retainedBytes.addAndGet(-4L * array.length);
+        hits.incrementAndGet();
+        return array;
+    }
+
+    /** Returns an array of at least {@code minLength} bytes with unspecified contents. */
+    public byte[] leaseBytes(int minLength) {
+        int sizeClass = sizeClassOf(minLength);
+        if (sizeClass < 0) {
+            return new byte[minLength];
+        }
+        byte[] array = null;
+        for (int i = 0, home = home(); array == null && i < stripes.length; i++) {
+            Stripe stripe = stripes[(home + i) & (stripes.length - 1)];
+            synchronized (stripe) {
+                array = stripe.bytes[sizeClass] != null ? stripe.bytes[sizeClass].pollFirst() : null;
+            }
+        }
+        if (array == null) {
+            misses.incrementAndGet();
+            return new byte[CLASS_SIZES[sizeClass]];
+        }
+        retainedBytes.addAndGet(-(long) array.length);
+        hits.incrementAndGet();
+        return array;
+    }
+
+    public void release(int[] array) {
+        int sizeClass = exactClassOf(array.length);
+        if (sizeClass < 0 || !reserve(4L * array.length)) {
+            return;
+        }
+        Stripe stripe = stripes[home()];
+        synchronized (stripe) {
+            if (stripe.ints[sizeClass] == null) {
+                stripe.ints[sizeClass] = new ArrayDeque<int[]>();
+            }
+            stripe.ints[sizeClass].addFirst(array);
+        }
+    }
+
+    public void release(byte[] array) {
+        int sizeClass = exactClassOf(array.length);
+        if (sizeClass < 0 || !reserve(array.length)) {
+            return;
+        }
+        Stripe stripe = stripes[home()];
+        synchronized (stripe) {
+            if (stripe.bytes[sizeClass] == null) {
+                stripe.bytes[sizeClass] = new ArrayDeque<byte[]>();
+            }
+            stripe.bytes[sizeClass].addFirst(array);
+        }
+    }
+
+    /**
+     * Releases the backing array of an image the caller created and no longer uses. Images that
+     * are not backed by a single {@code int} or {@code byte} bank are ignored.
+     */
+    public void release(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        if (buffer.getNumBanks() != 1) {
+            return;
+        }
+        if (buffer instanceof DataBufferInt) {
+            release(((DataBufferInt) buffer).getData());
+        } else if (buffer instanceof DataBufferByte) {
+            release(((DataBufferByte) buffer).getData());
+        }
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /** Bytes currently held by idle buffers. */
+    public long retainedBytes() {
+        return retainedBytes.get();
+    }
+
+    /** Leases served from an idle buffer. */
+    public long hitCount() {
+        return hits.get();
+    }
+
+    /** Poolable leases that had to allocate. */
+    public long missCount() {
+        return misses.get();
+    }
+
+    private boolean reserve(long bytes) {
+        if (bytes > maxBufferBytes) {
+            return false;
+        }
+        while (true) {
+            long current = retainedBytes.get();
+            if (current + bytes > maxBytes) {
+                return false;
+            }
+            if (retainedBytes.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    private int home() {
+        return (int) Thread.currentThread().getId() & (stripes.length - 1);
+    }
+
+    // Smallest class that fits, or -1 when the request is too small to be worth pooling.
+    static int sizeClassOf(int length) {
+        if (length <= MIN_CLASS_SIZE / 2) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(CLASS_SIZES, length);
+        int sizeClass = index >= 0 ? index : -index - 1;
+        return sizeClass < CLASS_SIZES.length ? sizeClass : -1;
+    }
+
+    // Only arrays this pool could have handed out are accepted back.
+    private static int exactClassOf(int length) {
+        int index = Arrays.binarySearch(CLASS_SIZES, length);
+        return index >= 0 ? index : -1;
+    }
+
+    private static int[] classSizes() {
+        int[] sizes = new int[128];
+        int count = 0;
+        long size = MIN_CLASS_SIZE;
+        while (size <= Integer.MAX_VALUE - 8) {
+            sizes[count++] = (int) size;
+            size += size / 4;
+        }
+        return Arrays.copyOf(sizes, count);
+    }
+
+    private static final class Stripe {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final ArrayDeque<int[]>[] ints = new ArrayDeque[CLASS_SIZES.length];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final ArrayDeque<byte[]>[] bytes = new ArrayDeque[CLASS_SIZES.length];
+    }
+}
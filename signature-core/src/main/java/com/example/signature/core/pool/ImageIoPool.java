@@ -0,0 +1,109 @@
+package com.example.signature.core.pool;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Idle ImageIO readers and writers per format name. Looking a codec up through the service
+ * registry and constructing it costs more than decoding a small signature, and the JPEG codecs
+ * also allocate native state on creation.
+ * <p>
+ * Readers and writers are reset before they are pooled again. At most {@code maxIdlePerFormat}
+ * of each are kept; extra ones are disposed.
+ */
+public final class ImageIoPool {
+    private final int maxIdlePerFormat;
+    private final ConcurrentMap<String, Idle<ImageReader>> readers = new ConcurrentHashMap<String, Idle<ImageReader>>();
+    private final ConcurrentMap<String, Idle<ImageWriter>> writers = new ConcurrentHashMap<String, Idle<ImageWriter>>();
+
+    public ImageIoPool(int maxIdlePerFormat) {
+        if (maxIdlePerFormat < 0) {
+            throw new IllegalArgumentException("Idle limit must not be negative");
+        }
+        this.maxIdlePerFormat = maxIdlePerFormat;
+    }
+
+    /** Returns a reader for {@code format}, or {@code null} when ImageIO has none. */
+    public ImageReader leaseReader(String format) {
+        ImageReader reader = idle(readers, format).poll();
+        if (reader != null) {
+            return reader;
+        }
+        Iterator<ImageReader> found = ImageIO.getImageReadersByFormatName(format);
+        return found.hasNext() ? found.next() : null;
+    }
+
+    /** Returns a writer for {@code format}, or {@code null} when ImageIO has none. */
+    public ImageWriter leaseWriter(String format) {
+        ImageWriter writer = idle(writers, format).poll();
+        if (writer != null) {
+            return writer;
+        }
+        Iterator<ImageWriter> found = ImageIO.getImageWritersByFormatName(format);
+        return found.hasNext() ? found.next() : null;
+    }
+
+    /** Hands back a reader leased for {@code format}. */
+    public void release(String format, ImageReader reader) {
+        reader.reset();
+        if (!idle(readers, format).offer(reader)) {
+            reader.dispose();
+        }
+    }
+
+    /** Hands back a writer leased for {@code format}. */
+    public void release(String format, ImageWriter writer) {
+        writer.reset();
+        if (!idle(writers, format).offer(writer)) {
+            writer.dispose();
+        }
+    }
+
+    private <T> Idle<T> idle(ConcurrentMap<String, Idle<T>> pools, String format) {
+        String key = format.toLowerCase(Locale.US);
+        Idle<T> idle = pools.get(key);
+        if (idle == null) {
+            Idle<T> created = new Idle<T>(maxIdlePerFormat);
+            idle = pools.putIfAbsent(key, created);
+            if (idle == null) {
+                idle = created;
+            }
+        }
+        return idle;
+    }
+
+    private static final class Idle<T> {
+        private final Queue<T> queue = new ConcurrentLinkedQueue<T>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final int limit;
+
+        Idle(int limit) {
+            this.limit = limit;
+        }
+
+        T poll() {
+            T item = queue.poll();
+            if (item != null) {
+                size.decrementAndGet();
+            }
+            return item;
+        }
+
+        boolean offer(T item) {
+            if (size.incrementAndGet() > limit) {
+                size.decrementAndGet();
+                return false;
+            }
+            queue.offer(item);
+            return true;
+        }
+    }
+}
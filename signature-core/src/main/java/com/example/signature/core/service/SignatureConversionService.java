@@ -1,250 +1,637 @@
 package com.example.signature.core.service;
 
+import com.example.signature.core.cache.ConversionCache;
+import com.example.signature.core.codec.EncoderContext;
+import com.example.signature.core.codec.ImageEncoders;
 import com.example.signature.core.config.SignatureConfig;
 import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.core.id.FileIdGenerator;
+import com.example.signature.core.id.MonotonicFileIdGenerator;
+import com.example.signature.core.image.RasterTracer;
+import com.example.signature.core.image.Resampler;
+import com.example.signature.core.image.StrokeRasterizer;
+import com.example.signature.core.image.SvgEncoder;
+import com.example.signature.core.image.TransparentPixelTrimmer;
+import com.example.signature.core.io.Base64PayloadDecoder;
+import com.example.signature.core.io.EncodedImageOutputStream;
+import com.example.signature.core.io.ImageHeader;
+import com.example.signature.core.listener.ConversionListener;
+import com.example.signature.core.listener.ConversionStage;
+import com.example.signature.core.model.ConversionOutcome;
 import com.example.signature.core.model.ConversionResult;
 import com.example.signature.core.model.SignatureOptions;
 import com.example.signature.core.model.SignatureRequest;
+import com.example.signature.core.model.Stroke;
+import com.example.signature.core.model.StrokeData;
+import com.example.signature.core.plan.ConversionPlan;
+import com.example.signature.core.plan.ConversionPlans;
+import com.example.signature.core.pool.BufferPool;
+import com.example.signature.core.pool.ImageIoPool;
+import com.example.signature.core.store.SignatureStore;
+import com.example.signature.core.store.StoredSignature;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Base64;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
-import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class SignatureConversionService {
-    private static final Pattern DATA_URL_PATTERN = Pattern.compile("^data:(.+?);base64,(.+)$");
-    private static final ThreadLocal<SimpleDateFormat> FILE_ID_FORMATTER = new ThreadLocal<SimpleDateFormat>() {
-        @Override
-        protected SimpleDateFormat initialValue() {
-            return new SimpleDateFormat("yyyyMMddHHmmss", Locale.US);
-        }
-    };
+    private static final float MAX_STROKE_THICKNESS = 256f;
+    private static final int SUBSAMPLING_MARGIN = 4;
+    private static final int MAX_PLANS = 256;
     private final SignatureConfig config;
+    private final TransparentPixelTrimmer trimmer;
+    private final Resampler resampler;
+    private final StrokeRasterizer rasterizer;
+    private final RasterTracer tracer;
+    private final ConversionPlans plans;
+    private final EncoderContext encoderContext;
+    private final BufferPool bufferPool;
+    private final ImageIoPool codecPool;
+    private final SignatureStore store;
+    private final ConversionCache cache;
+    private final ConversionListener listener;
+    private final FileIdGenerator fileIds;
 
     public SignatureConversionService(SignatureConfig config) {
+        this(config, null);
+    }
+
+    public SignatureConversionService(SignatureConfig config, SignatureStore store) {
+        this(config, store, ConversionListener.NONE);
+    }
+
+    /**
+     * @param store    where converted signatures are persisted under their fileId; {@code null}
+     *                 keeps results in memory only
+     * @param listener notified of stage timings, sizes and errors; {@code null} for none
+     */
+    public SignatureConversionService(SignatureConfig config, SignatureStore store, ConversionListener listener) {
+        this(config, store, listener, null);
+    }
+
+    /**
+     * @param fileIds source of the fileIds of converted signatures; {@code null} for a
+     *                {@link MonotonicFileIdGenerator} on the configured node id
+     */
+    public SignatureConversionService(SignatureConfig config, SignatureStore store, ConversionListener listener,
+                                      FileIdGenerator fileIds) {
         this.config = config;
+        this.trimmer = new TransparentPixelTrimmer(config.getTrimAlphaThreshold());
+        this.bufferPool = new BufferPool(config.getPoolMaxBytes());
+        this.codecPool = new ImageIoPool(config.getPoolMaxIdleCodecs());
+        this.resampler = new Resampler(config.getResampleFilter(), bufferPool);
+        this.rasterizer = new StrokeRasterizer(bufferPool);
+        this.tracer = new RasterTracer(bufferPool);
+        this.plans = new ConversionPlans(ImageEncoders.load(SignatureConversionService.class.getClassLoader()), MAX_PLANS);
+        this.encoderContext = new EncoderContext(bufferPool, codecPool);
+        this.store = store;
+        this.listener = listener != null ? listener : ConversionListener.NONE;
+        this.fileIds = fileIds != null ? fileIds : new MonotonicFileIdGenerator(config.getNodeId());
+        this.cache = config.getCacheMaxBytes() > 0 ? new ConversionCache(config.getCacheMaxBytes()) : null;
     }
 
     public ConversionResult convert(SignatureRequest request) {
-        SignatureOptions options = request.resolvedOptions();
-        String targetFormat = sanitizeFormat(options.resolvedOutputFormat());
-        byte[] decoded = decodePayload(request.getData());
-        BufferedImage source = readImage(decoded);
+        try {
+            return doConvert(request);
+        } catch (SignatureProcessingException ex) {
+            listener.onError(ex.getCode());
+            throw ex;
+        } catch (IllegalArgumentException ex) {
+            listener.onError("INVALID_OPTIONS");
+            throw ex;
+        } catch (RuntimeException ex) {
+            listener.onError("INTERNAL_ERROR");
+            throw ex;
+        }
+    }
+
+    private ConversionResult doConvert(SignatureRequest request) {
+        ConversionPlan plan = plans.get(request.resolvedOptions());
+        SignatureOptions options = plan.getOptions();
+        String targetFormat = plan.getFormat();
+        long started = System.nanoTime();
+        StrokeData strokes = request.getStrokeData();
+        byte[] decoded;
+        if (strokes != null) {
+            // The canonical binary form stands in for the payload in the cache key and size metrics.
+            decoded = encodeStrokes(checkStrokes(strokes));
+        } else if (request.getPayload() != null) {
+            decoded = checkPayloadSize(request.getPayload());
+        } else {
+            decoded = decodePayload(request.getData());
+            started = stage(ConversionStage.DECODE, started);
+        }
+        listener.onInput(decoded.length);
+
+        ConversionCache.Key cacheKey = null;
+        if (cache != null) {
+            cacheKey = ConversionCache.key(decoded, targetFormat, plan.getBackgroundKey(), plan.isTrim(),
+                    options.getWidth(), options.getHeight(), plan.getEncoderSettings());
+            ConversionResult cached = cache.get(cacheKey);
+            // Identical input yields the same fileId, as long as it has not been deleted meanwhile.
+            if (cached != null && isStored(cached.getFileId())) {
+                listener.onOutput(targetFormat, cached.sizeBytes());
+                return cached;
+            }
+            started = System.nanoTime();
+        }
 
-        BufferedImage processed = source;
-        if (options.shouldTrimTransparent()) {
-            processed = trimTransparentPixels(processed);
+        BufferedImage source = null;
+        BufferedImage processed = null;
+        EncodedImageOutputStream output;
+        Dimension outputSize;
+        try {
+            Rectangle region = null;
+            if (strokes != null) {
+                if (plan.isTrim()) {
+                    region = rasterizer.contentBounds(strokes);
+                    started = stage(ConversionStage.TRIM, started);
+                }
+                if (plan.isVector()) {
+                    // Strokes already are paths; there is nothing to render before encoding.
+                    outputSize = outputSize(strokesArea(strokes, region), plan);
+                    output = SvgEncoder.encode(strokes, region, outputSize.width, outputSize.height);
+                    stage(ConversionStage.ENCODE, started);
+                } else {
+                    processed = renderStrokes(strokes, region, plan);
+                    started = stage(ConversionStage.RENDER, started);
+                    outputSize = new Dimension(processed.getWidth(), processed.getHeight());
+                    output = writeImage(processed, plan);
+                    stage(ConversionStage.ENCODE, started);
+                }
+            } else {
+                Dimension resized = subsampledSize(decoded, plan);
+                source = resized != null ? readImage(decoded, resized) : readImage(decoded);
+                started = stage(ConversionStage.READ, started);
+                if (plan.isTrim()) {
+                    region = findContentBounds(source);
+                    started = stage(ConversionStage.TRIM, started);
+                }
+                if (plan.isVector()) {
+                    RasterTracer.Outline outline = tracer.trace(source, region);
+                    started = stage(ConversionStage.RENDER, started);
+                    outputSize = outputSize(new Rectangle(outline.getWidth(), outline.getHeight()), plan);
+                    output = SvgEncoder.encode(outline, outputSize.width, outputSize.height);
+                    stage(ConversionStage.ENCODE, started);
+                } else {
+                    processed = resized != null
+                            ? render(source, null, resized, plan)
+                            : render(source, region, plan);
+                    started = stage(ConversionStage.RENDER, started);
+                    outputSize = new Dimension(processed.getWidth(), processed.getHeight());
+                    output = writeImage(processed, plan);
+                    stage(ConversionStage.ENCODE, started);
+                }
+            }
+        } finally {
+            // Both images were created here and are unreachable once encoded.
+            if (source != null) {
+                bufferPool.release(source);
+            }
+            if (processed != null && processed != source) {
+                bufferPool.release(processed);
+            }
+        }
+        String contentType = plan.getContentType();
+        String fileId = fileIds.nextId();
+        ConversionResult result = new ConversionResult(fileId, contentType, output.buffer(), output.size(),
+                outputSize.width, outputSize.height);
+        if (store != null) {
+            store.save(result);
         }
+        if (cache != null) {
+            // Cache an exactly sized copy rather than pinning the encoder's oversized buffer.
+            cache.put(cacheKey, new ConversionResult(fileId, contentType, result.getData(),
+                    result.getWidth(), result.getHeight()));
+        }
+        listener.onOutput(targetFormat, result.sizeBytes());
+        return result;
+    }
 
-        processed = resizeImage(processed, options.getWidth(), options.getHeight());
+    private long stage(ConversionStage stage, long started) {
+        long now = System.nanoTime();
+        listener.onStage(stage, now - started);
+        return now;
+    }
 
-        processed = applyBackground(processed, options.resolvedBackgroundColor(), targetFormat);
+    /**
+     * Converts every request in parallel on the common fork-join pool. One failing item does not
+     * affect the others; outcomes are returned in request order.
+     */
+    public List<ConversionOutcome> convertAll(List<SignatureRequest> requests) {
+        return convertAll(requests, ForkJoinPool.commonPool());
+    }
 
-        byte[] output = writeImage(processed, targetFormat);
-        String contentType = contentTypeFor(targetFormat);
-        String fileId = generateFileId();
-        return new ConversionResult(fileId, contentType, output, processed.getWidth(), processed.getHeight());
+    public List<ConversionOutcome> convertAll(List<SignatureRequest> requests, Executor executor) {
+        List<CompletableFuture<ConversionOutcome>> futures = new ArrayList<CompletableFuture<ConversionOutcome>>(requests.size());
+        for (final SignatureRequest request : requests) {
+            futures.add(CompletableFuture.supplyAsync(() -> convertToOutcome(request), executor));
+        }
+        List<ConversionOutcome> outcomes = new ArrayList<ConversionOutcome>(futures.size());
+        for (CompletableFuture<ConversionOutcome> future : futures) {
+            outcomes.add(future.join());
+        }
+        return outcomes;
     }
 
-    private byte[] decodePayload(String payload) {
-        Matcher matcher = DATA_URL_PATTERN.matcher(payload);
-        String base64 = matcher.matches() ? matcher.group(2) : payload;
+    /**
+     * Converts {@code request}, reporting a failure as an outcome instead of throwing, for
+     * callers that schedule the items of a batch themselves.
+     */
+    public ConversionOutcome convertToOutcome(SignatureRequest request) {
         try {
-            byte[] decoded = Base64.getDecoder().decode(base64);
-            if (decoded.length > config.getMaxPayloadBytes()) {
-                throw new SignatureProcessingException("INVALID_PAYLOAD", "Payload exceeds max size of " + config.getMaxPayloadBytes());
-            }
-            return decoded;
+            return ConversionOutcome.success(convert(request));
+        } catch (SignatureProcessingException ex) {
+            return ConversionOutcome.failure(ex);
         } catch (IllegalArgumentException ex) {
-            throw new SignatureProcessingException("INVALID_PAYLOAD", "Base64 decode failed", ex);
+            return ConversionOutcome.failure(new SignatureProcessingException("INVALID_OPTIONS", ex.getMessage(), ex));
+        } catch (RuntimeException ex) {
+            return ConversionOutcome.failure(new SignatureProcessingException("INTERNAL_ERROR", "Conversion failed", ex));
         }
     }
 
-    private BufferedImage readImage(byte[] bytes) {
+    /**
+     * Returns the pool that pixel buffers are leased from.
+     */
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * Returns the result cache, or {@code null} when caching is disabled.
+     */
+    public ConversionCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Whether a conversion can produce images of {@code contentType} ({@code type/subtype},
+     * without parameters), for callers that accept already converted signatures.
+     */
+    public boolean isOutputContentType(String contentType) {
+        return plans.isOutputContentType(contentType);
+    }
+
+    // A store that reaches other nodes reports NODE_UNAVAILABLE when none answers; converting
+    // again is cheaper for the client than failing a request the cache could have served.
+    private boolean isStored(String fileId) {
+        if (store == null) {
+            return true;
+        }
         try {
-            BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
-            if (image == null) {
-                throw new SignatureProcessingException("INVALID_PAYLOAD", "Unsupported image format");
+            return store.contains(fileId);
+        } catch (SignatureProcessingException ex) {
+            if ("NODE_UNAVAILABLE".equals(ex.getCode())) {
+                return false;
             }
-            return image;
-        } catch (IOException ex) {
-            throw new SignatureProcessingException("INVALID_PAYLOAD", "Unable to read image", ex);
+            throw ex;
         }
     }
 
-    private String sanitizeFormat(String format) {
-        String normalized = (format == null) ? "png" : format.toLowerCase(Locale.US);
-        if ("png".equals(normalized)) {
-            return "png";
-        } else if ("jpg".equals(normalized) || "jpeg".equals(normalized)) {
-            return "jpeg";
-        } else {
-            throw new SignatureProcessingException("UNSUPPORTED_FORMAT", "Format " + normalized + " is not supported");
+    public StoredSignature find(String fileId) {
+        StoredSignature stored = store != null ? store.find(fileId) : null;
+        if (stored == null) {
+            throw new SignatureProcessingException("NOT_FOUND", "Signature " + fileId + " not found");
+        }
+        return stored;
+    }
+
+    byte[] decodePayload(String payload) {
+        if (payload == null || payload.isEmpty()) {
+            throw new SignatureProcessingException("INVALID_PAYLOAD", "Payload is empty");
+        }
+        return Base64PayloadDecoder.decode(payload, config.getMaxPayloadBytes());
+    }
+
+    private byte[] checkPayloadSize(byte[] payload) {
+        if (payload.length == 0) {
+            throw new SignatureProcessingException("INVALID_PAYLOAD", "Payload is empty");
+        }
+        if (payload.length > config.getMaxPayloadBytes()) {
+            throw new SignatureProcessingException("INVALID_PAYLOAD", "Payload exceeds max size of " + config.getMaxPayloadBytes());
         }
+        return payload;
     }
 
-    private byte[] writeImage(BufferedImage image, String format) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    BufferedImage readImage(byte[] bytes) {
+        return readImage(bytes, null);
+    }
+
+    /**
+     * Decodes {@code bytes}. PNG and JPEG dimensions are checked against the configured limits from
+     * the file header, then the image is read with a pooled reader into a raster whose backing
+     * array is leased from the buffer pool; the caller owns the image and may release it there.
+     * <p>
+     * When the image is only needed at {@code resized} (may be {@code null}) and is much larger,
+     * only every n-th pixel of every n-th row is decoded; the resampler then works from the
+     * smaller image.
+     */
+    BufferedImage readImage(byte[] bytes, Dimension resized) {
+        ImageHeader header = ImageHeader.read(bytes);
+        if (header != null) {
+            checkImageSize(header.getWidth(), header.getHeight(), "INVALID_PAYLOAD", "Image");
+        }
+        String format = header != null ? header.getFormat() : null;
+        ImageReader reader = format != null ? codecPool.leaseReader(format) : null;
+        if (reader == null) {
+            return readImageWithRegistry(bytes);
+        }
+        BufferedImage destination = null;
         try {
-            boolean success = ImageIO.write(image, format, baos);
-            if (!success) {
-                throw new SignatureProcessingException("UNSUPPORTED_FORMAT", "ImageIO writer for " + format + " not available");
+            reader.setInput(new MemoryCacheImageInputStream(new ByteArrayInputStream(bytes)), true, true);
+            int subsampling = resized != null ? decodeSubsampling(header.getWidth(), header.getHeight(), resized) : 1;
+            destination = pooledDestination(reader, subsampling);
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+            param.setDestination(destination);
+            return reader.read(0, param);
+        } catch (IOException | IllegalArgumentException ex) {
+            if (destination != null) {
+                bufferPool.release(destination);
             }
-            return baos.toByteArray();
-        } catch (IOException ex) {
-            throw new SignatureProcessingException("INTERNAL_ERROR", "Unable to write image", ex);
+            throw new SignatureProcessingException("INVALID_PAYLOAD", "Unable to read image", ex);
         } finally {
-            try {
-                baos.close();
-            } catch (IOException e) {
-                // Ignore
+            codecPool.release(format, reader);
+        }
+    }
+
+    // Other formats (GIF, BMP) are rare; the reader is found by probing, but the size is still
+    // checked from the header before decoding.
+    private BufferedImage readImageWithRegistry(byte[] bytes) {
+        ImageReader reader = null;
+        try (ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new SignatureProcessingException("INVALID_PAYLOAD", "Unsupported image format");
+            }
+            reader = readers.next();
+            reader.setInput(input, true, true);
+            checkImageSize(reader.getWidth(0), reader.getHeight(0), "INVALID_PAYLOAD", "Image");
+            return reader.read(0);
+        } catch (IOException | IllegalArgumentException ex) {
+            throw new SignatureProcessingException("INVALID_PAYLOAD", "Unable to read image", ex);
+        } finally {
+            if (reader != null) {
+                reader.dispose();
             }
         }
     }
 
-    private String contentTypeFor(String format) {
-        return format.equals("png") ? "image/png" : "image/jpeg";
+    /**
+     * Output size of a PNG or JPEG that may be decoded at reduced resolution: it is resized and
+     * neither trimmed (trim bounds come from the decoded pixels) nor traced. The size is taken
+     * from the header so that it matches a full-resolution decode exactly. {@code null} otherwise.
+     */
+    private Dimension subsampledSize(byte[] bytes, ConversionPlan plan) {
+        if (!config.isDecodeSubsampling() || plan.isTrim() || plan.isVector() || !plan.isResized()) {
+            return null;
+        }
+        ImageHeader header = ImageHeader.read(bytes);
+        return header != null ? scaledSize(header.getWidth(), header.getHeight(), plan) : null;
     }
 
-    private BufferedImage resizeImage(BufferedImage source, Integer targetWidth, Integer targetHeight) {
-        if (targetWidth == null && targetHeight == null) {
-            return source;
+    // Subsampling is nearest-neighbour, so it stops at SUBSAMPLING_MARGIN decoded pixels per
+    // output pixel and leaves the rest of the reduction to the resampler's filter.
+    private static int decodeSubsampling(int width, int height, Dimension resized) {
+        int factor = Math.min(width / (SUBSAMPLING_MARGIN * Math.max(1, resized.width)),
+                height / (SUBSAMPLING_MARGIN * Math.max(1, resized.height)));
+        return Math.max(1, factor);
+    }
+
+    /**
+     * Rejects images wider, taller or larger than the configured limits. Called before any raster
+     * of that size is allocated: on the encoded header, the stroke canvas and the output size.
+     */
+    private void checkImageSize(long width, long height, String code, String subject) {
+        if (width > config.getMaxImageWidth() || height > config.getMaxImageHeight()
+                || width * height > config.getMaxImagePixels()) {
+            throw new SignatureProcessingException(code, subject + " of " + width + "x" + height
+                    + " exceeds the limit of " + config.getMaxImageWidth() + "x" + config.getMaxImageHeight()
+                    + " and " + config.getMaxImagePixels() + " pixels");
         }
+    }
 
-        int originalWidth = source.getWidth();
-        int originalHeight = source.getHeight();
+    // Only byte-interleaved layouts are pooled; anything else is left to the reader to allocate.
+    private BufferedImage pooledDestination(ImageReader reader, int subsampling) throws IOException {
+        Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+        if (!types.hasNext()) {
+            return null;
+        }
+        ImageTypeSpecifier type = types.next();
+        int width = (reader.getWidth(0) + subsampling - 1) / subsampling;
+        int height = (reader.getHeight(0) + subsampling - 1) / subsampling;
+        SampleModel sampleModel = type.getSampleModel(width, height);
+        if (!(sampleModel instanceof PixelInterleavedSampleModel) || sampleModel.getDataType() != DataBuffer.TYPE_BYTE) {
+            return null;
+        }
+        int length = ((PixelInterleavedSampleModel) sampleModel).getScanlineStride() * height;
+        DataBufferByte buffer = new DataBufferByte(bufferPool.leaseBytes(length), length);
+        WritableRaster raster = Raster.createWritableRaster(sampleModel, buffer, null);
+        ColorModel colorModel = type.getColorModel();
+        return new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(), null);
+    }
 
-        Dimension newSize = calculateDimensions(
-            originalWidth, originalHeight,
-            targetWidth, targetHeight
-        );
+    // The stage helpers below take loose arguments for tests and benchmarks; they compile them
+    // into a plan just as a request's options are.
+    private ConversionPlan planFor(String format, String hexColor, Integer targetWidth, Integer targetHeight) {
+        return plans.get(new SignatureOptions(format, hexColor, null, targetWidth, targetHeight));
+    }
 
-        int newWidth = newSize.width;
-        int newHeight = newSize.height;
+    EncodedImageOutputStream writeImage(BufferedImage image, String format) {
+        return writeImage(image, planFor(format, null, null, null));
+    }
 
-        if (newWidth == originalWidth && newHeight == originalHeight) {
-            return source;
-        }
+    // SVG is written from strokes or traced outlines; every raster format is an ImageEncoder.
+    private EncodedImageOutputStream writeImage(BufferedImage image, ConversionPlan plan) {
+        return plan.getEncoder().encode(image, plan.getOptions(), encoderContext);
+    }
+
+    /**
+     * Crops {@code source} to {@code region} (all of it when {@code null}), scales it and flattens
+     * it onto the background in a single pass over the source raster. Returns {@code source}
+     * itself when none of the three changes anything.
+     */
+    BufferedImage render(BufferedImage source, Rectangle region, Integer targetWidth, Integer targetHeight,
+                         String hexColor, String targetFormat) {
+        return render(source, region, planFor(targetFormat, hexColor, targetWidth, targetHeight));
+    }
 
-        BufferedImage resized = new BufferedImage(
-            newWidth, newHeight,
-            source.getType() == 0 ? BufferedImage.TYPE_INT_ARGB : source.getType()
-        );
+    private BufferedImage render(BufferedImage source, Rectangle region, ConversionPlan plan) {
+        Rectangle area = region != null ? region : new Rectangle(0, 0, source.getWidth(), source.getHeight());
+        return render(source, area, scaledSize(area.width, area.height, plan), plan);
+    }
 
-        Graphics2D g2d = resized.createGraphics();
-        try {
-            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
-                               RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-            g2d.setRenderingHint(RenderingHints.KEY_RENDERING,
-                               RenderingHints.VALUE_RENDER_QUALITY);
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                               RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setRenderingHint(RenderingHints.KEY_COLOR_RENDERING,
-                               RenderingHints.VALUE_COLOR_RENDER_QUALITY);
-
-            g2d.drawImage(source, 0, 0, newWidth, newHeight, null);
-        } finally {
-            g2d.dispose();
+    /** As above, scaling {@code region} to exactly {@code newSize}. */
+    private BufferedImage render(BufferedImage source, Rectangle region, Dimension newSize, ConversionPlan plan) {
+        Rectangle area = region != null ? region : new Rectangle(0, 0, source.getWidth(), source.getHeight());
+        boolean flatten = plan.requiresOpaque() || hasTransparency(source);
+        boolean wholeImage = area.width == source.getWidth() && area.height == source.getHeight();
+        if (!flatten && wholeImage && newSize.width == area.width && newSize.height == area.height) {
+            return source;
         }
+        return resampler.render(source, area, newSize.width, newSize.height, flatten ? plan.getBackground() : null);
+    }
 
-        return resized;
+    /**
+     * Rasterizes {@code region} of the stroke canvas (all of it when {@code null}) straight at the
+     * output size. Strokes have no opaque backdrop of their own, so the background is always
+     * applied, as it is for transparent images.
+     */
+    BufferedImage renderStrokes(StrokeData strokes, Rectangle region, Integer targetWidth, Integer targetHeight,
+                                String hexColor) {
+        return renderStrokes(strokes, region, planFor("png", hexColor, targetWidth, targetHeight));
     }
 
-    private Dimension calculateDimensions(int originalWidth, int originalHeight,
-                                         Integer targetWidth, Integer targetHeight) {
-        double aspectRatio = (double) originalWidth / originalHeight;
+    private BufferedImage renderStrokes(StrokeData strokes, Rectangle region, ConversionPlan plan) {
+        Rectangle area = strokesArea(strokes, region);
+        Dimension newSize = outputSize(area, plan);
+        checkImageSize(newSize.width, newSize.height, "INVALID_OPTIONS", "Output");
+        // Segments crossing the whole output cost far more than their point count suggests.
+        if (rasterizer.renderCost(strokes, area, newSize.width, newSize.height) > config.getMaxStrokeRenderPixels()) {
+            throw new SignatureProcessingException("INVALID_PAYLOAD", "Strokes exceed max render cost of "
+                    + config.getMaxStrokeRenderPixels() + " pixels at " + newSize.width + "x" + newSize.height);
+        }
+        return rasterizer.render(strokes, area, newSize.width, newSize.height, plan.getBackground());
+    }
 
-        int newWidth;
-        int newHeight;
+    private static Rectangle strokesArea(StrokeData strokes, Rectangle region) {
+        return region != null ? region : new Rectangle(0, 0, strokes.getWidth(), strokes.getHeight());
+    }
 
-        if (targetWidth != null && targetHeight != null) {
-            double widthRatio = (double) targetWidth / originalWidth;
-            double heightRatio = (double) targetHeight / originalHeight;
-            double ratio = Math.min(widthRatio, heightRatio);
+    // Output size for the area, at least one pixel each way.
+    private Dimension outputSize(Rectangle area, ConversionPlan plan) {
+        Dimension newSize = scaledSize(area.width, area.height, plan);
+        return new Dimension(Math.max(1, newSize.width), Math.max(1, newSize.height));
+    }
 
-            newWidth = (int) Math.round(originalWidth * ratio);
-            newHeight = (int) Math.round(originalHeight * ratio);
-        } else if (targetWidth != null) {
-            newWidth = targetWidth;
-            newHeight = (int) Math.round(targetWidth / aspectRatio);
-        } else {
-            newHeight = targetHeight;
-            newWidth = (int) Math.round(targetHeight * aspectRatio);
+    private StrokeData checkStrokes(StrokeData strokes) {
+        Integer width = strokes.getWidth();
+        Integer height = strokes.getHeight();
+        // The canvas is only a coordinate space; the pixel limit applies to the rendered output.
+        if (width == null || height == null || width <= 0 || height <= 0
+                || width > config.getMaxImageWidth() || height > config.getMaxImageHeight()) {
+            throw new SignatureProcessingException("INVALID_PAYLOAD", "Stroke canvas must be between 1x1 and "
+                    + config.getMaxImageWidth() + "x" + config.getMaxImageHeight());
+        }
+        for (Stroke stroke : strokes.getStrokes()) {
+            if (stroke == null || stroke.getPoints() == null || stroke.getPoints().length % Stroke.STRIDE != 0) {
+                throw new SignatureProcessingException("INVALID_PAYLOAD",
+                        "Stroke points must be x, y, pressure, t groups");
+            }
         }
+        if (strokes.pointCount() > config.getMaxStrokePoints()) {
+            throw new SignatureProcessingException("INVALID_PAYLOAD",
+                    "Strokes exceed max of " + config.getMaxStrokePoints() + " points");
+        }
+        for (Stroke stroke : strokes.getStrokes()) {
+            float[] points = stroke.getPoints();
+            float thickness = stroke.resolvedThickness();
+            if (!(thickness > 0) || thickness > MAX_STROKE_THICKNESS) {
+                throw new SignatureProcessingException("INVALID_PAYLOAD", "Invalid stroke thickness: " + thickness);
+            }
+            for (float value : points) {
+                if (Float.isNaN(value) || Float.isInfinite(value)) {
+                    throw new SignatureProcessingException("INVALID_PAYLOAD", "Stroke points must be finite");
+                }
+            }
+            try {
+                Color.decode(stroke.resolvedColor());
+            } catch (NumberFormatException ex) {
+                throw new SignatureProcessingException("INVALID_PAYLOAD", "Invalid stroke color: " + stroke.getColor(), ex);
+            }
+        }
+        return strokes;
+    }
 
-        return new Dimension(newWidth, newHeight);
+    private static byte[] encodeStrokes(StrokeData strokes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + strokes.pointCount() * Stroke.STRIDE * 4);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(strokes.getWidth());
+            out.writeInt(strokes.getHeight());
+            for (Stroke stroke : strokes.getStrokes()) {
+                out.writeUTF(stroke.resolvedColor().toUpperCase(Locale.US));
+                out.writeFloat(stroke.resolvedThickness());
+                out.writeInt(stroke.getPoints().length);
+                for (float value : stroke.getPoints()) {
+                    out.writeFloat(value);
+                }
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return bytes.toByteArray();
     }
 
-    private BufferedImage applyBackground(BufferedImage source, String hexColor, String targetFormat) {
-        boolean needsOpaque = targetFormat.equals("jpeg");
-        if (!needsOpaque && !hasTransparency(source)) {
+    BufferedImage resizeImage(BufferedImage source, Integer targetWidth, Integer targetHeight) {
+        if (targetWidth == null && targetHeight == null) {
             return source;
         }
 
-        Color bg = parseColor(hexColor);
-        BufferedImage canvas = new BufferedImage(source.getWidth(), source.getHeight(), needsOpaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = canvas.createGraphics();
-        try {
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setColor(bg);
-            g2d.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
-            g2d.drawImage(source, 0, 0, null);
-        } finally {
-            g2d.dispose();
+        int originalWidth = source.getWidth();
+        int originalHeight = source.getHeight();
+
+        Dimension newSize = scaledSize(originalWidth, originalHeight, planFor(null, null, targetWidth, targetHeight));
+
+        int newWidth = newSize.width;
+        int newHeight = newSize.height;
+
+        if (newWidth == originalWidth && newHeight == originalHeight) {
+            return source;
         }
-        return canvas;
-    }
 
-    private boolean hasTransparency(BufferedImage image) {
-        return image.getColorModel().hasAlpha();
+        return resampler.resize(source, newWidth, newHeight);
     }
 
-    private Color parseColor(String hexColor) {
-        try {
-            return Color.decode(hexColor);
-        } catch (NumberFormatException ex) {
-            throw new SignatureProcessingException("INVALID_OPTIONS", "Invalid color value: " + hexColor, ex);
-        }
-    }
-
-    private BufferedImage trimTransparentPixels(BufferedImage source) {
-        int width = source.getWidth();
-        int height = source.getHeight();
-        int top = height, left = width, right = 0, bottom = 0;
-
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int pixel = source.getRGB(x, y);
-                int alpha = (pixel >> 24) & 0xff;
-                if (alpha != 0) {
-                    if (x < left) left = x;
-                    if (x > right) right = x;
-                    if (y < top) top = y;
-                    if (y > bottom) bottom = y;
-                }
-            }
+    // Output size of content scaled as the plan asks, within the configured limits.
+    private Dimension scaledSize(int width, int height, ConversionPlan plan) {
+        Dimension newSize = plan.scale(width, height);
+        if (plan.isResized()) {
+            checkImageSize(newSize.width, newSize.height, "INVALID_OPTIONS", "Output");
         }
+        return newSize;
+    }
 
-        if (right < left || bottom < top) {
+    BufferedImage applyBackground(BufferedImage source, String hexColor, String targetFormat) {
+        ConversionPlan plan = planFor(targetFormat, hexColor, null, null);
+        if (!plan.requiresOpaque() && !hasTransparency(source)) {
             return source;
         }
 
-        int trimmedWidth = right - left + 1;
-        int trimmedHeight = bottom - top + 1;
-        return source.getSubimage(left, top, trimmedWidth, trimmedHeight);
+        return resampler.render(source, null, source.getWidth(), source.getHeight(), plan.getBackground());
+    }
+
+    private boolean hasTransparency(BufferedImage image) {
+        return image.getColorModel().hasAlpha();
+    }
+
+    BufferedImage trimTransparentPixels(BufferedImage source) {
+        return trimmer.trim(source);
     }
 
-    private String generateFileId() {
-        String timestamp = FILE_ID_FORMATTER.get().format(new Date());
-        return "sig_" + timestamp + "_" + UUID.randomUUID().toString().substring(0, 8);
+    Rectangle findContentBounds(BufferedImage source) {
+        return trimmer.findContentBounds(source);
     }
 }
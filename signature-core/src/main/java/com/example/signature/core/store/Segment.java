@@ -0,0 +1,99 @@
+package com.example.signature.core.store;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * One append-only segment file. Only the segment currently receiving appends keeps a
+ * writable mapping; reads always go through the channel so they can use {@code transferTo}.
+ * Mutable fields are guarded by the owning store's lock.
+ */
+final class Segment {
+    static final String PREFIX = "segment-";
+    static final String SUFFIX = ".dat";
+
+    final int id;
+    final Path path;
+    final FileChannel channel;
+    final int capacity;
+    MappedByteBuffer mapping;
+    int writePosition;
+    long liveBytes;
+    long deadBytes;
+
+    private Segment(int id, Path path, FileChannel channel, int capacity) {
+        this.id = id;
+        this.path = path;
+        this.channel = channel;
+        this.capacity = capacity;
+    }
+
+    static Segment create(Path directory, int id, int capacity) throws IOException {
+        Path path = directory.resolve(fileName(id));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segment segment = new Segment(id, path, channel, capacity);
+        segment.mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        return segment;
+    }
+
+    static Segment open(Path path, int id) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Segment " + path + " exceeds 2 GB");
+        }
+        return new Segment(id, path, channel, (int) size);
+    }
+
+    static String fileName(int id) {
+        return String.format(Locale.US, "%s%08d%s", PREFIX, id, SUFFIX);
+    }
+
+    /**
+     * Returns the segment id encoded in {@code fileName}, or -1 when it is not a segment file.
+     */
+    static int parseId(String fileName) {
+        if (!fileName.startsWith(PREFIX) || !fileName.endsWith(SUFFIX)) {
+            return -1;
+        }
+        String digits = fileName.substring(PREFIX.length(), fileName.length() - SUFFIX.length());
+        if (digits.isEmpty() || digits.length() > 9) {
+            return -1;
+        }
+        for (int i = 0; i < digits.length(); i++) {
+            if (!Character.isDigit(digits.charAt(i))) {
+                return -1;
+            }
+        }
+        return Integer.parseInt(digits);
+    }
+
+    void activate() throws IOException {
+        mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    void seal() {
+        if (mapping != null) {
+            mapping.force();
+            // The mapping itself is released once it becomes unreachable.
+            mapping = null;
+        }
+    }
+
+    void close() throws IOException {
+        seal();
+        channel.close();
+    }
+
+    void closeAndDelete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,481 @@
+package com.example.signature.core.store;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.core.model.ConversionResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * {@link SignatureStore} that appends encoded images to large memory-mapped segment files
+ * and keeps an in-memory index from fileId to record location.
+ *
+ * <p>Record layout (big endian):
+ * <pre>
+ * int    length        bytes following this field; 0 marks the end of the segment
+ * byte   state         1 = live, 0 = deleted
+ * int    crc           CRC32 of everything after this field
+ * short  idLength, byte[] fileId (UTF-8)
+ * short  typeLength, byte[] contentType (UTF-8)
+ * int    width, int height
+ * byte[] image data
+ * </pre>
+ *
+ * <p>Appends are serialized and copied into the active segment's mapping, so they cost no
+ * system call. Reads are lock-free and use {@link FileChannel#transferTo}. Deletes only flip
+ * the state byte. {@link #compact()} rewrites live records out of mostly-dead segments.
+ * The index is rebuilt by scanning the segments on startup; a torn trailing record fails its
+ * CRC and is ignored.
+ */
+public final class SegmentedSignatureStore implements SignatureStore {
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final double DEFAULT_COMPACTION_THRESHOLD = 0.5;
+
+    private static final int LENGTH_BYTES = 4;
+    private static final int STATE_OFFSET = 4;
+    private static final int CRC_OFFSET = 5;
+    private static final int BODY_OFFSET = 9;
+    // Two length-prefixed strings plus width and height.
+    private static final int MIN_BODY_LENGTH = 12;
+    private static final byte LIVE = 1;
+    private static final byte DELETED = 0;
+    private static final int MAX_ID_BYTES = 0xffff;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final double compactionThreshold;
+    private final ConcurrentHashMap<String, Entry> index = new ConcurrentHashMap<String, Entry>();
+    private final TreeMap<Integer, Segment> segments = new TreeMap<Integer, Segment>();
+    private final List<Segment> retired = new ArrayList<Segment>();
+    private Segment active;
+    private boolean closed;
+
+    public SegmentedSignatureStore(Path directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * @param segmentSize         size of newly created segment files in bytes
+     * @param compactionThreshold fraction of dead bytes (0 exclusive to 1 inclusive) at which a
+     *                            sealed segment is rewritten by {@link #compact()}
+     */
+    public SegmentedSignatureStore(Path directory, int segmentSize, double compactionThreshold) {
+        if (segmentSize < 4096) {
+            throw new IllegalArgumentException("Segment size must be at least 4096 bytes");
+        }
+        if (!(compactionThreshold > 0 && compactionThreshold <= 1)) {
+            throw new IllegalArgumentException("Compaction threshold must be in (0, 1]");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.compactionThreshold = compactionThreshold;
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException ex) {
+            closeQuietly();
+            throw new SignatureProcessingException("INTERNAL_ERROR", "Unable to open signature store at " + directory, ex);
+        }
+    }
+
+    @Override
+    public void save(ConversionResult result) {
+        byte[] fileId = result.getFileId().getBytes(StandardCharsets.UTF_8);
+        byte[] contentType = result.getContentType().getBytes(StandardCharsets.UTF_8);
+        if (fileId.length > MAX_ID_BYTES || contentType.length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("fileId or contentType too long");
+        }
+        ByteBuffer data = result.asReadOnlyBuffer();
+        long recordLength = (long) BODY_OFFSET + 2 + fileId.length + 2 + contentType.length + 8 + data.remaining();
+        if (recordLength > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Signature too large to store");
+        }
+
+        synchronized (this) {
+            ensureOpen();
+            try {
+                Segment segment = segmentFor((int) recordLength);
+                int start = segment.writePosition;
+                ByteBuffer out = segment.mapping.duplicate();
+                out.position(start + BODY_OFFSET);
+                out.putShort((short) fileId.length).put(fileId);
+                out.putShort((short) contentType.length).put(contentType);
+                out.putInt(result.getWidth()).putInt(result.getHeight());
+                int dataOffset = out.position();
+                out.put(data);
+                commit(segment.mapping, start, (int) recordLength);
+
+                segment.writePosition += (int) recordLength;
+                segment.liveBytes += recordLength;
+                Entry entry = new Entry(result.getFileId(), result.getContentType(), result.getWidth(),
+                        result.getHeight(), segment, start, (int) recordLength, dataOffset);
+                Entry previous = index.put(entry.fileId, entry);
+                if (previous != null) {
+                    markDeleted(previous);
+                }
+            } catch (IOException ex) {
+                throw new SignatureProcessingException("INTERNAL_ERROR", "Unable to store signature", ex);
+            }
+        }
+    }
+
+    @Override
+    public StoredSignature find(String fileId) {
+        return index.get(fileId);
+    }
+
+    @Override
+    public synchronized boolean delete(String fileId) {
+        ensureOpen();
+        Entry entry = index.remove(fileId);
+        if (entry == null) {
+            return false;
+        }
+        try {
+            markDeleted(entry);
+        } catch (IOException ex) {
+            throw new SignatureProcessingException("INTERNAL_ERROR", "Unable to delete signature", ex);
+        }
+        return true;
+    }
+
+    /**
+     * Rewrites the live records of every sealed segment whose dead fraction reached the
+     * threshold into the active segment. Emptied files are deleted on the following run, so
+     * readers that looked up an entry just before it moved can still finish their transfer.
+     */
+    @Override
+    public synchronized void compact() {
+        ensureOpen();
+        try {
+            for (Segment segment : retired) {
+                segment.closeAndDelete();
+            }
+            retired.clear();
+            for (Segment segment : new ArrayList<Segment>(segments.values())) {
+                long total = segment.liveBytes + segment.deadBytes;
+                if (segment == active || total == 0 || segment.deadBytes < total * compactionThreshold) {
+                    continue;
+                }
+                relocate(segment);
+                segments.remove(segment.id);
+                retired.add(segment);
+            }
+        } catch (IOException ex) {
+            throw new SignatureProcessingException("INTERNAL_ERROR", "Unable to compact signature store", ex);
+        }
+    }
+
+    /**
+     * Forces appended records to disk. Without it, durability follows the OS page cache.
+     */
+    public synchronized void flush() {
+        if (active != null && active.mapping != null) {
+            active.mapping.force();
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    synchronized int segmentCount() {
+        return segments.size() + retired.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        index.clear();
+        IOException failure = null;
+        for (Segment segment : segments.values()) {
+            try {
+                segment.close();
+            } catch (IOException ex) {
+                failure = ex;
+            }
+        }
+        for (Segment segment : retired) {
+            try {
+                segment.closeAndDelete();
+            } catch (IOException ex) {
+                failure = ex;
+            }
+        }
+        segments.clear();
+        retired.clear();
+        active = null;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void recover() throws IOException {
+        TreeMap<Integer, Path> files = new TreeMap<Integer, Path>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, Segment.PREFIX + "*" + Segment.SUFFIX)) {
+            for (Path path : stream) {
+                int id = Segment.parseId(path.getFileName().toString());
+                if (id >= 0) {
+                    files.put(id, path);
+                }
+            }
+        }
+        for (Map.Entry<Integer, Path> file : files.entrySet()) {
+            Segment segment = Segment.open(file.getValue(), file.getKey());
+            segments.put(segment.id, segment);
+            scan(segment);
+        }
+        if (!segments.isEmpty()) {
+            Segment last = segments.lastEntry().getValue();
+            if (last.capacity - last.writePosition > BODY_OFFSET) {
+                last.activate();
+                active = last;
+            }
+        }
+    }
+
+    private void scan(Segment segment) throws IOException {
+        MappedByteBuffer buffer = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, segment.capacity);
+        int position = 0;
+        while (position + BODY_OFFSET <= segment.capacity) {
+            int length = buffer.getInt(position);
+            if (length < BODY_OFFSET - LENGTH_BYTES + MIN_BODY_LENGTH || length > segment.capacity - position - LENGTH_BYTES) {
+                break;
+            }
+            int recordLength = length + LENGTH_BYTES;
+            ByteBuffer body = slice(buffer, position + BODY_OFFSET, recordLength - BODY_OFFSET);
+            if (crc(body.duplicate()) != buffer.getInt(position + CRC_OFFSET)) {
+                break;
+            }
+            if (buffer.get(position + STATE_OFFSET) == LIVE) {
+                Entry entry = parse(segment, position, recordLength, body);
+                Entry previous = index.put(entry.fileId, entry);
+                if (previous != null) {
+                    // A record copied by an interrupted compaction; the later copy wins.
+                    previous.segment.liveBytes -= previous.recordLength;
+                    previous.segment.deadBytes += previous.recordLength;
+                }
+                segment.liveBytes += recordLength;
+            } else {
+                segment.deadBytes += recordLength;
+            }
+            position += recordLength;
+        }
+        segment.writePosition = position;
+    }
+
+    private void relocate(Segment segment) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(BODY_OFFSET);
+        int position = 0;
+        while (position < segment.writePosition) {
+            header.clear();
+            readFully(segment.channel, header, position);
+            int recordLength = header.getInt(0) + LENGTH_BYTES;
+            if (header.get(STATE_OFFSET) == LIVE) {
+                ByteBuffer record = ByteBuffer.allocate(recordLength);
+                readFully(segment.channel, record, position);
+                Entry current = parse(segment, position, recordLength, slice(record, BODY_OFFSET, recordLength - BODY_OFFSET));
+                Entry indexed = index.get(current.fileId);
+                if (indexed != null && indexed.segment == segment && indexed.recordOffset == position) {
+                    Segment target = segmentFor(recordLength);
+                    int start = target.writePosition;
+                    ByteBuffer out = target.mapping.duplicate();
+                    out.position(start);
+                    record.clear();
+                    out.put(record);
+                    target.writePosition += recordLength;
+                    target.liveBytes += recordLength;
+                    index.put(current.fileId, indexed.moveTo(target, start));
+                    // Kill the old copy so a crash before the file is deleted cannot resurrect
+                    // a record that gets deleted from its new location.
+                    markDeleted(indexed);
+                }
+            }
+            position += recordLength;
+        }
+    }
+
+    private Segment segmentFor(int recordLength) throws IOException {
+        if (active != null && active.capacity - active.writePosition >= recordLength) {
+            return active;
+        }
+        if (active != null) {
+            active.seal();
+        }
+        int id = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        // Leave room for the zero length that terminates a full segment.
+        Segment segment = Segment.create(directory, id, Math.max(segmentSize, recordLength + LENGTH_BYTES));
+        segments.put(id, segment);
+        active = segment;
+        return segment;
+    }
+
+    private void markDeleted(Entry entry) throws IOException {
+        Segment segment = entry.segment;
+        int position = entry.recordOffset + STATE_OFFSET;
+        if (segment.mapping != null) {
+            segment.mapping.put(position, DELETED);
+        } else {
+            segment.channel.write(ByteBuffer.wrap(new byte[]{DELETED}), position);
+        }
+        segment.liveBytes -= entry.recordLength;
+        segment.deadBytes += entry.recordLength;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new SignatureProcessingException("INTERNAL_ERROR", "Signature store is closed");
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException ignored) {
+            // Already failing; the original exception is more useful.
+        }
+    }
+
+    // The length is written last, so a partially written record never looks complete.
+    private static void commit(MappedByteBuffer mapping, int start, int recordLength) {
+        ByteBuffer body = slice(mapping, start + BODY_OFFSET, recordLength - BODY_OFFSET);
+        mapping.put(start + STATE_OFFSET, LIVE);
+        mapping.putInt(start + CRC_OFFSET, crc(body));
+        mapping.putInt(start, recordLength - LENGTH_BYTES);
+    }
+
+    private static Entry parse(Segment segment, int position, int recordLength, ByteBuffer body) {
+        int bodyStart = body.position();
+        String fileId = readString(body);
+        String contentType = readString(body).intern();
+        int width = body.getInt();
+        int height = body.getInt();
+        int dataOffset = position + BODY_OFFSET + (body.position() - bodyStart);
+        return new Entry(fileId, contentType, width, height, segment, position, recordLength, dataOffset);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xffff];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(offset + length).position(offset);
+        return view.slice();
+    }
+
+    private static int crc(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+        return (int) crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int n = channel.read(target, position + target.position());
+            if (n < 0) {
+                throw new IOException("Unexpected end of segment");
+            }
+        }
+        target.flip();
+    }
+
+    /**
+     * Index entry; doubles as the {@link StoredSignature} handed to readers.
+     */
+    private static final class Entry implements StoredSignature {
+        final String fileId;
+        final String contentType;
+        final int width;
+        final int height;
+        final Segment segment;
+        final int recordOffset;
+        final int recordLength;
+        final int dataOffset;
+
+        Entry(String fileId, String contentType, int width, int height,
+              Segment segment, int recordOffset, int recordLength, int dataOffset) {
+            this.fileId = fileId;
+            this.contentType = contentType;
+            this.width = width;
+            this.height = height;
+            this.segment = segment;
+            this.recordOffset = recordOffset;
+            this.recordLength = recordLength;
+            this.dataOffset = dataOffset;
+        }
+
+        Entry moveTo(Segment target, int offset) {
+            return new Entry(fileId, contentType, width, height, target, offset, recordLength,
+                    offset + (dataOffset - recordOffset));
+        }
+
+        @Override
+        public String getFileId() {
+            return fileId;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public long getSizeBytes() {
+            return recordOffset + recordLength - dataOffset;
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public long transferTo(WritableByteChannel target) throws IOException {
+            long position = dataOffset;
+            long remaining = getSizeBytes();
+            while (remaining > 0) {
+                long n = segment.channel.transferTo(position, remaining, target);
+                if (n <= 0) {
+                    break;
+                }
+                position += n;
+                remaining -= n;
+            }
+            return position - dataOffset;
+        }
+
+        @Override
+        public Path getFile() {
+            return segment.path;
+        }
+
+        @Override
+        public long getFileOffset() {
+            return dataOffset;
+        }
+    }
+}
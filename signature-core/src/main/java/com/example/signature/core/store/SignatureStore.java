@@ -0,0 +1,35 @@
+package com.example.signature.core.store;
+
+import com.example.signature.core.model.ConversionResult;
+
+import java.io.Closeable;
+
+/**
+ * Persists converted signatures under their {@link ConversionResult#getFileId() fileId}.
+ * Implementations must be safe for concurrent use.
+ */
+public interface SignatureStore extends Closeable {
+
+    void save(ConversionResult result);
+
+    /**
+     * Returns the stored signature, or {@code null} when nothing is stored under {@code fileId}.
+     */
+    StoredSignature find(String fileId);
+
+    /**
+     * Whether something is stored under {@code fileId}, for implementations where {@link #find}
+     * is more expensive than a presence check. Implementations that ask other nodes throw a
+     * {@code SignatureProcessingException} with {@code NODE_UNAVAILABLE} when they cannot tell.
+     */
+    default boolean contains(String fileId) {
+        return find(fileId) != null;
+    }
+
+    boolean delete(String fileId);
+
+    /**
+     * Reclaims space held by deleted entries. Implementations without garbage may treat this as a no-op.
+     */
+    void compact();
+}
@@ -0,0 +1,39 @@
+package com.example.signature.core.store;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Handle to an encoded image held by a {@link SignatureStore}. The bytes are not loaded until
+ * {@link #transferTo(WritableByteChannel)} is called.
+ */
+public interface StoredSignature {
+
+    String getFileId();
+
+    String getContentType();
+
+    long getSizeBytes();
+
+    int getWidth();
+
+    int getHeight();
+
+    /**
+     * Writes the encoded image to {@code target} and returns the number of bytes written.
+     */
+    long transferTo(WritableByteChannel target) throws IOException;
+
+    /**
+     * File holding the image bytes at {@link #getFileOffset()}, for sendfile-style transfers.
+     * Returns {@code null} when the signature is not backed by a plain file.
+     */
+    default Path getFile() {
+        return null;
+    }
+
+    default long getFileOffset() {
+        return -1;
+    }
+}
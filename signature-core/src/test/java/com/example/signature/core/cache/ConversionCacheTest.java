@@ -0,0 +1,59 @@
+package com.example.signature.core.cache;
+
+import com.example.signature.core.model.ConversionResult;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConversionCacheTest {
+
+    @Test
+    void keyCoversPayloadAndOptions() {
+        byte[] payload = {1, 2, 3};
+        ConversionCache.Key key = ConversionCache.key(payload, "png", "#FFFFFF", true, 300, null, "");
+
+        assertThat(ConversionCache.key(new byte[]{1, 2, 3}, "png", "#FFFFFF", true, 300, null, "")).isEqualTo(key);
+        assertThat(ConversionCache.key(new byte[]{1, 2, 4}, "png", "#FFFFFF", true, 300, null, "")).isNotEqualTo(key);
+        assertThat(ConversionCache.key(payload, "jpeg", "#FFFFFF", true, 300, null, "")).isNotEqualTo(key);
+        assertThat(ConversionCache.key(payload, "png", "#FFFFFF", true, null, 300, "")).isNotEqualTo(key);
+        assertThat(ConversionCache.key(payload, "png", "#FFFFFF", true, 300, null, "level=9")).isNotEqualTo(key);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedByWeight() {
+        ConversionCache cache = new ConversionCache(8 * 1300);
+        ConversionCache.Key a = key(1);
+        ConversionCache.Key b = key(2);
+        ConversionCache.Key c = key(3);
+        cache.put(a, result("a", 1000));
+        cache.put(b, result("b", 1000));
+        assertThat(cache.get(a)).isNotNull();
+
+        for (int i = 10; i < 16; i++) {
+            cache.put(key(i), result("x" + i, 1000));
+        }
+        cache.put(c, result("c", 1000));
+
+        assertThat(cache.get(b)).isNull();
+        assertThat(cache.get(a)).isNotNull();
+        assertThat(cache.get(c)).isNotNull();
+        assertThat(cache.weightedSize()).isLessThanOrEqualTo(cache.getMaxBytes());
+        assertThat(cache.hitCount()).isEqualTo(3);
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void skipsResultsLargerThanAnEighthOfTheBudget() {
+        ConversionCache cache = new ConversionCache(80_000);
+        cache.put(key(1), result("big", 20_000));
+        assertThat(cache.size()).isZero();
+    }
+
+    private static ConversionCache.Key key(int seed) {
+        return ConversionCache.key(new byte[]{(byte) seed}, "png", "#FFFFFF", false, null, null, "");
+    }
+
+    private static ConversionResult result(String fileId, int size) {
+        return new ConversionResult(fileId, "image/png", new byte[size], 10, 10);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.signature.core.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageEncodersTest {
+
+    @Test
+    void builtInEncodersAreFoundThroughTheServiceLoader() {
+        ImageEncoders encoders = ImageEncoders.load(ImageEncodersTest.class.getClassLoader());
+
+        assertThat(encoders.getFormats()).containsExactly("png", "jpeg", "webp");
+        assertThat(encoders.find("WebP")).isInstanceOf(WebpEncoder.class);
+        assertThat(encoders.find("JPG")).isInstanceOf(JpegEncoder.class);
+        assertThat(encoders.find("gif")).isNull();
+        assertThat(encoders.find(null)).isNull();
+    }
+
+    @Test
+    void firstEncoderKeepsAClaimedName() {
+        PngEncoder first = new PngEncoder();
+        ImageEncoders encoders = new ImageEncoders(Arrays.asList(first, new PngEncoder()));
+
+        assertThat(encoders.find("png")).isSameAs(first);
+        assertThat(encoders.getFormats()).containsExactly("png");
+    }
+}
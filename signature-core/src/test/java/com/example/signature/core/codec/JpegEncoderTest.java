@@ -0,0 +1,89 @@
+package com.example.signature.core.codec;
+
+import com.example.signature.core.io.EncodedImageOutputStream;
+import com.example.signature.core.pool.ImageIoPool;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JpegEncoderTest {
+    private final JpegEncoder encoder = new JpegEncoder();
+    private final ImageIoPool codecPool = new ImageIoPool(2);
+    private final BufferedImage image = signature();
+
+    @Test
+    void qualityTradesSizeForFidelity() throws IOException {
+        byte[] low = encode(20, false, "4:2:0");
+        byte[] high = encode(95, false, "4:2:0");
+
+        assertThat(low.length).isLessThan(high.length / 2);
+        assertThat(ImageIO.read(new ByteArrayInputStream(low)).getWidth()).isEqualTo(300);
+    }
+
+    @Test
+    void progressiveModeWritesAProgressiveFrame() {
+        byte[] baseline = encode(75, false, "4:2:0");
+        byte[] progressive = encode(75, true, "4:2:0");
+
+        assertThat(frame(baseline)[1] & 0xff).isEqualTo(0xc0);
+        assertThat(frame(progressive)[1] & 0xff).isEqualTo(0xc2);
+    }
+
+    @Test
+    void chromaSubsamplingSetsTheLumaSamplingFactors() {
+        assertThat(lumaSampling(encode(75, false, "4:4:4"))).isEqualTo(0x11);
+        assertThat(lumaSampling(encode(75, false, "4:2:2"))).isEqualTo(0x21);
+        assertThat(lumaSampling(encode(75, false, "4:2:0"))).isEqualTo(0x22);
+        assertThat(lumaSampling(encode(75, true, "4:4:4"))).isEqualTo(0x11);
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        assertThatThrownBy(() -> encoder.encode(image, 0, false, "4:2:0", codecPool)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> encoder.encode(image, 75, false, "4:1:1", codecPool)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private byte[] encode(int quality, boolean progressive, String chroma) {
+        EncodedImageOutputStream out = encoder.encode(image, quality, progressive, chroma, codecPool);
+        return Arrays.copyOf(out.buffer(), out.size());
+    }
+
+    // The start-of-frame segment from its marker on.
+    private static byte[] frame(byte[] jpeg) {
+        for (int i = 2; i + 1 < jpeg.length; ) {
+            int marker = jpeg[i + 1] & 0xff;
+            if (marker == 0xc0 || marker == 0xc2) {
+                return Arrays.copyOfRange(jpeg, i, i + 2 + ((jpeg[i + 2] & 0xff) << 8 | jpeg[i + 3] & 0xff));
+            }
+            i += 2 + ((jpeg[i + 2] & 0xff) << 8 | jpeg[i + 3] & 0xff);
+        }
+        throw new AssertionError("No start-of-frame segment");
+    }
+
+    // Marker, length, precision, height, width and component count precede the first component.
+    private static int lumaSampling(byte[] jpeg) {
+        return frame(jpeg)[2 + 2 + 1 + 4 + 1 + 1] & 0xff;
+    }
+
+    private static BufferedImage signature() {
+        BufferedImage image = new BufferedImage(300, 120, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, 300, 120);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(new Color(0x20, 0x40, 0xff));
+        g2d.setStroke(new BasicStroke(3f));
+        g2d.drawArc(20, 15, 160, 90, 0, 300);
+        g2d.drawLine(170, 90, 280, 30);
+        g2d.dispose();
+        return image;
+    }
+}
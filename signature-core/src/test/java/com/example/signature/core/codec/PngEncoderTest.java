@@ -0,0 +1,188 @@
+package com.example.signature.core.codec;
+
+import com.example.signature.core.io.EncodedImageOutputStream;
+import com.example.signature.core.pool.BufferPool;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PngEncoderTest {
+    private final PngEncoder encoder = new PngEncoder();
+    private final BufferPool pool = new BufferPool(0);
+
+    @Test
+    void blackOnWhiteIsWrittenAsOneBitGrey() throws IOException {
+        BufferedImage image = canvas(BufferedImage.TYPE_INT_RGB, Color.WHITE);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(Color.BLACK);
+        g2d.drawLine(10, 10, 190, 70);
+        g2d.dispose();
+
+        byte[] png = encode(image, 6);
+
+        assertThat(colorType(png)).isEqualTo(0);
+        assertThat(bitDepth(png)).isEqualTo(1);
+        assertSamePixels(image, png);
+    }
+
+    @Test
+    void antiAliasedGreyKeepsEightBitsPerPixel() throws IOException {
+        BufferedImage image = canvas(BufferedImage.TYPE_INT_RGB, Color.WHITE);
+        for (int x = 0; x < 200; x++) {
+            image.setRGB(x, 40, (x * 0x010101) & 0xffffff);
+        }
+
+        byte[] png = encode(image, 6);
+
+        assertThat(colorType(png)).isEqualTo(0);
+        assertThat(bitDepth(png)).isEqualTo(8);
+        assertSamePixels(image, png);
+    }
+
+    @Test
+    void fewTranslucentColoursUseAPalette() throws IOException {
+        BufferedImage image = canvas(BufferedImage.TYPE_INT_ARGB, new Color(0, 0, 0, 0));
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(new Color(0x20, 0x40, 0xff));
+        g2d.setStroke(new BasicStroke(3f));
+        g2d.drawOval(30, 10, 140, 60);
+        g2d.dispose();
+        // Hidden colour under full transparency must not cost palette entries.
+        image.setRGB(0, 0, 0x00ff0000);
+
+        byte[] png = encode(image, 6);
+
+        assertThat(colorType(png)).isEqualTo(3);
+        assertThat(indexOf(png, "tRNS")).isPositive();
+        assertSamePixels(image, png);
+    }
+
+    @Test
+    void manyColoursFallBackToTrueColour() throws IOException {
+        BufferedImage opaque = canvas(BufferedImage.TYPE_INT_RGB, Color.WHITE);
+        BufferedImage translucent = canvas(BufferedImage.TYPE_INT_ARGB, Color.WHITE);
+        for (int y = 0; y < 80; y++) {
+            for (int x = 0; x < 200; x++) {
+                opaque.setRGB(x, y, x << 16 | y << 8 | (x + y) & 0xff);
+                translucent.setRGB(x, y, (x + 40) << 24 | x << 16 | y << 8 | 0x80);
+            }
+        }
+
+        byte[] rgb = encode(opaque, 9);
+        byte[] rgba = encode(translucent, 1);
+
+        assertThat(colorType(rgb)).isEqualTo(2);
+        assertThat(colorType(rgba)).isEqualTo(6);
+        assertSamePixels(opaque, rgb);
+        assertSamePixels(translucent, rgba);
+    }
+
+    @Test
+    void compressionLevelTradesSizeForSpeed() throws IOException {
+        BufferedImage image = canvas(BufferedImage.TYPE_INT_RGB, Color.WHITE);
+        for (int y = 0; y < 80; y++) {
+            for (int x = 0; x < 200; x++) {
+                image.setRGB(x, y, (x * 3 + y) << 8 | x);
+            }
+        }
+
+        byte[] stored = encode(image, 0);
+        byte[] best = encode(image, 9);
+
+        assertThat(stored.length).isGreaterThan(200 * 80 * 3);
+        assertThat(best.length).isLessThan(stored.length / 4);
+        assertSamePixels(image, stored);
+        assertSamePixels(image, best);
+        assertThatThrownBy(() -> encoder.encode(image, 10, pool)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void signaturesAreSmallerThanWithTheJdkWriter() throws IOException {
+        BufferedImage image = canvas(BufferedImage.TYPE_INT_ARGB, new Color(0, 0, 0, 0));
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(Color.BLACK);
+        g2d.setStroke(new BasicStroke(2f));
+        g2d.drawArc(20, 10, 80, 60, 0, 300);
+        g2d.drawLine(100, 60, 180, 20);
+        g2d.dispose();
+        ByteArrayOutputStream jdk = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", jdk);
+
+        byte[] png = encode(image, 6);
+
+        assertThat(png.length).isLessThan(jdk.size());
+        assertSamePixels(image, png);
+    }
+
+    private byte[] encode(BufferedImage image, int level) {
+        EncodedImageOutputStream out = encoder.encode(image, level, pool);
+        return Arrays.copyOf(out.buffer(), out.size());
+    }
+
+    private static BufferedImage canvas(int type, Color background) {
+        BufferedImage image = new BufferedImage(200, 80, type);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setComposite(AlphaComposite.Src);
+        g2d.setColor(background);
+        g2d.fillRect(0, 0, 200, 80);
+        g2d.dispose();
+        return image;
+    }
+
+    private static void assertSamePixels(BufferedImage expected, byte[] png) throws IOException {
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(png));
+        assertThat(decoded.getWidth()).isEqualTo(expected.getWidth());
+        assertThat(decoded.getHeight()).isEqualTo(expected.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertThat(visible(rgb(decoded, x, y))).as("pixel %d,%d", x, y)
+                        .isEqualTo(visible(expected.getRGB(x, y)));
+            }
+        }
+    }
+
+    // getRGB on 8-bit grey applies a gamma curve; the stored samples are what was written.
+    private static int rgb(BufferedImage image, int x, int y) {
+        if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            return 0xff000000 | image.getRaster().getSample(x, y, 0) * 0x010101;
+        }
+        return image.getRGB(x, y);
+    }
+
+    private static int visible(int argb) {
+        return (argb >>> 24) == 0 ? 0 : argb;
+    }
+
+    // IHDR data starts after the signature, the chunk length and the chunk type.
+    private static int bitDepth(byte[] png) {
+        return png[8 + 8 + 8];
+    }
+
+    private static int colorType(byte[] png) {
+        return png[8 + 8 + 9];
+    }
+
+    private static int indexOf(byte[] png, String chunk) {
+        outer:
+        for (int i = 8; i + 4 <= png.length; i++) {
+            for (int j = 0; j < 4; j++) {
+                if (png[i + j] != chunk.charAt(j)) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,524 @@
+package com.example.signature.core.codec;
+
+import com.example.signature.core.io.EncodedImageOutputStream;
+import com.example.signature.core.pool.BufferPool;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebpEncoderTest {
+    // VP8L transform types.
+    private static final int PREDICTOR = 0;
+    private static final int SUBTRACT_GREEN = 2;
+    private static final int COLOR_INDEXING = 3;
+
+    private final WebpEncoder encoder = new WebpEncoder();
+    private final BufferPool pool = new BufferPool(0);
+
+    @Test
+    void blackOnWhiteIsWrittenWithATwoColourPalette() {
+        BufferedImage image = canvas(203, 80, BufferedImage.TYPE_INT_RGB, Color.WHITE);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(Color.BLACK);
+        g2d.drawLine(10, 10, 190, 70);
+        g2d.drawOval(40, 20, 60, 30);
+        g2d.dispose();
+
+        byte[] webp = encode(image, 6);
+
+        assertThat(new String(webp, 0, 4, StandardCharsets.US_ASCII)).isEqualTo("RIFF");
+        assertThat(uint32(webp, 4)).isEqualTo(webp.length - 8);
+        assertThat(new String(webp, 8, 8, StandardCharsets.US_ASCII)).isEqualTo("WEBPVP8L");
+        assertThat(webp.length % 2).isZero();
+        Decoded decoded = new Decoded(webp);
+        assertThat(decoded.hasAlpha).isFalse();
+        assertThat(decoded.transforms).containsExactly(COLOR_INDEXING);
+        assertSamePixels(image, decoded);
+    }
+
+    @Test
+    void translucentInkKeepsItsAlpha() {
+        BufferedImage image = canvas(200, 80, BufferedImage.TYPE_INT_ARGB, new Color(0, 0, 0, 0));
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(new Color(0x20, 0x40, 0xff));
+        g2d.setStroke(new BasicStroke(3f));
+        g2d.drawOval(30, 10, 140, 60);
+        g2d.dispose();
+        // Hidden colour under full transparency is not kept.
+        image.setRGB(0, 0, 0x00ff0000);
+
+        Decoded decoded = new Decoded(encode(image, 6));
+
+        assertThat(decoded.hasAlpha).isTrue();
+        assertSamePixels(image, decoded);
+    }
+
+    @Test
+    void manyColoursArePredictedAtEveryLevel() {
+        BufferedImage opaque = canvas(200, 80, BufferedImage.TYPE_INT_RGB, Color.WHITE);
+        BufferedImage translucent = canvas(200, 80, BufferedImage.TYPE_INT_ARGB, Color.WHITE);
+        for (int y = 0; y < 80; y++) {
+            for (int x = 0; x < 200; x++) {
+                opaque.setRGB(x, y, x << 16 | y << 8 | (x * y) & 0xff);
+                translucent.setRGB(x, y, (x + 40) << 24 | x << 16 | y << 8 | 0x80);
+            }
+        }
+
+        for (int level = 0; level <= 9; level++) {
+            Decoded rgb = new Decoded(encode(opaque, level));
+            Decoded rgba = new Decoded(encode(translucent, level));
+
+            assertThat(rgb.transforms).containsExactly(SUBTRACT_GREEN, PREDICTOR);
+            assertSamePixels(opaque, rgb);
+            assertSamePixels(translucent, rgba);
+        }
+    }
+
+    @Test
+    void scannedSignatureIsSmallerThanPng() {
+        BufferedImage image = canvas(300, 120, BufferedImage.TYPE_INT_RGB, Color.WHITE);
+        Random noise = new Random(7);
+        for (int y = 0; y < 120; y++) {
+            for (int x = 0; x < 300; x++) {
+                int grey = 0xf0 + noise.nextInt(16);
+                image.setRGB(x, y, grey * 0x010101);
+            }
+        }
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(new Color(0x10, 0x18, 0x50));
+        g2d.setStroke(new BasicStroke(3f));
+        g2d.drawArc(20, 10, 120, 90, 0, 300);
+        g2d.drawLine(140, 90, 280, 20);
+        g2d.dispose();
+
+        byte[] webp = encode(image, 6);
+        EncodedImageOutputStream png = new PngEncoder().encode(image, 6, pool);
+
+        assertThat(webp.length).isLessThan(png.size());
+        assertSamePixels(image, new Decoded(webp));
+    }
+
+    @Test
+    void singlePixel() {
+        BufferedImage image = canvas(1, 1, BufferedImage.TYPE_INT_ARGB, new Color(0x12, 0x34, 0x56, 0x78));
+
+        Decoded decoded = new Decoded(encode(image, 6));
+
+        assertThat(decoded.width).isEqualTo(1);
+        assertThat(decoded.height).isEqualTo(1);
+        assertSamePixels(image, decoded);
+    }
+
+    @Test
+    void outputIsReadableByAnIndependentDecoder() throws IOException {
+        BufferedImage palette = canvas(203, 80, BufferedImage.TYPE_INT_RGB, Color.WHITE);
+        BufferedImage translucent = canvas(200, 80, BufferedImage.TYPE_INT_ARGB, new Color(0, 0, 0, 0));
+        BufferedImage colours = canvas(200, 80, BufferedImage.TYPE_INT_ARGB, Color.WHITE);
+        Graphics2D g2d = palette.createGraphics();
+        g2d.setColor(Color.BLACK);
+        g2d.drawLine(10, 10, 190, 70);
+        g2d.dispose();
+        g2d = translucent.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(new Color(0x20, 0x40, 0xff));
+        g2d.setStroke(new BasicStroke(3f));
+        g2d.drawOval(30, 10, 140, 60);
+        g2d.dispose();
+        for (int y = 0; y < 80; y++) {
+            for (int x = 0; x < 200; x++) {
+                colours.setRGB(x, y, (x + 40) << 24 | x << 16 | y << 8 | (x * y) & 0xff);
+            }
+        }
+
+        for (BufferedImage image : Arrays.asList(palette, translucent, colours)) {
+            for (int level : new int[] {0, 6, 9}) {
+                assertSamePixels(image, readWithImageIo(encode(image, level)));
+            }
+        }
+    }
+
+    @Test
+    void outOfRangeSettingsAreRejected() {
+        BufferedImage image = canvas(4, 4, BufferedImage.TYPE_INT_RGB, Color.WHITE);
+        BufferedImage tooWide = new BufferedImage(WebpEncoder.MAX_DIMENSION + 1, 1, BufferedImage.TYPE_INT_RGB);
+
+        assertThatThrownBy(() -> encoder.encode(image, 10, pool)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> encoder.encode(image, -1, pool)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> encoder.encode(tooWide, 6, pool)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private byte[] encode(BufferedImage image, int level) {
+        EncodedImageOutputStream out = encoder.encode(image, level, pool);
+        return Arrays.copyOf(out.buffer(), out.size());
+    }
+
+    /** Decodes with the TwelveMonkeys ImageIO plugin, written independently of {@link Decoded}. */
+    private static BufferedImage readWithImageIo(byte[] webp) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReadersByMIMEType("image/webp");
+        assertThat(readers.hasNext()).as("ImageIO WebP reader on the test classpath").isTrue();
+        ImageReader reader = readers.next();
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(webp))) {
+            reader.setInput(input);
+            return reader.read(0);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    private static BufferedImage canvas(int width, int height, int type, Color background) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setComposite(AlphaComposite.Src);
+        g2d.setColor(background);
+        g2d.fillRect(0, 0, width, height);
+        g2d.dispose();
+        return image;
+    }
+
+    private static void assertSamePixels(BufferedImage expected, Decoded decoded) {
+        assertThat(decoded.width).isEqualTo(expected.getWidth());
+        assertThat(decoded.height).isEqualTo(expected.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertThat(visible(decoded.argb[y * decoded.width + x])).as("pixel %d,%d", x, y)
+                        .isEqualTo(visible(expected.getRGB(x, y)));
+            }
+        }
+    }
+
+    private static void assertSamePixels(BufferedImage expected, BufferedImage actual) {
+        assertThat(actual.getWidth()).isEqualTo(expected.getWidth());
+        assertThat(actual.getHeight()).isEqualTo(expected.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertThat(visible(actual.getRGB(x, y))).as("pixel %d,%d", x, y)
+                        .isEqualTo(visible(expected.getRGB(x, y)));
+            }
+        }
+    }
+
+    private static int visible(int argb) {
+        return (argb >>> 24) == 0 ? 0 : argb;
+    }
+
+    private static int uint32(byte[] data, int offset) {
+        return data[offset] & 0xff | (data[offset + 1] & 0xff) << 8
+                | (data[offset + 2] & 0xff) << 16 | (data[offset + 3] & 0xff) << 24;
+    }
+
+    /**
+     * Minimal VP8L decoder written from the format specification, covering what the encoder
+     * emits: no colour transform, no meta prefix codes and only the two nearest distance codes.
+     */
+    private static final class Decoded {
+        final int width;
+        final int height;
+        final boolean hasAlpha;
+        final List<Integer> transforms = new ArrayList<Integer>();
+        final int[] argb;
+
+        private final byte[] data;
+        private int position;
+
+        Decoded(byte[] webp) {
+            this.data = webp;
+            this.position = 20 * 8;
+            assertThat(read(8)).isEqualTo(0x2f);
+            this.width = read(14) + 1;
+            this.height = read(14) + 1;
+            this.hasAlpha = read(1) == 1;
+            assertThat(read(3)).isZero();
+
+            int xsize = width;
+            int[][] transformData = new int[4][];
+            int[] bits = new int[4];
+            while (read(1) == 1) {
+                int type = read(2);
+                transforms.add(type);
+                if (type == PREDICTOR) {
+                    bits[type] = read(3) + 2;
+                    transformData[type] = image(subSize(xsize, bits[type]), subSize(height, bits[type]), false);
+                } else if (type == COLOR_INDEXING) {
+                    int size = read(8) + 1;
+                    int[] palette = image(size, 1, false);
+                    for (int i = 1; i < size; i++) {
+                        palette[i] = addPixels(palette[i], palette[i - 1]);
+                    }
+                    transformData[type] = palette;
+                    bits[type] = size <= 2 ? 3 : size <= 4 ? 2 : size <= 16 ? 1 : 0;
+                    xsize = subSize(xsize, bits[type]);
+                } else if (type != SUBTRACT_GREEN) {
+                    throw new AssertionError("Unexpected transform " + type);
+                }
+            }
+            int[] pixels = image(xsize, height, true);
+            for (int t = transforms.size() - 1; t >= 0; t--) {
+                int type = transforms.get(t);
+                if (type == COLOR_INDEXING) {
+                    pixels = unpackIndices(pixels, xsize, transformData[type], bits[type]);
+                    xsize = width;
+                } else if (type == SUBTRACT_GREEN) {
+                    for (int i = 0; i < pixels.length; i++) {
+                        int green = pixels[i] >> 8 & 0xff;
+                        pixels[i] = addPixels(pixels[i], green << 16 | green);
+                    }
+                } else {
+                    unpredict(pixels, transformData[type], bits[type]);
+                }
+            }
+            this.argb = pixels;
+        }
+
+        private int[] image(int w, int h, boolean main) {
+            int cacheBits = read(1) == 1 ? read(4) : 0;
+            if (main) {
+                assertThat(read(1)).as("meta prefix codes").isZero();
+            }
+            int[] cache = new int[1 << cacheBits];
+            Code green = code(256 + 24 + (cacheBits > 0 ? 1 << cacheBits : 0));
+            Code red = code(256);
+            Code blue = code(256);
+            Code alpha = code(256);
+            Code distance = code(40);
+            int[] pixels = new int[w * h];
+            int i = 0;
+            while (i < pixels.length) {
+                int symbol = green.read();
+                int start = i;
+                if (symbol < 256) {
+                    int r = red.read();
+                    int b = blue.read();
+                    pixels[i++] = alpha.read() << 24 | r << 16 | symbol << 8 | b;
+                } else if (symbol < 256 + 24) {
+                    int length = prefixValue(symbol - 256);
+                    int code = prefixValue(distance.read());
+                    int dist = code == 1 ? w : code == 2 ? 1 : code - 120;
+                    assertThat(code == 1 || code == 2 || code > 120).as("distance code %d", code).isTrue();
+                    for (int n = 0; n < length; n++, i++) {
+                        pixels[i] = pixels[i - dist];
+                    }
+                } else {
+                    pixels[i++] = cache[symbol - 256 - 24];
+                }
+                for (int p = start; cacheBits > 0 && p < i; p++) {
+                    cache[(0x1e35a7bd * pixels[p]) >>> (32 - cacheBits)] = pixels[p];
+                }
+            }
+            return pixels;
+        }
+
+        private Code code(int alphabetSize) {
+            int[] lengths = new int[alphabetSize];
+            if (read(1) == 1) {
+                int symbols = read(1) + 1;
+                lengths[read(read(1) == 1 ? 8 : 1)] = 1;
+                if (symbols == 2) {
+                    lengths[read(8)] = 1;
+                }
+                return new Code(lengths);
+            }
+            int[] order = {17, 18, 0, 1, 2, 3, 4, 5, 16, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15};
+            int[] codeLengthLengths = new int[19];
+            int count = read(4) + 4;
+            for (int i = 0; i < count; i++) {
+                codeLengthLengths[order[i]] = read(3);
+            }
+            Code codeLengths = new Code(codeLengthLengths);
+            int maxSymbol = alphabetSize;
+            if (read(1) == 1) {
+                maxSymbol = read(2 + 2 * read(3)) + 2;
+            }
+            int previous = 8;
+            int symbol = 0;
+            while (symbol < alphabetSize && maxSymbol-- > 0) {
+                int length = codeLengths.read();
+                if (length < 16) {
+                    lengths[symbol++] = length;
+                    if (length != 0) {
+                        previous = length;
+                    }
+                } else {
+                    int repeat = length == 16 ? 3 + read(2) : length == 17 ? 3 + read(3) : 11 + read(7);
+                    for (int n = 0; n < repeat; n++) {
+                        lengths[symbol++] = length == 16 ? previous : 0;
+                    }
+                }
+            }
+            return new Code(lengths);
+        }
+
+        private int prefixValue(int prefix) {
+            if (prefix < 4) {
+                return prefix + 1;
+            }
+            int extra = (prefix - 2) >> 1;
+            return ((2 + (prefix & 1)) << extra) + read(extra) + 1;
+        }
+
+        private int read(int bits) {
+            int value = 0;
+            for (int i = 0; i < bits; i++, position++) {
+                value |= (data[position >> 3] >> (position & 7) & 1) << i;
+            }
+            return value;
+        }
+
+        private int[] unpackIndices(int[] packed, int packedWidth, int[] palette, int widthBits) {
+            int[] pixels = new int[width * height];
+            int bitsPerPixel = 8 >> widthBits;
+            int mask = (1 << bitsPerPixel) - 1;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int green = packed[y * packedWidth + (x >> widthBits)] >> 8 & 0xff;
+                    int index = green >> ((x & ((1 << widthBits) - 1)) * bitsPerPixel) & mask;
+                    pixels[y * width + x] = index < palette.length ? palette[index] : 0;
+                }
+            }
+            return pixels;
+        }
+
+        private void unpredict(int[] pixels, int[] modes, int bits) {
+            int blocksWide = subSize(width, bits);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int i = y * width + x;
+                    int prediction;
+                    if (i == 0) {
+                        prediction = 0xff000000;
+                    } else if (y == 0) {
+                        prediction = pixels[i - 1];
+                    } else if (x == 0) {
+                        prediction = pixels[i - width];
+                    } else {
+                        int mode = modes[(y >> bits) * blocksWide + (x >> bits)] >> 8 & 0xf;
+                        prediction = predict(mode, pixels[i - 1], pixels[i - width],
+                                pixels[i - width - 1], pixels[i - width + 1]);
+                    }
+                    pixels[i] = addPixels(pixels[i], prediction);
+                }
+            }
+        }
+
+        private static int predict(int mode, int left, int top, int topLeft, int topRight) {
+            switch (mode) {
+                case 0: return 0xff000000;
+                case 1: return left;
+                case 2: return top;
+                case 3: return topRight;
+                case 4: return topLeft;
+                case 5: return average(average(left, topRight), top);
+                case 6: return average(left, topLeft);
+                case 7: return average(left, top);
+                case 8: return average(topLeft, top);
+                case 9: return average(top, topRight);
+                case 10: return average(average(left, topLeft), average(top, topRight));
+                case 11: {
+                    int toLeft = 0;
+                    int toTop = 0;
+                    for (int shift = 0; shift < 32; shift += 8) {
+                        toLeft += Math.abs((top >>> shift & 0xff) - (topLeft >>> shift & 0xff));
+                        toTop += Math.abs((left >>> shift & 0xff) - (topLeft >>> shift & 0xff));
+                    }
+                    return toLeft < toTop ? left : top;
+                }
+                default: {
+                    int result = 0;
+                    int half = average(left, top);
+                    for (int shift = 0; shift < 32; shift += 8) {
+                        int value = mode == 12
+                                ? (left >>> shift & 0xff) + (top >>> shift & 0xff) - (topLeft >>> shift & 0xff)
+                                : (half >>> shift & 0xff) + ((half >>> shift & 0xff) - (topLeft >>> shift & 0xff)) / 2;
+                        result |= Math.max(0, Math.min(255, value)) << shift;
+                    }
+                    return result;
+                }
+            }
+        }
+
+        private static int average(int a, int b) {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 8) {
+                result |= ((a >>> shift & 0xff) + (b >>> shift & 0xff)) / 2 << shift;
+            }
+            return result;
+        }
+
+        private static int addPixels(int a, int b) {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 8) {
+                result |= ((a >>> shift) + (b >>> shift) & 0xff) << shift;
+            }
+            return result;
+        }
+
+        private static int subSize(int size, int bits) {
+            return (size + (1 << bits) - 1) >> bits;
+        }
+
+        /** Canonical prefix code, read one bit at a time. */
+        private final class Code {
+            // Symbol for each code of each length, -1 where no symbol has that code.
+            private final int[][] symbols = new int[16][];
+            private final int single;
+
+            Code(int[] lengths) {
+                int used = 0;
+                int last = 0;
+                int[] perLength = new int[16];
+                for (int i = 0; i < lengths.length; i++) {
+                    if (lengths[i] > 0) {
+                        perLength[lengths[i]]++;
+                        used++;
+                        last = i;
+                    }
+                }
+                this.single = used == 1 ? last : -1;
+                int[] next = new int[16];
+                for (int length = 2; length < 16; length++) {
+                    next[length] = (next[length - 1] + perLength[length - 1]) << 1;
+                }
+                for (int i = 0; i < lengths.length; i++) {
+                    int length = lengths[i];
+                    if (length > 0) {
+                        if (symbols[length] == null) {
+                            symbols[length] = new int[1 << length];
+                            Arrays.fill(symbols[length], -1);
+                        }
+                        symbols[length][next[length]++] = i;
+                    }
+                }
+            }
+
+            int read() {
+                if (single >= 0) {
+                    return single;
+                }
+                int code = 0;
+                for (int length = 1; length < 16; length++) {
+                    code = code << 1 | Decoded.this.read(1);
+                    if (symbols[length] != null && symbols[length][code] >= 0) {
+                        return symbols[length][code];
+                    }
+                }
+                throw new AssertionError("Invalid prefix code");
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.signature.core.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MonotonicFileIdGeneratorTest {
+    private static final String ZEROS = "0000000000000000";
+    private static final long RANDOM_MAX = (1L << 40) - 1;
+
+    @Test
+    void encodesTimestampNodeSequenceAndRandomBits() {
+        assertThat(MonotonicFileIdGenerator.encode(0, 0, 0, 0, 0)).isEqualTo("sig_0000000000000000" + ZEROS);
+        assertThat(MonotonicFileIdGenerator.encode(0, 0, 0, 0, 1)).isEqualTo("sig_0000000000000000" + "0000000000000001");
+        assertThat(MonotonicFileIdGenerator.encode(0, 0, 0, 1, 0)).isEqualTo("sig_0000000000000000" + "0000000100000000");
+        assertThat(MonotonicFileIdGenerator.encode(0, 0, 1, 0, 0)).isEqualTo("sig_0000000000000001" + ZEROS);
+        assertThat(MonotonicFileIdGenerator.encode(0, 1, 0, 0, 0)).isEqualTo("sig_0000000000040000" + ZEROS);
+        assertThat(MonotonicFileIdGenerator.encode(1, 0, 0, 0, 0)).isEqualTo("sig_0000000004000000" + ZEROS);
+        assertThat(MonotonicFileIdGenerator.encode((1L << 48) - 1, 1023, (1 << 22) - 1, RANDOM_MAX, RANDOM_MAX))
+                .isEqualTo("sig_ZZZZZZZZZZZZZZZZZZZZZZZZZZZZZZZZ");
+    }
+
+    @Test
+    void idsSortInGenerationOrderWhenTheClockStandsStillOrStepsBack() {
+        AtomicLong now = new AtomicLong(1_765_000_000_000L);
+        MonotonicFileIdGenerator generator = new MonotonicFileIdGenerator(7, now::get);
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(generator.nextId());
+            if (i == 500) {
+                now.addAndGet(-5_000);
+            }
+        }
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+        assertThat(ids).allSatisfy(id -> assertThat(id).hasSize(36).startsWith("sig_"));
+    }
+
+    @Test
+    void idsOfTheSameMillisecondCannotBeEnumerated() {
+        Set<String> firsts = new HashSet<String>();
+        for (int i = 0; i < 100; i++) {
+            firsts.add(new MonotonicFileIdGenerator(3, () -> 42L).nextId());
+        }
+        MonotonicFileIdGenerator generator = new MonotonicFileIdGenerator(3, () -> 42L);
+        Set<String> randomParts = new HashSet<String>();
+        for (int i = 0; i < 1000; i++) {
+            randomParts.add(generator.nextId().substring(20));
+        }
+
+        assertThat(firsts).hasSize(100);
+        assertThat(firsts).noneMatch(id -> id.startsWith(MonotonicFileIdGenerator.encode(42, 3, 0, 0, 0).substring(0, 20)));
+        // 80 random bits: no repeats and every digit of the random half in use.
+        assertThat(randomParts).hasSize(1000);
+        assertThat(String.join("", randomParts).chars().distinct().count()).isEqualTo(32);
+    }
+
+    @Test
+    void exhaustedSequenceBorrowsTheNextMillisecond() {
+        MonotonicFileIdGenerator generator = new MonotonicFileIdGenerator(0, () -> 1L);
+        String previous = generator.nextId();
+        for (int i = 0; i < (1 << 22) + 10; i++) {
+            String next = generator.nextId();
+            assertThat(next.compareTo(previous)).isPositive();
+            previous = next;
+        }
+    }
+
+    @Test
+    void nodesNeverCollide() {
+        MonotonicFileIdGenerator first = new MonotonicFileIdGenerator(1, () -> 42L);
+        MonotonicFileIdGenerator second = new MonotonicFileIdGenerator(2, () -> 42L);
+        Set<String> ids = new HashSet<String>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(first.nextId());
+            ids.add(second.nextId());
+        }
+
+        assertThat(ids).hasSize(2000);
+    }
+
+    @Test
+    void concurrentCallersGetDistinctIds() throws InterruptedException {
+        MonotonicFileIdGenerator generator = new MonotonicFileIdGenerator(0);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(ids).hasSize(40_000);
+    }
+
+    @Test
+    void nodeIdCanBeReadBackFromAFileId() {
+        for (int nodeId = 0; nodeId <= MonotonicFileIdGenerator.MAX_NODE_ID; nodeId++) {
+            assertThat(MonotonicFileIdGenerator.nodeIdOf(new MonotonicFileIdGenerator(nodeId).nextId())).isEqualTo(nodeId);
+            assertThat(MonotonicFileIdGenerator.nodeIdOf(
+                    MonotonicFileIdGenerator.encode((1L << 48) - 1, nodeId, (1 << 22) - 1, RANDOM_MAX, RANDOM_MAX)))
+                    .isEqualTo(nodeId);
+        }
+        assertThat(MonotonicFileIdGenerator.nodeIdOf(MonotonicFileIdGenerator.encode((1L << 48) - 1, 5, (1 << 22) - 1, 12345, 678)))
+                .isEqualTo(5);
+        assertThat(MonotonicFileIdGenerator.nodeIdOf("sig_20251207134512_a1b2c3d4")).isEqualTo(-1);
+        assertThat(MonotonicFileIdGenerator.nodeIdOf("sig_000000000000000000000000000000!")).isEqualTo(-1);
+        assertThat(MonotonicFileIdGenerator.nodeIdOf("sig_06DFE8687C01MFSCPQHX")).isEqualTo(-1);
+        assertThat(MonotonicFileIdGenerator.nodeIdOf(null)).isEqualTo(-1);
+    }
+
+    @Test
+    void rejectsNodeIdsOutOfRange() {
+        assertThatThrownBy(() -> new MonotonicFileIdGenerator(1024)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new MonotonicFileIdGenerator(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.signature.core.image;
+
+import com.example.signature.core.pool.BufferPool;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RasterTracerTest {
+    private final RasterTracer tracer = new RasterTracer(new BufferPool(0));
+
+    @Test
+    void rectangleTracesToOneClockwiseContour() {
+        BufferedImage image = new BufferedImage(40, 20, BufferedImage.TYPE_INT_ARGB);
+        fill(image, new Rectangle(10, 5, 20, 10), Color.BLACK);
+
+        RasterTracer.Outline outline = tracer.trace(image, null);
+
+        assertThat(outline.getWidth()).isEqualTo(40);
+        assertThat(outline.getContours()).hasSize(1);
+        int[] contour = outline.getContours().get(0);
+        // Through edge midpoints the corners are cut by a quarter of a pixel each.
+        assertThat(area(contour)).isCloseTo(200.0 - 0.5, within(0.01));
+        assertThat(contour.length / 2).isLessThanOrEqualTo(8);
+    }
+
+    @Test
+    void holesRunTheOtherWay() {
+        BufferedImage image = new BufferedImage(40, 40, BufferedImage.TYPE_INT_ARGB);
+        fill(image, new Rectangle(5, 5, 30, 30), Color.BLACK);
+        fill(image, new Rectangle(15, 15, 10, 10), new Color(0, 0, 0, 0));
+
+        RasterTracer.Outline outline = tracer.trace(image, null);
+
+        assertThat(outline.getContours()).hasSize(2);
+        double outer = area(outline.getContours().get(0));
+        double hole = area(outline.getContours().get(1));
+        assertThat(outer).isPositive();
+        assertThat(hole).isNegative();
+        assertThat(outer + hole).isCloseTo(900.0 - 100.0, within(1.0));
+    }
+
+    @Test
+    void diagonalPixelsStayInOneContourAndStaircasesStraighten() {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        fill(image, new Rectangle(0, 0, 64, 64), Color.WHITE);
+        for (int i = 2; i < 62; i++) {
+            image.setRGB(i, i, 0x000000);
+            image.setRGB(i + 1, i, 0x000000);
+        }
+
+        RasterTracer.Outline outline = tracer.trace(image, null);
+
+        assertThat(outline.getContours()).hasSize(1);
+        // About 240 boundary edges collapse to the two long sides and the end caps.
+        assertThat(outline.getContours().get(0).length / 2).isLessThan(12);
+        assertThat(outline.getColor()).isEqualTo(0x000000);
+    }
+
+    @Test
+    void specksAreDroppedAndInkColourIsAveraged() {
+        BufferedImage image = new BufferedImage(50, 50, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(3, 3, 0xff2040ff);
+        fill(image, new Rectangle(10, 10, 30, 4), new Color(0x20, 0x40, 0xff));
+
+        RasterTracer.Outline outline = tracer.trace(image, new Rectangle(2, 2, 45, 45));
+
+        assertThat(outline.getContours()).hasSize(1);
+        assertThat(outline.getWidth()).isEqualTo(45);
+        assertThat(outline.getColor()).isEqualTo(0x2040ff);
+        // Contours are relative to the traced region, in half pixels.
+        int[] contour = outline.getContours().get(0);
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        for (int i = 0; i < contour.length; i += 2) {
+            minX = Math.min(minX, contour[i]);
+            minY = Math.min(minY, contour[i + 1]);
+        }
+        assertThat(minX).isEqualTo(2 * 8);
+        assertThat(minY).isEqualTo(2 * 8);
+    }
+
+    @Test
+    void emptyImageHasNoContours() {
+        RasterTracer.Outline outline = tracer.trace(new BufferedImage(30, 10, BufferedImage.TYPE_INT_ARGB), null);
+
+        assertThat(outline.getContours()).isEmpty();
+    }
+
+    // Signed area in pixels; positive for clockwise contours in image coordinates.
+    private static double area(int[] contour) {
+        long sum = 0;
+        for (int i = 0; i < contour.length; i += 2) {
+            int j = (i + 2) % contour.length;
+            sum += (long) contour[i] * contour[j + 1] - (long) contour[j] * contour[i + 1];
+        }
+        return sum / 8.0;
+    }
+
+    private static void fill(BufferedImage image, Rectangle area, Color color) {
+        Graphics2D g2d = image.createGraphics();
+        g2d.setComposite(AlphaComposite.Src);
+        g2d.setColor(color);
+        g2d.fill(area);
+        g2d.dispose();
+    }
+}
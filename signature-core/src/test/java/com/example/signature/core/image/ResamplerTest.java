@@ -0,0 +1,120 @@
+package com.example.signature.core.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResamplerTest {
+
+    @Test
+    void flatInputStaysFlatForEveryFilter() {
+        int[] flat = new int[2000 * 800];
+        Arrays.fill(flat, 0xff3366cc);
+        for (ResampleFilter filter : ResampleFilter.values()) {
+            Resampler resampler = new Resampler(filter);
+            assertThat(resampler.resample(flat, 2000, 800, 300, 120)).containsOnly(0xff3366cc);
+            assertThat(resampler.resample(flat, 40, 16, 97, 35)).containsOnly(0xff3366cc);
+        }
+    }
+
+    @Test
+    void boxFilterAveragesIntegerReductions() {
+        int[] row = {0xff000000, 0xff0000c8, 0xff00c800, 0xff00c864};
+        int[] halved = new Resampler(ResampleFilter.BOX).resample(row, 4, 1, 2, 1);
+        assertThat(halved).containsExactly(0xff000064, 0xff00c832);
+    }
+
+    @Test
+    void transparentBackgroundDoesNotDarkenStrokes() {
+        BufferedImage image = new BufferedImage(1200, 600, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(new Color(0x20, 0x40, 0xff));
+        g2d.setStroke(new BasicStroke(6f));
+        g2d.drawLine(50, 300, 1150, 320);
+        g2d.drawLine(600, 40, 620, 560);
+        g2d.dispose();
+
+        for (ResampleFilter filter : ResampleFilter.values()) {
+            BufferedImage resized = new Resampler(filter).resize(image, 300, 150);
+            assertThat(resized.getType()).isEqualTo(BufferedImage.TYPE_INT_ARGB);
+            boolean sawStroke = false;
+            for (int y = 0; y < resized.getHeight(); y++) {
+                for (int x = 0; x < resized.getWidth(); x++) {
+                    int argb = resized.getRGB(x, y);
+                    int alpha = argb >>> 24;
+                    if (alpha >= 32) {
+                        sawStroke = true;
+                        // Without premultiplication the transparent black around the line pulls
+                        // the edge colour towards black; allow only rounding noise.
+                        assertThat((argb >> 16) & 0xff).isBetween(0x20 - 8, 0x20 + 8);
+                        assertThat(argb & 0xff).isGreaterThanOrEqualTo(0xff - 8);
+                    }
+                }
+            }
+            assertThat(sawStroke).isTrue();
+        }
+    }
+
+    @Test
+    void readsSubimagesAndKeepsOpaqueImagesOpaque() {
+        BufferedImage image = new BufferedImage(64, 32, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, 64, 32);
+        g2d.setColor(Color.RED);
+        g2d.fillRect(32, 0, 32, 32);
+        g2d.dispose();
+
+        BufferedImage resized = new Resampler(ResampleFilter.BILINEAR).resize(image.getSubimage(32, 0, 32, 32), 8, 8);
+
+        assertThat(resized.getType()).isEqualTo(BufferedImage.TYPE_INT_RGB);
+        assertThat(resized.getRGB(0, 0)).isEqualTo(0xffff0000);
+        assertThat(resized.getRGB(7, 7)).isEqualTo(0xffff0000);
+    }
+
+    @Test
+    void rasterFastPathsMatchGetRgb() {
+        Resampler resampler = new Resampler(ResampleFilter.LANCZOS3);
+        int[] types = {BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_INT_ARGB,
+                BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_BYTE_GRAY};
+        for (int type : types) {
+            BufferedImage image = new BufferedImage(40, 30, type);
+            Graphics2D g2d = image.createGraphics();
+            g2d.setColor(new Color(10, 120, 230, 200));
+            g2d.fillOval(5, 3, 30, 20);
+            g2d.dispose();
+            BufferedImage sub = image.getSubimage(3, 2, 31, 25);
+
+            int[] expected = resampler.resample(sub.getRGB(0, 0, 31, 25, null, 0, 31), 31, 25, 7, 6);
+            assertThat(resampler.resize(sub, 7, 6).getRGB(0, 0, 7, 6, null, 0, 7)).containsExactly(expected);
+        }
+    }
+
+    @Test
+    void renderFlattensOntoBackground() {
+        BufferedImage image = new BufferedImage(8, 4, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(4, 0, 0xff102030);
+        image.setRGB(5, 0, 0x80ff0000);
+
+        BufferedImage flat = new Resampler(ResampleFilter.BOX)
+                .render(image, new Rectangle(4, 0, 4, 4), 4, 4, new Color(0x336699));
+
+        assertThat(flat.getType()).isEqualTo(BufferedImage.TYPE_INT_RGB);
+        assertThat(flat.getRGB(0, 0)).isEqualTo(0xff102030);
+        // 50% red over #336699: premultiplied red plus half of the background.
+        assertThat(flat.getRGB(1, 0)).isEqualTo(0xff99334c);
+        assertThat(flat.getRGB(3, 3)).isEqualTo(0xff336699);
+    }
+
+    @Test
+    void rejectsNonPositiveDimensions() {
+        Resampler resampler = new Resampler(ResampleFilter.LANCZOS3);
+        assertThatThrownBy(() -> resampler.resample(new int[4], 2, 2, 0, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.signature.core.image;
+
+import com.example.signature.core.model.Stroke;
+import com.example.signature.core.model.StrokeData;
+import com.example.signature.core.pool.BufferPool;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+
+class StrokeRasterizerTest {
+    private final StrokeRasterizer rasterizer = new StrokeRasterizer(new BufferPool(0));
+
+    @Test
+    void horizontalLineIsSolidInsideAndAntiAliasedAtTheEdge() {
+        StrokeData data = strokes(100, 50, stroke("#000000", 4f, 10, 25, 90, 25));
+
+        BufferedImage image = rasterizer.render(data, null, 100, 50, Color.WHITE);
+
+        assertThat(image.getType()).isEqualTo(BufferedImage.TYPE_INT_RGB);
+        assertThat(image.getRGB(50, 24) & 0xffffff).isEqualTo(0x000000);
+        assertThat(image.getRGB(50, 10) & 0xffffff).isEqualTo(0xffffff);
+        // The line spans y = 23..27 exactly; a half-pixel offset would make this row partial.
+        assertThat(image.getRGB(50, 22) & 0xffffff).isEqualTo(0xffffff);
+        assertThat(image.getRGB(50, 23) & 0xffffff).isEqualTo(0x000000);
+
+        StrokeData offset = strokes(100, 50, stroke("#000000", 4f, 10, 25.5f, 90, 25.5f));
+        int edge = rasterizer.render(offset, null, 100, 50, Color.WHITE).getRGB(50, 23) & 0xff;
+        assertThat(edge).isBetween(100, 160);
+    }
+
+    @Test
+    void rendersDirectlyAtTheOutputSize() {
+        StrokeData data = strokes(1000, 500, stroke("#2040ff", 6f, 100, 250, 900, 250));
+
+        BufferedImage image = rasterizer.render(data, null, 200, 100, null);
+
+        assertThat(image.getWidth()).isEqualTo(200);
+        assertThat(image.getHeight()).isEqualTo(100);
+        assertThat(image.getType()).isEqualTo(BufferedImage.TYPE_INT_ARGB);
+        // 6 canvas pixels at 1/5 scale: the column's coverage adds up to about 1.2 opaque pixels.
+        int coverage = 0;
+        for (int y = 0; y < 100; y++) {
+            coverage += image.getRGB(100, y) >>> 24;
+        }
+        assertThat(coverage).isBetween(280, 330);
+        // Edge pixels keep the stroke colour instead of fading towards black.
+        for (int y = 45; y <= 55; y++) {
+            int argb = image.getRGB(100, y);
+            if ((argb >>> 24) >= 32) {
+                assertThat(argb & 0xff).isGreaterThanOrEqualTo(0xff - 8);
+                assertThat((argb >> 16) & 0xff).isBetween(0x20 - 8, 0x20 + 8);
+            }
+        }
+        assertThat(image.getRGB(100, 5) >>> 24).isZero();
+    }
+
+    @Test
+    void contentBoundsCoverStrokeWidthAndStayOnCanvas() {
+        StrokeData data = strokes(200, 100,
+                stroke(null, 10f, 50, 40, 120, 60),
+                stroke(null, 4f, 190, 95, 199, 99));
+
+        Rectangle bounds = rasterizer.contentBounds(data);
+
+        assertThat(bounds).isEqualTo(new Rectangle(45, 35, 155, 65));
+        assertThat(rasterizer.contentBounds(strokes(200, 100))).isNull();
+        assertThat(rasterizer.contentBounds(strokes(200, 100, stroke(null, 2f, 300, 300, 310, 310)))).isNull();
+    }
+
+    @Test
+    void regionSelectsAndScalesPartOfTheCanvas() {
+        StrokeData data = strokes(400, 200, stroke("#000000", 2f, 200, 20, 200, 180));
+
+        BufferedImage image = rasterizer.render(data, new Rectangle(150, 0, 100, 200), 50, 100, Color.WHITE);
+
+        assertThat(image.getRGB(25, 50) & 0xff).isLessThan(0x80);
+        assertThat(image.getRGB(5, 50) & 0xffffff).isEqualTo(0xffffff);
+    }
+
+    @Test
+    void strokesThinnerThanAPixelStayVisible() {
+        StrokeData data = strokes(2000, 1000, stroke("#000000", 2f, 100, 500, 1900, 500));
+
+        BufferedImage image = rasterizer.render(data, null, 200, 100, Color.WHITE);
+
+        int darkest = 0xff;
+        for (int y = 45; y <= 55; y++) {
+            darkest = Math.min(darkest, image.getRGB(100, y) & 0xff);
+        }
+        assertThat(darkest).isBetween(0x80, 0xf0);
+    }
+
+    @Test
+    void pressureWidensTheStroke() {
+        Stroke light = new Stroke("#000000", 8f, new float[]{20, 50, 0.2f, 0, 180, 50, 0.2f, 16});
+        Stroke heavy = new Stroke("#000000", 8f, new float[]{20, 50, 0.9f, 0, 180, 50, 0.9f, 16});
+
+        int lightRows = inkedRows(rasterizer.render(strokes(200, 100, light), null, 200, 100, Color.WHITE));
+        int heavyRows = inkedRows(rasterizer.render(strokes(200, 100, heavy), null, 200, 100, Color.WHITE));
+
+        assertThat(heavyRows).isGreaterThan(lightRows * 2);
+    }
+
+    private static int inkedRows(BufferedImage image) {
+        int rows = 0;
+        for (int y = 0; y < image.getHeight(); y++) {
+            if ((image.getRGB(100, y) & 0xff) < 0x80) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    // Segments from corner to corner: bounding boxes of the whole canvas, but thin lines.
+    @Test
+    void longDiagonalsCostTheirLengthNotTheirBoundingBox() {
+        StrokeData data = strokes(1000, 1000, new Stroke("#000000", 2f, zigzag(1000, 1000)));
+
+        long cost = rasterizer.renderCost(data, null, 1000, 1000);
+        BufferedImage image = assertTimeout(Duration.ofSeconds(5), () -> rasterizer.render(data, null, 1000, 1000, Color.WHITE));
+
+        // 1000 segments of up to 1415 pixels, each a few pixels wide; boxes would add up to 10^9.
+        assertThat(cost).isBetween(1_000_000L, 20_000_000L);
+        assertThat(image.getRGB(250, 250) & 0xffffff).isEqualTo(0x000000);
+        assertThat(image.getRGB(250, 749) & 0xffffff).isEqualTo(0x000000);
+        assertThat(image.getRGB(250, 240) & 0xffffff).isEqualTo(0xffffff);
+        assertThat(image.getRGB(500, 600) & 0xffffff).isEqualTo(0xffffff);
+    }
+
+    @Test
+    void renderCostGrowsWithOutputSize() {
+        StrokeData data = strokes(1000, 500, stroke("#000000", 6f, 100, 250, 900, 250));
+
+        assertThat(rasterizer.renderCost(data, null, 2000, 1000))
+                .isGreaterThan(3 * rasterizer.renderCost(data, null, 1000, 500));
+        assertThat(rasterizer.renderCost(strokes(100, 100), null, 100, 100)).isZero();
+    }
+
+    // Corners (0,0), (w,h), (0,h), (w,0) over and over: both diagonals and the horizontal edges.
+    static float[] zigzag(int points, int size) {
+        float[] corners = {0, 0, size, size, 0, size, size, 0};
+        float[] values = new float[points * Stroke.STRIDE];
+        for (int i = 0; i < points; i++) {
+            values[i * Stroke.STRIDE] = corners[(i % 4) * 2];
+            values[i * Stroke.STRIDE + 1] = corners[(i % 4) * 2 + 1];
+            values[i * Stroke.STRIDE + 3] = i * 8f;
+        }
+        return values;
+    }
+
+    private static Stroke stroke(String color, float thickness, float x0, float y0, float x1, float y1) {
+        return new Stroke(color, thickness, new float[]{x0, y0, 0f, 0f, x1, y1, 0f, 16f});
+    }
+
+    private static StrokeData strokes(int width, int height, Stroke... strokes) {
+        return new StrokeData(width, height, strokes.length == 0
+                ? Collections.<Stroke>emptyList() : Arrays.asList(strokes));
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.signature.core.image;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.IndexColorModel;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransparentPixelTrimmerTest {
+
+    private final TransparentPixelTrimmer trimmer = new TransparentPixelTrimmer(0);
+
+    @Test
+    void matchesPerPixelScanForCommonLayouts() throws IOException {
+        int[] types = {BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_ARGB_PRE, BufferedImage.TYPE_4BYTE_ABGR};
+        Random random = new Random(42);
+        for (int type : types) {
+            for (int i = 0; i < 20; i++) {
+                BufferedImage image = randomSignature(new BufferedImage(64, 48, type), random);
+                assertThat(trimmer.findContentBounds(image)).isEqualTo(referenceBounds(image, 0));
+                BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(png(image)));
+                assertThat(trimmer.findContentBounds(decoded)).isEqualTo(referenceBounds(decoded, 0));
+            }
+        }
+    }
+
+    @Test
+    void handlesIndexedPalettes() {
+        byte[] gray = {0, (byte) 0x80, (byte) 0xff, 0};
+        byte[] alpha = {0, (byte) 0xff, (byte) 0xff, 0x10};
+        IndexColorModel palette = new IndexColorModel(2, 4, gray, gray, gray, alpha);
+        Random random = new Random(7);
+        for (int i = 0; i < 20; i++) {
+            BufferedImage packed = new BufferedImage(37, 29, BufferedImage.TYPE_BYTE_BINARY, palette);
+            BufferedImage indexed = new BufferedImage(37, 29, BufferedImage.TYPE_BYTE_INDEXED,
+                    new IndexColorModel(8, 4, gray, gray, gray, alpha));
+            fillIndices(packed.getRaster(), random);
+            fillIndices(indexed.getRaster(), random);
+            assertThat(trimmer.findContentBounds(packed)).isEqualTo(referenceBounds(packed, 0));
+            assertThat(trimmer.findContentBounds(indexed)).isEqualTo(referenceBounds(indexed, 0));
+        }
+    }
+
+    @Test
+    void honoursSubimageOffsets() {
+        BufferedImage image = randomSignature(new BufferedImage(80, 60, BufferedImage.TYPE_4BYTE_ABGR), new Random(3));
+        BufferedImage sub = image.getSubimage(7, 5, 50, 40);
+        assertThat(trimmer.findContentBounds(sub)).isEqualTo(referenceBounds(sub, 0));
+    }
+
+    @Test
+    void readsSixteenBitAlpha() {
+        ColorModel colorModel = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB), true, false,
+                Transparency.TRANSLUCENT, DataBuffer.TYPE_USHORT);
+        WritableRaster raster = colorModel.createCompatibleWritableRaster(30, 20);
+        raster.setSample(4, 6, 3, 0xffff);
+        raster.setSample(21, 15, 3, 0x0100);
+        BufferedImage image = new BufferedImage(colorModel, raster, false, null);
+        assertThat(trimmer.findContentBounds(image)).isEqualTo(new Rectangle(4, 6, 18, 10));
+    }
+
+    @Test
+    void thresholdDropsFaintAntiAliasing() {
+        BufferedImage image = new BufferedImage(40, 40, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(2, 2, 0x08000000);
+        image.setRGB(10, 12, 0xff000000);
+        image.setRGB(20, 25, 0xc0000000);
+        image.setRGB(38, 39, 0x20000000);
+
+        assertThat(trimmer.findContentBounds(image)).isEqualTo(new Rectangle(2, 2, 37, 38));
+        assertThat(new TransparentPixelTrimmer(0x20).findContentBounds(image)).isEqualTo(new Rectangle(10, 12, 11, 14));
+    }
+
+    @Test
+    void fullyTransparentImageIsLeftUntouched() {
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+        assertThat(trimmer.findContentBounds(image)).isNull();
+        assertThat(trimmer.trim(image)).isSameAs(image);
+    }
+
+    @Test
+    void opaqueImageHasNothingToTrim() {
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        assertThat(trimmer.findContentBounds(image)).isEqualTo(new Rectangle(0, 0, 10, 10));
+        assertThat(trimmer.trim(image)).isSameAs(image);
+    }
+
+    @Test
+    void rejectsOutOfRangeThreshold() {
+        assertThatThrownBy(() -> new TransparentPixelTrimmer(255)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TransparentPixelTrimmer(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static BufferedImage randomSignature(BufferedImage image, Random random) {
+        int count = random.nextInt(6);
+        for (int i = 0; i < count; i++) {
+            int x = random.nextInt(image.getWidth());
+            int y = random.nextInt(image.getHeight());
+            int alpha = 1 + random.nextInt(255);
+            image.setRGB(x, y, (alpha << 24) | random.nextInt(0x1000000));
+        }
+        return image;
+    }
+
+    private static void fillIndices(WritableRaster raster, Random random) {
+        int count = random.nextInt(5);
+        for (int i = 0; i < count; i++) {
+            raster.setSample(random.nextInt(raster.getWidth()), random.nextInt(raster.getHeight()), 0,
+                    random.nextInt(4));
+        }
+    }
+
+    private static Rectangle referenceBounds(BufferedImage image, int threshold) {
+        int top = image.getHeight(), left = image.getWidth(), right = -1, bottom = -1;
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                if ((image.getRGB(x, y) >>> 24) > threshold) {
+                    left = Math.min(left, x);
+                    right = Math.max(right, x);
+                    top = Math.min(top, y);
+                    bottom = Math.max(bottom, y);
+                }
+            }
+        }
+        return right < 0 ? null : new Rectangle(left, top, right - left + 1, bottom - top + 1);
+    }
+
+    private static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", baos);
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.signature.core.io;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Base64PayloadDecoderTest {
+
+    @Test
+    void decodesDataUrlAndPlainBase64() {
+        byte[] bytes = randomBytes(1000);
+        String base64 = Base64.getEncoder().encodeToString(bytes);
+
+        assertThat(Base64PayloadDecoder.decode("data:image/png;base64," + base64, 2000)).isEqualTo(bytes);
+        assertThat(Base64PayloadDecoder.decode(base64, 2000)).isEqualTo(bytes);
+    }
+
+    @Test
+    void acceptsEveryPaddingVariant() {
+        for (int length = 1; length <= 5; length++) {
+            byte[] bytes = randomBytes(length);
+            String padded = Base64.getEncoder().encodeToString(bytes);
+            String unpadded = Base64.getEncoder().withoutPadding().encodeToString(bytes);
+
+            assertThat(Base64PayloadDecoder.decode(padded, 100)).isEqualTo(bytes);
+            assertThat(Base64PayloadDecoder.decode(unpadded, 100)).isEqualTo(bytes);
+        }
+    }
+
+    @Test
+    void decodesChunkBoundariesInsideThePrefix() {
+        byte[] bytes = randomBytes(300);
+        char[] text = ("data:image/png;base64," + Base64.getMimeEncoder().encodeToString(bytes)).toCharArray();
+        Base64PayloadDecoder decoder = new Base64PayloadDecoder(text.length, 1000);
+        for (int i = 0; i < text.length; i += 3) {
+            decoder.write(text, i, Math.min(3, text.length - i));
+        }
+        assertThat(decoder.toByteArray()).isEqualTo(bytes);
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        assertDecodeFails("data:image/png,iVBORw0KGgo=");
+        assertDecodeFails("data:image/png;base64");
+        assertDecodeFails("QUJD!");
+        assertDecodeFails("QUJDR");
+        assertDecodeFails("QQ==QQ==");
+        assertDecodeFails("Q===");
+    }
+
+    @Test
+    void enforcesLimitWhileDecoding() {
+        String base64 = Base64.getEncoder().encodeToString("0123456789".getBytes(StandardCharsets.US_ASCII));
+
+        assertThat(Base64PayloadDecoder.decode(base64, 10)).hasSize(10);
+        assertThatThrownBy(() -> Base64PayloadDecoder.decode(base64, 9))
+                .isInstanceOf(SignatureProcessingException.class)
+                .hasMessageContaining("exceeds max size");
+    }
+
+    @Test
+    void rejectsObviouslyOversizedTextUpFront() {
+        assertThatThrownBy(() -> new Base64PayloadDecoder(4_000_000, 1_000_000))
+                .isInstanceOf(SignatureProcessingException.class)
+                .hasMessageContaining("exceeds max size");
+    }
+
+    private static void assertDecodeFails(String payload) {
+        assertThatThrownBy(() -> Base64PayloadDecoder.decode(payload, 1000))
+                .isInstanceOf(SignatureProcessingException.class)
+                .hasMessage("Base64 decode failed");
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
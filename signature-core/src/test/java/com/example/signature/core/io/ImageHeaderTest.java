@@ -0,0 +1,75 @@
+package com.example.signature.core.io;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageHeaderTest {
+
+    @Test
+    void readsPngDimensions() throws IOException {
+        byte[] png = write(new BufferedImage(321, 45, BufferedImage.TYPE_INT_ARGB), "png");
+
+        assertThat(ImageHeader.read(png)).isEqualTo(new ImageHeader("png", 321, 45));
+    }
+
+    @Test
+    void readsBaselineAndProgressiveJpegDimensions() throws IOException {
+        BufferedImage image = new BufferedImage(640, 17, BufferedImage.TYPE_INT_RGB);
+
+        assertThat(ImageHeader.read(write(image, "jpeg"))).isEqualTo(new ImageHeader("jpeg", 640, 17));
+        assertThat(ImageHeader.read(progressiveJpeg(image))).isEqualTo(new ImageHeader("jpeg", 640, 17));
+    }
+
+    @Test
+    void otherFormatsAreLeftToImageIo() throws IOException {
+        byte[] gif = write(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB), "gif");
+
+        assertThat(ImageHeader.read(gif)).isNull();
+        assertThat(ImageHeader.read(new byte[0])).isNull();
+    }
+
+    @Test
+    void truncatedHeadersAreRejected() throws IOException {
+        byte[] png = write(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), "png");
+        byte[] jpeg = write(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), "jpeg");
+
+        for (byte[] truncated : Arrays.asList(Arrays.copyOf(png, 20), Arrays.copyOf(jpeg, 24))) {
+            assertThatThrownBy(() -> ImageHeader.read(truncated))
+                    .isInstanceOf(SignatureProcessingException.class)
+                    .extracting("code").isEqualTo("INVALID_PAYLOAD");
+        }
+    }
+
+    private static byte[] write(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] progressiveJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
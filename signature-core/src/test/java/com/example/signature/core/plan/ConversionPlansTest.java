@@ -0,0 +1,91 @@
+package com.example.signature.core.plan;
+
+import com.example.signature.core.codec.ImageEncoders;
+import com.example.signature.core.codec.JpegEncoder;
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.core.model.SignatureOptions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConversionPlansTest {
+    private final ImageEncoders encoders = ImageEncoders.load(ConversionPlansTest.class.getClassLoader());
+
+    @Test
+    void compilesOptionsOnce() {
+        ConversionPlans plans = new ConversionPlans(encoders, 16);
+        ConversionPlan plan = plans.get(new SignatureOptions("JPG", "#336699", true, 120, null, null, 90, null, null));
+
+        assertThat(plan.getFormat()).isEqualTo("jpeg");
+        assertThat(plan.getEncoder()).isInstanceOf(JpegEncoder.class);
+        assertThat(plan.getContentType()).isEqualTo("image/jpeg");
+        assertThat(plan.requiresOpaque()).isTrue();
+        assertThat(plan.getBackground()).isEqualTo(new Color(0x33, 0x66, 0x99));
+        assertThat(plan.getEncoderSettings()).contains("quality=90");
+        assertThat(plan.isTrim()).isTrue();
+        assertThat(plan.getResizeMode()).isEqualTo(ConversionPlan.ResizeMode.WIDTH);
+        assertThat(plans.get(new SignatureOptions("JPG", "#336699", true, 120, null, null, 90, null, null))).isSameAs(plan);
+        assertThat(plans.size()).isEqualTo(1);
+    }
+
+    @Test
+    void defaultsToPngOnWhite() {
+        ConversionPlan plan = new ConversionPlans(encoders, 16).get(SignatureOptions.DEFAULTS);
+
+        assertThat(plan.getFormat()).isEqualTo("png");
+        assertThat(plan.getBackgroundKey()).isEqualTo("#FFFFFF");
+        assertThat(plan.isResized()).isFalse();
+        assertThat(plan.scale(40, 20)).isEqualTo(new Dimension(40, 20));
+    }
+
+    @Test
+    void svgHasNoEncoder() {
+        ConversionPlan plan = new ConversionPlans(encoders, 16).get(new SignatureOptions("svg", null, null, 100, 100));
+
+        assertThat(plan.isVector()).isTrue();
+        assertThat(plan.getContentType()).isEqualTo("image/svg+xml");
+        assertThat(plan.getEncoderSettings()).isEmpty();
+        assertThat(plan.scale(400, 100)).isEqualTo(new Dimension(100, 25));
+    }
+
+    @Test
+    void knowsWhichContentTypesItWrites() {
+        ConversionPlans plans = new ConversionPlans(encoders, 16);
+
+        assertThat(plans.isOutputContentType("image/png")).isTrue();
+        assertThat(plans.isOutputContentType("IMAGE/JPEG")).isTrue();
+        assertThat(plans.isOutputContentType("image/webp")).isTrue();
+        assertThat(plans.isOutputContentType("image/svg+xml")).isTrue();
+        assertThat(plans.isOutputContentType("text/html")).isFalse();
+        assertThat(plans.isOutputContentType(null)).isFalse();
+    }
+
+    @Test
+    void rejectsInvalidOptionsWithoutCachingThem() {
+        ConversionPlans plans = new ConversionPlans(encoders, 16);
+
+        assertThatThrownBy(() -> plans.get(new SignatureOptions("avif", null, null, null, null)))
+                .isInstanceOf(SignatureProcessingException.class)
+                .extracting("code").isEqualTo("UNSUPPORTED_FORMAT");
+        assertThatThrownBy(() -> plans.get(new SignatureOptions("png", "#GGGGGG", null, null, null)))
+                .isInstanceOf(SignatureProcessingException.class)
+                .extracting("code").isEqualTo("INVALID_OPTIONS");
+        assertThat(plans.size()).isZero();
+    }
+
+    @Test
+    void stopsInterningAtTheLimit() {
+        ConversionPlans plans = new ConversionPlans(encoders, 2);
+        for (int width = 1; width <= 4; width++) {
+            plans.get(new SignatureOptions("png", null, null, width, null));
+        }
+        SignatureOptions overflow = new SignatureOptions("png", null, null, 99, null);
+
+        assertThat(plans.size()).isEqualTo(2);
+        assertThat(plans.get(overflow).scale(10, 5)).isEqualTo(new Dimension(99, 50));
+        assertThat(plans.get(overflow)).isNotSameAs(plans.get(overflow));
+    }
+}
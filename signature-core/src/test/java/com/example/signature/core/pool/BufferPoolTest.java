@@ -0,0 +1,70 @@
+package com.example.signature.core.pool;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BufferPoolTest {
+
+    @Test
+    void roundsUpToSizeClassAndReusesReleasedArrays() {
+        BufferPool pool = new BufferPool(64L * 1024 * 1024);
+        int[] first = pool.leaseInts(100_000);
+        assertThat(first.length).isBetween(100_000, 125_000);
+
+        pool.release(first);
+        assertThat(pool.retainedBytes()).isEqualTo(4L * first.length);
+        assertThat(pool.leaseInts(99_000)).isSameAs(first);
+        assertThat(pool.retainedBytes()).isZero();
+        assertThat(pool.hitCount()).isEqualTo(1);
+        assertThat(pool.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void intAndByteArraysArePooledSeparately() {
+        BufferPool pool = new BufferPool(64L * 1024 * 1024);
+        byte[] bytes = pool.leaseBytes(50_000);
+        pool.release(bytes);
+
+        assertThat(pool.leaseInts(50_000)).isNotNull();
+        assertThat(pool.leaseBytes(50_000)).isSameAs(bytes);
+    }
+
+    @Test
+    void retainsNoMoreThanTheBudget() {
+        BufferPool pool = new BufferPool(8 * 1024 * 1024);
+        int[][] leased = new int[16][];
+        for (int i = 0; i < leased.length; i++) {
+            leased[i] = pool.leaseInts(200_000);
+        }
+        for (int[] array : leased) {
+            pool.release(array);
+        }
+
+        assertThat(pool.retainedBytes()).isPositive().isLessThanOrEqualTo(pool.getMaxBytes());
+        // A single buffer above an eighth of the budget is never kept.
+        pool.release(pool.leaseInts(1_000_000));
+        assertThat(pool.retainedBytes()).isLessThanOrEqualTo(pool.getMaxBytes());
+    }
+
+    @Test
+    void ignoresArraysItCouldNotHaveLeased() {
+        BufferPool pool = new BufferPool(64L * 1024 * 1024);
+        pool.release(new int[100_003]);
+        pool.release(new BufferedImage(300, 300, BufferedImage.TYPE_INT_ARGB));
+
+        assertThat(pool.retainedBytes()).isZero();
+    }
+
+    @Test
+    void zeroBudgetAlwaysAllocates() {
+        BufferPool pool = new BufferPool(0);
+        int[] array = pool.leaseInts(10_000);
+        pool.release(array);
+
+        assertThat(pool.retainedBytes()).isZero();
+        assertThat(pool.leaseInts(10_000)).isNotSameAs(array);
+    }
+}
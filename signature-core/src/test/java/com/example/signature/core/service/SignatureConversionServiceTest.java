@@ -1,20 +1,38 @@
 package com.example.signature.core.service;
 
 import com.example.signature.core.config.SignatureConfig;
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.core.listener.ConversionListener;
+import com.example.signature.core.listener.ConversionStage;
+import com.example.signature.core.model.ConversionOutcome;
 import com.example.signature.core.model.ConversionResult;
 import com.example.signature.core.model.SignatureOptions;
 import com.example.signature.core.model.SignatureRequest;
+import com.example.signature.core.model.Stroke;
+import com.example.signature.core.model.StrokeData;
+import com.example.signature.core.store.SignatureStore;
+import com.example.signature.core.store.StoredSignature;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.w3c.dom.Element;
 
 import javax.imageio.ImageIO;
+import javax.xml.parsers.DocumentBuilderFactory;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
 
 class SignatureConversionServiceTest {
 
@@ -42,6 +60,430 @@ class SignatureConversionServiceTest {
         assertThat(result.sizeBytes()).isGreaterThan(0);
     }
 
+    @Test
+    void repeatedConversionIsServedFromCache() throws IOException {
+        SignatureConfig config = new SignatureConfig();
+        config.setCacheMaxBytes(1_000_000);
+        SignatureConversionService cached = new SignatureConversionService(config);
+        byte[] payload = createSamplePng();
+        SignatureOptions options = new SignatureOptions("jpeg", "#ffffff", true, null, null);
+
+        ConversionResult first = cached.convert(SignatureRequest.ofPayload("image/png", payload, null, options));
+        ConversionResult second = cached.convert(SignatureRequest.ofPayload("image/png", payload.clone(), null,
+                new SignatureOptions("JPG", "#FFFFFF", true, null, null)));
+        ConversionResult other = cached.convert(SignatureRequest.ofPayload("image/png", payload, null,
+                new SignatureOptions("png", "#FFFFFF", true, null, null)));
+
+        assertThat(second.getFileId()).isEqualTo(first.getFileId());
+        assertThat(second.getData()).isEqualTo(first.getData());
+        assertThat(other.getFileId()).isNotEqualTo(first.getFileId());
+        assertThat(cached.getCache().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void cachedResultIsConvertedAgainWhenItsNodeIsUnreachable() throws IOException {
+        SignatureConfig config = new SignatureConfig();
+        config.setCacheMaxBytes(1_000_000);
+        UnreachableStore store = new UnreachableStore();
+        SignatureConversionService cached = new SignatureConversionService(config, store);
+        byte[] payload = createSamplePng();
+        SignatureOptions options = new SignatureOptions("png", "#FFFFFF", true, null, null);
+
+        ConversionResult first = cached.convert(SignatureRequest.ofPayload("image/png", payload, null, options));
+        ConversionResult second = cached.convert(SignatureRequest.ofPayload("image/png", payload, null, options));
+
+        assertThat(second.getFileId()).isNotEqualTo(first.getFileId());
+        assertThat(store.saved).containsExactly(first.getFileId(), second.getFileId());
+    }
+
+    @Test
+    void convertAllKeepsOrderAndIsolatesFailures() throws IOException {
+        byte[] payload = createSamplePng();
+        List<ConversionOutcome> outcomes = service.convertAll(Arrays.asList(
+                SignatureRequest.ofPayload("image/png", payload, null, new SignatureOptions("png", null, false, 8, null)),
+                SignatureRequest.ofPayload("image/png", new byte[]{1, 2, 3}, null, null),
+                SignatureRequest.ofPayload("image/png", payload, null, new SignatureOptions("gif", null, false, null, null)),
+                SignatureRequest.ofPayload("image/png", payload, null, new SignatureOptions("jpeg", null, false, null, null))));
+
+        assertThat(outcomes).hasSize(4);
+        assertThat(outcomes.get(0).getResult().getWidth()).isEqualTo(8);
+        assertThat(outcomes.get(1).getError().getCode()).isEqualTo("INVALID_PAYLOAD");
+        assertThat(outcomes.get(2).getError().getCode()).isEqualTo("UNSUPPORTED_FORMAT");
+        assertThat(outcomes.get(3).getResult().getContentType()).isEqualTo("image/jpeg");
+    }
+
+    @Test
+    void listenerObservesStagesAndErrors() throws IOException {
+        List<ConversionStage> stages = new ArrayList<>();
+        List<String> events = new ArrayList<>();
+        ConversionListener listener = new ConversionListener() {
+            @Override
+            public void onStage(ConversionStage stage, long nanos) {
+                assertThat(nanos).isGreaterThanOrEqualTo(0);
+                stages.add(stage);
+            }
+
+            @Override
+            public void onOutput(String format, long bytes) {
+                events.add("output:" + format);
+            }
+
+            @Override
+            public void onError(String code) {
+                events.add("error:" + code);
+            }
+        };
+        SignatureConversionService observed = new SignatureConversionService(new SignatureConfig(), null, listener);
+        String base64 = Base64.getEncoder().encodeToString(createSamplePng());
+
+        observed.convert(new SignatureRequest("image/png", base64, null,
+                new SignatureOptions("png", "#FFFFFF", true, 8, null)));
+        assertThatThrownBy(() -> observed.convert(SignatureRequest.ofPayload("image/png", new byte[]{1, 2, 3}, null, null)))
+                .isInstanceOf(SignatureProcessingException.class);
+
+        assertThat(stages).containsExactly(ConversionStage.DECODE, ConversionStage.READ, ConversionStage.TRIM,
+                ConversionStage.RENDER, ConversionStage.ENCODE);
+        assertThat(events).containsExactly("output:png", "error:INVALID_PAYLOAD");
+    }
+
+    @Test
+    void fusedRenderMatchesTrimResizeAndBackgroundInSequence() {
+        BufferedImage source = new BufferedImage(400, 200, BufferedImage.TYPE_4BYTE_ABGR);
+        Graphics2D g2d = source.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(new Color(20, 40, 160));
+        g2d.setStroke(new BasicStroke(5f));
+        g2d.drawLine(60, 50, 330, 150);
+        g2d.setColor(new Color(200, 30, 30, 120));
+        g2d.fillOval(150, 70, 90, 60);
+        g2d.dispose();
+
+        for (String format : Arrays.asList("png", "jpeg")) {
+            BufferedImage sequential = service.applyBackground(
+                    service.resizeImage(service.trimTransparentPixels(source), 90, null), "#336699", format);
+            BufferedImage fused = service.render(source, service.findContentBounds(source), 90, null, "#336699", format);
+
+            assertThat(fused.getType()).isEqualTo(BufferedImage.TYPE_INT_RGB);
+            assertThat(fused.getWidth()).isEqualTo(sequential.getWidth());
+            assertThat(fused.getHeight()).isEqualTo(sequential.getHeight());
+            for (int y = 0; y < fused.getHeight(); y++) {
+                for (int x = 0; x < fused.getWidth(); x++) {
+                    int expected = sequential.getRGB(x, y);
+                    int actual = fused.getRGB(x, y);
+                    // The sequential path rounds once more when it un-premultiplies between stages.
+                    for (int shift = 0; shift <= 16; shift += 8) {
+                        assertThat((actual >> shift) & 0xff).isCloseTo((expected >> shift) & 0xff, within(2));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void renderReturnsSourceWhenNothingChanges() {
+        BufferedImage opaque = new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB);
+        assertThat(service.render(opaque, null, null, null, "#FFFFFF", "png")).isSameAs(opaque);
+        assertThat(service.render(opaque, null, 20, null, "#FFFFFF", "png")).isSameAs(opaque);
+        assertThat(service.render(opaque, new Rectangle(0, 0, 10, 10), null, null, "#FFFFFF", "png").getWidth())
+                .isEqualTo(10);
+    }
+
+    @Test
+    void repeatedConversionsReuseBufferPoolArrays() throws IOException {
+        BufferedImage image = new BufferedImage(400, 200, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(Color.BLACK);
+        g2d.drawLine(20, 20, 380, 180);
+        g2d.dispose();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", baos);
+        SignatureRequest request = SignatureRequest.ofPayload("image/png", baos.toByteArray(), null,
+                new SignatureOptions("jpeg", "#FFFFFF", true, 120, null));
+
+        ConversionResult first = service.convert(request);
+        long missesAfterFirst = service.getBufferPool().missCount();
+        ConversionResult second = service.convert(request);
+
+        assertThat(service.getBufferPool().missCount()).isEqualTo(missesAfterFirst);
+        assertThat(service.getBufferPool().hitCount()).isPositive();
+        assertThat(second.getData()).isEqualTo(first.getData());
+    }
+
+    @Test
+    void convertStrokesRendersTrimmedOutputAtRequestedWidth() throws IOException {
+        StrokeData strokes = new StrokeData(600, 300, Arrays.asList(
+                new Stroke("#000000", 4f, new float[]{100, 100, 0.5f, 0, 300, 150, 0.5f, 40, 500, 120, 0.5f, 80}),
+                new Stroke(null, null, new float[]{150, 200, 0f, 200, 450, 210, 0f, 260})));
+
+        ConversionResult trimmed = service.convert(SignatureRequest.ofStrokes(strokes, null,
+                new SignatureOptions("png", "#FFFFFF", true, 200, null)));
+        ConversionResult full = service.convert(SignatureRequest.ofStrokes(strokes, null,
+                new SignatureOptions("jpeg", "#FFFFFF", false, null, null)));
+
+        assertThat(trimmed.getContentType()).isEqualTo("image/png");
+        assertThat(trimmed.getWidth()).isEqualTo(200);
+        // Content spans roughly 98..502 x 98..212, so the trimmed aspect ratio is about 404:114.
+        assertThat(trimmed.getHeight()).isBetween(54, 60);
+        BufferedImage png = ImageIO.read(new ByteArrayInputStream(trimmed.getData()));
+        assertThat(png.getColorModel().hasAlpha()).isFalse();
+        assertThat(full.getContentType()).isEqualTo("image/jpeg");
+        assertThat(full.getWidth()).isEqualTo(600);
+        assertThat(full.getHeight()).isEqualTo(300);
+    }
+
+    @Test
+    void compressionLevelIsAppliedToPngOutput() {
+        StrokeData strokes = new StrokeData(600, 300, Collections.singletonList(
+                new Stroke("#000000", 4f, new float[]{100, 100, 0.5f, 0, 300, 150, 0.5f, 40, 500, 120, 0.5f, 80})));
+
+        ConversionResult stored = service.convert(SignatureRequest.ofStrokes(strokes, null,
+                new SignatureOptions("png", "#FFFFFF", false, null, null, 0)));
+        ConversionResult smallest = service.convert(SignatureRequest.ofStrokes(strokes, null,
+                new SignatureOptions("png", "#FFFFFF", false, null, null, 9)));
+
+        // Black ink on white is written as 8-bit grey: one byte per pixel plus one per row.
+        assertThat(stored.sizeBytes()).isGreaterThan(601 * 300);
+        assertThat(smallest.sizeBytes()).isLessThan(stored.sizeBytes() / 20);
+        assertThatThrownBy(() -> service.convert(SignatureRequest.ofStrokes(strokes, null,
+                new SignatureOptions("png", null, false, null, null, 10))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void jpegSettingsAreAppliedAndKeyTheCache() throws IOException {
+        SignatureConfig config = new SignatureConfig();
+        config.setCacheMaxBytes(1_000_000);
+        SignatureConversionService cached = new SignatureConversionService(config);
+        byte[] payload = createSamplePng();
+
+        ConversionResult standard = cached.convert(SignatureRequest.ofPayload("image/png", payload, null,
+                new SignatureOptions("jpeg", null, false, 160, null)));
+        ConversionResult small = cached.convert(SignatureRequest.ofPayload("image/png", payload, null,
+                new SignatureOptions("jpeg", null, false, 160, null, 9, 20, true, "4:2:0")));
+        ConversionResult sameAsStandard = cached.convert(SignatureRequest.ofPayload("image/png", payload, null,
+                new SignatureOptions("jpeg", null, false, 160, null, 1, 75, false, null)));
+
+        assertThat(small.sizeBytes()).isLessThan(standard.sizeBytes());
+        assertThat(small.getFileId()).isNotEqualTo(standard.getFileId());
+        // The PNG compression level does not change JPEG output.
+        assertThat(sameAsStandard.getFileId()).isEqualTo(standard.getFileId());
+        assertThatThrownBy(() -> service.convert(SignatureRequest.ofPayload("image/png", payload, null,
+                new SignatureOptions("jpeg", null, false, null, null, null, 101, null, null))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void webpOutputIsLosslessAndKeepsTransparency() throws IOException {
+        byte[] payload = createSamplePng();
+
+        ConversionResult webp = service.convert(SignatureRequest.ofPayload("image/png", payload, null,
+                new SignatureOptions("WEBP", null, true, null, null)));
+        ConversionResult png = service.convert(SignatureRequest.ofPayload("image/png", payload, null,
+                new SignatureOptions("png", null, true, null, null)));
+
+        assertThat(webp.getContentType()).isEqualTo("image/webp");
+        assertThat(new String(webp.getData(), 8, 8, StandardCharsets.US_ASCII)).isEqualTo("WEBPVP8L");
+        assertThat(webp.sizeBytes()).isLessThan(png.sizeBytes());
+        assertThatThrownBy(() -> service.convert(SignatureRequest.ofPayload("image/png", payload, null,
+                new SignatureOptions("avif", null, true, null, null))))
+                .isInstanceOfSatisfying(SignatureProcessingException.class,
+                        e -> assertThat(e.getCode()).isEqualTo("UNSUPPORTED_FORMAT"));
+    }
+
+    @Test
+    void invalidStrokesAreRejected() {
+        float[] points = {10, 10, 0, 0, 20, 20, 0, 10};
+        List<StrokeData> invalid = Arrays.asList(
+                new StrokeData(null, 100, Collections.singletonList(new Stroke(null, null, points))),
+                new StrokeData(100, 100, Collections.singletonList(new Stroke(null, null, new float[]{1, 2, 3}))),
+                new StrokeData(100, 100, Collections.singletonList(new Stroke(null, -1f, points))),
+                new StrokeData(100, 100, Collections.singletonList(new Stroke("blue", null, points))),
+                new StrokeData(100, 100, Collections.singletonList(
+                        new Stroke(null, null, new float[]{Float.NaN, 1, 0, 0}))));
+        for (StrokeData strokes : invalid) {
+            assertThatThrownBy(() -> service.convert(SignatureRequest.ofStrokes(strokes, null, null)))
+                    .isInstanceOf(SignatureProcessingException.class)
+                    .extracting("code").isEqualTo("INVALID_PAYLOAD");
+        }
+
+        SignatureConfig config = new SignatureConfig();
+        config.setMaxStrokePoints(1);
+        SignatureConversionService limited = new SignatureConversionService(config);
+        assertThatThrownBy(() -> limited.convert(SignatureRequest.ofStrokes(
+                new StrokeData(100, 100, Collections.singletonList(new Stroke(null, null, points))), null, null)))
+                .isInstanceOf(SignatureProcessingException.class)
+                .hasMessageContaining("max of 1 points");
+    }
+
+    @Test
+    void strokesThatWouldTakeTooLongToRenderAreRejected() {
+        float[] corners = {0, 0, 1000, 1000, 0, 1000, 1000, 0};
+        float[] zigzag = new float[4000 * Stroke.STRIDE];
+        for (int i = 0; i < 4000; i++) {
+            zigzag[i * Stroke.STRIDE] = corners[(i % 4) * 2];
+            zigzag[i * Stroke.STRIDE + 1] = corners[(i % 4) * 2 + 1];
+        }
+        StrokeData strokes = new StrokeData(1000, 1000, Collections.singletonList(new Stroke(null, 200f, zigzag)));
+
+        assertThatThrownBy(() -> service.convert(SignatureRequest.ofStrokes(strokes, null,
+                new SignatureOptions("png", "#FFFFFF", false, null, null))))
+                .isInstanceOf(SignatureProcessingException.class)
+                .hasMessageContaining("max render cost")
+                .extracting("code").isEqualTo("INVALID_PAYLOAD");
+        // The same strokes drawn as vectors are never rasterized.
+        assertThat(service.convert(SignatureRequest.ofStrokes(strokes, null,
+                new SignatureOptions("svg", "#FFFFFF", false, null, null))).getContentType()).isEqualTo("image/svg+xml");
+    }
+
+    @Test
+    void thumbnailsAreDecodedAtReducedResolution() throws IOException {
+        BufferedImage image = new BufferedImage(2000, 800, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(Color.BLACK);
+        g2d.setStroke(new BasicStroke(12f));
+        g2d.drawArc(200, 100, 900, 600, 0, 300);
+        g2d.drawLine(1100, 650, 1900, 120);
+        g2d.dispose();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        SignatureConfig fullDecode = new SignatureConfig();
+        fullDecode.setDecodeSubsampling(false);
+        SignatureOptions thumbnail = new SignatureOptions("png", "#FFFFFF", false, 68, null);
+
+        BufferedImage decoded = service.readImage(png.toByteArray(), new Dimension(68, 27));
+        ConversionResult subsampled = service.convert(SignatureRequest.ofPayload("image/png", png.toByteArray(), null, thumbnail));
+        ConversionResult full = new SignatureConversionService(fullDecode).convert(
+                SignatureRequest.ofPayload("image/png", png.toByteArray(), null, thumbnail));
+
+        // Every 7th pixel, keeping four decoded pixels per output pixel for the resampler.
+        assertThat(decoded.getWidth()).isEqualTo(286);
+        assertThat(decoded.getHeight()).isEqualTo(115);
+        // 2000x800 at 68 wide is 27.2 high; the subsampled 286x115 alone would round to 28.
+        assertThat(subsampled.getWidth()).isEqualTo(full.getWidth()).isEqualTo(68);
+        assertThat(subsampled.getHeight()).isEqualTo(full.getHeight()).isEqualTo(27);
+        BufferedImage fast = ImageIO.read(new ByteArrayInputStream(subsampled.getData()));
+        BufferedImage exact = ImageIO.read(new ByteArrayInputStream(full.getData()));
+        for (int y = 0; y < 27; y++) {
+            for (int x = 0; x < 68; x++) {
+                assertThat(fast.getRGB(x, y) & 0xff).as("pixel %d,%d", x, y)
+                        .isCloseTo(exact.getRGB(x, y) & 0xff, within(48));
+            }
+        }
+    }
+
+    @Test
+    void oversizedImagesAreRejectedFromTheHeader() throws IOException {
+        // A valid 16x16 PNG whose header claims 30000x30000; the pixel data is never looked at.
+        byte[] bomb = createSamplePng();
+        bomb[16] = bomb[20] = 0;
+        bomb[17] = bomb[21] = 0;
+        bomb[18] = bomb[22] = (byte) (30000 >> 8);
+        bomb[19] = bomb[23] = (byte) 30000;
+        BufferedImage wide = new BufferedImage(200, 10, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream gif = new ByteArrayOutputStream();
+        ImageIO.write(wide, "gif", gif);
+        SignatureConfig config = new SignatureConfig();
+        config.setMaxImageWidth(100);
+        SignatureConversionService limited = new SignatureConversionService(config);
+
+        assertThatThrownBy(() -> service.convert(SignatureRequest.ofPayload("image/png", bomb, null, null)))
+                .isInstanceOf(SignatureProcessingException.class)
+                .hasMessageContaining("30000x30000")
+                .extracting("code").isEqualTo("INVALID_PAYLOAD");
+        assertThatThrownBy(() -> limited.convert(SignatureRequest.ofPayload("image/gif", gif.toByteArray(), null, null)))
+                .isInstanceOf(SignatureProcessingException.class)
+                .hasMessageContaining("200x10")
+                .extracting("code").isEqualTo("INVALID_PAYLOAD");
+    }
+
+    @Test
+    void canvasAndOutputSizesAreLimited() throws IOException {
+        SignatureConfig config = new SignatureConfig();
+        config.setMaxImageWidth(1000);
+        config.setMaxImageHeight(1000);
+        config.setMaxImagePixels(100_000);
+        SignatureConversionService limited = new SignatureConversionService(config);
+        float[] points = {10, 10, 0, 0, 20, 20, 0, 10};
+
+        assertThatThrownBy(() -> limited.convert(SignatureRequest.ofStrokes(
+                new StrokeData(1001, 100, Collections.singletonList(new Stroke(null, null, points))), null, null)))
+                .isInstanceOf(SignatureProcessingException.class)
+                .extracting("code").isEqualTo("INVALID_PAYLOAD");
+        // The canvas fits, but rendering all of it would not.
+        assertThatThrownBy(() -> limited.convert(SignatureRequest.ofStrokes(
+                new StrokeData(1000, 1000, Collections.singletonList(new Stroke(null, null, points))), null, null)))
+                .isInstanceOf(SignatureProcessingException.class)
+                .extracting("code").isEqualTo("INVALID_OPTIONS");
+        assertThatThrownBy(() -> limited.convert(SignatureRequest.ofPayload("image/png", createSamplePng(), null,
+                new SignatureOptions("png", null, false, 999, null))))
+                .isInstanceOf(SignatureProcessingException.class)
+                .extracting("code").isEqualTo("INVALID_OPTIONS");
+        assertThat(limited.convert(SignatureRequest.ofStrokes(
+                new StrokeData(1000, 1000, Collections.singletonList(new Stroke(null, null, points))), null,
+                new SignatureOptions("png", null, false, 300, null))).getWidth()).isEqualTo(300);
+    }
+
+    @Test
+    void strokesConvertToScalableSvg() throws Exception {
+        StrokeData strokes = new StrokeData(600, 300, Arrays.asList(
+                new Stroke("#1a2b3c", 3f, new float[]{100, 100, 0.5f, 0, 300.25f, 150, 0.5f, 40, 500, 120, 0.9f, 80}),
+                new Stroke(null, null, new float[]{150, 200, 0f, 200})));
+
+        ConversionResult result = service.convert(SignatureRequest.ofStrokes(strokes, null,
+                new SignatureOptions("svg", null, true, 200, null)));
+
+        assertThat(result.getContentType()).isEqualTo("image/svg+xml");
+        assertThat(result.getWidth()).isEqualTo(200);
+        Element svg = parseSvg(result.getData());
+        assertThat(svg.getAttribute("width")).isEqualTo("200");
+        assertThat(svg.getAttribute("height")).isEqualTo(String.valueOf(result.getHeight()));
+        assertThat(svg.getAttribute("viewBox")).startsWith("0 0 ");
+        String text = new String(result.getData(), StandardCharsets.US_ASCII);
+        // The trimmed region starts at (98, 98), half a thickness before the first sample.
+        assertThat(text).contains("stroke=\"#1a2b3c\" stroke-width=\"3\" d=\"M2 2l200.3 50 199.7-30\"");
+        // The pressure rise starts a wider run at the shared sample.
+        assertThat(text).contains("stroke-width=\"5.4\" d=\"M402 22l0 0\"");
+        // A single sample is drawn as a dot.
+        assertThat(text).contains("stroke=\"#000000\" stroke-width=\"2\" d=\"M52 102l0 0\"");
+    }
+
+    @Test
+    void rasterInputIsTracedToSvg() throws Exception {
+        BufferedImage image = new BufferedImage(600, 300, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(Color.BLACK);
+        g2d.setStroke(new BasicStroke(4f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g2d.drawLine(50, 250, 550, 60);
+        g2d.drawOval(60, 40, 120, 80);
+        g2d.dispose();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", baos);
+
+        ConversionResult result = service.convert(SignatureRequest.ofPayload("image/png", baos.toByteArray(), null,
+                new SignatureOptions("SVG", null, true, null, null)));
+
+        assertThat(result.getContentType()).isEqualTo("image/svg+xml");
+        assertThat(result.sizeBytes()).isLessThan(baos.size() / 2);
+        Element svg = parseSvg(result.getData());
+        assertThat(svg.getAttribute("viewBox")).isEqualTo("0 0 " + result.getWidth() + " " + result.getHeight());
+        Element path = (Element) svg.getElementsByTagName("path").item(0);
+        assertThat(path.getAttribute("fill")).isEqualTo("#000000");
+        assertThat(path.getAttribute("fill-rule")).isEqualTo("evenodd");
+        // Line and oval outline, plus the hole inside the oval.
+        assertThat(path.getAttribute("d").split("M")).hasSize(1 + 3);
+    }
+
+    private static Element parseSvg(byte[] data) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Element root = factory.newDocumentBuilder().parse(new ByteArrayInputStream(data)).getDocumentElement();
+        assertThat(root.getLocalName()).isEqualTo("svg");
+        assertThat(root.getNamespaceURI()).isEqualTo("http://www.w3.org/2000/svg");
+        return root;
+    }
+
     private byte[] createSamplePng() throws IOException {
         BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
         Graphics2D g2d = image.createGraphics();
@@ -52,4 +494,32 @@ class SignatureConversionServiceTest {
         ImageIO.write(image, "png", baos);
         return baos.toByteArray();
     }
+
+    // Accepts saves but, like a clustered store whose peers are down, cannot answer lookups.
+    private static final class UnreachableStore implements SignatureStore {
+        final List<String> saved = new ArrayList<String>();
+
+        @Override
+        public void save(ConversionResult result) {
+            saved.add(result.getFileId());
+        }
+
+        @Override
+        public StoredSignature find(String fileId) {
+            throw new SignatureProcessingException("NODE_UNAVAILABLE", "Node holding " + fileId + " is unreachable");
+        }
+
+        @Override
+        public boolean delete(String fileId) {
+            return false;
+        }
+
+        @Override
+        public void compact() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
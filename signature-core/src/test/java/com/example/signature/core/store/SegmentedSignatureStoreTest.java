@@ -0,0 +1,115 @@
+package com.example.signature.core.store;
+
+import com.example.signature.core.model.ConversionResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentedSignatureStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackWhatWasSaved() throws IOException {
+        try (SegmentedSignatureStore store = new SegmentedSignatureStore(directory)) {
+            ConversionResult result = result("sig_a", 500);
+            store.save(result);
+
+            StoredSignature stored = store.find("sig_a");
+            assertThat(stored.getContentType()).isEqualTo("image/png");
+            assertThat(stored.getWidth()).isEqualTo(30);
+            assertThat(stored.getHeight()).isEqualTo(20);
+            assertThat(stored.getSizeBytes()).isEqualTo(500);
+            assertThat(read(stored)).isEqualTo(result.getData());
+            assertThat(store.find("missing")).isNull();
+        }
+    }
+
+    @Test
+    void rollsOverAndRecoversIndexAfterReopen() throws IOException {
+        try (SegmentedSignatureStore store = new SegmentedSignatureStore(directory, 8192, 0.5)) {
+            for (int i = 0; i < 20; i++) {
+                store.save(result("sig_" + i, 1000 + i));
+            }
+            store.delete("sig_3");
+            assertThat(store.segmentCount()).isGreaterThan(1);
+        }
+        try (SegmentedSignatureStore store = new SegmentedSignatureStore(directory, 8192, 0.5)) {
+            assertThat(store.size()).isEqualTo(19);
+            assertThat(store.find("sig_3")).isNull();
+            for (int i = 0; i < 20; i++) {
+                if (i != 3) {
+                    assertThat(read(store.find("sig_" + i))).isEqualTo(result("sig_" + i, 1000 + i).getData());
+                }
+            }
+            store.save(result("sig_after", 100));
+            assertThat(store.find("sig_after")).isNotNull();
+        }
+    }
+
+    @Test
+    void compactionMovesLiveRecordsAndDropsDeadSegments() throws IOException {
+        try (SegmentedSignatureStore store = new SegmentedSignatureStore(directory, 8192, 0.5)) {
+            for (int i = 0; i < 24; i++) {
+                store.save(result("sig_" + i, 1500));
+            }
+            int before = store.segmentCount();
+            for (int i = 0; i < 24; i++) {
+                if (i % 4 != 0) {
+                    store.delete("sig_" + i);
+                }
+            }
+            store.compact();
+            store.compact();
+
+            assertThat(store.segmentCount()).isLessThan(before);
+            for (int i = 0; i < 24; i += 4) {
+                assertThat(read(store.find("sig_" + i))).isEqualTo(result("sig_" + i, 1500).getData());
+            }
+        }
+        try (SegmentedSignatureStore store = new SegmentedSignatureStore(directory, 8192, 0.5)) {
+            assertThat(store.size()).isEqualTo(6);
+        }
+    }
+
+    @Test
+    void ignoresTornTrailingRecord() throws IOException {
+        try (SegmentedSignatureStore store = new SegmentedSignatureStore(directory, 8192, 0.5)) {
+            store.save(result("sig_ok", 300));
+            store.save(result("sig_torn", 300));
+        }
+        Path segment = directory.resolve(Segment.fileName(1));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // Corrupt the last bytes of the second record's image data.
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), 2 * 300 + 50);
+        }
+        try (SegmentedSignatureStore store = new SegmentedSignatureStore(directory, 8192, 0.5)) {
+            assertThat(store.find("sig_ok")).isNotNull();
+            assertThat(store.find("sig_torn")).isNull();
+        }
+    }
+
+    private static ConversionResult result(String fileId, int size) {
+        byte[] data = new byte[size + 64];
+        new Random(fileId.hashCode()).nextBytes(data);
+        return new ConversionResult(fileId, "image/png", data, size, 30, 20);
+    }
+
+    private static byte[] read(StoredSignature stored) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = stored.transferTo(Channels.newChannel(out));
+        assertThat(written).isEqualTo(stored.getSizeBytes());
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.signature.spring.config;
+
+import com.example.signature.spring.cluster.ClusterSecret;
+import com.example.signature.spring.web.ClusterSecretFilter;
+import com.example.signature.spring.web.ConversionResultHttpMessageConverter;
+import com.example.signature.spring.web.RequestBodyLimitFilter;
+import com.example.signature.spring.web.StoredSignatureHttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class SignatureWebConfiguration implements WebMvcConfigurer {
+    // Headroom for the JSON envelope, metadata and options around the Base64 data.
+    private static final long ENVELOPE_BYTES = 64 * 1024;
+    private static final String BATCH_PATH = "/api/signatures/batch";
+    private static final String INTERNAL_PATTERN = "/internal/*";
+
+    @Bean
+    public FilterRegistrationBean<RequestBodyLimitFilter> requestBodyLimitFilter(SignatureProperties properties,
+                                                                                 ObjectMapper objectMapper) {
+        long base64Bytes = (properties.getMaxPayloadBytes() + 2) / 3 * 4;
+        FilterRegistrationBean<RequestBodyLimitFilter> registration = new FilterRegistrationBean<RequestBodyLimitFilter>(
+                new RequestBodyLimitFilter(base64Bytes + ENVELOPE_BYTES, objectMapper, BATCH_PATH));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestBodyLimitFilter> batchRequestBodyLimitFilter(SignatureProperties properties,
+                                                                                      ObjectMapper objectMapper) {
+        FilterRegistrationBean<RequestBodyLimitFilter> registration = new FilterRegistrationBean<RequestBodyLimitFilter>(
+                new RequestBodyLimitFilter(properties.getBatch().getMaxRequestBytes(), objectMapper));
+        registration.addUrlPatterns(BATCH_PATH);
+        return registration;
+    }
+
+    // Node-to-node endpoints carry stored images, which are never larger than a segment.
+    @Bean
+    @ConditionalOnProperty(prefix = "signature.cluster", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<RequestBodyLimitFilter> internalRequestBodyLimitFilter(SignatureProperties properties,
+                                                                                         ObjectMapper objectMapper) {
+        FilterRegistrationBean<RequestBodyLimitFilter> registration = new FilterRegistrationBean<RequestBodyLimitFilter>(
+                new RequestBodyLimitFilter(properties.getStore().getSegmentSizeBytes(), objectMapper));
+        registration.addUrlPatterns(INTERNAL_PATTERN);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "signature.cluster", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<ClusterSecretFilter> clusterSecretFilter(ClusterSecret secret, ObjectMapper objectMapper) {
+        FilterRegistrationBean<ClusterSecretFilter> registration = new FilterRegistrationBean<ClusterSecretFilter>(
+                new ClusterSecretFilter(secret, objectMapper));
+        registration.addUrlPatterns(INTERNAL_PATTERN);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new ConversionResultHttpMessageConverter());
+        converters.add(1, new StoredSignatureHttpMessageConverter());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.signature.spring.controller;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.core.model.ConversionOutcome;
+import com.example.signature.core.model.SignatureRequest;
+import com.example.signature.core.service.SignatureConversionService;
+import com.example.signature.spring.config.SignatureProperties;
+import com.example.signature.spring.model.ApiError;
+import com.example.signature.spring.model.BatchItemResponse;
+import com.example.signature.spring.model.BatchResponse;
+import com.example.signature.spring.model.SignatureRequestBinder;
+import com.example.signature.spring.model.SignatureResponse;
+import com.example.signature.spring.scheduler.ConversionScheduler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Converts many signatures in one round trip. Items are validated and converted independently,
+ * so a bad item yields an error entry instead of failing the batch.
+ */
+@RestController
+@RequestMapping("/api/signatures")
+public class SignatureBatchController {
+    private final SignatureConversionService conversionService;
+    private final SignatureProperties properties;
+    private final ConversionScheduler scheduler;
+    private final SignatureRequestBinder binder;
+
+    public SignatureBatchController(SignatureConversionService conversionService, SignatureProperties properties,
+                                    ConversionScheduler scheduler, ObjectMapper objectMapper, Validator validator) {
+        this.conversionService = conversionService;
+        this.properties = properties;
+        this.scheduler = scheduler;
+        this.binder = new SignatureRequestBinder(objectMapper, validator);
+    }
+
+    // Items are bound one by one from the tree so a malformed item does not reject the whole body.
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<BatchResponse> convertBatch(@RequestBody List<JsonNode> items,
+                                                         @RequestParam(value = "includeData", defaultValue = "false") boolean includeData) {
+        int maxItems = properties.getBatch().getMaxItems();
+        if (items.isEmpty()) {
+            throw new SignatureProcessingException("INVALID_PAYLOAD", "Batch is empty");
+        }
+        if (items.size() > maxItems) {
+            throw new SignatureProcessingException("INVALID_PAYLOAD", "Batch exceeds max size of " + maxItems + " items");
+        }
+
+        BatchItemResponse[] responses = new BatchItemResponse[items.size()];
+        List<Supplier<BatchItemResponse>> conversions = new ArrayList<Supplier<BatchItemResponse>>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            int index = i;
+            try {
+                SignatureRequest request = binder.bind(items.get(i));
+                conversions.add(() -> respond(index, conversionService.convertToOutcome(request), includeData));
+            } catch (SignatureProcessingException ex) {
+                responses[i] = failure(i, ex);
+            }
+            // Drop the parsed tree as soon as the item is bound.
+            items.set(i, null);
+        }
+
+        // Each item is bulk work of its own, so a batch never holds a worker while waiting for its items.
+        return scheduler.submitAll(conversions).thenApply(converted -> {
+            for (BatchItemResponse response : converted) {
+                responses[response.getIndex()] = response;
+            }
+            return BatchResponse.of(Arrays.asList(responses));
+        });
+    }
+
+    private static BatchItemResponse respond(int index, ConversionOutcome outcome, boolean includeData) {
+        return outcome.isSuccess()
+                ? BatchItemResponse.success(index, SignatureResponse.from(outcome.getResult(), includeData))
+                : failure(index, outcome.getError());
+    }
+
+    private static BatchItemResponse failure(int index, SignatureProcessingException ex) {
+        HttpStatus status = ApiError.statusOf(ex.getCode());
+        return BatchItemResponse.failure(index, ApiError.of(status.value(), ex.getCode(), ex.getMessage()));
+    }
+}
@@ -1,32 +1,135 @@
 package com.example.signature.spring.controller;
 
+import com.example.signature.core.io.PayloadReader;
 import com.example.signature.core.model.ConversionResult;
 import com.example.signature.core.model.SignatureRequest;
 import com.example.signature.core.service.SignatureConversionService;
+import com.example.signature.core.store.StoredSignature;
+import com.example.signature.spring.config.SignatureProperties;
+import com.example.signature.spring.model.ImageResponses;
+import com.example.signature.spring.model.SignatureOptionsDto;
 import com.example.signature.spring.model.SignatureRequestDto;
 import com.example.signature.spring.model.SignatureResponse;
+import com.example.signature.spring.scheduler.ConversionScheduler;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.CacheControl;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/signatures")
 public class SignatureController {
+    private static final String IMAGE_ANY = "image/*";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
 
     private final SignatureConversionService conversionService;
+    private final SignatureProperties properties;
+    private final ConversionScheduler scheduler;
 
-    public SignatureController(SignatureConversionService conversionService) {
+    public SignatureController(SignatureConversionService conversionService, SignatureProperties properties,
+                               ConversionScheduler scheduler) {
         this.conversionService = conversionService;
+        this.properties = properties;
+        this.scheduler = scheduler;
     }
 
-    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public SignatureResponse convert(@Valid @RequestBody SignatureRequestDto request) {
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = {MediaType.APPLICATION_JSON_VALUE, IMAGE_ANY})
+    public CompletableFuture<ResponseEntity<?>> convert(@Valid @RequestBody SignatureRequestDto request,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                        @RequestParam(value = "includeData", defaultValue = "false") boolean includeData) {
         SignatureRequest coreRequest = request.toCoreModel();
-        ConversionResult result = conversionService.convert(coreRequest);
-        return SignatureResponse.from(result);
+        return scheduler.submit(() -> respond(conversionService.convert(coreRequest), accept, includeData));
+    }
+
+    @PostMapping(
+        consumes = {MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_JPEG_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE},
+        produces = {MediaType.APPLICATION_JSON_VALUE, IMAGE_ANY}
+    )
+    public CompletableFuture<ResponseEntity<?>> convertBinary(InputStream body,
+                                                              @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                              @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+                                                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                              @RequestParam(value = "includeData", defaultValue = "false") boolean includeData,
+                                                              @Valid @ModelAttribute SignatureOptionsDto options) {
+        byte[] payload = PayloadReader.read(body, contentLength != null ? contentLength : -1, properties.getMaxPayloadBytes());
+        SignatureRequest coreRequest = toCoreRequest(contentType, payload, options);
+        return scheduler.submit(() -> respond(conversionService.convert(coreRequest), accept, includeData));
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = {MediaType.APPLICATION_JSON_VALUE, IMAGE_ANY})
+    public CompletableFuture<ResponseEntity<?>> convertMultipart(@RequestPart("file") MultipartFile file,
+                                                                 @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                                 @RequestParam(value = "includeData", defaultValue = "false") boolean includeData,
+                                                                 @Valid @ModelAttribute SignatureOptionsDto options) throws IOException {
+        byte[] payload;
+        try (InputStream in = file.getInputStream()) {
+            payload = PayloadReader.read(in, file.getSize(), properties.getMaxPayloadBytes());
+        }
+        SignatureRequest coreRequest = toCoreRequest(file.getContentType(), payload, options);
+        return scheduler.submit(() -> respond(conversionService.convert(coreRequest), accept, includeData));
+    }
+
+    @GetMapping("/{fileId}")
+    public ResponseEntity<StoredSignature> get(@PathVariable String fileId, HttpServletRequest request) {
+        StoredSignature stored = conversionService.find(fileId);
+        MediaType contentType = MediaType.parseMediaType(stored.getContentType());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(contentType)
+            .contentLength(stored.getSizeBytes())
+            // A fileId always refers to the same bytes.
+            .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic())
+            .eTag(fileId)
+            .header(ImageResponses.WIDTH_HEADER, String.valueOf(stored.getWidth()))
+            .header(ImageResponses.HEIGHT_HEADER, String.valueOf(stored.getHeight()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ImageResponses.contentDisposition(fileId, contentType));
+        if (stored.getFile() != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Let Tomcat hand the segment region to sendfile(2) once the headers are written.
+            request.setAttribute(SENDFILE_FILENAME, stored.getFile().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, stored.getFileOffset());
+            request.setAttribute(SENDFILE_END, stored.getFileOffset() + stored.getSizeBytes());
+            return response.build();
+        }
+        return response.body(stored);
+    }
+
+    private SignatureRequest toCoreRequest(String mime, byte[] payload, SignatureOptionsDto options) {
+        return SignatureRequest.ofPayload(mime, payload, null, options.toCoreModel());
+    }
+
+    private ResponseEntity<?> respond(ConversionResult result, String accept, boolean includeData) {
+        MediaType resultType = MediaType.parseMediaType(result.getContentType());
+        if (ImageResponses.prefersImage(accept, resultType)) {
+            return ResponseEntity.ok()
+                .contentType(resultType)
+                .header(ImageResponses.FILE_ID_HEADER, result.getFileId())
+                .header(ImageResponses.WIDTH_HEADER, String.valueOf(result.getWidth()))
+                .header(ImageResponses.HEIGHT_HEADER, String.valueOf(result.getHeight()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ImageResponses.contentDisposition(result.getFileId(), resultType))
+                .body(result);
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(SignatureResponse.from(result, includeData));
     }
 }
@@ -2,32 +2,46 @@ package com.example.signature.spring.controller;
 
 import com.example.signature.core.exception.SignatureProcessingException;
 import com.example.signature.spring.model.ApiError;
+import com.example.signature.spring.scheduler.ConversionRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.BindException;
 import org.springframework.validation.FieldError;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.support.MissingServletRequestPartException;
 
 @RestControllerAdvice
 public class SignatureExceptionHandler {
 
+    @ExceptionHandler(ConversionRejectedException.class)
+    public ResponseEntity<ApiError> handleRejected(ConversionRejectedException ex) {
+        HttpStatus status = "OVERLOADED".equals(ex.getCode()) ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(ApiError.of(status.value(), ex.getCode(), ex.getMessage()));
+    }
+
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<ApiError> handleAsyncTimeout(AsyncRequestTimeoutException ex) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        return error(status, "DEADLINE_EXCEEDED", "Conversion did not finish in time");
+    }
+
     @ExceptionHandler(SignatureProcessingException.class)
     public ResponseEntity<ApiError> handleSignature(SignatureProcessingException ex) {
-        HttpStatus status;
-        String code = ex.getCode();
-        if ("UNSUPPORTED_FORMAT".equals(code)) {
-            status = HttpStatus.UNSUPPORTED_MEDIA_TYPE;
-        } else if ("INVALID_PAYLOAD".equals(code) || "INVALID_OPTIONS".equals(code)) {
-            status = HttpStatus.BAD_REQUEST;
-        } else {
-            status = HttpStatus.INTERNAL_SERVER_ERROR;
-        }
-        return new ResponseEntity<ApiError>(ApiError.of(status.value(), ex.getCode(), ex.getMessage()), status);
+        return error(ApiError.statusOf(ex.getCode()), ex.getCode(), ex.getMessage());
     }
 
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ApiError> handleValidation(MethodArgumentNotValidException ex) {
+    // Covers @RequestBody (MethodArgumentNotValidException) and query/form bound options alike.
+    @ExceptionHandler(BindException.class)
+    public ResponseEntity<ApiError> handleValidation(BindException ex) {
         HttpStatus status = HttpStatus.BAD_REQUEST;
         String message = "Validation error";
         if (ex.getBindingResult().hasErrors()) {
@@ -37,18 +51,44 @@ public class SignatureExceptionHandler {
                 message = fieldError.getDefaultMessage() != null ? fieldError.getDefaultMessage() : fieldError.getCode();
             }
         }
-        return new ResponseEntity<ApiError>(ApiError.of(status.value(), "INVALID_PAYLOAD", message), status);
+        return error(status, "INVALID_PAYLOAD", message);
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ApiError> handleNotReadable(HttpMessageNotReadableException ex) {
+        // Payload errors raised while Jackson is still decoding the body arrive wrapped.
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SignatureProcessingException) {
+                return handleSignature((SignatureProcessingException) cause);
+            }
+        }
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        return error(status, "INVALID_PAYLOAD", "Malformed request body");
+    }
+
+    @ExceptionHandler({MaxUploadSizeExceededException.class, MissingServletRequestPartException.class})
+    public ResponseEntity<ApiError> handleUpload(Exception ex) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        String message = ex instanceof MaxUploadSizeExceededException ? "Upload exceeds max size" : ex.getMessage();
+        return error(status, "INVALID_PAYLOAD", message);
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiError> handleIllegalArgument(IllegalArgumentException ex) {
         HttpStatus status = HttpStatus.BAD_REQUEST;
-        return new ResponseEntity<ApiError>(ApiError.of(status.value(), "INVALID_OPTIONS", ex.getMessage()), status);
+        return error(status, "INVALID_OPTIONS", ex.getMessage());
     }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleGeneric(Exception ex) {
         HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
-        return new ResponseEntity<ApiError>(ApiError.of(status.value(), "INTERNAL_ERROR", ex.getMessage()), status);
+        return error(status, "INTERNAL_ERROR", ex.getMessage());
+    }
+
+    // Content type is pinned so errors still render as JSON when the client sent Accept: image/*.
+    private static ResponseEntity<ApiError> error(HttpStatus status, String code, String message) {
+        return ResponseEntity.status(status)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(ApiError.of(status.value(), code, message));
     }
 }
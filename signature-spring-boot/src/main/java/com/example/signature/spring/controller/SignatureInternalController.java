@@ -0,0 +1,84 @@
+package com.example.signature.spring.controller;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.core.model.ConversionResult;
+import com.example.signature.core.service.SignatureConversionService;
+import com.example.signature.core.store.SignatureStore;
+import com.example.signature.core.store.StoredSignature;
+import com.example.signature.spring.cluster.ClusteredSignatureStore;
+import com.example.signature.spring.model.ImageResponses;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Node-to-node endpoints of cluster mode, used by {@code PeerClient} to store and read this
+ * node's share of signatures. They act on the local store only and never forward, so a request
+ * cannot loop between nodes. Requests must carry the cluster secret, which
+ * {@code ClusterSecretFilter} checks before any body is read.
+ */
+@RestController
+@RequestMapping("/internal/signatures")
+@ConditionalOnProperty(prefix = "signature.cluster", name = "enabled", havingValue = "true")
+public class SignatureInternalController {
+    private final SignatureStore local;
+    private final SignatureConversionService conversionService;
+
+    public SignatureInternalController(SignatureStore store, SignatureConversionService conversionService) {
+        this.local = ((ClusteredSignatureStore) store).getLocal();
+        this.conversionService = conversionService;
+    }
+
+    @PutMapping("/{fileId}")
+    public ResponseEntity<Void> put(@PathVariable String fileId, @RequestBody byte[] data,
+                                    @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                    @RequestHeader(ImageResponses.WIDTH_HEADER) int width,
+                                    @RequestHeader(ImageResponses.HEIGHT_HEADER) int height) {
+        local.save(new ConversionResult(fileId, imageContentType(contentType), data, width, height));
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{fileId}")
+    public ResponseEntity<StoredSignature> get(@PathVariable String fileId) {
+        StoredSignature stored = local.find(fileId);
+        if (stored == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(stored.getContentType()))
+            .contentLength(stored.getSizeBytes())
+            .header(ImageResponses.WIDTH_HEADER, String.valueOf(stored.getWidth()))
+            .header(ImageResponses.HEIGHT_HEADER, String.valueOf(stored.getHeight()))
+            .body(stored);
+    }
+
+    @DeleteMapping("/{fileId}")
+    public ResponseEntity<Void> delete(@PathVariable String fileId) {
+        return local.delete(fileId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    // Stored bytes are served back verbatim on the public API, so only what a conversion can produce is accepted.
+    private String imageContentType(String contentType) {
+        MediaType type;
+        try {
+            type = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException ex) {
+            throw new SignatureProcessingException("UNSUPPORTED_FORMAT", "Invalid content type: " + contentType);
+        }
+        String normalized = type.getType() + "/" + type.getSubtype();
+        if (!conversionService.isOutputContentType(normalized)) {
+            throw new SignatureProcessingException("UNSUPPORTED_FORMAT", "Not a signature content type: " + normalized);
+        }
+        return normalized;
+    }
+}
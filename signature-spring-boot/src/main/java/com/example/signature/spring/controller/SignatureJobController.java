@@ -0,0 +1,44 @@
+package com.example.signature.spring.controller;
+
+import com.example.signature.spring.job.ConversionJob;
+import com.example.signature.spring.job.ConversionJobManager;
+import com.example.signature.spring.model.JobResponse;
+import com.example.signature.spring.model.SignatureRequestDto;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.net.URI;
+
+/**
+ * Accepts conversions as asynchronous jobs for renders too slow to hold a request open for.
+ * The request is validated up front; the conversion itself runs behind interactive requests.
+ */
+@RestController
+@RequestMapping("/api/signatures/jobs")
+public class SignatureJobController {
+    private final ConversionJobManager jobManager;
+
+    public SignatureJobController(ConversionJobManager jobManager) {
+        this.jobManager = jobManager;
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<JobResponse> submit(@Valid @RequestBody SignatureRequestDto request) {
+        ConversionJob job = jobManager.submit(request.toCoreModel());
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/signatures/jobs/" + job.getId()))
+            .body(JobResponse.from(job));
+    }
+
+    @GetMapping(value = "/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public JobResponse get(@PathVariable String jobId) {
+        return JobResponse.from(jobManager.find(jobId));
+    }
+}
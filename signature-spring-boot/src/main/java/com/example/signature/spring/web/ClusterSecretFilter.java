@@ -0,0 +1,42 @@
+package com.example.signature.spring.web;
+
+import com.example.signature.spring.cluster.ClusterSecret;
+import com.example.signature.spring.model.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Lets only other nodes of the cluster through to the internal endpoints: a request without
+ * the shared {@link ClusterSecret} is refused before its body is read.
+ */
+public class ClusterSecretFilter extends OncePerRequestFilter {
+    private final ClusterSecret secret;
+    private final ObjectMapper objectMapper;
+
+    public ClusterSecretFilter(ClusterSecret secret, ObjectMapper objectMapper) {
+        this.secret = secret;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!secret.matches(request.getHeader(ClusterSecret.HEADER))) {
+            HttpStatus status = HttpStatus.FORBIDDEN;
+            response.setStatus(status.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    ApiError.of(status.value(), "FORBIDDEN", "Internal endpoints require the cluster secret"));
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
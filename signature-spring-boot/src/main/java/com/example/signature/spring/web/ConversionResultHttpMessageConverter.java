@@ -0,0 +1,46 @@
+package com.example.signature.spring.web;
+
+import com.example.signature.core.model.ConversionResult;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes the encoded image of a {@link ConversionResult} straight from the encoder's buffer
+ * to the response body.
+ */
+public class ConversionResultHttpMessageConverter extends AbstractHttpMessageConverter<ConversionResult> {
+
+    public ConversionResultHttpMessageConverter() {
+        super(new MediaType("image", "*"));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ConversionResult.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ConversionResult readInternal(Class<? extends ConversionResult> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("ConversionResult is write-only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(ConversionResult result, MediaType contentType) {
+        return result.sizeBytes();
+    }
+
+    @Override
+    protected void writeInternal(ConversionResult result, HttpOutputMessage outputMessage) throws IOException {
+        result.writeTo(outputMessage.getBody());
+    }
+}
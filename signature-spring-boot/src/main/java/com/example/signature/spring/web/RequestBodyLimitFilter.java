@@ -0,0 +1,128 @@
+package com.example.signature.spring.web;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.spring.model.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Rejects oversized request bodies while they are still on the wire: a declared
+ * Content-Length above the limit is refused before reading anything, and chunked
+ * bodies are cut off as soon as the limit is crossed.
+ */
+public class RequestBodyLimitFilter extends OncePerRequestFilter {
+    private final long maxBodyBytes;
+    private final ObjectMapper objectMapper;
+    private final Set<String> excludedPaths;
+
+    public RequestBodyLimitFilter(long maxBodyBytes, ObjectMapper objectMapper, String... excludedPaths) {
+        this.maxBodyBytes = maxBodyBytes;
+        this.objectMapper = objectMapper;
+        this.excludedPaths = new HashSet<String>(Arrays.asList(excludedPaths));
+    }
+
+    // Paths with their own, differently sized limit are left to that filter.
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !excludedPaths.isEmpty()
+                && excludedPaths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long contentLength = request.getContentLengthLong();
+        if (contentLength > maxBodyBytes) {
+            HttpStatus status = HttpStatus.BAD_REQUEST;
+            response.setStatus(status.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    ApiError.of(status.value(), "INVALID_PAYLOAD", tooLargeMessage()));
+            return;
+        }
+        chain.doFilter(contentLength >= 0 ? request : new LimitedRequest(request), response);
+    }
+
+    private String tooLargeMessage() {
+        return "Request body exceeds max size of " + maxBodyBytes;
+    }
+
+    private final class LimitedRequest extends HttpServletRequestWrapper {
+        private ServletInputStream stream;
+
+        LimitedRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (stream == null) {
+                stream = new LimitedInputStream(super.getInputStream());
+            }
+            return stream;
+        }
+    }
+
+    private final class LimitedInputStream extends ServletInputStream {
+        private final ServletInputStream delegate;
+        private long remaining = maxBodyBytes;
+
+        LimitedInputStream(ServletInputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                consume(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = delegate.read(b, off, len);
+            if (n > 0) {
+                consume(n);
+            }
+            return n;
+        }
+
+        private void consume(int n) {
+            remaining -= n;
+            if (remaining < 0) {
+                throw new SignatureProcessingException("INVALID_PAYLOAD", tooLargeMessage());
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+    }
+}
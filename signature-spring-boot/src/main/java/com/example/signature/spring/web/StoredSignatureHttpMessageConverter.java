@@ -0,0 +1,46 @@
+package com.example.signature.spring.web;
+
+import com.example.signature.core.store.StoredSignature;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+/**
+ * Streams a {@link StoredSignature} to the response body via {@link StoredSignature#transferTo}.
+ */
+public class StoredSignatureHttpMessageConverter extends AbstractHttpMessageConverter<StoredSignature> {
+
+    public StoredSignatureHttpMessageConverter() {
+        super(new MediaType("image", "*"));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return StoredSignature.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected StoredSignature readInternal(Class<? extends StoredSignature> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("StoredSignature is write-only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(StoredSignature signature, MediaType contentType) {
+        return signature.getSizeBytes();
+    }
+
+    @Override
+    protected void writeInternal(StoredSignature signature, HttpOutputMessage outputMessage) throws IOException {
+        signature.transferTo(Channels.newChannel(outputMessage.getBody()));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.signature.spring.controller;
+
+import com.example.signature.spring.model.ApiError;
+import com.example.signature.spring.scheduler.ConversionRejectedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignatureExceptionHandlerTest {
+    private final SignatureExceptionHandler handler = new SignatureExceptionHandler();
+
+    @Test
+    void fullQueueIsTooManyRequestsWithRetryAfter() {
+        ResponseEntity<ApiError> response = handler.handleRejected(
+                new ConversionRejectedException("OVERLOADED", "Conversion queue is full", 2));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(response.getBody().getCode()).isEqualTo("OVERLOADED");
+        assertThat(response.getBody().getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void missedDeadlineIsServiceUnavailableWithRetryAfter() {
+        ResponseEntity<ApiError> response = handler.handleRejected(
+                new ConversionRejectedException("DEADLINE_EXCEEDED", "Conversion waited too long in queue", 5));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("5");
+        assertThat(response.getBody().getCode()).isEqualTo("DEADLINE_EXCEEDED");
+    }
+}
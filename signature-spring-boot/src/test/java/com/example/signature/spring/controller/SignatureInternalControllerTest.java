@@ -0,0 +1,99 @@
+package com.example.signature.spring.controller;
+
+import com.example.signature.core.model.ConversionResult;
+import com.example.signature.core.service.SignatureConversionService;
+import com.example.signature.core.store.SignatureStore;
+import com.example.signature.spring.cluster.ClusterSecret;
+import com.example.signature.spring.cluster.ClusteredSignatureStore;
+import com.example.signature.spring.model.ImageResponses;
+import com.example.signature.spring.web.ClusterSecretFilter;
+import com.example.signature.spring.web.RequestBodyLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class SignatureInternalControllerTest {
+    private static final String SECRET = "s3cret";
+
+    private final SignatureStore local = mock(SignatureStore.class);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        ClusteredSignatureStore store = mock(ClusteredSignatureStore.class);
+        when(store.getLocal()).thenReturn(local);
+        SignatureConversionService conversionService = mock(SignatureConversionService.class);
+        when(conversionService.isOutputContentType("image/png")).thenReturn(true);
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        mvc = MockMvcBuilders.standaloneSetup(new SignatureInternalController(store, conversionService))
+            .setControllerAdvice(new SignatureExceptionHandler())
+            .addFilter(new ClusterSecretFilter(new ClusterSecret(SECRET), objectMapper), "/internal/*")
+            .addFilter(new RequestBodyLimitFilter(16, objectMapper), "/internal/*")
+            .build();
+    }
+
+    @Test
+    void storesImagesFromOtherNodes() throws Exception {
+        mvc.perform(putSignature("IMAGE/PNG", new byte[] {1, 2, 3}).header(ClusterSecret.HEADER, SECRET))
+            .andExpect(status().isNoContent());
+
+        ArgumentCaptor<ConversionResult> saved = ArgumentCaptor.forClass(ConversionResult.class);
+        verify(local).save(saved.capture());
+        assertThat(saved.getValue().getFileId()).isEqualTo("sig_1");
+        assertThat(saved.getValue().getContentType()).isEqualTo("image/png");
+        assertThat(saved.getValue().getWidth()).isEqualTo(10);
+    }
+
+    @Test
+    void refusesCallersWithoutTheSecret() throws Exception {
+        mvc.perform(putSignature("image/png", new byte[] {1}))
+            .andExpect(status().isForbidden())
+            .andExpect(jsonPath("$.code").value("FORBIDDEN"));
+        mvc.perform(putSignature("image/png", new byte[] {1}).header(ClusterSecret.HEADER, "guess"))
+            .andExpect(status().isForbidden());
+
+        verify(local, never()).save(any());
+    }
+
+    // Stored bytes are served on the public API with the stored type, so HTML must never get in.
+    @Test
+    void refusesContentTypesNoConversionProduces() throws Exception {
+        mvc.perform(putSignature("text/html", new byte[] {1}).header(ClusterSecret.HEADER, SECRET))
+            .andExpect(status().isUnsupportedMediaType())
+            .andExpect(jsonPath("$.code").value("UNSUPPORTED_FORMAT"));
+
+        verify(local, never()).save(any());
+    }
+
+    @Test
+    void refusesBodiesAboveTheLimit() throws Exception {
+        mvc.perform(putSignature("image/png", new byte[17]).header(ClusterSecret.HEADER, SECRET))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.code").value("INVALID_PAYLOAD"));
+
+        verify(local, never()).save(any());
+    }
+
+    private static MockHttpServletRequestBuilder putSignature(String contentType, byte[] body) {
+        return put("/internal/signatures/sig_1")
+            .header("Content-Type", contentType)
+            .header(ImageResponses.WIDTH_HEADER, "10")
+            .header(ImageResponses.HEIGHT_HEADER, "5")
+            .content(body);
+    }
+}
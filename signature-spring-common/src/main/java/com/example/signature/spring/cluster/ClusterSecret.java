@@ -0,0 +1,38 @@
+package com.example.signature.spring.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Shared secret that nodes present on every {@code /internal/signatures} call. The internal
+ * endpoints write straight into the store, so a node serves them only to callers that know it.
+ */
+public final class ClusterSecret {
+    public static final String HEADER = "X-Signature-Cluster-Secret";
+
+    private final String value;
+    private final byte[] bytes;
+
+    public ClusterSecret(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("signature.cluster.secret must be set when cluster mode is enabled");
+        }
+        this.value = value;
+        this.bytes = value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Whether {@code presented}, the {@link #HEADER} of a request, is this secret. */
+    public boolean matches(String presented) {
+        // Compared in constant time so the secret cannot be guessed byte by byte from timings.
+        return presented != null && MessageDigest.isEqual(bytes, presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    String value() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterSecret{****}";
+    }
+}
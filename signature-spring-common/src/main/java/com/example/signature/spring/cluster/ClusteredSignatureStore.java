@@ -0,0 +1,169 @@
+package com.example.signature.spring.cluster;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.core.id.MonotonicFileIdGenerator;
+import com.example.signature.core.model.ConversionResult;
+import com.example.signature.core.store.SignatureStore;
+import com.example.signature.core.store.StoredSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Spreads signatures over the nodes of a cluster without a shared filesystem. The owner of a
+ * fileId is chosen by a {@link HashRing} over the configured peers; this node keeps what it
+ * owns in its local store and reaches the others through their {@code /internal/signatures}
+ * endpoints.
+ *
+ * <p>When the owner cannot be reached on save, the signature is kept locally instead. Reads
+ * that find nothing at the owner therefore also ask the node that generated the fileId, whose
+ * id is embedded in it, so a signature stays readable across an owner outage or a change of
+ * the peer list.
+ */
+public class ClusteredSignatureStore implements SignatureStore {
+    private static final Logger log = LoggerFactory.getLogger(ClusteredSignatureStore.class);
+
+    private final SignatureStore local;
+    private final int nodeId;
+    private final Map<Integer, String> peers;
+    private final HashRing ring;
+    private final PeerClient client;
+
+    /**
+     * @param peers base URL of every node in the cluster by node id, including this one
+     */
+    public ClusteredSignatureStore(SignatureStore local, int nodeId, Map<Integer, String> peers,
+                                   int virtualNodes, PeerClient client) {
+        if (!peers.containsKey(nodeId)) {
+            throw new IllegalArgumentException("Peers must include this node (" + nodeId + ")");
+        }
+        this.local = local;
+        this.nodeId = nodeId;
+        this.peers = peers;
+        this.ring = new HashRing(peers.keySet(), virtualNodes);
+        this.client = client;
+    }
+
+    /** The store holding this node's share, which the internal endpoints serve. */
+    public SignatureStore getLocal() {
+        return local;
+    }
+
+    /** Id of the node that owns {@code fileId}. */
+    public int ownerOf(String fileId) {
+        return ring.ownerOf(fileId);
+    }
+
+    @Override
+    public void save(ConversionResult result) {
+        int owner = ring.ownerOf(result.getFileId());
+        if (owner != nodeId) {
+            try {
+                client.put(peers.get(owner), result);
+                return;
+            } catch (IOException ex) {
+                log.warn("Keeping {} locally, owner node {} is unreachable: {}", result.getFileId(), owner, ex.getMessage());
+            }
+        }
+        local.save(result);
+    }
+
+    @Override
+    public StoredSignature find(String fileId) {
+        StoredSignature stored = local.find(fileId);
+        if (stored != null) {
+            return stored;
+        }
+        IOException failure = null;
+        for (int peer : remoteHolders(fileId)) {
+            try {
+                stored = client.get(peers.get(peer), fileId);
+                if (stored != null) {
+                    return stored;
+                }
+            } catch (IOException ex) {
+                failure = ex;
+            }
+        }
+        if (failure != null) {
+            throw unavailable(fileId, failure);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean contains(String fileId) {
+        if (local.contains(fileId)) {
+            return true;
+        }
+        IOException failure = null;
+        for (int peer : remoteHolders(fileId)) {
+            try {
+                if (client.exists(peers.get(peer), fileId)) {
+                    return true;
+                }
+            } catch (IOException ex) {
+                failure = ex;
+            }
+        }
+        if (failure != null) {
+            throw unavailable(fileId, failure);
+        }
+        return false;
+    }
+
+    // A copy deleted anywhere makes the delete a success; an unreachable holder only fails it
+    // when nothing was deleted, since the client could not tell a partial delete from none.
+    @Override
+    public boolean delete(String fileId) {
+        boolean deleted = local.delete(fileId);
+        IOException failure = null;
+        for (int peer : remoteHolders(fileId)) {
+            try {
+                deleted |= client.delete(peers.get(peer), fileId);
+            } catch (IOException ex) {
+                failure = ex;
+            }
+        }
+        if (failure != null) {
+            if (!deleted) {
+                throw unavailable(fileId, failure);
+            }
+            log.warn("Deleted {}, but a node that may hold a copy is unreachable: {}", fileId, failure.getMessage());
+        }
+        return deleted;
+    }
+
+    @Override
+    public void compact() {
+        local.compact();
+    }
+
+    @Override
+    public void close() throws IOException {
+        local.close();
+    }
+
+    // Other nodes that may hold fileId: its owner, then the node that generated it.
+    private int[] remoteHolders(String fileId) {
+        int owner = ring.ownerOf(fileId);
+        int origin = MonotonicFileIdGenerator.nodeIdOf(fileId);
+        boolean askOwner = owner != nodeId;
+        boolean askOrigin = origin != nodeId && origin != owner && peers.containsKey(origin);
+        if (askOwner && askOrigin) {
+            return new int[] {owner, origin};
+        } else if (askOwner) {
+            return new int[] {owner};
+        } else if (askOrigin) {
+            return new int[] {origin};
+        }
+        return new int[0];
+    }
+
+    private static SignatureProcessingException unavailable(String fileId, IOException cause) {
+        return new SignatureProcessingException("NODE_UNAVAILABLE",
+                "Node holding " + fileId + " is unreachable", cause);
+    }
+}
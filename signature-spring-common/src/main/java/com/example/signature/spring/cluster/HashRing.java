@@ -0,0 +1,61 @@
+package com.example.signature.spring.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Consistent-hash ring over node ids. Each node is placed at {@code virtualNodes} points on a
+ * 64-bit ring and a key belongs to the first point at or after its hash, so adding or removing
+ * a node only moves the keys next to that node's points.
+ */
+public final class HashRing {
+    private final long[] points;
+    private final int[] owners;
+
+    public HashRing(Collection<Integer> nodeIds, int virtualNodes) {
+        if (nodeIds.isEmpty() || virtualNodes <= 0) {
+            throw new IllegalArgumentException("A ring needs at least one node and one virtual node per node");
+        }
+        long[][] placed = new long[nodeIds.size() * virtualNodes][];
+        int n = 0;
+        for (int nodeId : nodeIds) {
+            for (int i = 0; i < virtualNodes; i++) {
+                placed[n++] = new long[] {hash("node-" + nodeId + "#" + i), nodeId};
+            }
+        }
+        // Ties are vanishingly rare; ordering by node id keeps the ring the same on every node.
+        Arrays.sort(placed, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.points = new long[placed.length];
+        this.owners = new int[placed.length];
+        for (int i = 0; i < placed.length; i++) {
+            points[i] = placed[i][0];
+            owners[i] = (int) placed[i][1];
+        }
+    }
+
+    /** Id of the node that owns {@code key}. */
+    public int ownerOf(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    // 64-bit FNV-1a, finished with the MurmurHash3 mixer so that keys differing only in their
+    // last characters, such as consecutive fileIds, still land far apart.
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.signature.spring.cluster;
+
+import com.example.signature.core.model.ConversionResult;
+import com.example.signature.core.store.StoredSignature;
+import com.example.signature.spring.model.ImageResponses;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.time.Duration;
+
+/**
+ * Minimal HTTP client for the {@code /internal/signatures} endpoints of other nodes. It uses
+ * {@link HttpURLConnection}, whose keep-alive cache reuses connections between nodes without
+ * another client library on the class path.
+ *
+ * <p>Every call carries the {@link ClusterSecret}. A 404 from the peer is reported as an absent
+ * signature; connection failures and any other status are thrown as {@link IOException}.
+ */
+public class PeerClient {
+    public static final String INTERNAL_PATH = "/internal/signatures/";
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final ClusterSecret secret;
+
+    public PeerClient(Duration connectTimeout, Duration readTimeout, ClusterSecret secret) {
+        this.connectTimeoutMillis = (int) connectTimeout.toMillis();
+        this.readTimeoutMillis = (int) readTimeout.toMillis();
+        this.secret = secret;
+    }
+
+    public void put(String peerUrl, ConversionResult result) throws IOException {
+        HttpURLConnection connection = open(peerUrl, result.getFileId(), "PUT");
+        try {
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(result.sizeBytes());
+            connection.setRequestProperty("Content-Type", result.getContentType());
+            connection.setRequestProperty(ImageResponses.WIDTH_HEADER, String.valueOf(result.getWidth()));
+            connection.setRequestProperty(ImageResponses.HEIGHT_HEADER, String.valueOf(result.getHeight()));
+            try (OutputStream out = connection.getOutputStream()) {
+                result.writeTo(out);
+            }
+            expectSuccess(connection, peerUrl);
+        } finally {
+            drain(connection);
+        }
+    }
+
+    /** The signature stored on the peer, or {@code null} when it has none under {@code fileId}. */
+    public StoredSignature get(String peerUrl, String fileId) throws IOException {
+        HttpURLConnection connection = open(peerUrl, fileId, "GET");
+        try {
+            if (!expectSuccess(connection, peerUrl)) {
+                return null;
+            }
+            byte[] data;
+            try (InputStream in = connection.getInputStream()) {
+                data = readFully(in, connection.getContentLength());
+            }
+            return new RemoteSignature(fileId, connection.getContentType(), data,
+                    connection.getHeaderFieldInt(ImageResponses.WIDTH_HEADER, 0),
+                    connection.getHeaderFieldInt(ImageResponses.HEIGHT_HEADER, 0));
+        } finally {
+            drain(connection);
+        }
+    }
+
+    public boolean exists(String peerUrl, String fileId) throws IOException {
+        HttpURLConnection connection = open(peerUrl, fileId, "HEAD");
+        try {
+            return expectSuccess(connection, peerUrl);
+        } finally {
+            drain(connection);
+        }
+    }
+
+    public boolean delete(String peerUrl, String fileId) throws IOException {
+        HttpURLConnection connection = open(peerUrl, fileId, "DELETE");
+        try {
+            return expectSuccess(connection, peerUrl);
+        } finally {
+            drain(connection);
+        }
+    }
+
+    private HttpURLConnection open(String peerUrl, String fileId, String method) throws IOException {
+        URL url = new URL(peerUrl + INTERNAL_PATH + URLEncoder.encode(fileId, "UTF-8"));
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(connectTimeoutMillis);
+        connection.setReadTimeout(readTimeoutMillis);
+        connection.setUseCaches(false);
+        connection.setRequestProperty(ClusterSecret.HEADER, secret.value());
+        return connection;
+    }
+
+    // true for 2xx, false for 404.
+    private static boolean expectSuccess(HttpURLConnection connection, String peerUrl) throws IOException {
+        int status = connection.getResponseCode();
+        if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+            return false;
+        }
+        if (status / 100 != 2) {
+            throw new IOException("Peer " + peerUrl + " answered " + status);
+        }
+        return true;
+    }
+
+    private static byte[] readFully(InputStream in, int sizeHint) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(sizeHint > 0 ? sizeHint : 8192);
+        byte[] chunk = new byte[8192];
+        int n;
+        while ((n = in.read(chunk)) >= 0) {
+            out.write(chunk, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    // An error body left unread keeps the connection out of the keep-alive cache.
+    private static void drain(HttpURLConnection connection) {
+        try (InputStream error = connection.getErrorStream()) {
+            if (error != null) {
+                byte[] chunk = new byte[1024];
+                while (error.read(chunk) >= 0) {
+                    // discard
+                }
+            }
+        } catch (IOException ignored) {
+            // The connection is simply not reused.
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.signature.spring.cluster;
+
+import com.example.signature.core.store.StoredSignature;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A signature read from the node that stores it, held in memory for one response.
+ */
+final class RemoteSignature implements StoredSignature {
+    private final String fileId;
+    private final String contentType;
+    private final byte[] data;
+    private final int width;
+    private final int height;
+
+    RemoteSignature(String fileId, String contentType, byte[] data, int width, int height) {
+        this.fileId = fileId;
+        this.contentType = contentType;
+        this.data = data;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public String getFileId() {
+        return fileId;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public long getSizeBytes() {
+        return data.length;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public long transferTo(WritableByteChannel target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        return data.length;
+    }
+}
@@ -0,0 +1,405 @@
+package com.example.signature.spring.config;
+
+import com.example.signature.core.config.SignatureConfig;
+import com.example.signature.core.image.ResampleFilter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "signature")
+public class SignatureProperties {
+    private long maxPayloadBytes = 2_000_000;
+    private int trimAlphaThreshold = 0;
+    private ResampleFilter resampleFilter = ResampleFilter.BILINEAR;
+    private int maxStrokePoints = 100_000;
+    private long maxStrokeRenderPixels = 100_000_000;
+    private int maxImageWidth = 16384;
+    private int maxImageHeight = 16384;
+    private long maxImagePixels = 25_000_000;
+    private boolean decodeSubsampling = true;
+    private int nodeId = 0;
+    private final Store store = new Store();
+    private final Cache cache = new Cache();
+    private final Executor executor = new Executor();
+    private final Batch batch = new Batch();
+    private final Jobs jobs = new Jobs();
+    private final Pool pool = new Pool();
+    private final Cluster cluster = new Cluster();
+
+    public long getMaxPayloadBytes() {
+        return maxPayloadBytes;
+    }
+
+    public void setMaxPayloadBytes(long maxPayloadBytes) {
+        this.maxPayloadBytes = maxPayloadBytes;
+    }
+
+    public int getTrimAlphaThreshold() {
+        return trimAlphaThreshold;
+    }
+
+    public void setTrimAlphaThreshold(int trimAlphaThreshold) {
+        this.trimAlphaThreshold = trimAlphaThreshold;
+    }
+
+    public ResampleFilter getResampleFilter() {
+        return resampleFilter;
+    }
+
+    public void setResampleFilter(ResampleFilter resampleFilter) {
+        this.resampleFilter = resampleFilter;
+    }
+
+    public int getMaxStrokePoints() {
+        return maxStrokePoints;
+    }
+
+    public void setMaxStrokePoints(int maxStrokePoints) {
+        this.maxStrokePoints = maxStrokePoints;
+    }
+
+    public long getMaxStrokeRenderPixels() {
+        return maxStrokeRenderPixels;
+    }
+
+    public void setMaxStrokeRenderPixels(long maxStrokeRenderPixels) {
+        this.maxStrokeRenderPixels = maxStrokeRenderPixels;
+    }
+
+    public int getMaxImageWidth() {
+        return maxImageWidth;
+    }
+
+    public void setMaxImageWidth(int maxImageWidth) {
+        this.maxImageWidth = maxImageWidth;
+    }
+
+    public int getMaxImageHeight() {
+        return maxImageHeight;
+    }
+
+    public void setMaxImageHeight(int maxImageHeight) {
+        this.maxImageHeight = maxImageHeight;
+    }
+
+    public long getMaxImagePixels() {
+        return maxImagePixels;
+    }
+
+    public void setMaxImagePixels(long maxImagePixels) {
+        this.maxImagePixels = maxImagePixels;
+    }
+
+    public boolean isDecodeSubsampling() {
+        return decodeSubsampling;
+    }
+
+    public void setDecodeSubsampling(boolean decodeSubsampling) {
+        this.decodeSubsampling = decodeSubsampling;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(int nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public Store getStore() {
+        return store;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public Jobs getJobs() {
+        return jobs;
+    }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public SignatureConfig toConfig() {
+        SignatureConfig config = new SignatureConfig(this.maxPayloadBytes);
+        config.setTrimAlphaThreshold(this.trimAlphaThreshold);
+        config.setResampleFilter(this.resampleFilter);
+        config.setMaxStrokePoints(this.maxStrokePoints);
+        config.setMaxStrokeRenderPixels(this.maxStrokeRenderPixels);
+        config.setMaxImageWidth(this.maxImageWidth);
+        config.setMaxImageHeight(this.maxImageHeight);
+        config.setMaxImagePixels(this.maxImagePixels);
+        config.setDecodeSubsampling(this.decodeSubsampling);
+        config.setNodeId(this.nodeId);
+        config.setCacheMaxBytes(this.cache.isEnabled() ? this.cache.getMaxBytes() : 0);
+        config.setPoolMaxBytes(this.pool.isEnabled() ? this.pool.getMaxBytes() : 0);
+        config.setPoolMaxIdleCodecs(this.pool.isEnabled() ? this.pool.getMaxIdleCodecs() : 0);
+        return config;
+    }
+
+    public static class Executor {
+        private int workers = Runtime.getRuntime().availableProcessors();
+        private int queueCapacity = 64;
+        private Duration deadline = Duration.ofSeconds(30);
+        private Duration retryAfter = Duration.ofSeconds(2);
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getDeadline() {
+            return deadline;
+        }
+
+        public void setDeadline(Duration deadline) {
+            this.deadline = deadline;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    public static class Batch {
+        private int maxItems = 500;
+        private long maxRequestBytes = 64L * 1024 * 1024;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        public int getMaxItems() {
+            return maxItems;
+        }
+
+        public void setMaxItems(int maxItems) {
+            this.maxItems = maxItems;
+        }
+
+        public long getMaxRequestBytes() {
+            return maxRequestBytes;
+        }
+
+        public void setMaxRequestBytes(long maxRequestBytes) {
+            this.maxRequestBytes = maxRequestBytes;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public static class Jobs {
+        private int queueCapacity = 1024;
+        private Duration retention = Duration.ofMinutes(10);
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+    }
+
+    public static class Cluster {
+        private boolean enabled = false;
+        private Map<Integer, String> peers = new LinkedHashMap<Integer, String>();
+        private int virtualNodes = 128;
+        private Duration connectTimeout = Duration.ofSeconds(1);
+        private Duration readTimeout = Duration.ofSeconds(5);
+        private String secret;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /** Base URL of every node by node id, including this node's own. */
+        public Map<Integer, String> getPeers() {
+            return peers;
+        }
+
+        public void setPeers(Map<Integer, String> peers) {
+            this.peers = peers;
+        }
+
+        public int getVirtualNodes() {
+            return virtualNodes;
+        }
+
+        public void setVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        /** Shared by all nodes and required on the internal endpoints; must be set in cluster mode. */
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+    }
+
+    public static class Pool {
+        private boolean enabled = true;
+        private long maxBytes = 64L * 1024 * 1024;
+        private int maxIdleCodecs = Runtime.getRuntime().availableProcessors();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public int getMaxIdleCodecs() {
+            return maxIdleCodecs;
+        }
+
+        public void setMaxIdleCodecs(int maxIdleCodecs) {
+            this.maxIdleCodecs = maxIdleCodecs;
+        }
+    }
+
+    public static class Cache {
+        private boolean enabled = true;
+        private long maxBytes = 32 * 1024 * 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+
+    public static class Store {
+        private boolean enabled = true;
+        private String directory = "data/signatures";
+        private int segmentSizeBytes = 64 * 1024 * 1024;
+        private double compactionThreshold = 0.5;
+        private Duration compactionInterval = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getSegmentSizeBytes() {
+            return segmentSizeBytes;
+        }
+
+        public void setSegmentSizeBytes(int segmentSizeBytes) {
+            this.segmentSizeBytes = segmentSizeBytes;
+        }
+
+        public double getCompactionThreshold() {
+            return compactionThreshold;
+        }
+
+        public void setCompactionThreshold(double compactionThreshold) {
+            this.compactionThreshold = compactionThreshold;
+        }
+
+        public Duration getCompactionInterval() {
+            return compactionInterval;
+        }
+
+        public void setCompactionInterval(Duration compactionInterval) {
+            this.compactionInterval = compactionInterval;
+        }
+    }
+}
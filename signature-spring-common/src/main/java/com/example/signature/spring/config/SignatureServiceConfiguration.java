@@ -0,0 +1,89 @@
+package com.example.signature.spring.config;
+
+import com.example.signature.core.id.FileIdGenerator;
+import com.example.signature.core.service.SignatureConversionService;
+import com.example.signature.core.store.SegmentedSignatureStore;
+import com.example.signature.core.store.SignatureStore;
+import com.example.signature.spring.cluster.ClusterSecret;
+import com.example.signature.spring.cluster.ClusteredSignatureStore;
+import com.example.signature.spring.cluster.PeerClient;
+import com.example.signature.spring.job.ConversionJobManager;
+import com.example.signature.spring.metrics.BufferPoolMetrics;
+import com.example.signature.spring.metrics.ConversionCacheMetrics;
+import com.example.signature.spring.metrics.MicrometerConversionListener;
+import com.example.signature.spring.scheduler.ConversionScheduler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+@Configuration
+public class SignatureServiceConfiguration {
+
+    // A FileIdGenerator bean replaces the default time-ordered generator on signature.nodeId.
+    @Bean
+    public SignatureConversionService signatureConversionService(SignatureProperties properties,
+                                                                 ObjectProvider<SignatureStore> store,
+                                                                 MicrometerConversionListener listener,
+                                                                 ObjectProvider<FileIdGenerator> fileIds) {
+        return new SignatureConversionService(properties.toConfig(), store.getIfAvailable(), listener,
+                fileIds.getIfAvailable());
+    }
+
+    @Bean
+    public MicrometerConversionListener micrometerConversionListener() {
+        return new MicrometerConversionListener();
+    }
+
+    @Bean
+    public ConversionCacheMetrics conversionCacheMetrics(SignatureConversionService conversionService) {
+        return new ConversionCacheMetrics(conversionService.getCache());
+    }
+
+    @Bean
+    public BufferPoolMetrics bufferPoolMetrics(SignatureConversionService conversionService) {
+        return new BufferPoolMetrics(conversionService.getBufferPool());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ConversionScheduler conversionScheduler(SignatureProperties properties) {
+        SignatureProperties.Executor executor = properties.getExecutor();
+        return new ConversionScheduler(executor.getWorkers(), executor.getQueueCapacity(),
+                properties.getJobs().getQueueCapacity(), executor.getDeadline(), executor.getRetryAfter(),
+                properties.getBatch().getParallelism());
+    }
+
+    @Bean
+    public ConversionJobManager conversionJobManager(SignatureConversionService conversionService,
+                                                     ConversionScheduler scheduler, SignatureProperties properties) {
+        return new ConversionJobManager(conversionService, scheduler, properties.getJobs().getRetention());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "signature.cluster", name = "enabled", havingValue = "true")
+    public ClusterSecret clusterSecret(SignatureProperties properties) {
+        return new ClusterSecret(properties.getCluster().getSecret());
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "signature.store", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public SignatureStore signatureStore(SignatureProperties properties, ObjectProvider<ClusterSecret> secret) {
+        SignatureProperties.Store store = properties.getStore();
+        SignatureStore local = new SegmentedSignatureStore(Paths.get(store.getDirectory()),
+                store.getSegmentSizeBytes(), store.getCompactionThreshold());
+        SignatureProperties.Cluster cluster = properties.getCluster();
+        if (!cluster.isEnabled()) {
+            return local;
+        }
+        return new ClusteredSignatureStore(local, properties.getNodeId(), cluster.getPeers(), cluster.getVirtualNodes(),
+                new PeerClient(cluster.getConnectTimeout(), cluster.getReadTimeout(), secret.getObject()));
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "signature.store", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public SignatureStoreCompactor signatureStoreCompactor(SignatureStore store, SignatureProperties properties) {
+        return new SignatureStoreCompactor(store, properties.getStore().getCompactionInterval());
+    }
+}
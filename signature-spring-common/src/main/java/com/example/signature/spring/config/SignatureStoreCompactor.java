@@ -0,0 +1,40 @@
+package com.example.signature.spring.config;
+
+import com.example.signature.core.store.SignatureStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link SignatureStore#compact()} on a single daemon thread at a fixed delay.
+ */
+public class SignatureStoreCompactor {
+    private static final Logger log = LoggerFactory.getLogger(SignatureStoreCompactor.class);
+
+    private final ScheduledExecutorService executor;
+
+    public SignatureStoreCompactor(SignatureStore store, Duration interval) {
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "signature-store-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                store.compact();
+            } catch (RuntimeException ex) {
+                log.warn("Signature store compaction failed", ex);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.signature.spring.job;
+
+import com.example.signature.core.model.ConversionResult;
+import com.example.signature.spring.model.SignatureResponse;
+
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Snapshot of an asynchronous conversion. Each state change produces a new instance; the
+ * {@link ConversionJobManager} swaps it into its table atomically.
+ *
+ * <p>A succeeded job keeps only the result's fileId and metadata. The encoded image stays
+ * with the store, so holding a finished job for the retention period does not pin the
+ * encoder's buffer.
+ */
+public final class ConversionJob {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final String id;
+    private final Status status;
+    private final Date createdAt;
+    private final Date completedAt;
+    private final SignatureResponse result;
+    private final String errorCode;
+    private final String errorMessage;
+
+    private ConversionJob(String id, Status status, Date createdAt, Date completedAt, SignatureResponse result,
+                          String errorCode, String errorMessage) {
+        this.id = id;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.completedAt = completedAt;
+        this.result = result;
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+    }
+
+    static ConversionJob queued(String id, Date createdAt) {
+        return new ConversionJob(id, Status.QUEUED, createdAt, null, null, null, null);
+    }
+
+    ConversionJob running() {
+        return new ConversionJob(id, Status.RUNNING, createdAt, null, null, null, null);
+    }
+
+    ConversionJob succeeded(ConversionResult result, Date completedAt) {
+        return new ConversionJob(id, Status.SUCCEEDED, createdAt, completedAt, SignatureResponse.from(result),
+                                 null, null);
+    }
+
+    ConversionJob failed(String errorCode, String errorMessage, Date completedAt) {
+        return new ConversionJob(id, Status.FAILED, createdAt, completedAt, null, errorCode, errorMessage);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isDone() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    /** {@code null} until the job succeeded or failed. */
+    public Date getCompletedAt() {
+        return completedAt;
+    }
+
+    /**
+     * Metadata of the converted image, without its data; {@code null} unless the job succeeded.
+     * The image itself is read from the store by its fileId.
+     */
+    public SignatureResponse getResult() {
+        return result;
+    }
+
+    /** {@code SignatureProcessingException} code; {@code null} unless the job failed. */
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ConversionJob that = (ConversionJob) o;
+        return Objects.equals(id, that.id) &&
+               status == that.status &&
+               Objects.equals(createdAt, that.createdAt) &&
+               Objects.equals(completedAt, that.completedAt) &&
+               Objects.equals(result, that.result) &&
+               Objects.equals(errorCode, that.errorCode) &&
+               Objects.equals(errorMessage, that.errorMessage);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, status, createdAt, completedAt, result, errorCode, errorMessage);
+    }
+
+    @Override
+    public String toString() {
+        return "ConversionJob{" +
+               "id='" + id + '\'' +
+               ", status=" + status +
+               ", createdAt=" + createdAt +
+               ", completedAt=" + completedAt +
+               ", result=" + result +
+               ", errorCode='" + errorCode + '\'' +
+               ", errorMessage='" + errorMessage + '\'' +
+               '}';
+    }
+}
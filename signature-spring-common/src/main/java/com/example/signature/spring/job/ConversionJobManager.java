@@ -0,0 +1,125 @@
+package com.example.signature.spring.job;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.core.model.ConversionResult;
+import com.example.signature.core.model.SignatureRequest;
+import com.example.signature.core.service.SignatureConversionService;
+import com.example.signature.spring.scheduler.ConversionPriority;
+import com.example.signature.spring.scheduler.ConversionRejectedException;
+import com.example.signature.spring.scheduler.ConversionScheduler;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Runs conversions as asynchronous jobs on the {@link ConversionScheduler}'s bulk priority, so
+ * they only use workers that interactive requests leave idle.
+ *
+ * <p>Jobs are held in memory on the node that accepted them. A finished job, with the
+ * metadata of its result, is kept for the retention period and then dropped; expired jobs are swept whenever
+ * a job is submitted or looked up, so no extra thread is needed.
+ */
+public class ConversionJobManager implements MeterBinder {
+    private final SignatureConversionService conversionService;
+    private final ConversionScheduler scheduler;
+    private final long retentionMillis;
+    private final ConcurrentHashMap<String, ConversionJob> jobs = new ConcurrentHashMap<String, ConversionJob>();
+    // Finished jobs in completion order, so expiry only looks at the head.
+    private final ConcurrentLinkedQueue<ConversionJob> finished = new ConcurrentLinkedQueue<ConversionJob>();
+
+    public ConversionJobManager(SignatureConversionService conversionService, ConversionScheduler scheduler,
+                                Duration retention) {
+        this.conversionService = conversionService;
+        this.scheduler = scheduler;
+        this.retentionMillis = retention.toMillis();
+    }
+
+    /**
+     * Queues {@code request} and returns the queued job.
+     *
+     * @throws ConversionRejectedException when the bulk queue is full
+     */
+    public ConversionJob submit(SignatureRequest request) {
+        expire();
+        ConversionJob job = ConversionJob.queued(newId(), new Date());
+        String id = job.getId();
+        jobs.put(id, job);
+        CompletableFuture<ConversionResult> future = scheduler.submit(() -> {
+            jobs.computeIfPresent(id, (key, queued) -> queued.running());
+            return conversionService.convert(request);
+        }, ConversionPriority.BULK);
+        if (future.isCompletedExceptionally()) {
+            try {
+                future.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof ConversionRejectedException) {
+                    jobs.remove(id);
+                    throw (ConversionRejectedException) ex.getCause();
+                }
+            }
+        }
+        future.whenComplete((result, error) -> complete(id, result, error));
+        return job;
+    }
+
+    /**
+     * @throws SignatureProcessingException with {@code NOT_FOUND} for unknown or expired jobs
+     */
+    public ConversionJob find(String id) {
+        expire();
+        ConversionJob job = jobs.get(id);
+        if (job == null) {
+            throw new SignatureProcessingException("NOT_FOUND", "Job " + id + " not found");
+        }
+        return job;
+    }
+
+    private void complete(String id, ConversionResult result, Throwable error) {
+        Date now = new Date();
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        ConversionJob done = jobs.computeIfPresent(id, (key, job) -> {
+            if (cause == null) {
+                return job.succeeded(result, now);
+            }
+            String code = cause instanceof SignatureProcessingException
+                    ? ((SignatureProcessingException) cause).getCode() : "INTERNAL_ERROR";
+            return job.failed(code, cause.getMessage(), now);
+        });
+        if (done != null) {
+            finished.add(done);
+        }
+    }
+
+    private void expire() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        ConversionJob oldest;
+        while ((oldest = finished.peek()) != null && oldest.getCompletedAt().getTime() < cutoff) {
+            if (finished.remove(oldest)) {
+                jobs.remove(oldest.getId(), oldest);
+            }
+        }
+    }
+
+    // The id is all that guards a job's result, so it must not be predictable from other ids.
+    private static String newId() {
+        return "job_" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("signature.jobs.pending", scheduler, s -> s.getQueueDepth(ConversionPriority.BULK))
+                .description("Asynchronous jobs waiting for a worker")
+                .register(registry);
+        Gauge.builder("signature.jobs.retained", jobs, ConcurrentHashMap::size)
+                .description("Asynchronous jobs held in memory, including finished ones")
+                .register(registry);
+    }
+}
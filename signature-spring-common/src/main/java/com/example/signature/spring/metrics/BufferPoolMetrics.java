@@ -0,0 +1,35 @@
+package com.example.signature.spring.metrics;
+
+import com.example.signature.core.pool.BufferPool;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes how often pixel buffer leases are served from the pool and how much memory the
+ * idle buffers hold against the configured cap.
+ */
+public class BufferPoolMetrics implements MeterBinder {
+    private final BufferPool pool;
+
+    public BufferPoolMetrics(BufferPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("signature.pool.leases", pool, BufferPool::hitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("signature.pool.leases", pool, BufferPool::missCount)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("signature.pool.retained", pool, BufferPool::retainedBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("signature.pool.max", pool, BufferPool::getMaxBytes)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.signature.spring.metrics;
+
+import com.example.signature.core.cache.ConversionCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes hit/miss counts and occupancy of the conversion result cache. Binds nothing
+ * when the service was configured without a cache.
+ */
+public class ConversionCacheMetrics implements MeterBinder {
+    private final ConversionCache cache;
+
+    public ConversionCacheMetrics(ConversionCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache == null) {
+            return;
+        }
+        FunctionCounter.builder("signature.cache.requests", cache, ConversionCache::hitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("signature.cache.requests", cache, ConversionCache::missCount)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("signature.cache.entries", cache, ConversionCache::size)
+                .register(registry);
+        Gauge.builder("signature.cache.bytes", cache, ConversionCache::weightedSize)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
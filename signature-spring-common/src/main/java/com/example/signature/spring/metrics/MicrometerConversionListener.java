@@ -0,0 +1,106 @@
+package com.example.signature.spring.metrics;
+
+import com.example.signature.core.listener.ConversionListener;
+import com.example.signature.core.listener.ConversionStage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records {@link ConversionListener} callbacks as Micrometer meters:
+ * <ul>
+ *   <li>{@code signature.conversion.stage} timer, tagged {@code stage}</li>
+ *   <li>{@code signature.conversion.input.bytes} summary of decoded input sizes</li>
+ *   <li>{@code signature.conversion.output.bytes} summary, tagged {@code format}</li>
+ *   <li>{@code signature.conversion.errors} counter, tagged {@code code}</li>
+ * </ul>
+ * The listener is handed to the conversion service before the registry exists (the registry
+ * binds every {@link MeterBinder} while it is being created), so callbacks are dropped until
+ * {@link #bindTo(MeterRegistry)} has run.
+ */
+public class MicrometerConversionListener implements ConversionListener, MeterBinder {
+    private volatile Meters meters;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meters = new Meters(registry);
+    }
+
+    @Override
+    public void onStage(ConversionStage stage, long nanos) {
+        Meters m = meters;
+        if (m != null) {
+            m.stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void onInput(long bytes) {
+        Meters m = meters;
+        if (m != null) {
+            m.inputBytes.record(bytes);
+        }
+    }
+
+    @Override
+    public void onOutput(String format, long bytes) {
+        Meters m = meters;
+        if (m != null) {
+            m.outputBytes(format).record(bytes);
+        }
+    }
+
+    @Override
+    public void onError(String code) {
+        Meters m = meters;
+        if (m != null) {
+            m.errors(code).increment();
+        }
+    }
+
+    private static final class Meters {
+        private final MeterRegistry registry;
+        private final Map<ConversionStage, Timer> stageTimers = new EnumMap<ConversionStage, Timer>(ConversionStage.class);
+        private final DistributionSummary inputBytes;
+        private final Map<String, DistributionSummary> outputBytes = new ConcurrentHashMap<String, DistributionSummary>();
+        private final Map<String, Counter> errors = new ConcurrentHashMap<String, Counter>();
+
+        Meters(MeterRegistry registry) {
+            this.registry = registry;
+            for (ConversionStage stage : ConversionStage.values()) {
+                stageTimers.put(stage, Timer.builder("signature.conversion.stage")
+                        .description("Time spent in each conversion stage")
+                        .tag("stage", stage.name().toLowerCase(Locale.US))
+                        .publishPercentileHistogram()
+                        .register(registry));
+            }
+            this.inputBytes = DistributionSummary.builder("signature.conversion.input.bytes")
+                    .description("Size of decoded input images")
+                    .baseUnit("bytes")
+                    .register(registry);
+        }
+
+        DistributionSummary outputBytes(String format) {
+            return outputBytes.computeIfAbsent(format, f -> DistributionSummary.builder("signature.conversion.output.bytes")
+                    .description("Size of encoded output images")
+                    .baseUnit("bytes")
+                    .tag("format", f)
+                    .register(registry));
+        }
+
+        Counter errors(String code) {
+            return errors.computeIfAbsent(code, c -> Counter.builder("signature.conversion.errors")
+                    .description("Failed conversions by error code")
+                    .tag("code", c)
+                    .register(registry));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.signature.spring.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.http.HttpStatus;
 
 import java.util.Date;
 import java.util.Objects;
@@ -28,6 +29,26 @@ public class ApiError {
         return new ApiError(new Date(), status, code, message);
     }
 
+    /**
+     * HTTP status for a {@code SignatureProcessingException} code, shared by the servlet and
+     * reactive adapters so both map errors the same way.
+     */
+    public static HttpStatus statusOf(String code) {
+        if ("NOT_FOUND".equals(code)) {
+            return HttpStatus.NOT_FOUND;
+        } else if ("FORBIDDEN".equals(code)) {
+            return HttpStatus.FORBIDDEN;
+        } else if ("UNSUPPORTED_FORMAT".equals(code)) {
+            return HttpStatus.UNSUPPORTED_MEDIA_TYPE;
+        } else if ("INVALID_PAYLOAD".equals(code) || "INVALID_OPTIONS".equals(code)) {
+            return HttpStatus.BAD_REQUEST;
+        } else if ("NODE_UNAVAILABLE".equals(code)) {
+            return HttpStatus.SERVICE_UNAVAILABLE;
+        } else {
+            return HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+    }
+
     public Date getTimestamp() {
         return timestamp;
     }
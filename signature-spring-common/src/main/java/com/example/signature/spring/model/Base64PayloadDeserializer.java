@@ -0,0 +1,43 @@
+package com.example.signature.spring.model;
+
+import com.example.signature.core.config.SignatureConfig;
+import com.example.signature.core.io.Base64PayloadDecoder;
+import com.example.signature.spring.config.SignatureProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+
+/**
+ * Decodes the {@code data} field directly from the parser's text buffer into bytes, so the
+ * Base64 text is never turned into a {@link String} and the payload limit applies while decoding.
+ */
+public class Base64PayloadDeserializer extends JsonDeserializer<byte[]> {
+    private final long maxPayloadBytes;
+
+    public Base64PayloadDeserializer() {
+        this(new SignatureConfig().getMaxPayloadBytes());
+    }
+
+    @Autowired
+    public Base64PayloadDeserializer(SignatureProperties properties) {
+        this(properties.getMaxPayloadBytes());
+    }
+
+    private Base64PayloadDeserializer(long maxPayloadBytes) {
+        this.maxPayloadBytes = maxPayloadBytes;
+    }
+
+    @Override
+    public byte[] deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            return (byte[]) context.handleUnexpectedToken(byte[].class, parser);
+        }
+        Base64PayloadDecoder decoder = new Base64PayloadDecoder(parser.getTextLength(), maxPayloadBytes);
+        parser.getText(decoder);
+        return decoder.toByteArray();
+    }
+}
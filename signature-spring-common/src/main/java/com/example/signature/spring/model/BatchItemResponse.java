@@ -0,0 +1,77 @@
+package com.example.signature.spring.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResponse {
+    private final int index;
+    private final int status;
+    private final SignatureResponse result;
+    private final ApiError error;
+
+    @JsonCreator
+    public BatchItemResponse(
+            @JsonProperty("index") int index,
+            @JsonProperty("status") int status,
+            @JsonProperty("result") SignatureResponse result,
+            @JsonProperty("error") ApiError error) {
+        this.index = index;
+        this.status = status;
+        this.result = result;
+        this.error = error;
+    }
+
+    public static BatchItemResponse success(int index, SignatureResponse result) {
+        return new BatchItemResponse(index, 200, result, null);
+    }
+
+    public static BatchItemResponse failure(int index, ApiError error) {
+        return new BatchItemResponse(index, error.getStatus(), null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public SignatureResponse getResult() {
+        return result;
+    }
+
+    public ApiError getError() {
+        return error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BatchItemResponse that = (BatchItemResponse) o;
+        return index == that.index &&
+               status == that.status &&
+               Objects.equals(result, that.result) &&
+               Objects.equals(error, that.error);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, status, result, error);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchItemResponse{" +
+               "index=" + index +
+               ", status=" + status +
+               ", result=" + result +
+               ", error=" + error +
+               '}';
+    }
+}
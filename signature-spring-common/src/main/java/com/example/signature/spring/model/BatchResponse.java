@@ -0,0 +1,70 @@
+package com.example.signature.spring.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+public class BatchResponse {
+    private final int succeeded;
+    private final int failed;
+    private final List<BatchItemResponse> items;
+
+    @JsonCreator
+    public BatchResponse(
+            @JsonProperty("succeeded") int succeeded,
+            @JsonProperty("failed") int failed,
+            @JsonProperty("items") List<BatchItemResponse> items) {
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.items = items != null ? Collections.unmodifiableList(items) : Collections.<BatchItemResponse>emptyList();
+    }
+
+    public static BatchResponse of(List<BatchItemResponse> items) {
+        int succeeded = 0;
+        for (BatchItemResponse item : items) {
+            if (item.getError() == null) {
+                succeeded++;
+            }
+        }
+        return new BatchResponse(succeeded, items.size() - succeeded, items);
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<BatchItemResponse> getItems() {
+        return items;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BatchResponse that = (BatchResponse) o;
+        return succeeded == that.succeeded &&
+               failed == that.failed &&
+               Objects.equals(items, that.items);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(succeeded, failed, items);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResponse{" +
+               "succeeded=" + succeeded +
+               ", failed=" + failed +
+               ", items=" + items.size() +
+               '}';
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.signature.spring.model;
+
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Content negotiation and headers shared by the servlet and reactive controllers when a
+ * conversion result or stored signature is returned as image bytes.
+ */
+public final class ImageResponses {
+    public static final String FILE_ID_HEADER = "X-Signature-File-Id";
+    public static final String WIDTH_HEADER = "X-Signature-Width";
+    public static final String HEIGHT_HEADER = "X-Signature-Height";
+
+    private ImageResponses() {
+    }
+
+    // Image bytes are returned only when the client explicitly asks for an image type;
+    // */* and application/json keep the metadata response (optionally with Base64 data).
+    public static boolean prefersImage(String accept, MediaType resultType) {
+        if (accept == null || accept.isEmpty()) {
+            return false;
+        }
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType mediaType : accepted) {
+            if ("image".equals(mediaType.getType()) && mediaType.includes(resultType)) {
+                return true;
+            }
+            if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    public static String contentDisposition(String fileId, MediaType contentType) {
+        return "inline; filename=\"" + fileName(fileId, contentType) + "\"";
+    }
+
+    // image/svg+xml is saved as .svg, not .svg+xml.
+    static String fileName(String fileId, MediaType contentType) {
+        String subtype = contentType.getSubtype();
+        int suffix = subtype.indexOf('+');
+        return fileId + "." + (suffix > 0 ? subtype.substring(0, suffix) : subtype);
+    }
+}
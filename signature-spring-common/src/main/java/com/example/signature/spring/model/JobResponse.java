@@ -0,0 +1,103 @@
+package com.example.signature.spring.model;
+
+import com.example.signature.spring.job.ConversionJob;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * State of an asynchronous job. {@code result} is present once the job succeeded and
+ * {@code error} once it failed, shaped like the synchronous response and error respectively.
+ * The result carries no image data; it is fetched through {@code GET /api/signatures/{fileId}}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobResponse {
+    private final String jobId;
+    private final ConversionJob.Status status;
+    private final Date createdAt;
+    private final Date completedAt;
+    private final SignatureResponse result;
+    private final ApiError error;
+
+    @JsonCreator
+    public JobResponse(
+            @JsonProperty("jobId") String jobId,
+            @JsonProperty("status") ConversionJob.Status status,
+            @JsonProperty("createdAt") Date createdAt,
+            @JsonProperty("completedAt") Date completedAt,
+            @JsonProperty("result") SignatureResponse result,
+            @JsonProperty("error") ApiError error) {
+        this.jobId = jobId;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.completedAt = completedAt;
+        this.result = result;
+        this.error = error;
+    }
+
+    public static JobResponse from(ConversionJob job) {
+        ApiError error = null;
+        if (job.getErrorCode() != null) {
+            error = new ApiError(job.getCompletedAt(), ApiError.statusOf(job.getErrorCode()).value(),
+                    job.getErrorCode(), job.getErrorMessage());
+        }
+        return new JobResponse(job.getId(), job.getStatus(), job.getCreatedAt(), job.getCompletedAt(), job.getResult(), error);
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public ConversionJob.Status getStatus() {
+        return status;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public Date getCompletedAt() {
+        return completedAt;
+    }
+
+    public SignatureResponse getResult() {
+        return result;
+    }
+
+    public ApiError getError() {
+        return error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        JobResponse that = (JobResponse) o;
+        return Objects.equals(jobId, that.jobId) &&
+               status == that.status &&
+               Objects.equals(createdAt, that.createdAt) &&
+               Objects.equals(completedAt, that.completedAt) &&
+               Objects.equals(result, that.result) &&
+               Objects.equals(error, that.error);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(jobId, status, createdAt, completedAt, result, error);
+    }
+
+    @Override
+    public String toString() {
+        return "JobResponse{" +
+               "jobId='" + jobId + '\'' +
+               ", status=" + status +
+               ", createdAt=" + createdAt +
+               ", completedAt=" + completedAt +
+               ", result=" + result +
+               ", error=" + error +
+               '}';
+    }
+}
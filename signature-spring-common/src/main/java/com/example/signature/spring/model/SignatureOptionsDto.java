@@ -1,8 +1,10 @@
 package com.example.signature.spring.model;
 
+import com.example.signature.core.model.SignatureOptions;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import java.util.Objects;
 
@@ -17,18 +19,37 @@ public class SignatureOptionsDto {
     @Min(1)
     private final Integer height;
 
+    @Min(0)
+    @Max(9)
+    private final Integer compressionLevel;
+
+    @Min(1)
+    @Max(100)
+    private final Integer quality;
+
+    private final Boolean progressive;
+    private final String chromaSubsampling;
+
     @JsonCreator
     public SignatureOptionsDto(
             @JsonProperty("outputFormat") String outputFormat,
             @JsonProperty("backgroundColor") String backgroundColor,
             @JsonProperty("trimTransparent") Boolean trimTransparent,
             @JsonProperty("width") Integer width,
-            @JsonProperty("height") Integer height) {
+            @JsonProperty("height") Integer height,
+            @JsonProperty("compressionLevel") Integer compressionLevel,
+            @JsonProperty("quality") Integer quality,
+            @JsonProperty("progressive") Boolean progressive,
+            @JsonProperty("chromaSubsampling") String chromaSubsampling) {
         this.outputFormat = outputFormat;
         this.backgroundColor = backgroundColor;
         this.trimTransparent = trimTransparent;
         this.width = width;
         this.height = height;
+        this.compressionLevel = compressionLevel;
+        this.quality = quality;
+        this.progressive = progressive;
+        this.chromaSubsampling = chromaSubsampling;
     }
 
     public String getOutputFormat() {
@@ -51,6 +72,29 @@ public class SignatureOptionsDto {
         return height;
     }
 
+    public Integer getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public Integer getQuality() {
+        return quality;
+    }
+
+    public Boolean getProgressive() {
+        return progressive;
+    }
+
+    public String getChromaSubsampling() {
+        return chromaSubsampling;
+    }
+
+    public SignatureOptions toCoreModel() {
+        SignatureOptions coreOptions = new SignatureOptions(outputFormat, backgroundColor, trimTransparent, width, height,
+                compressionLevel, quality, progressive, chromaSubsampling);
+        coreOptions.validate();
+        return coreOptions;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -60,12 +104,17 @@ public class SignatureOptionsDto {
                Objects.equals(backgroundColor, that.backgroundColor) &&
                Objects.equals(trimTransparent, that.trimTransparent) &&
                Objects.equals(width, that.width) &&
-               Objects.equals(height, that.height);
+               Objects.equals(height, that.height) &&
+               Objects.equals(compressionLevel, that.compressionLevel) &&
+               Objects.equals(quality, that.quality) &&
+               Objects.equals(progressive, that.progressive) &&
+               Objects.equals(chromaSubsampling, that.chromaSubsampling);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(outputFormat, backgroundColor, trimTransparent, width, height);
+        return Objects.hash(outputFormat, backgroundColor, trimTransparent, width, height, compressionLevel,
+                quality, progressive, chromaSubsampling);
     }
 
     @Override
@@ -76,6 +125,10 @@ public class SignatureOptionsDto {
                ", trimTransparent=" + trimTransparent +
                ", width=" + width +
                ", height=" + height +
+               ", compressionLevel=" + compressionLevel +
+               ", quality=" + quality +
+               ", progressive=" + progressive +
+               ", chromaSubsampling='" + chromaSubsampling + '\'' +
                '}';
     }
 }
@@ -0,0 +1,89 @@
+package com.example.signature.spring.model;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.core.model.SignatureRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Binds and validates a {@link SignatureRequestDto} where the web framework's own argument
+ * binding does not apply: batch items bound one by one, and JSON bodies read as raw buffers.
+ */
+public class SignatureRequestBinder {
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public SignatureRequestBinder(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * Binds a whole request body; violations are reported by message, like a bound {@code @RequestBody}.
+     */
+    public SignatureRequest read(byte[] json) {
+        SignatureRequestDto dto;
+        try {
+            dto = objectMapper.readValue(json, SignatureRequestDto.class);
+        } catch (IOException ex) {
+            throw malformed(ex, "Malformed request body");
+        }
+        if (dto == null) {
+            throw new SignatureProcessingException("INVALID_PAYLOAD", "Malformed request body");
+        }
+        ConstraintViolation<SignatureRequestDto> violation = firstViolation(dto);
+        if (violation != null) {
+            throw new SignatureProcessingException("INVALID_PAYLOAD", violation.getMessage());
+        }
+        return toCoreModel(dto);
+    }
+
+    /**
+     * Binds one batch item; violations name the offending property since there is no field error to point at.
+     */
+    public SignatureRequest bind(JsonNode item) {
+        SignatureRequestDto dto;
+        try {
+            dto = objectMapper.treeToValue(item, SignatureRequestDto.class);
+        } catch (JsonProcessingException ex) {
+            throw malformed(ex, "Malformed request item");
+        }
+        if (dto == null) {
+            throw new SignatureProcessingException("INVALID_PAYLOAD", "Malformed request item");
+        }
+        ConstraintViolation<SignatureRequestDto> violation = firstViolation(dto);
+        if (violation != null) {
+            throw new SignatureProcessingException("INVALID_PAYLOAD", violation.getPropertyPath() + " " + violation.getMessage());
+        }
+        return toCoreModel(dto);
+    }
+
+    private ConstraintViolation<SignatureRequestDto> firstViolation(SignatureRequestDto dto) {
+        Set<ConstraintViolation<SignatureRequestDto>> violations = validator.validate(dto);
+        return violations.isEmpty() ? null : violations.iterator().next();
+    }
+
+    private static SignatureRequest toCoreModel(SignatureRequestDto dto) {
+        try {
+            return dto.toCoreModel();
+        } catch (IllegalArgumentException ex) {
+            throw new SignatureProcessingException("INVALID_OPTIONS", ex.getMessage(), ex);
+        }
+    }
+
+    // Payload errors raised by Base64PayloadDeserializer arrive wrapped by Jackson.
+    private static SignatureProcessingException malformed(IOException ex, String message) {
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SignatureProcessingException) {
+                return (SignatureProcessingException) cause;
+            }
+        }
+        return new SignatureProcessingException("INVALID_PAYLOAD", message);
+    }
+}
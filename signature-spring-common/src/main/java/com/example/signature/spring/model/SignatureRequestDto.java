@@ -3,19 +3,27 @@ package com.example.signature.spring.model;
 import com.example.signature.core.model.SignatureMetadata;
 import com.example.signature.core.model.SignatureOptions;
 import com.example.signature.core.model.SignatureRequest;
+import com.example.signature.core.model.StrokeData;
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 import javax.validation.Valid;
-import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.AssertTrue;
+import java.util.Arrays;
 import java.util.Objects;
 
+/**
+ * A signature sent either as an encoded image ({@code mime} + {@code data}) or as captured
+ * strokes ({@code strokeData}); exactly one of the two must be present.
+ */
 public class SignatureRequestDto {
-    @NotBlank
     private final String mime;
 
-    @NotBlank
-    private final String data;
+    private final byte[] data;
+
+    private final StrokeData strokeData;
 
     private final SignatureMetadata metadata;
 
@@ -25,11 +33,13 @@ public class SignatureRequestDto {
     @JsonCreator
     public SignatureRequestDto(
             @JsonProperty("mime") String mime,
-            @JsonProperty("data") String data,
+            @JsonProperty("data") @JsonDeserialize(using = Base64PayloadDeserializer.class) byte[] data,
+            @JsonProperty("strokeData") StrokeData strokeData,
             @JsonProperty("metadata") SignatureMetadata metadata,
             @JsonProperty("options") SignatureOptionsDto options) {
         this.mime = mime;
         this.data = data;
+        this.strokeData = strokeData;
         this.metadata = metadata;
         this.options = options;
     }
@@ -38,10 +48,26 @@ public class SignatureRequestDto {
         return mime;
     }
 
-    public String getData() {
+    public byte[] getData() {
         return data;
     }
 
+    public StrokeData getStrokeData() {
+        return strokeData;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "exactly one of data or strokeData is required")
+    public boolean isPayloadPresent() {
+        return (data != null) != (strokeData != null);
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "mime is required when data is present")
+    public boolean isMimePresent() {
+        return data == null || (mime != null && !mime.trim().isEmpty());
+    }
+
     public SignatureMetadata getMetadata() {
         return metadata;
     }
@@ -51,18 +77,11 @@ public class SignatureRequestDto {
     }
 
     public SignatureRequest toCoreModel() {
-        SignatureOptions coreOptions = null;
-        if (options != null) {
-            coreOptions = new SignatureOptions(
-                options.getOutputFormat(),
-                options.getBackgroundColor(),
-                options.getTrimTransparent(),
-                options.getWidth(),
-                options.getHeight()
-            );
-            coreOptions.validate();
+        SignatureOptions coreOptions = options != null ? options.toCoreModel() : null;
+        if (strokeData != null) {
+            return SignatureRequest.ofStrokes(strokeData, metadata, coreOptions);
         }
-        return new SignatureRequest(mime, data, metadata, coreOptions);
+        return SignatureRequest.ofPayload(mime, data, metadata, coreOptions);
     }
 
     @Override
@@ -71,21 +90,25 @@ public class SignatureRequestDto {
         if (o == null || getClass() != o.getClass()) return false;
         SignatureRequestDto that = (SignatureRequestDto) o;
         return Objects.equals(mime, that.mime) &&
-               Objects.equals(data, that.data) &&
+               Arrays.equals(data, that.data) &&
+               Objects.equals(strokeData, that.strokeData) &&
                Objects.equals(metadata, that.metadata) &&
                Objects.equals(options, that.options);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(mime, data, metadata, options);
+        int result = Objects.hash(mime, strokeData, metadata, options);
+        result = 31 * result + Arrays.hashCode(data);
+        return result;
     }
 
     @Override
     public String toString() {
         return "SignatureRequestDto{" +
                "mime='" + mime + '\'' +
-               ", data='" + (data != null ? data.substring(0, Math.min(50, data.length())) + "..." : "null") + '\'' +
+               ", dataLength=" + (data != null ? data.length : 0) +
+               ", strokeData=" + strokeData +
                ", metadata=" + metadata +
                ", options=" + options +
                '}';
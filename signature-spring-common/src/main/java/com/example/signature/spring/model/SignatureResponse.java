@@ -2,8 +2,10 @@ package com.example.signature.spring.model;
 
 import com.example.signature.core.model.ConversionResult;
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 public class SignatureResponse {
@@ -13,27 +15,38 @@ public class SignatureResponse {
     private final int width;
     private final int height;
 
+    // A read-only view over the encoder's buffer; Jackson streams it out as Base64 without copying.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final ByteBuffer data;
+
     @JsonCreator
     public SignatureResponse(
             @JsonProperty("fileId") String fileId,
             @JsonProperty("contentType") String contentType,
             @JsonProperty("sizeBytes") long sizeBytes,
             @JsonProperty("width") int width,
-            @JsonProperty("height") int height) {
+            @JsonProperty("height") int height,
+            @JsonProperty("data") ByteBuffer data) {
         this.fileId = fileId;
         this.contentType = contentType;
         this.sizeBytes = sizeBytes;
         this.width = width;
         this.height = height;
+        this.data = data;
     }
 
     public static SignatureResponse from(ConversionResult result) {
+        return from(result, false);
+    }
+
+    public static SignatureResponse from(ConversionResult result, boolean includeData) {
         return new SignatureResponse(
             result.getFileId(),
             result.getContentType(),
             result.sizeBytes(),
             result.getWidth(),
-            result.getHeight()
+            result.getHeight(),
+            includeData ? result.asReadOnlyBuffer() : null
         );
     }
 
@@ -57,6 +70,10 @@ public class SignatureResponse {
         return height;
     }
 
+    public ByteBuffer getData() {
+        return data;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -66,12 +83,13 @@ public class SignatureResponse {
                width == that.width &&
                height == that.height &&
                Objects.equals(fileId, that.fileId) &&
-               Objects.equals(contentType, that.contentType);
+               Objects.equals(contentType, that.contentType) &&
+               Objects.equals(data, that.data);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(fileId, contentType, sizeBytes, width, height);
+        return Objects.hash(fileId, contentType, sizeBytes, width, height, data);
     }
 
     @Override
@@ -82,6 +100,7 @@ public class SignatureResponse {
                ", sizeBytes=" + sizeBytes +
                ", width=" + width +
                ", height=" + height +
+               ", dataLength=" + (data != null ? data.remaining() : 0) +
                '}';
     }
 }
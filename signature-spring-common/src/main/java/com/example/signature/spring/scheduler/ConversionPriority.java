@@ -0,0 +1,12 @@
+package com.example.signature.spring.scheduler;
+
+/**
+ * Queue class of a conversion. A waiting {@link #INTERACTIVE} task is always picked up before
+ * any waiting {@link #BULK} task; tasks of the same priority run in submission order.
+ */
+public enum ConversionPriority {
+    /** A client is holding a request open for the result; subject to the queue deadline. */
+    INTERACTIVE,
+    /** Batches and asynchronous jobs; never expires while queued. */
+    BULK
+}
@@ -0,0 +1,20 @@
+package com.example.signature.spring.scheduler;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+
+/**
+ * Raised when the conversion scheduler refuses or drops work. Carries the delay clients should
+ * wait before retrying.
+ */
+public class ConversionRejectedException extends SignatureProcessingException {
+    private final long retryAfterSeconds;
+
+    public ConversionRejectedException(String code, String message, long retryAfterSeconds) {
+        super(code, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.signature.spring.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Runs conversions on a fixed pool of workers fed by a bounded queue, so bursts of large
+ * images queue up off the request threads instead of occupying all of them.
+ *
+ * <p>The queue is ordered by {@link ConversionPriority}: interactive requests always go ahead of
+ * queued bulk work, and each priority has its own capacity so a backlog of jobs cannot crowd
+ * out interactive requests. When a priority's capacity is exhausted a task is rejected
+ * immediately with {@code OVERLOADED}. An interactive task that waited in the queue longer
+ * than the deadline is dropped with {@code DEADLINE_EXCEEDED} instead of being converted for a
+ * client that has already given up.
+ *
+ * <p>The items of a batch run on the same workers as bulk tasks, at most {@code batchParallelism}
+ * of them queued or running at a time, so a batch neither adds threads beyond the workers nor
+ * fills the bulk queue on its own.
+ */
+public class ConversionScheduler implements MeterBinder {
+    private final ThreadPoolExecutor executor;
+    private final int batchParallelism;
+    private final int[] capacity;
+    private final AtomicInteger[] queued;
+    private final AtomicLong sequence = new AtomicLong();
+    private final long deadlineNanos;
+    private final long retryAfterSeconds;
+    private volatile Timer[] waitTimers;
+    private volatile Counter rejectedCounter;
+    private volatile Counter expiredCounter;
+
+    public ConversionScheduler(int workers, int queueCapacity, int bulkQueueCapacity, Duration deadline,
+                               Duration retryAfter, int batchParallelism) {
+        if (workers <= 0 || queueCapacity <= 0 || bulkQueueCapacity <= 0 || batchParallelism <= 0) {
+            throw new IllegalArgumentException("workers, queue capacities and batchParallelism must be positive");
+        }
+        // The executor's queue itself is unbounded; capacity is enforced per priority on submit.
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<Runnable>(), new WorkerThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.batchParallelism = batchParallelism;
+        this.capacity = new int[] {queueCapacity, bulkQueueCapacity};
+        this.queued = new AtomicInteger[] {new AtomicInteger(), new AtomicInteger()};
+        this.deadlineNanos = deadline.toNanos();
+        this.retryAfterSeconds = Math.max(1, retryAfter.getSeconds());
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return submit(task, ConversionPriority.INTERACTIVE);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task, ConversionPriority priority) {
+        CompletableFuture<T> future = new CompletableFuture<T>();
+        AtomicInteger waiting = queued[priority.ordinal()];
+        if (waiting.incrementAndGet() > capacity[priority.ordinal()]) {
+            waiting.decrementAndGet();
+            reject(future);
+            return future;
+        }
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(new PrioritizedTask(priority, sequence.getAndIncrement(), () -> {
+                waiting.decrementAndGet();
+                run(task, future, priority, enqueuedAt);
+            }));
+        } catch (RejectedExecutionException ex) {
+            // Only after shutdown.
+            waiting.decrementAndGet();
+            reject(future);
+        }
+        return future;
+    }
+
+    private void reject(CompletableFuture<?> future) {
+        increment(rejectedCounter);
+        future.completeExceptionally(new ConversionRejectedException("OVERLOADED",
+                "Conversion queue is full", retryAfterSeconds));
+    }
+
+    private <T> void run(Supplier<T> task, CompletableFuture<T> future, ConversionPriority priority, long enqueuedAt) {
+        long waited = System.nanoTime() - enqueuedAt;
+        Timer[] timers = waitTimers;
+        if (timers != null) {
+            timers[priority.ordinal()].record(waited, TimeUnit.NANOSECONDS);
+        }
+        if (priority == ConversionPriority.INTERACTIVE && waited > deadlineNanos) {
+            increment(expiredCounter);
+            future.completeExceptionally(new ConversionRejectedException("DEADLINE_EXCEEDED",
+                    "Conversion waited too long in queue", retryAfterSeconds));
+            return;
+        }
+        try {
+            future.complete(task.get());
+        } catch (Throwable ex) {
+            future.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Runs {@code tasks} as bulk work and completes with their results in task order. A task is
+     * submitted only when one of the batch's earlier tasks finishes, so at most
+     * {@code batchParallelism} of them are queued or running at once. If the bulk queue rejects
+     * a task the batch fails with that rejection and its remaining tasks are not submitted.
+     */
+    public <T> CompletableFuture<List<T>> submitAll(List<? extends Supplier<T>> tasks) {
+        CompletableFuture<List<T>> batch = new CompletableFuture<List<T>>();
+        if (tasks.isEmpty()) {
+            batch.complete(Collections.<T>emptyList());
+            return batch;
+        }
+        BatchRun<T> run = new BatchRun<T>(tasks, batch);
+        for (int i = 0; i < Math.min(batchParallelism, tasks.size()); i++) {
+            run.submitNext();
+        }
+        return batch;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getQueueDepth(ConversionPriority priority) {
+        return queued[priority.ordinal()].get();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Timer[] timers = new Timer[ConversionPriority.values().length];
+        for (ConversionPriority priority : ConversionPriority.values()) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("signature.executor.queue.depth", queued[priority.ordinal()], AtomicInteger::get)
+                    .description("Conversions waiting for a worker")
+                    .tag("priority", tag)
+                    .register(registry);
+            timers[priority.ordinal()] = Timer.builder("signature.executor.queue.wait")
+                    .description("Time conversions spent queued before a worker picked them up")
+                    .tag("priority", tag)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        waitTimers = timers;
+        Gauge.builder("signature.executor.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Conversions currently running")
+                .register(registry);
+        rejectedCounter = Counter.builder("signature.executor.rejected")
+                .tag("reason", "queue_full")
+                .register(registry);
+        expiredCounter = Counter.builder("signature.executor.rejected")
+                .tag("reason", "deadline")
+                .register(registry);
+    }
+
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    // Feeds the tasks of one batch to the queue, one more each time a task completes.
+    private final class BatchRun<T> {
+        private final List<? extends Supplier<T>> tasks;
+        private final CompletableFuture<List<T>> batch;
+        private final AtomicReferenceArray<T> results;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+
+        BatchRun(List<? extends Supplier<T>> tasks, CompletableFuture<List<T>> batch) {
+            this.tasks = tasks;
+            this.batch = batch;
+            this.results = new AtomicReferenceArray<T>(tasks.size());
+            this.remaining = new AtomicInteger(tasks.size());
+        }
+
+        void submitNext() {
+            int index = next.getAndIncrement();
+            if (index >= tasks.size() || batch.isDone()) {
+                return;
+            }
+            submit(tasks.get(index), ConversionPriority.BULK).whenComplete((result, error) -> {
+                if (error != null) {
+                    batch.completeExceptionally(error);
+                    return;
+                }
+                results.set(index, result);
+                if (remaining.decrementAndGet() == 0) {
+                    List<T> list = new ArrayList<T>(results.length());
+                    for (int i = 0; i < results.length(); i++) {
+                        list.add(results.get(i));
+                    }
+                    batch.complete(list);
+                } else {
+                    submitNext();
+                }
+            });
+        }
+    }
+
+    // Orders the executor's queue by priority, then by submission order.
+    private static final class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+        private final ConversionPriority priority;
+        private final long sequence;
+        private final Runnable task;
+
+        PrioritizedTask(ConversionPriority priority, long sequence, Runnable task) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "signature-convert-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
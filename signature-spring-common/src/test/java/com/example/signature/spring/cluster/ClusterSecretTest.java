@@ -0,0 +1,30 @@
+package com.example.signature.spring.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClusterSecretTest {
+
+    @Test
+    void matchesOnlyTheSameSecret() {
+        ClusterSecret secret = new ClusterSecret("s3cret");
+
+        assertThat(secret.matches("s3cret")).isTrue();
+        assertThat(secret.matches("s3cre")).isFalse();
+        assertThat(secret.matches("S3CRET")).isFalse();
+        assertThat(secret.matches(null)).isFalse();
+    }
+
+    @Test
+    void mustBeSet() {
+        assertThatThrownBy(() -> new ClusterSecret(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ClusterSecret("  ")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void isNotLogged() {
+        assertThat(new ClusterSecret("s3cret").toString()).doesNotContain("s3cret");
+    }
+}
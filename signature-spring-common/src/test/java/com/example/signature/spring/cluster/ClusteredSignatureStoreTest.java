@@ -0,0 +1,238 @@
+package com.example.signature.spring.cluster;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.core.id.MonotonicFileIdGenerator;
+import com.example.signature.core.model.ConversionResult;
+import com.example.signature.core.store.SignatureStore;
+import com.example.signature.core.store.StoredSignature;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClusteredSignatureStoreTest {
+    private static final int SELF = 1;
+
+    private final MemoryStore local = new MemoryStore();
+    private final FakePeers peers = new FakePeers();
+    private final ClusteredSignatureStore store = new ClusteredSignatureStore(local, SELF, urls(), 128, peers);
+
+    @Test
+    void savesOnTheOwnerNode() {
+        String fileId = fileId(SELF, 2);
+
+        store.save(result(fileId));
+
+        assertThat(peers.node(2)).containsKey(fileId);
+        assertThat(local.find(fileId)).isNull();
+    }
+
+    @Test
+    void keepsTheSignatureLocallyWhenTheOwnerIsDown() {
+        String fileId = fileId(SELF, 2);
+        peers.down.add(2);
+
+        store.save(result(fileId));
+
+        assertThat(local.find(fileId)).isNotNull();
+        assertThat(store.find(fileId).getFileId()).isEqualTo(fileId);
+    }
+
+    @Test
+    void readsLocalCopyWithoutAskingPeers() {
+        String fileId = fileId(3, 2);
+        local.save(result(fileId));
+        peers.down.add(2);
+        peers.down.add(3);
+
+        assertThat(store.find(fileId).getFileId()).isEqualTo(fileId);
+        assertThat(store.contains(fileId)).isTrue();
+    }
+
+    @Test
+    void readsFromTheOwner() {
+        String fileId = fileId(3, 2);
+        peers.node(2).put(fileId, result(fileId));
+
+        assertThat(store.find(fileId).getFileId()).isEqualTo(fileId);
+        assertThat(store.contains(fileId)).isTrue();
+    }
+
+    // The origin kept it because the owner was down when it was saved.
+    @Test
+    void fallsBackToTheNodeThatGeneratedTheId() {
+        String fileId = fileId(3, 2);
+        peers.node(3).put(fileId, result(fileId));
+
+        assertThat(store.find(fileId).getFileId()).isEqualTo(fileId);
+
+        peers.down.add(2);
+        assertThat(store.find(fileId).getFileId()).isEqualTo(fileId);
+        assertThat(store.contains(fileId)).isTrue();
+    }
+
+    @Test
+    void missingEverywhereIsNotFound() {
+        String fileId = fileId(3, 2);
+
+        assertThat(store.find(fileId)).isNull();
+        assertThat(store.contains(fileId)).isFalse();
+    }
+
+    @Test
+    void unreachableHolderIsNodeUnavailable() {
+        String fileId = fileId(3, 2);
+        peers.down.add(2);
+
+        assertUnavailable(() -> store.find(fileId));
+        assertUnavailable(() -> store.contains(fileId));
+    }
+
+    @Test
+    void deleteSucceedsWhenAnyCopyWasDeleted() {
+        String fileId = fileId(SELF, 2);
+        local.save(result(fileId));
+        peers.down.add(2);
+
+        assertThat(store.delete(fileId)).isTrue();
+        assertThat(local.find(fileId)).isNull();
+    }
+
+    @Test
+    void deleteFailsOnlyWhenNothingWasDeletedAndAHolderIsDown() {
+        String fileId = fileId(SELF, 2);
+
+        assertThat(store.delete(fileId)).isFalse();
+
+        peers.down.add(2);
+        assertUnavailable(() -> store.delete(fileId));
+    }
+
+    @Test
+    void deleteReachesOwnerAndOrigin() {
+        String fileId = fileId(3, 2);
+        peers.node(2).put(fileId, result(fileId));
+        peers.node(3).put(fileId, result(fileId));
+
+        assertThat(store.delete(fileId)).isTrue();
+        assertThat(peers.node(2)).isEmpty();
+        assertThat(peers.node(3)).isEmpty();
+    }
+
+    // Generates ids on node origin until one is owned by owner.
+    private String fileId(int origin, int owner) {
+        MonotonicFileIdGenerator generator = new MonotonicFileIdGenerator(origin);
+        while (true) {
+            String fileId = generator.nextId();
+            if (store.ownerOf(fileId) == owner) {
+                return fileId;
+            }
+        }
+    }
+
+    private static ConversionResult result(String fileId) {
+        return new ConversionResult(fileId, "image/png", new byte[] {1, 2, 3}, 10, 5);
+    }
+
+    private static Map<Integer, String> urls() {
+        Map<Integer, String> urls = new LinkedHashMap<Integer, String>();
+        for (int node = 1; node <= 3; node++) {
+            urls.put(node, url(node));
+        }
+        return urls;
+    }
+
+    private static String url(int node) {
+        return "http://node-" + node + ":8080";
+    }
+
+    private static void assertUnavailable(Runnable call) {
+        assertThatThrownBy(call::run)
+                .isInstanceOf(SignatureProcessingException.class)
+                .hasFieldOrPropertyWithValue("code", "NODE_UNAVAILABLE");
+    }
+
+    private static StoredSignature stored(ConversionResult result) {
+        return result == null ? null : new RemoteSignature(result.getFileId(), result.getContentType(),
+                result.getData(), result.getWidth(), result.getHeight());
+    }
+
+    /** Peers kept in memory by URL; a node in {@code down} refuses connections. */
+    private static final class FakePeers extends PeerClient {
+        final Set<Integer> down = new HashSet<Integer>();
+        private final Map<String, Map<String, ConversionResult>> nodes = new HashMap<String, Map<String, ConversionResult>>();
+
+        FakePeers() {
+            super(Duration.ofSeconds(1), Duration.ofSeconds(1), new ClusterSecret("test"));
+        }
+
+        Map<String, ConversionResult> node(int node) {
+            return nodes.computeIfAbsent(url(node), url -> new HashMap<String, ConversionResult>());
+        }
+
+        @Override
+        public void put(String peerUrl, ConversionResult result) throws IOException {
+            reach(peerUrl).put(result.getFileId(), result);
+        }
+
+        @Override
+        public StoredSignature get(String peerUrl, String fileId) throws IOException {
+            return stored(reach(peerUrl).get(fileId));
+        }
+
+        @Override
+        public boolean exists(String peerUrl, String fileId) throws IOException {
+            return reach(peerUrl).containsKey(fileId);
+        }
+
+        @Override
+        public boolean delete(String peerUrl, String fileId) throws IOException {
+            return reach(peerUrl).remove(fileId) != null;
+        }
+
+        private Map<String, ConversionResult> reach(String peerUrl) throws IOException {
+            for (int node : down) {
+                if (url(node).equals(peerUrl)) {
+                    throw new ConnectException("Connection refused: " + peerUrl);
+                }
+            }
+            return nodes.computeIfAbsent(peerUrl, url -> new HashMap<String, ConversionResult>());
+        }
+    }
+
+    private static final class MemoryStore implements SignatureStore {
+        private final Map<String, ConversionResult> results = new HashMap<String, ConversionResult>();
+
+        @Override
+        public void save(ConversionResult result) {
+            results.put(result.getFileId(), result);
+        }
+
+        @Override
+        public StoredSignature find(String fileId) {
+            return stored(results.get(fileId));
+        }
+
+        @Override
+        public boolean delete(String fileId) {
+            return results.remove(fileId) != null;
+        }
+
+        @Override
+        public void compact() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
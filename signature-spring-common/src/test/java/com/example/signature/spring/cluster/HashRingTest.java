@@ -0,0 +1,80 @@
+package com.example.signature.spring.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashRingTest {
+    private static final int KEYS = 3000;
+
+    @Test
+    void everyNodeAgreesOnTheOwnerWhateverThePeerOrder() {
+        HashRing ring = new HashRing(Arrays.asList(1, 2, 3), 128);
+        HashRing reordered = new HashRing(Arrays.asList(3, 1, 2), 128);
+
+        for (int i = 0; i < KEYS; i++) {
+            assertThat(reordered.ownerOf(key(i))).isEqualTo(ring.ownerOf(key(i)));
+        }
+    }
+
+    @Test
+    void spreadsKeysOverEveryNode() {
+        HashRing ring = new HashRing(Arrays.asList(1, 2, 3), 128);
+        Map<Integer, Integer> owned = new HashMap<Integer, Integer>();
+        for (int i = 0; i < KEYS; i++) {
+            owned.merge(ring.ownerOf(key(i)), 1, Integer::sum);
+        }
+
+        assertThat(owned).containsOnlyKeys(1, 2, 3);
+        assertThat(owned.values()).allSatisfy(count -> assertThat(count).isBetween(KEYS / 5, KEYS / 2));
+    }
+
+    @Test
+    void addingANodeOnlyMovesKeysToTheNewNode() {
+        HashRing before = new HashRing(Arrays.asList(1, 2, 3), 128);
+        HashRing after = new HashRing(Arrays.asList(1, 2, 3, 4), 128);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            int owner = after.ownerOf(key(i));
+            if (owner != before.ownerOf(key(i))) {
+                assertThat(owner).isEqualTo(4);
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(KEYS / 8, KEYS * 3 / 8);
+    }
+
+    @Test
+    void removingANodeOnlyMovesTheKeysItOwned() {
+        HashRing before = new HashRing(Arrays.asList(1, 2, 3), 128);
+        HashRing after = new HashRing(Arrays.asList(1, 3), 128);
+
+        for (int i = 0; i < KEYS; i++) {
+            int owner = before.ownerOf(key(i));
+            if (owner != 2) {
+                assertThat(after.ownerOf(key(i))).isEqualTo(owner);
+            } else {
+                assertThat(after.ownerOf(key(i))).isIn(1, 3);
+            }
+        }
+    }
+
+    @Test
+    void needsAtLeastOneNode() {
+        assertThatThrownBy(() -> new HashRing(Collections.<Integer>emptyList(), 128))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HashRing(Collections.singletonList(1), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String key(int i) {
+        return "sig_" + i;
+    }
+}
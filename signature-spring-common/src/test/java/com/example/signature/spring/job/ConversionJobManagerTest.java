@@ -0,0 +1,138 @@
+package com.example.signature.spring.job;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.core.model.ConversionResult;
+import com.example.signature.core.model.SignatureRequest;
+import com.example.signature.core.service.SignatureConversionService;
+import com.example.signature.spring.scheduler.ConversionRejectedException;
+import com.example.signature.spring.scheduler.ConversionScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConversionJobManagerTest {
+    private final SignatureConversionService conversionService = mock(SignatureConversionService.class);
+    private final SignatureRequest request = SignatureRequest.ofPayload("image/png", new byte[] {1}, null, null);
+    private final ConversionResult result = new ConversionResult("sig_0000000000040000", "image/png", new byte[] {2}, 10, 5);
+    private final CountDownLatch converting = new CountDownLatch(1);
+    private final CountDownLatch finish = new CountDownLatch(1);
+    private ConversionScheduler scheduler;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        finish.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void movesFromQueuedThroughRunningToSucceeded() throws Exception {
+        scheduler = new ConversionScheduler(1, 4, 4, Duration.ofMinutes(1), Duration.ofSeconds(1), 1);
+        ConversionJobManager jobs = new ConversionJobManager(conversionService, scheduler, Duration.ofMinutes(10));
+        when(conversionService.convert(any())).thenAnswer(invocation -> {
+            converting.countDown();
+            assertThat(finish.await(5, TimeUnit.SECONDS)).isTrue();
+            return result;
+        });
+        CountDownLatch occupied = occupyWorker();
+
+        ConversionJob job = jobs.submit(request);
+        assertThat(job.getId()).matches("job_[0-9a-f]{32}");
+        assertThat(jobs.find(job.getId()).getStatus()).isEqualTo(ConversionJob.Status.QUEUED);
+
+        occupied.countDown();
+        assertThat(converting.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(jobs.find(job.getId()).getStatus()).isEqualTo(ConversionJob.Status.RUNNING);
+
+        finish.countDown();
+        awaitDone(jobs, job.getId());
+        ConversionJob done = jobs.find(job.getId());
+        assertThat(done.getStatus()).isEqualTo(ConversionJob.Status.SUCCEEDED);
+        assertThat(done.getResult().getFileId()).isEqualTo(result.getFileId());
+        assertThat(done.getResult().getSizeBytes()).isEqualTo(1);
+        assertThat(done.getResult().getWidth()).isEqualTo(10);
+        assertThat(done.getResult().getData()).isNull();
+        assertThat(done.getCompletedAt()).isNotNull();
+    }
+
+    @Test
+    void recordsTheErrorCodeOfAFailedConversion() throws Exception {
+        scheduler = new ConversionScheduler(1, 4, 4, Duration.ofMinutes(1), Duration.ofSeconds(1), 1);
+        ConversionJobManager jobs = new ConversionJobManager(conversionService, scheduler, Duration.ofMinutes(10));
+        when(conversionService.convert(any())).thenThrow(new SignatureProcessingException("INVALID_PAYLOAD", "Not an image"));
+
+        String id = jobs.submit(request).getId();
+        awaitDone(jobs, id);
+
+        ConversionJob failed = jobs.find(id);
+        assertThat(failed.getStatus()).isEqualTo(ConversionJob.Status.FAILED);
+        assertThat(failed.getErrorCode()).isEqualTo("INVALID_PAYLOAD");
+        assertThat(failed.getResult()).isNull();
+    }
+
+    @Test
+    void dropsFinishedJobsAfterTheRetention() throws Exception {
+        scheduler = new ConversionScheduler(1, 4, 4, Duration.ofMinutes(1), Duration.ofSeconds(1), 1);
+        ConversionJobManager jobs = new ConversionJobManager(conversionService, scheduler, Duration.ofMillis(50));
+        when(conversionService.convert(any())).thenReturn(result);
+
+        String id = jobs.submit(request).getId();
+        awaitDone(jobs, id);
+        Thread.sleep(100);
+
+        assertThatThrownBy(() -> jobs.find(id))
+                .isInstanceOf(SignatureProcessingException.class)
+                .hasFieldOrPropertyWithValue("code", "NOT_FOUND");
+    }
+
+    @Test
+    void rejectsJobsWhenTheBulkQueueIsFull() throws Exception {
+        scheduler = new ConversionScheduler(1, 4, 1, Duration.ofMinutes(1), Duration.ofSeconds(1), 1);
+        ConversionJobManager jobs = new ConversionJobManager(conversionService, scheduler, Duration.ofMinutes(10));
+        when(conversionService.convert(any())).thenReturn(result);
+        CountDownLatch occupied = occupyWorker();
+
+        String queued = jobs.submit(request).getId();
+        assertThatThrownBy(() -> jobs.submit(request))
+                .isInstanceOf(ConversionRejectedException.class)
+                .hasFieldOrPropertyWithValue("code", "OVERLOADED");
+
+        occupied.countDown();
+        awaitDone(jobs, queued);
+        assertThat(jobs.find(queued).getStatus()).isEqualTo(ConversionJob.Status.SUCCEEDED);
+    }
+
+    // Holds the single worker until the returned latch is counted down.
+    private CountDownLatch occupyWorker() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(() -> {
+            started.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        return release;
+    }
+
+    private static void awaitDone(ConversionJobManager jobs, String id) throws InterruptedException {
+        BooleanSupplier done = () -> jobs.find(id).isDone();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!done.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(done.getAsBoolean()).isTrue();
+    }
+}
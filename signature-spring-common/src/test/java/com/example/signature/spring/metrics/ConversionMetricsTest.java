@@ -0,0 +1,95 @@
+package com.example.signature.spring.metrics;
+
+import com.example.signature.core.config.SignatureConfig;
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.core.model.ConversionResult;
+import com.example.signature.core.model.SignatureOptions;
+import com.example.signature.core.model.SignatureRequest;
+import com.example.signature.core.service.SignatureConversionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConversionMetricsTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private SignatureConversionService service;
+
+    @BeforeEach
+    void setUp() {
+        SignatureConfig config = new SignatureConfig();
+        config.setCacheMaxBytes(1_000_000);
+        MicrometerConversionListener listener = new MicrometerConversionListener();
+        service = new SignatureConversionService(config, null, listener);
+        listener.bindTo(registry);
+        new ConversionCacheMetrics(service.getCache()).bindTo(registry);
+        new BufferPoolMetrics(service.getBufferPool()).bindTo(registry);
+    }
+
+    @Test
+    void recordsStagesSizesAndErrors() throws IOException {
+        ConversionResult result = service.convert(request("data:image/png;base64," + png()));
+        assertThatThrownBy(() -> service.convert(request("!!!")))
+                .isInstanceOf(SignatureProcessingException.class);
+
+        for (String stage : new String[] {"decode", "read", "render", "encode"}) {
+            assertThat(registry.get("signature.conversion.stage").tag("stage", stage).timer().count())
+                    .as(stage).isEqualTo(1);
+        }
+        // Trimming was not requested, so the stage was never reported.
+        assertThat(registry.get("signature.conversion.stage").tag("stage", "trim").timer().count()).isZero();
+        assertThat(registry.get("signature.conversion.input.bytes").summary().count()).isEqualTo(1);
+        assertThat(registry.get("signature.conversion.output.bytes").tag("format", "png").summary().totalAmount())
+                .isEqualTo(result.sizeBytes());
+        assertThat(registry.get("signature.conversion.errors").tag("code", "INVALID_PAYLOAD").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.find("signature.conversion.errors").counters()).hasSize(1);
+    }
+
+    @Test
+    void publishesCacheAndPoolActivity() throws IOException {
+        String data = "data:image/png;base64," + png();
+        service.convert(request(data));
+        service.convert(request(data));
+
+        assertThat(registry.get("signature.cache.requests").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("signature.cache.requests").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("signature.cache.entries").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("signature.cache.bytes").gauge().value()).isPositive();
+        assertThat(registry.get("signature.conversion.output.bytes").tag("format", "png").summary().count()).isEqualTo(2);
+
+        assertThat(registry.get("signature.pool.leases").tag("result", "miss").functionCounter().count())
+                .isPositive()
+                .isEqualTo(service.getBufferPool().missCount());
+        assertThat(registry.get("signature.pool.leases").tag("result", "hit").functionCounter().count())
+                .isEqualTo(service.getBufferPool().hitCount());
+        assertThat(registry.get("signature.pool.retained").gauge().value())
+                .isEqualTo(service.getBufferPool().retainedBytes());
+        assertThat(registry.get("signature.pool.max").gauge().value())
+                .isEqualTo(service.getBufferPool().getMaxBytes());
+    }
+
+    private static SignatureRequest request(String data) {
+        return new SignatureRequest("image/png", data, null, new SignatureOptions("png", "#FFFFFF", false, null, null));
+    }
+
+    private static String png() throws IOException {
+        BufferedImage image = new BufferedImage(40, 20, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.BLACK);
+        graphics.drawLine(2, 10, 38, 10);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.signature.spring.scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConversionSchedulerTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ConversionScheduler scheduler;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void rejectsOnceAPriorityIsAtCapacity() throws Exception {
+        scheduler = new ConversionScheduler(1, 2, 1, Duration.ofMinutes(1), Duration.ofSeconds(2), 1);
+        occupyWorker();
+
+        CompletableFuture<String> first = scheduler.submit(() -> "a");
+        CompletableFuture<String> second = scheduler.submit(() -> "b");
+        CompletableFuture<String> overflow = scheduler.submit(() -> "c");
+        CompletableFuture<String> bulk = scheduler.submit(() -> "d", ConversionPriority.BULK);
+        CompletableFuture<String> bulkOverflow = scheduler.submit(() -> "e", ConversionPriority.BULK);
+
+        assertRejected(overflow, "OVERLOADED");
+        assertRejected(bulkOverflow, "OVERLOADED");
+        assertThat(scheduler.getQueueDepth(ConversionPriority.INTERACTIVE)).isEqualTo(2);
+        assertThat(scheduler.getQueueDepth(ConversionPriority.BULK)).isEqualTo(1);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("b");
+        assertThat(bulk.get(5, TimeUnit.SECONDS)).isEqualTo("d");
+        assertThat(scheduler.submit(() -> "f").get(5, TimeUnit.SECONDS)).isEqualTo("f");
+    }
+
+    @Test
+    void runsInteractiveWorkBeforeQueuedBulkWork() throws Exception {
+        scheduler = new ConversionScheduler(1, 4, 4, Duration.ofMinutes(1), Duration.ofSeconds(1), 1);
+        occupyWorker();
+        List<String> order = new CopyOnWriteArrayList<String>();
+
+        CompletableFuture<Boolean> bulk1 = scheduler.submit(() -> order.add("bulk1"), ConversionPriority.BULK);
+        CompletableFuture<Boolean> bulk2 = scheduler.submit(() -> order.add("bulk2"), ConversionPriority.BULK);
+        CompletableFuture<Boolean> interactive = scheduler.submit(() -> order.add("interactive"));
+        release.countDown();
+        CompletableFuture.allOf(bulk1, bulk2, interactive).get(5, TimeUnit.SECONDS);
+
+        assertThat(order).containsExactly("interactive", "bulk1", "bulk2");
+    }
+
+    @Test
+    void dropsInteractiveTasksThatOutwaitedTheDeadline() throws Exception {
+        scheduler = new ConversionScheduler(1, 4, 4, Duration.ofMillis(20), Duration.ofSeconds(2), 1);
+        occupyWorker();
+
+        CompletableFuture<String> interactive = scheduler.submit(() -> "converted");
+        CompletableFuture<String> bulk = scheduler.submit(() -> "job", ConversionPriority.BULK);
+        Thread.sleep(100);
+        release.countDown();
+
+        assertRejected(interactive, "DEADLINE_EXCEEDED");
+        assertThat(bulk.get(5, TimeUnit.SECONDS)).isEqualTo("job");
+    }
+
+    @Test
+    void runsBatchTasksAsBulkWorkInOrder() throws Exception {
+        scheduler = new ConversionScheduler(1, 4, 4, Duration.ofMinutes(1), Duration.ofSeconds(1), 2);
+        occupyWorker();
+        List<String> order = new CopyOnWriteArrayList<String>();
+        List<Supplier<String>> tasks = new ArrayList<Supplier<String>>();
+        for (int i = 0; i < 5; i++) {
+            String name = "item" + i;
+            tasks.add(() -> {
+                order.add(name);
+                return name;
+            });
+        }
+
+        CompletableFuture<List<String>> batch = scheduler.submitAll(tasks);
+        // Only batchParallelism items wait in the queue; the rest are fed in as they finish.
+        assertThat(scheduler.getQueueDepth(ConversionPriority.BULK)).isEqualTo(2);
+        CompletableFuture<Boolean> interactive = scheduler.submit(() -> order.add("interactive"));
+        release.countDown();
+
+        assertThat(batch.get(5, TimeUnit.SECONDS)).containsExactly("item0", "item1", "item2", "item3", "item4");
+        assertThat(interactive.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(order.get(0)).isEqualTo("interactive");
+    }
+
+    @Test
+    void failsTheBatchWhenTheBulkQueueIsFull() throws Exception {
+        scheduler = new ConversionScheduler(1, 4, 1, Duration.ofMinutes(1), Duration.ofSeconds(2), 2);
+        occupyWorker();
+
+        CompletableFuture<List<String>> batch = scheduler.submitAll(Arrays.<Supplier<String>>asList(() -> "a", () -> "b"));
+
+        assertRejected(batch, "OVERLOADED");
+    }
+
+    // Blocks the single worker until release is counted down.
+    private void occupyWorker() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        scheduler.submit(() -> {
+            started.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static void assertRejected(CompletableFuture<?> future, String code) {
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .getCause()
+                .isInstanceOf(ConversionRejectedException.class)
+                .hasFieldOrPropertyWithValue("code", code)
+                .hasFieldOrPropertyWithValue("retryAfterSeconds", 2L);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.signature.spring.webflux.config;
+
+import com.example.signature.spring.cluster.ClusterSecret;
+import com.example.signature.spring.config.SignatureProperties;
+import com.example.signature.spring.webflux.web.ClusterSecretWebFilter;
+import com.example.signature.spring.webflux.web.ConversionResultEncoder;
+import com.example.signature.spring.webflux.web.RequestBodyLimitWebFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+@Configuration
+public class SignatureWebFluxConfiguration implements WebFluxConfigurer {
+    // Headroom for the JSON envelope, metadata and options around the Base64 data.
+    private static final long ENVELOPE_BYTES = 64 * 1024;
+    private static final String BATCH_PATH = "/api/signatures/batch";
+    private static final String INTERNAL_PATTERN = "/internal/**";
+
+    private final SignatureProperties properties;
+
+    public SignatureWebFluxConfiguration(SignatureProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public RequestBodyLimitWebFilter requestBodyLimitWebFilter(ObjectMapper objectMapper) {
+        return new RequestBodyLimitWebFilter(maxRequestBytes(), objectMapper, "/api/**", BATCH_PATH);
+    }
+
+    @Bean
+    public RequestBodyLimitWebFilter batchRequestBodyLimitWebFilter(ObjectMapper objectMapper) {
+        return new RequestBodyLimitWebFilter(properties.getBatch().getMaxRequestBytes(), objectMapper, BATCH_PATH);
+    }
+
+    // Node-to-node endpoints carry stored images, which are never larger than a segment.
+    @Bean
+    @ConditionalOnProperty(prefix = "signature.cluster", name = "enabled", havingValue = "true")
+    public RequestBodyLimitWebFilter internalRequestBodyLimitWebFilter(ObjectMapper objectMapper) {
+        return new RequestBodyLimitWebFilter(properties.getStore().getSegmentSizeBytes(), objectMapper, INTERNAL_PATTERN);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "signature.cluster", name = "enabled", havingValue = "true")
+    public ClusterSecretWebFilter clusterSecretWebFilter(ClusterSecret secret, ObjectMapper objectMapper) {
+        return new ClusterSecretWebFilter(secret, objectMapper, INTERNAL_PATTERN);
+    }
+
+    // Batch items are decoded one array element at a time; each element may be as large as a single request.
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.defaultCodecs().maxInMemorySize((int) Math.min(maxRequestBytes(), Integer.MAX_VALUE));
+        configurer.customCodecs().register(new ConversionResultEncoder());
+    }
+
+    private long maxRequestBytes() {
+        long base64Bytes = (properties.getMaxPayloadBytes() + 2) / 3 * 4;
+        return base64Bytes + ENVELOPE_BYTES;
+    }
+}
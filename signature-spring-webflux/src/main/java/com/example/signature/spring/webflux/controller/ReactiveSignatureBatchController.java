@@ -0,0 +1,93 @@
+package com.example.signature.spring.webflux.controller;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.core.model.ConversionOutcome;
+import com.example.signature.core.service.SignatureConversionService;
+import com.example.signature.spring.config.SignatureProperties;
+import com.example.signature.spring.model.ApiError;
+import com.example.signature.spring.model.BatchItemResponse;
+import com.example.signature.spring.model.BatchResponse;
+import com.example.signature.spring.model.SignatureRequestBinder;
+import com.example.signature.spring.model.SignatureResponse;
+import com.example.signature.spring.scheduler.ConversionScheduler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Batch endpoint of the reactive adapter. The body is tokenized into array items as its buffers
+ * arrive; each item is bound and converted as bulk work on the {@link ConversionScheduler}.
+ */
+@RestController
+@RequestMapping("/api/signatures")
+public class ReactiveSignatureBatchController {
+    private final SignatureConversionService conversionService;
+    private final SignatureProperties properties;
+    private final ConversionScheduler scheduler;
+    private final SignatureRequestBinder binder;
+
+    public ReactiveSignatureBatchController(SignatureConversionService conversionService, SignatureProperties properties,
+                                            ConversionScheduler scheduler, ObjectMapper objectMapper, Validator validator) {
+        this.conversionService = conversionService;
+        this.properties = properties;
+        this.scheduler = scheduler;
+        this.binder = new SignatureRequestBinder(objectMapper, validator);
+    }
+
+    // One item past the limit is enough to reject the batch without decoding the rest of the body.
+    // An empty array yields no items rather than a missing body, hence required = false.
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<BatchResponse> convertBatch(@RequestBody(required = false) Flux<JsonNode> items,
+                                            @RequestParam(value = "includeData", defaultValue = "false") boolean includeData) {
+        int maxItems = properties.getBatch().getMaxItems();
+        return items.take(maxItems + 1).collectList().flatMap(list -> {
+            if (list.isEmpty()) {
+                return Mono.error(new SignatureProcessingException("INVALID_PAYLOAD", "Batch is empty"));
+            }
+            if (list.size() > maxItems) {
+                return Mono.error(new SignatureProcessingException("INVALID_PAYLOAD",
+                        "Batch exceeds max size of " + maxItems + " items"));
+            }
+            List<Supplier<BatchItemResponse>> conversions = new ArrayList<Supplier<BatchItemResponse>>(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                int index = i;
+                conversions.add(() -> convert(list, index, includeData));
+            }
+            return Mono.fromFuture(() -> scheduler.submitAll(conversions)).map(BatchResponse::of);
+        });
+    }
+
+    // Binding runs on the worker with the conversion, and a malformed item fails on its own.
+    private BatchItemResponse convert(List<JsonNode> items, int index, boolean includeData) {
+        JsonNode item = items.get(index);
+        // Drop the parsed tree as soon as the item is bound.
+        items.set(index, null);
+        ConversionOutcome outcome;
+        try {
+            outcome = conversionService.convertToOutcome(binder.bind(item));
+        } catch (SignatureProcessingException ex) {
+            return failure(index, ex);
+        }
+        return outcome.isSuccess()
+                ? BatchItemResponse.success(index, SignatureResponse.from(outcome.getResult(), includeData))
+                : failure(index, outcome.getError());
+    }
+
+    private static BatchItemResponse failure(int index, SignatureProcessingException ex) {
+        HttpStatus status = ApiError.statusOf(ex.getCode());
+        return BatchItemResponse.failure(index, ApiError.of(status.value(), ex.getCode(), ex.getMessage()));
+    }
+}
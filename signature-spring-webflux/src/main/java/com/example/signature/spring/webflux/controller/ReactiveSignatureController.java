@@ -0,0 +1,152 @@
+package com.example.signature.spring.webflux.controller;
+
+import com.example.signature.core.model.ConversionResult;
+import com.example.signature.core.model.SignatureRequest;
+import com.example.signature.core.service.SignatureConversionService;
+import com.example.signature.core.store.StoredSignature;
+import com.example.signature.spring.config.SignatureProperties;
+import com.example.signature.spring.model.ImageResponses;
+import com.example.signature.spring.model.SignatureOptionsDto;
+import com.example.signature.spring.model.SignatureRequestBinder;
+import com.example.signature.spring.model.SignatureResponse;
+import com.example.signature.spring.scheduler.ConversionScheduler;
+import com.example.signature.spring.webflux.web.DataBufferPayloads;
+import com.example.signature.spring.webflux.web.StoredSignatureBodies;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.validation.Valid;
+import javax.validation.Validator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The {@code /api/signatures} contract of the servlet {@code SignatureController} on WebFlux.
+ *
+ * <p>Request bodies are collected from their {@link DataBuffer}s as they arrive, so a slow upload
+ * holds no thread. JSON binding, Base64 decoding and the conversion itself are CPU-bound and run
+ * on the {@link ConversionScheduler}, never on the event loop.
+ */
+@RestController
+@RequestMapping("/api/signatures")
+public class ReactiveSignatureController {
+    private static final String IMAGE_ANY = "image/*";
+
+    private final SignatureConversionService conversionService;
+    private final SignatureProperties properties;
+    private final ConversionScheduler scheduler;
+    private final SignatureRequestBinder binder;
+
+    public ReactiveSignatureController(SignatureConversionService conversionService, SignatureProperties properties,
+                                       ConversionScheduler scheduler, ObjectMapper objectMapper, Validator validator) {
+        this.conversionService = conversionService;
+        this.properties = properties;
+        this.scheduler = scheduler;
+        this.binder = new SignatureRequestBinder(objectMapper, validator);
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = {MediaType.APPLICATION_JSON_VALUE, IMAGE_ANY})
+    public Mono<ResponseEntity<?>> convert(@RequestBody Flux<DataBuffer> body,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                           @RequestParam(value = "includeData", defaultValue = "false") boolean includeData) {
+        return DataBufferUtils.join(body)
+            .map(DataBufferPayloads::toByteArray)
+            .defaultIfEmpty(new byte[0])
+            .flatMap(json -> submit(() -> binder.read(json), accept, includeData));
+    }
+
+    @PostMapping(
+        consumes = {MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_JPEG_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE},
+        produces = {MediaType.APPLICATION_JSON_VALUE, IMAGE_ANY}
+    )
+    public Mono<ResponseEntity<?>> convertBinary(@RequestBody Flux<DataBuffer> body,
+                                                 @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                 @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                 @RequestParam(value = "includeData", defaultValue = "false") boolean includeData,
+                                                 @Valid @ModelAttribute SignatureOptionsDto options) {
+        return DataBufferPayloads.read(body, contentLength != null ? contentLength : -1, properties.getMaxPayloadBytes())
+            .flatMap(payload -> submit(() -> toCoreRequest(contentType, payload, options), accept, includeData));
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = {MediaType.APPLICATION_JSON_VALUE, IMAGE_ANY})
+    public Mono<ResponseEntity<?>> convertMultipart(@RequestPart("file") FilePart file,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                    @RequestParam(value = "includeData", defaultValue = "false") boolean includeData,
+                                                    @Valid @ModelAttribute SignatureOptionsDto options) {
+        MediaType partType = file.headers().getContentType();
+        String mime = partType != null ? partType.toString() : null;
+        return DataBufferPayloads.read(file.content(), file.headers().getContentLength(), properties.getMaxPayloadBytes())
+            .flatMap(payload -> submit(() -> toCoreRequest(mime, payload, options), accept, includeData));
+    }
+
+    // In cluster mode the lookup may ask another node over HTTP, so it stays off the event loop.
+    @GetMapping("/{fileId}")
+    public Mono<Void> get(@PathVariable String fileId, ServerWebExchange exchange) {
+        return Mono.fromCallable(() -> conversionService.find(fileId))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(stored -> write(fileId, stored, exchange));
+    }
+
+    private Mono<Void> write(String fileId, StoredSignature stored, ServerWebExchange exchange) {
+        if (exchange.checkNotModified(fileId)) {
+            return exchange.getResponse().setComplete();
+        }
+        MediaType contentType = MediaType.parseMediaType(stored.getContentType());
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(contentType);
+        headers.setContentLength(stored.getSizeBytes());
+        // A fileId always refers to the same bytes.
+        headers.setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic());
+        headers.set(ImageResponses.WIDTH_HEADER, String.valueOf(stored.getWidth()));
+        headers.set(ImageResponses.HEIGHT_HEADER, String.valueOf(stored.getHeight()));
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, ImageResponses.contentDisposition(fileId, contentType));
+        return StoredSignatureBodies.write(stored, response);
+    }
+
+    private Mono<ResponseEntity<?>> submit(Supplier<SignatureRequest> request, String accept, boolean includeData) {
+        return Mono.fromFuture(() -> scheduler.submit(() -> respond(conversionService.convert(request.get()), accept, includeData)));
+    }
+
+    private SignatureRequest toCoreRequest(String mime, byte[] payload, SignatureOptionsDto options) {
+        return SignatureRequest.ofPayload(mime, payload, null, options.toCoreModel());
+    }
+
+    private ResponseEntity<?> respond(ConversionResult result, String accept, boolean includeData) {
+        MediaType resultType = MediaType.parseMediaType(result.getContentType());
+        if (ImageResponses.prefersImage(accept, resultType)) {
+            return ResponseEntity.ok()
+                .contentType(resultType)
+                .header(ImageResponses.FILE_ID_HEADER, result.getFileId())
+                .header(ImageResponses.WIDTH_HEADER, String.valueOf(result.getWidth()))
+                .header(ImageResponses.HEIGHT_HEADER, String.valueOf(result.getHeight()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ImageResponses.contentDisposition(result.getFileId(), resultType))
+                .body(result);
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(SignatureResponse.from(result, includeData));
+    }
+}
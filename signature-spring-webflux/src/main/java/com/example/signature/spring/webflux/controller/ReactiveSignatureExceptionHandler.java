@@ -0,0 +1,87 @@
+package com.example.signature.spring.webflux.controller;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.spring.model.ApiError;
+import com.example.signature.spring.scheduler.ConversionRejectedException;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+/**
+ * Maps errors of the reactive adapter to the same {@link ApiError} responses as the servlet
+ * {@code SignatureExceptionHandler}.
+ */
+@RestControllerAdvice
+public class ReactiveSignatureExceptionHandler {
+
+    @ExceptionHandler(ConversionRejectedException.class)
+    public ResponseEntity<ApiError> handleRejected(ConversionRejectedException ex) {
+        HttpStatus status = "OVERLOADED".equals(ex.getCode()) ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(ApiError.of(status.value(), ex.getCode(), ex.getMessage()));
+    }
+
+    @ExceptionHandler(SignatureProcessingException.class)
+    public ResponseEntity<ApiError> handleSignature(SignatureProcessingException ex) {
+        return error(ApiError.statusOf(ex.getCode()), ex.getCode(), ex.getMessage());
+    }
+
+    // Query/form bound options.
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ApiError> handleValidation(WebExchangeBindException ex) {
+        String message = "Validation error";
+        if (ex.hasErrors()) {
+            Object error = ex.getAllErrors().get(0);
+            if (error instanceof FieldError) {
+                FieldError fieldError = (FieldError) error;
+                message = fieldError.getDefaultMessage() != null ? fieldError.getDefaultMessage() : fieldError.getCode();
+            }
+        }
+        return error(HttpStatus.BAD_REQUEST, "INVALID_PAYLOAD", message);
+    }
+
+    // Covers undecodable bodies and missing parts or parameters.
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ApiError> handleInput(ServerWebInputException ex) {
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SignatureProcessingException) {
+                return handleSignature((SignatureProcessingException) cause);
+            }
+        }
+        String message = ex.getCause() instanceof DecodingException ? "Malformed request body" : ex.getReason();
+        return error(HttpStatus.BAD_REQUEST, "INVALID_PAYLOAD", message);
+    }
+
+    // A single batch item larger than the codec's in-memory limit.
+    @ExceptionHandler(DataBufferLimitException.class)
+    public ResponseEntity<ApiError> handleBufferLimit(DataBufferLimitException ex) {
+        return error(HttpStatus.BAD_REQUEST, "INVALID_PAYLOAD", "Request item exceeds max size");
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ApiError> handleIllegalArgument(IllegalArgumentException ex) {
+        return error(HttpStatus.BAD_REQUEST, "INVALID_OPTIONS", ex.getMessage());
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ApiError> handleGeneric(Exception ex) {
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "INTERNAL_ERROR", ex.getMessage());
+    }
+
+    // Content type is pinned so errors still render as JSON when the client sent Accept: image/*.
+    private static ResponseEntity<ApiError> error(HttpStatus status, String code, String message) {
+        return ResponseEntity.status(status)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(ApiError.of(status.value(), code, message));
+    }
+}
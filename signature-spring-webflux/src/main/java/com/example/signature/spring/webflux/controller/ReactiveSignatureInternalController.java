@@ -0,0 +1,105 @@
+package com.example.signature.spring.webflux.controller;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.core.model.ConversionResult;
+import com.example.signature.core.service.SignatureConversionService;
+import com.example.signature.core.store.SignatureStore;
+import com.example.signature.spring.cluster.ClusteredSignatureStore;
+import com.example.signature.spring.model.ImageResponses;
+import com.example.signature.spring.webflux.web.DataBufferPayloads;
+import com.example.signature.spring.webflux.web.StoredSignatureBodies;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+
+/**
+ * Node-to-node endpoints of cluster mode on WebFlux, with the contract of the servlet
+ * {@code SignatureInternalController}. Store access touches segment files and runs off the
+ * event loop.
+ */
+@RestController
+@RequestMapping("/internal/signatures")
+@ConditionalOnProperty(prefix = "signature.cluster", name = "enabled", havingValue = "true")
+public class ReactiveSignatureInternalController {
+    private final SignatureStore local;
+    private final SignatureConversionService conversionService;
+
+    public ReactiveSignatureInternalController(SignatureStore store, SignatureConversionService conversionService) {
+        this.local = ((ClusteredSignatureStore) store).getLocal();
+        this.conversionService = conversionService;
+    }
+
+    @PutMapping("/{fileId}")
+    public Mono<ResponseEntity<Void>> put(@PathVariable String fileId, @RequestBody Flux<DataBuffer> body,
+                                          @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                          @RequestHeader(ImageResponses.WIDTH_HEADER) int width,
+                                          @RequestHeader(ImageResponses.HEIGHT_HEADER) int height) {
+        String imageType = imageContentType(contentType);
+        return DataBufferUtils.join(body)
+            .map(DataBufferPayloads::toByteArray)
+            .publishOn(Schedulers.boundedElastic())
+            .map(data -> {
+                local.save(new ConversionResult(fileId, imageType, data, width, height));
+                return ResponseEntity.noContent().<Void>build();
+            });
+    }
+
+    @GetMapping("/{fileId}")
+    public Mono<Void> get(@PathVariable String fileId, ServerHttpResponse response) {
+        return Mono.fromCallable(() -> Optional.ofNullable(local.find(fileId)))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(stored -> {
+                if (!stored.isPresent()) {
+                    response.setStatusCode(HttpStatus.NOT_FOUND);
+                    return response.setComplete();
+                }
+                HttpHeaders headers = response.getHeaders();
+                headers.setContentType(MediaType.parseMediaType(stored.get().getContentType()));
+                headers.setContentLength(stored.get().getSizeBytes());
+                headers.set(ImageResponses.WIDTH_HEADER, String.valueOf(stored.get().getWidth()));
+                headers.set(ImageResponses.HEIGHT_HEADER, String.valueOf(stored.get().getHeight()));
+                return StoredSignatureBodies.write(stored.get(), response);
+            });
+    }
+
+    @DeleteMapping("/{fileId}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable String fileId) {
+        return Mono.fromCallable(() -> local.delete(fileId))
+            .subscribeOn(Schedulers.boundedElastic())
+            .map(deleted -> deleted ? ResponseEntity.noContent().<Void>build() : ResponseEntity.notFound().<Void>build());
+    }
+
+    // Stored bytes are served back verbatim on the public API, so only what a conversion can produce is accepted.
+    private String imageContentType(String contentType) {
+        MediaType type;
+        try {
+            type = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException ex) {
+            throw new SignatureProcessingException("UNSUPPORTED_FORMAT", "Invalid content type: " + contentType);
+        }
+        String normalized = type.getType() + "/" + type.getSubtype();
+        if (!conversionService.isOutputContentType(normalized)) {
+            throw new SignatureProcessingException("UNSUPPORTED_FORMAT", "Not a signature content type: " + normalized);
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.signature.spring.webflux.controller;
+
+import com.example.signature.spring.job.ConversionJob;
+import com.example.signature.spring.job.ConversionJobManager;
+import com.example.signature.spring.model.JobResponse;
+import com.example.signature.spring.model.SignatureRequestBinder;
+import com.example.signature.spring.webflux.web.DataBufferPayloads;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.validation.Validator;
+import java.net.URI;
+
+/**
+ * Asynchronous job endpoints of the reactive adapter, with the contract of the servlet
+ * {@code SignatureJobController}.
+ */
+@RestController
+@RequestMapping("/api/signatures/jobs")
+public class ReactiveSignatureJobController {
+    private final ConversionJobManager jobManager;
+    private final SignatureRequestBinder binder;
+
+    public ReactiveSignatureJobController(ConversionJobManager jobManager, ObjectMapper objectMapper, Validator validator) {
+        this.jobManager = jobManager;
+        this.binder = new SignatureRequestBinder(objectMapper, validator);
+    }
+
+    // Binding decodes the Base64 payload up front so invalid requests fail here rather than
+    // as a failed job; it is CPU-bound and kept off the event loop.
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<JobResponse>> submit(@RequestBody Flux<DataBuffer> body) {
+        return DataBufferUtils.join(body)
+            .map(DataBufferPayloads::toByteArray)
+            .defaultIfEmpty(new byte[0])
+            .publishOn(Schedulers.parallel())
+            .map(json -> {
+                ConversionJob job = jobManager.submit(binder.read(json));
+                return ResponseEntity.accepted()
+                    .location(URI.create("/api/signatures/jobs/" + job.getId()))
+                    .body(JobResponse.from(job));
+            });
+    }
+
+    @GetMapping(value = "/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public JobResponse get(@PathVariable String jobId) {
+        return JobResponse.from(jobManager.find(jobId));
+    }
+}
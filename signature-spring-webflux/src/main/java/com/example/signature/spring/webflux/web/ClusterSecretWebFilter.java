@@ -0,0 +1,53 @@
+package com.example.signature.spring.webflux.web;
+
+import com.example.signature.spring.cluster.ClusterSecret;
+import com.example.signature.spring.model.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of the servlet {@code ClusterSecretFilter}. Runs ahead of the body limit
+ * filters so that a request without the secret is refused before its body is subscribed to.
+ */
+public class ClusterSecretWebFilter implements WebFilter, Ordered {
+    private final ClusterSecret secret;
+    private final ObjectMapper objectMapper;
+    private final PathPattern pattern;
+
+    public ClusterSecretWebFilter(ClusterSecret secret, ObjectMapper objectMapper, String pathPattern) {
+        this.secret = secret;
+        this.objectMapper = objectMapper;
+        this.pattern = PathPatternParser.defaultInstance.parse(pathPattern);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!pattern.matches(exchange.getRequest().getPath().pathWithinApplication())
+                || secret.matches(exchange.getRequest().getHeaders().getFirst(ClusterSecret.HEADER))) {
+            return chain.filter(exchange);
+        }
+        return reject(exchange.getResponse());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response) {
+        HttpStatus status = HttpStatus.FORBIDDEN;
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromCallable(() -> response.bufferFactory().wrap(objectMapper.writeValueAsBytes(
+                ApiError.of(status.value(), "FORBIDDEN", "Internal endpoints require the cluster secret")))));
+    }
+}
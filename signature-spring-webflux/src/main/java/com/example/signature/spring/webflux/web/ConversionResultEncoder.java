@@ -0,0 +1,40 @@
+package com.example.signature.spring.webflux.web;
+
+import com.example.signature.core.model.ConversionResult;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+/**
+ * Writes the encoded image of a {@link ConversionResult} by wrapping the encoder's buffer,
+ * so the bytes reach Netty without being copied.
+ */
+public class ConversionResultEncoder extends AbstractEncoder<ConversionResult> {
+
+    public ConversionResultEncoder() {
+        super(new MimeType("image", "*"));
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        return ConversionResult.class.isAssignableFrom(elementType.toClass()) && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<? extends ConversionResult> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        return Flux.from(inputStream).map(result -> encodeValue(result, bufferFactory, elementType, mimeType, hints));
+    }
+
+    @Override
+    public DataBuffer encodeValue(ConversionResult result, DataBufferFactory bufferFactory,
+                                  ResolvableType valueType, MimeType mimeType, Map<String, Object> hints) {
+        return bufferFactory.wrap(result.asReadOnlyBuffer());
+    }
+}
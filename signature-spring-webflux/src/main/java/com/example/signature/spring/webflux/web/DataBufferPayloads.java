@@ -0,0 +1,50 @@
+package com.example.signature.spring.webflux.web;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@code PayloadReader}: collects a raw image upload from the request's
+ * buffers as they arrive, without holding a thread while the client is still sending.
+ */
+public final class DataBufferPayloads {
+
+    private DataBufferPayloads() {
+    }
+
+    /**
+     * Joins {@code body} into a byte array, failing as soon as more than {@code maxBytes} have arrived.
+     * A declared {@code sizeHint} (typically the Content-Length) above the limit fails before reading.
+     */
+    public static Mono<byte[]> read(Publisher<? extends DataBuffer> body, long sizeHint, long maxBytes) {
+        if (sizeHint > maxBytes) {
+            return Mono.error(tooLarge(maxBytes));
+        }
+        return DataBufferUtils.join(body, (int) Math.min(maxBytes, Integer.MAX_VALUE))
+                .onErrorMap(DataBufferLimitException.class, ex -> tooLarge(maxBytes))
+                .map(DataBufferPayloads::toByteArray)
+                .filter(bytes -> bytes.length > 0)
+                .switchIfEmpty(Mono.error(() -> new SignatureProcessingException("INVALID_PAYLOAD", "Payload is empty")));
+    }
+
+    /**
+     * Copies the readable bytes of {@code buffer} and releases it.
+     */
+    public static byte[] toByteArray(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private static SignatureProcessingException tooLarge(long maxBytes) {
+        return new SignatureProcessingException("INVALID_PAYLOAD", "Payload exceeds max size of " + maxBytes);
+    }
+}
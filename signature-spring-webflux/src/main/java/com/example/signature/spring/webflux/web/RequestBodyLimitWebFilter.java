@@ -0,0 +1,107 @@
+package com.example.signature.spring.webflux.web;
+
+import com.example.signature.core.exception.SignatureProcessingException;
+import com.example.signature.spring.model.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reactive counterpart of the servlet {@code RequestBodyLimitFilter}: a declared Content-Length
+ * above the limit is refused before the body is subscribed to, and chunked bodies fail as soon
+ * as the buffers received so far cross the limit.
+ */
+public class RequestBodyLimitWebFilter implements WebFilter {
+    private final long maxBodyBytes;
+    private final ObjectMapper objectMapper;
+    private final PathPattern pattern;
+    private final List<PathPattern> excludedPaths;
+
+    public RequestBodyLimitWebFilter(long maxBodyBytes, ObjectMapper objectMapper, String pathPattern,
+                                     String... excludedPaths) {
+        this.maxBodyBytes = maxBodyBytes;
+        this.objectMapper = objectMapper;
+        this.pattern = PathPatternParser.defaultInstance.parse(pathPattern);
+        this.excludedPaths = new ArrayList<PathPattern>(excludedPaths.length);
+        for (String excluded : excludedPaths) {
+            this.excludedPaths.add(PathPatternParser.defaultInstance.parse(excluded));
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!applies(request.getPath().pathWithinApplication())) {
+            return chain.filter(exchange);
+        }
+        long contentLength = request.getHeaders().getContentLength();
+        if (contentLength > maxBodyBytes) {
+            return reject(exchange.getResponse());
+        }
+        return chain.filter(contentLength >= 0 ? exchange : exchange.mutate().request(new LimitedRequest(request)).build());
+    }
+
+    // Paths with their own, differently sized limit are left to that filter.
+    private boolean applies(PathContainer path) {
+        if (!pattern.matches(path)) {
+            return false;
+        }
+        for (PathPattern excluded : excludedPaths) {
+            if (excluded.matches(path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromCallable(() -> response.bufferFactory().wrap(
+                objectMapper.writeValueAsBytes(ApiError.of(status.value(), "INVALID_PAYLOAD", tooLargeMessage())))));
+    }
+
+    private String tooLargeMessage() {
+        return "Request body exceeds max size of " + maxBodyBytes;
+    }
+
+    private final class LimitedRequest extends ServerHttpRequestDecorator {
+
+        LimitedRequest(ServerHttpRequest delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return Flux.defer(() -> {
+                long[] remaining = {maxBodyBytes};
+                return super.getBody().handle((buffer, sink) -> {
+                    remaining[0] -= buffer.readableByteCount();
+                    if (remaining[0] < 0) {
+                        DataBufferUtils.release(buffer);
+                        sink.error(new SignatureProcessingException("INVALID_PAYLOAD", tooLargeMessage()));
+                    } else {
+                        sink.next(buffer);
+                    }
+                });
+            });
+        }
+    }
+}
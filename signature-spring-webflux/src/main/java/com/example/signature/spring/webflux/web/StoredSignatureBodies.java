@@ -0,0 +1,44 @@
+package com.example.signature.spring.webflux.web;
+
+import com.example.signature.core.store.StoredSignature;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+
+/**
+ * Writes a {@link StoredSignature} as the response body, for the public and the cluster-internal
+ * controllers alike. Headers are left to the caller.
+ */
+public final class StoredSignatureBodies {
+
+    private StoredSignatureBodies() {
+    }
+
+    public static Mono<Void> write(StoredSignature stored, ServerHttpResponse response) {
+        if (stored.getFile() != null && response instanceof ZeroCopyHttpOutputMessage) {
+            // Netty hands the segment region to sendfile(2), like Tomcat does for the servlet controller.
+            return ((ZeroCopyHttpOutputMessage) response).writeWith(stored.getFile(), stored.getFileOffset(), stored.getSizeBytes());
+        }
+        return response.writeWith(Mono.fromCallable(() -> read(stored, response.bufferFactory()))
+            .subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    private static DataBuffer read(StoredSignature stored, DataBufferFactory bufferFactory) throws IOException {
+        DataBuffer buffer = bufferFactory.allocateBuffer((int) stored.getSizeBytes());
+        try (OutputStream out = buffer.asOutputStream()) {
+            stored.transferTo(Channels.newChannel(out));
+            return buffer;
+        } catch (IOException | RuntimeException ex) {
+            DataBufferUtils.release(buffer);
+            throw ex;
+        }
+    }
+}
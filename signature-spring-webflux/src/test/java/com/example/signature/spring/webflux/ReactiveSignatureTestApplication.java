@@ -0,0 +1,11 @@
+package com.example.signature.spring.webflux;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Boots the reactive adapter on its own for tests, the way {@code signature-app} does with the
+ * webflux profile.
+ */
+@SpringBootApplication(scanBasePackages = "com.example.signature.spring")
+public class ReactiveSignatureTestApplication {
+}
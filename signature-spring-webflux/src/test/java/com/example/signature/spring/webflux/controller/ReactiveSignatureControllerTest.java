@@ -0,0 +1,113 @@
+package com.example.signature.spring.webflux.controller;
+
+import com.example.signature.spring.model.ImageResponses;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+import reactor.core.publisher.Flux;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "signature.maxPayloadBytes=10000",
+    "signature.store.enabled=false"
+})
+class ReactiveSignatureControllerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    void convertsBase64Json() throws IOException {
+        String json = "{\"mime\":\"image/png\",\"data\":\"data:image/png;base64,"
+                + Base64.getEncoder().encodeToString(png()) + "\",\"options\":{\"outputFormat\":\"jpeg\"}}";
+
+        client.post().uri("/api/signatures")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(json)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.contentType").isEqualTo("image/jpeg")
+            .jsonPath("$.width").isEqualTo(40)
+            .jsonPath("$.fileId").value(id -> assertThat((String) id).startsWith("sig_"));
+    }
+
+    @Test
+    void convertsRawImageBody() throws IOException {
+        client.post().uri("/api/signatures?outputFormat=png&width=20")
+            .contentType(MediaType.IMAGE_PNG)
+            .bodyValue(png())
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.contentType").isEqualTo("image/png")
+            .jsonPath("$.width").isEqualTo(20)
+            .jsonPath("$.height").isEqualTo(10);
+    }
+
+    @Test
+    void convertsMultipartUploadToImageResponse() throws IOException {
+        MultipartBodyBuilder parts = new MultipartBodyBuilder();
+        parts.part("file", new ByteArrayResource(png()) {
+            @Override
+            public String getFilename() {
+                return "signature.png";
+            }
+        }).contentType(MediaType.IMAGE_PNG);
+
+        client.post().uri("/api/signatures")
+            .accept(MediaType.IMAGE_PNG)
+            .body(BodyInserters.fromMultipartData(parts.build()))
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentType(MediaType.IMAGE_PNG)
+            .expectHeader().exists(ImageResponses.FILE_ID_HEADER)
+            .expectHeader().valueEquals(ImageResponses.WIDTH_HEADER, "40");
+    }
+
+    @Test
+    void rejectsChunkedBodyOnceItCrossesTheLimit() {
+        // No Content-Length: the body goes out chunked and only the streaming limit can stop it.
+        byte[] chunk = new byte[8192];
+        Arrays.fill(chunk, (byte) 'A');
+        Flux<DataBuffer> body = Flux.range(0, 32)
+            .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(i == 0 ? "{\"data\":\"".getBytes(StandardCharsets.US_ASCII) : chunk));
+
+        client.post().uri("/api/signatures")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body, DataBuffer.class)
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.code").isEqualTo("INVALID_PAYLOAD")
+            .jsonPath("$.message").value(message -> assertThat((String) message).startsWith("Request body exceeds max size"));
+    }
+
+    private static byte[] png() throws IOException {
+        BufferedImage image = new BufferedImage(40, 20, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.BLACK);
+        graphics.drawLine(2, 10, 38, 10);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
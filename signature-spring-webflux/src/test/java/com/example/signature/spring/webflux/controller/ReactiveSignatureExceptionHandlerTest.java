@@ -0,0 +1,65 @@
+package com.example.signature.spring.webflux.controller;
+
+import com.example.signature.spring.scheduler.ConversionRejectedException;
+import com.example.signature.spring.scheduler.ConversionScheduler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "signature.store.enabled=false")
+class ReactiveSignatureExceptionHandlerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @MockBean
+    private ConversionScheduler scheduler;
+
+    @Test
+    void fullQueueIsTooManyRequestsWithRetryAfter() {
+        reject(new ConversionRejectedException("OVERLOADED", "Conversion queue is full", 2));
+
+        post()
+            .expectStatus().isEqualTo(429)
+            .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "2")
+            .expectHeader().contentType(MediaType.APPLICATION_JSON)
+            .expectBody()
+            .jsonPath("$.status").isEqualTo(429)
+            .jsonPath("$.code").isEqualTo("OVERLOADED");
+    }
+
+    @Test
+    void missedDeadlineIsServiceUnavailableWithRetryAfter() {
+        reject(new ConversionRejectedException("DEADLINE_EXCEEDED", "Conversion waited too long in queue", 5));
+
+        post()
+            .expectStatus().isEqualTo(503)
+            .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "5")
+            .expectBody()
+            .jsonPath("$.code").isEqualTo("DEADLINE_EXCEEDED");
+    }
+
+    private void reject(ConversionRejectedException ex) {
+        CompletableFuture<Object> rejected = new CompletableFuture<Object>();
+        rejected.completeExceptionally(ex);
+        when(scheduler.submit(any())).thenReturn(rejected);
+    }
+
+    // Image clients must still get the JSON error.
+    private WebTestClient.ResponseSpec post() {
+        return client.post().uri("/api/signatures")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.IMAGE_PNG)
+            .bodyValue("{\"mime\":\"image/png\",\"data\":\"iVBORw0KGgo=\"}")
+            .exchange();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.signature.spring.webflux.controller;
+
+import com.example.signature.core.model.ConversionResult;
+import com.example.signature.core.service.SignatureConversionService;
+import com.example.signature.core.store.SignatureStore;
+import com.example.signature.spring.cluster.ClusterSecret;
+import com.example.signature.spring.cluster.ClusteredSignatureStore;
+import com.example.signature.spring.model.ImageResponses;
+import com.example.signature.spring.webflux.web.ClusterSecretWebFilter;
+import com.example.signature.spring.webflux.web.RequestBodyLimitWebFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactiveSignatureInternalControllerTest {
+    private static final String SECRET = "s3cret";
+
+    private final SignatureStore local = mock(SignatureStore.class);
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        ClusteredSignatureStore store = mock(ClusteredSignatureStore.class);
+        when(store.getLocal()).thenReturn(local);
+        SignatureConversionService conversionService = mock(SignatureConversionService.class);
+        when(conversionService.isOutputContentType("image/png")).thenReturn(true);
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        client = WebTestClient.bindToController(new ReactiveSignatureInternalController(store, conversionService))
+            .controllerAdvice(new ReactiveSignatureExceptionHandler())
+            .webFilter(new ClusterSecretWebFilter(new ClusterSecret(SECRET), objectMapper, "/internal/**"),
+                    new RequestBodyLimitWebFilter(16, objectMapper, "/internal/**"))
+            .build();
+    }
+
+    @Test
+    void storesImagesFromOtherNodes() {
+        put("image/png", new byte[] {1, 2, 3}, SECRET)
+            .expectStatus().isNoContent();
+
+        ArgumentCaptor<ConversionResult> saved = ArgumentCaptor.forClass(ConversionResult.class);
+        verify(local, timeout(1000)).save(saved.capture());
+        assertThat(saved.getValue().getContentType()).isEqualTo("image/png");
+        assertThat(saved.getValue().getData()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void refusesCallersWithoutTheSecret() {
+        put("image/png", new byte[] {1}, null)
+            .expectStatus().isForbidden()
+            .expectBody().jsonPath("$.code").isEqualTo("FORBIDDEN");
+        put("image/png", new byte[] {1}, "guess")
+            .expectStatus().isForbidden();
+
+        verify(local, never()).save(any());
+    }
+
+    @Test
+    void refusesContentTypesNoConversionProduces() {
+        put("text/html", new byte[] {1}, SECRET)
+            .expectStatus().isEqualTo(415)
+            .expectBody().jsonPath("$.code").isEqualTo("UNSUPPORTED_FORMAT");
+
+        verify(local, never()).save(any());
+    }
+
+    @Test
+    void refusesBodiesAboveTheLimit() {
+        put("image/png", new byte[17], SECRET)
+            .expectStatus().isBadRequest()
+            .expectBody().jsonPath("$.code").isEqualTo("INVALID_PAYLOAD");
+
+        verify(local, never()).save(any());
+    }
+
+    private WebTestClient.ResponseSpec put(String contentType, byte[] body, String secret) {
+        return client.put().uri("/internal/signatures/sig_1")
+            .header(HttpHeaders.CONTENT_TYPE, contentType)
+            .header(ImageResponses.WIDTH_HEADER, "10")
+            .header(ImageResponses.HEIGHT_HEADER, "5")
+            .headers(headers -> {
+                if (secret != null) {
+                    headers.set(ClusterSecret.HEADER, secret);
+                }
+            })
+            .bodyValue(body)
+            .exchange();
+    }
+}